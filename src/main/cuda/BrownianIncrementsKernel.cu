@@ -0,0 +1,108 @@
+/*
+ * Generation of the Brownian increments on the device, see BrownianIncrementsCuda.
+ *
+ * The functions are identical to those of BrownianIncrementsJava (counter based SplitMix64 uniforms, a digitally shifted
+ * Sobol sequence, the Brownian bridge with float coefficients). The float operations of the bridge use explicit rounding
+ * (no contraction to fused multiply-add), such that the results agree with Java given the same normals.
+ *
+ * The increment of time step i, factor f and path p is stored at (i * numberOfFactors + f) * n + p.
+ */
+
+/*
+ * Grid-stride loop over the elements 0 <= i < n with a 64-bit index. Each thread processes the elements
+ * i, i + gridDim.x * blockDim.x, ..., hence the grid may be smaller than n (see CudaDeviceContext.launch).
+ */
+#define GRID_STRIDE_LOOP(i, n) for (long long i = (long long)blockIdx.x * blockDim.x + threadIdx.x; i < (n); i += (long long)gridDim.x * blockDim.x)
+
+/* The sampling modes, see BrownianIncrements.SamplingMode (ordinal) */
+#define PSEUDO_RANDOM 0
+#define ANTITHETIC 1
+#define STRATIFIED 2
+#define SOBOL 3
+
+__device__ unsigned long long randomBits(unsigned long long seed, unsigned long long counter)
+{
+    unsigned long long z = seed + (counter + 1ULL) * 0x9E3779B97F4A7C15ULL;
+    z = (z ^ (z >> 30)) * 0xBF58476D1CE4E5B9ULL;
+    z = (z ^ (z >> 27)) * 0x94D049BB133111EBULL;
+    return z ^ (z >> 31);
+}
+
+__device__ double uniform(unsigned long long seed, long long path, int dimension)
+{
+    unsigned long long counter = ((unsigned long long)path << 32) | (unsigned int)dimension;
+    return ((double)(randomBits(seed, counter) >> 12) + 0.5) / 4503599627370496.0; // 2^52 (hexadecimal floating literals are not C++14)
+}
+
+__device__ double sobolUniform(const unsigned int *directionNumbers, long long path, int dimension, unsigned long long seed)
+{
+    unsigned long long grayCode = (unsigned long long)path ^ ((unsigned long long)path >> 1);
+    unsigned int point = 0;
+    for(int k = 0; grayCode != 0; k++, grayCode >>= 1) {
+        if(grayCode & 1ULL) point ^= directionNumbers[dimension * 32 + k];
+    }
+    unsigned int shift = (unsigned int)(randomBits(seed, ~(unsigned long long)dimension) >> 32);
+    return ((double)(point ^ shift) + 0.5) / 4294967296.0; // 2^32
+}
+
+__device__ float normal(int mode, unsigned long long seed, const unsigned int *directionNumbers, long long n, long long path, int dimension)
+{
+    double u;
+    switch(mode) {
+    case ANTITHETIC:
+        u = uniform(seed, path & ~1LL, dimension);
+        break;
+    case STRATIFIED:
+        u = dimension == 0 ? fmin(((double)path + uniform(seed, path, 0)) / (double)n, nextafter(1.0, 0.0)) : uniform(seed, path, dimension);
+        break;
+    case SOBOL:
+        u = sobolUniform(directionNumbers, path, dimension, seed);
+        break;
+    default:
+        u = uniform(seed, path, dimension);
+        break;
+    }
+    float z = (float)normcdfinv(u);
+    return mode == ANTITHETIC && (path & 1LL) ? -z : z;
+}
+
+/*
+ * One thread per path. The bridge arrays are those of BrownianBridge (one entry per step of the construction), the
+ * direction numbers are those of SobolSequence.getDirectionNumbers() (only used by the mode SOBOL).
+ */
+extern "C"
+__global__ void generateIncrements(long long n, int numberOfTimeSteps, int numberOfFactors, int mode, unsigned long long seed,
+        const unsigned int *directionNumbers,
+        const int *index, const int *leftIndex, const int *rightIndex,
+        const float *leftWeight, const float *rightWeight, const float *standardDeviation, const float *sqrtTimeSteps,
+        float *increments)
+{
+    bool isBrownianBridge = mode == STRATIFIED || mode == SOBOL;
+    GRID_STRIDE_LOOP(path, n)
+    {
+        for(int factor = 0; factor < numberOfFactors; factor++) {
+            if(!isBrownianBridge) {
+                for(int step = 0; step < numberOfTimeSteps; step++) {
+                    int dimension = step * numberOfFactors + factor;
+                    increments[dimension * n + path] = normal(mode, seed, directionNumbers, n, path, dimension);
+                }
+                continue;
+            }
+
+            // The value at time index i > 0 is stored in the slot of the increment i-1
+            for(int step = 0; step < numberOfTimeSteps; step++) {
+                int dimension = step * numberOfFactors + factor;
+                float z = normal(mode, seed, directionNumbers, n, path, dimension);
+                float valueLeft = leftIndex[step] == 0 ? 0.0f : increments[((leftIndex[step]-1) * numberOfFactors + factor) * n + path];
+                float valueRight = rightIndex[step] == 0 ? 0.0f : increments[((rightIndex[step]-1) * numberOfFactors + factor) * n + path];
+                float value = __fadd_rn(__fadd_rn(__fmul_rn(leftWeight[step], valueLeft), __fmul_rn(rightWeight[step], valueRight)), __fmul_rn(standardDeviation[step], z));
+                increments[((index[step]-1) * numberOfFactors + factor) * n + path] = value;
+            }
+            for(int i = numberOfTimeSteps - 1; i >= 0; i--) {
+                float valuePrevious = i == 0 ? 0.0f : increments[((i-1) * numberOfFactors + factor) * n + path];
+                long long slot = ((long long)i * numberOfFactors + factor) * n + path;
+                increments[slot] = __fdiv_rn(__fadd_rn(increments[slot], -valuePrevious), sqrtTimeSteps[i]);
+            }
+        }
+    }
+}
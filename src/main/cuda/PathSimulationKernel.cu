@@ -0,0 +1,52 @@
+/*
+ * Time step kernels of the path simulation, see PathSimulationCuda and ProcessModel.
+ *
+ * Signature: (long long n, float dt, const float *parameters, float *state, const float *increments),
+ * where state and increments are stored component-wise (component k of path i at k * n + i).
+ * The increments are independent standard normal random numbers.
+ */
+
+/*
+ * Grid-stride loop over the elements 0 <= i < n with a 64-bit index. Each thread processes the elements
+ * i, i + gridDim.x * blockDim.x, ..., hence the grid may be smaller than n (see CudaDeviceContext.launch).
+ */
+#define GRID_STRIDE_LOOP(i, n) for (long long i = (long long)blockIdx.x * blockDim.x + threadIdx.x; i < (n); i += (long long)gridDim.x * blockDim.x)
+
+/*
+ * Log-normal model, parameters = { r, sigma }, state = { S }.
+ */
+extern "C"
+__global__ void logNormalStep(long long n, float dt, const float *parameters, float *state, const float *increments)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        float r = parameters[0];
+        float sigma = parameters[1];
+        state[i] *= expf((r - 0.5f * sigma * sigma) * dt + sigma * sqrtf(dt) * increments[i]);
+    }
+}
+
+/*
+ * Heston model (full truncation), parameters = { r, kappa, theta, xi, rho }, state = { S, V }.
+ */
+extern "C"
+__global__ void hestonStep(long long n, float dt, const float *parameters, float *state, const float *increments)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        float r = parameters[0];
+        float kappa = parameters[1];
+        float theta = parameters[2];
+        float xi = parameters[3];
+        float rho = parameters[4];
+
+        float sqrtDt = sqrtf(dt);
+        float variance = fmaxf(state[n+i], 0.0f);
+        float volatility = sqrtf(variance);
+        float z1 = increments[i];
+        float z2 = rho * z1 + sqrtf(1.0f - rho * rho) * increments[n+i];
+
+        state[i] *= expf((r - 0.5f * variance) * dt + volatility * sqrtDt * z1);
+        state[n+i] += kappa * (theta - variance) * dt + xi * volatility * sqrtDt * z2;
+    }
+}
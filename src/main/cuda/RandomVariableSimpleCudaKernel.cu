@@ -1,44 +1,295 @@
-extern "C"
-__global__ void cuAdd(int n, float *a, float *b, float *result)
-{
-    int i = blockIdx.x * blockDim.x + threadIdx.x;
-    if (i<n)
-    {
-        result[i] = a[i] + b[i];
-    }
-
-}
-
-extern "C"
-__global__ void cuMult(int n, float *a, float *b, float *result)
-{
-    int i = blockIdx.x * blockDim.x + threadIdx.x;
-    if (i<n)
-    {
-        result[i] = a[i] * b[i];
-    }
-
-}
-
-extern "C"
-__global__ void cuDiv(int n, float *a, float *b, float *result)
-{
-    int i = blockIdx.x * blockDim.x + threadIdx.x;
-    if (i<n)
-    {
-        result[i] = a[i] / b[i];
-    }
-
-}
-
-extern "C"
-__global__ void cuExp(int n, float *a, float *result)
-{
-    int i = blockIdx.x * blockDim.x + threadIdx.x;
-    if (i<n)
-    {
-        result[i] = expf(a[i]);
-    }
-
-}
-
+/*
+ * Grid-stride loop over the elements 0 <= i < n with a 64-bit index. Each thread processes the elements
+ * i, i + gridDim.x * blockDim.x, ..., hence the grid may be smaller than n (see CudaDeviceContext.launch).
+ */
+#define GRID_STRIDE_LOOP(i, n) for (long long i = (long long)blockIdx.x * blockDim.x + threadIdx.x; i < (n); i += (long long)gridDim.x * blockDim.x)
+
+extern "C"
+__global__ void cuAdd(long long n, float *a, float *b, float *result)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        result[i] = a[i] + b[i];
+    }
+
+}
+
+extern "C"
+__global__ void cuMult(long long n, float *a, float *b, float *result)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        result[i] = a[i] * b[i];
+    }
+
+}
+
+extern "C"
+__global__ void cuDiv(long long n, float *a, float *b, float *result)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        result[i] = a[i] / b[i];
+    }
+
+}
+
+extern "C"
+__global__ void cuExp(long long n, float *a, float *result)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        result[i] = expf(a[i]);
+    }
+
+}
+
+
+/*
+ * Storage precision variants (see StoragePrecision.java).
+ *
+ * The 16-bit formats (__half and bfloat16, stored as unsigned short) are storage formats only:
+ * values are loaded to float, the operation is performed in float and the result is rounded
+ * back (to nearest even). Double precision storage computes in double.
+ */
+
+#include <cuda_fp16.h>
+
+struct bfloat16 { unsigned short bits; };
+
+__device__ __forceinline__ float load(float x)    { return x; }
+__device__ __forceinline__ float load(__half x)   { return __half2float(x); }
+__device__ __forceinline__ float load(bfloat16 x) { return __uint_as_float(((unsigned int)x.bits) << 16); }
+__device__ __forceinline__ double load(double x)  { return x; }
+
+__device__ __forceinline__ void store(float &r, float x)    { r = x; }
+__device__ __forceinline__ void store(__half &r, float x)   { r = __float2half_rn(x); }
+__device__ __forceinline__ void store(bfloat16 &r, float x)
+{
+    unsigned int bits = __float_as_uint(x);
+    // Round to nearest even, keep NaN a quiet NaN
+    r.bits = isnan(x) ? (unsigned short)((bits >> 16) | 0x40) : (unsigned short)((bits + 0x7FFF + ((bits >> 16) & 1)) >> 16);
+}
+__device__ __forceinline__ void store(double &r, double x)  { r = x; }
+
+template<typename T>
+__device__ void addT(long long n, T *a, T *b, T *result)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        store(result[i], load(a[i]) + load(b[i]));
+    }
+}
+
+template<typename T>
+__device__ void multT(long long n, T *a, T *b, T *result)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        store(result[i], load(a[i]) * load(b[i]));
+    }
+}
+
+template<typename T>
+__device__ void divT(long long n, T *a, T *b, T *result)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        store(result[i], load(a[i]) / load(b[i]));
+    }
+}
+
+template<typename T>
+__device__ void expT(long long n, T *a, T *result)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        store(result[i], exp(load(a[i])));
+    }
+}
+
+template<typename S, typename T>
+__device__ void convertT(long long n, S *a, T *result)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        store(result[i], load(a[i]));
+    }
+}
+
+#define BINARY_KERNELS(suffix, T) \
+extern "C" __global__ void cuAdd_##suffix(long long n, T *a, T *b, T *result) { addT(n, a, b, result); } \
+extern "C" __global__ void cuMult_##suffix(long long n, T *a, T *b, T *result) { multT(n, a, b, result); } \
+extern "C" __global__ void cuDiv_##suffix(long long n, T *a, T *b, T *result) { divT(n, a, b, result); } \
+extern "C" __global__ void cuExp_##suffix(long long n, T *a, T *result) { expT(n, a, result); }
+
+BINARY_KERNELS(f16, __half)
+BINARY_KERNELS(bf16, bfloat16)
+BINARY_KERNELS(f64, double)
+
+#define CONVERT_KERNEL(from, to, S, T) \
+extern "C" __global__ void cuConvert_##from##_##to(long long n, S *a, T *result) { convertT(n, a, result); }
+
+CONVERT_KERNEL(f16, bf16, __half, bfloat16)
+CONVERT_KERNEL(f16, f32, __half, float)
+CONVERT_KERNEL(f16, f64, __half, double)
+CONVERT_KERNEL(bf16, f16, bfloat16, __half)
+CONVERT_KERNEL(bf16, f32, bfloat16, float)
+CONVERT_KERNEL(bf16, f64, bfloat16, double)
+CONVERT_KERNEL(f32, f16, float, __half)
+CONVERT_KERNEL(f32, bf16, float, bfloat16)
+CONVERT_KERNEL(f32, f64, float, double)
+CONVERT_KERNEL(f64, f16, double, __half)
+CONVERT_KERNEL(f64, bf16, double, bfloat16)
+CONVERT_KERNEL(f64, f32, double, float)
+
+
+/*
+ * Operations with a deterministic operand (a scalar passed by value), see RandomVariableSimpleCuda.
+ * The scalar is a float for all storage precisions.
+ */
+
+template<typename T>
+__device__ void addScalarT(long long n, T *a, float b, T *result)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        store(result[i], load(a[i]) + b);
+    }
+}
+
+template<typename T>
+__device__ void multScalarT(long long n, T *a, float b, T *result)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        store(result[i], load(a[i]) * b);
+    }
+}
+
+template<typename T>
+__device__ void divScalarT(long long n, T *a, float b, T *result)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        store(result[i], load(a[i]) / b);
+    }
+}
+
+template<typename T>
+__device__ void vidScalarT(long long n, T *a, float b, T *result)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        store(result[i], b / load(a[i]));
+    }
+}
+
+template<typename T>
+__device__ void setScalarT(long long n, T *a, float b, T *result)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        store(result[i], b);
+    }
+}
+
+#define SCALAR_KERNELS(suffix, T) \
+extern "C" __global__ void setScalar##suffix(long long n, T *a, float b, T *result) { setScalarT(n, a, b, result); } \
+extern "C" __global__ void addScalar##suffix(long long n, T *a, float b, T *result) { addScalarT(n, a, b, result); } \
+extern "C" __global__ void multScalar##suffix(long long n, T *a, float b, T *result) { multScalarT(n, a, b, result); } \
+extern "C" __global__ void divScalar##suffix(long long n, T *a, float b, T *result) { divScalarT(n, a, b, result); } \
+extern "C" __global__ void vidScalar##suffix(long long n, T *a, float b, T *result) { vidScalarT(n, a, b, result); }
+
+SCALAR_KERNELS(, float)
+SCALAR_KERNELS(_f16, __half)
+SCALAR_KERNELS(_bf16, bfloat16)
+SCALAR_KERNELS(_f64, double)
+
+
+/*
+ * Discounting, result = a / (1 + b * p), see RandomVariableSimpleCuda.discount.
+ * The product is rounded explicitly to avoid the contraction to fma (the Java backend does not use fma).
+ * It is computed in the precision of the loaded operand (float, or double for double storage), hence p is converted explicitly.
+ */
+
+__device__ __forceinline__ float mul_rn(float x, float y)    { return __fmul_rn(x, y); }
+__device__ __forceinline__ double mul_rn(double x, double y) { return __dmul_rn(x, y); }
+
+template<typename T>
+__device__ void discountT(long long n, T *a, T *b, float p, T *result)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        auto x = load(b[i]);
+        auto prod = mul_rn(x, (decltype(x))p);
+        store(result[i], load(a[i]) / (1.0f + prod));
+    }
+}
+
+template<typename T>
+__device__ void discountScalarT(long long n, T *b, float a, float p, T *result)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        auto x = load(b[i]);
+        auto prod = mul_rn(x, (decltype(x))p);
+        store(result[i], a / (1.0f + prod));
+    }
+}
+
+#define DISCOUNT_KERNELS(suffix, T) \
+extern "C" __global__ void cuDiscount##suffix(long long n, T *a, T *b, float p, T *result) { discountT(n, a, b, p, result); } \
+extern "C" __global__ void discountScalar##suffix(long long n, T *b, float a, float p, T *result) { discountScalarT(n, b, a, p, result); }
+
+DISCOUNT_KERNELS(, float)
+DISCOUNT_KERNELS(_f16, __half)
+DISCOUNT_KERNELS(_bf16, bfloat16)
+DISCOUNT_KERNELS(_f64, double)
+
+
+/*
+ * Segmented operations on a batch of random variables, see RandomVariableBatchCuda.
+ * The random variable (segment) s occupies the elements offsets[s] to offsets[s+1]-1.
+ */
+
+__device__ int segmentOf(long long i, const long long *offsets, int numberOfSegments)
+{
+    // Largest s with offsets[s] <= i (skips empty segments)
+    int lo = 0;
+    int hi = numberOfSegments - 1;
+    while (lo < hi)
+    {
+        int mid = (lo + hi + 1) >> 1;
+        if (offsets[mid] <= i) lo = mid;
+        else hi = mid - 1;
+    }
+    return lo;
+}
+
+extern "C"
+__global__ void addSegmentScalar(long long n, float *a, long long *offsets, int numberOfSegments, float *b, float *result)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        result[i] = a[i] + b[segmentOf(i, offsets, numberOfSegments)];
+    }
+}
+
+extern "C"
+__global__ void multSegmentScalar(long long n, float *a, long long *offsets, int numberOfSegments, float *b, float *result)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        result[i] = a[i] * b[segmentOf(i, offsets, numberOfSegments)];
+    }
+}
+
+extern "C"
+__global__ void divSegmentScalar(long long n, float *a, long long *offsets, int numberOfSegments, float *b, float *result)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        result[i] = a[i] / b[segmentOf(i, offsets, numberOfSegments)];
+    }
+}
@@ -0,0 +1,18 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.compute;
+
+/**
+ * The compute backends supported by this project.
+ *
+ * @author Christian Fries
+ */
+public enum Backend {
+	JAVA,		// Native Java implementation (always available)
+	OPEN_CL,	// OpenCL implementation via JOCL (CPU or GPU devices)
+	CUDA		// Cuda implementation via JCuda (NVIDIA GPUs)
+}
@@ -0,0 +1,288 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.compute;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events of the compute backends: kernel launches, transfers between host and device,
+ * device allocations and program builds.
+ *
+ * An event is started by one of the factory methods (before the operation) and completed by {@link ComputeEvent#complete()}
+ * (after the operation). Completing an event records its duration in the {@link ComputeMetrics} (available via JMX)
+ * and in the {@link ComputeTracer} (if tracing is enabled) and commits it to a running flight recording (if the event is enabled), e.g.,
+ * <pre>
+ * java -XX:StartFlightRecording=filename=compute.jfr ...
+ * jfr print --categories JavaGPU compute.jfr
+ * </pre>
+ *
+ * Durations are measured on the host: for the asynchronous OpenCL enqueue operations a kernel launch measures the time to submit the kernel,
+ * for Cuda (which synchronizes after each launch) the time of the kernel.
+ *
+ * @author Christian Fries
+ */
+public final class ComputeEvents {
+
+	private ComputeEvents() {
+	}
+
+	/**
+	 * Base class of the compute events, carrying the id of the device, see {@link DeviceInfo#getId()}.
+	 */
+	@Category("JavaGPU")
+	@StackTrace(false)
+	public abstract static class ComputeEvent extends Event {
+
+		@Label("Device")
+		@Description("The id of the device, e.g., cuda:0 or opencl:0:1")
+		String device;
+
+		private transient long startNanos;
+
+		ComputeEvent(final String device) {
+			this.device = device;
+		}
+
+		final ComputeEvent start() {
+			startNanos = System.nanoTime();
+			begin();
+			return this;
+		}
+
+		/**
+		 * Complete the event: record its duration in the {@link ComputeMetrics} and the {@link ComputeTracer} and commit it to the flight recording.
+		 */
+		public final void complete() {
+			end();
+			final long durationNanos = System.nanoTime() - startNanos;
+			record(ComputeMetrics.getInstance(), durationNanos);
+			final ComputeTracer tracer = ComputeTracer.getInstance();
+			if(tracer.isEnabled()) {
+				final Map<String, Object> arguments = new LinkedHashMap<>();
+				arguments.put("device", device);
+				addSpanArguments(arguments);
+				tracer.recordHostSpan(getClass().getSimpleName(), getSpanName(), startNanos, durationNanos, arguments);
+			}
+			if(shouldCommit()) {
+				commit();
+			}
+		}
+
+		abstract void record(ComputeMetrics metrics, long durationNanos);
+
+		String getSpanName() {
+			return getClass().getSimpleName();
+		}
+
+		abstract void addSpanArguments(Map<String, Object> arguments);
+	}
+
+	@Name("com.christianfries.compute.KernelLaunch")
+	@Label("Kernel Launch")
+	public static final class KernelLaunch extends ComputeEvent {
+
+		@Label("Kernel")
+		String kernel;
+
+		@Label("Work Items")
+		@Description("The number of elements (the global work size)")
+		long workItems;
+
+		KernelLaunch(final String device, final String kernel, final long workItems) {
+			super(device);
+			this.kernel = kernel;
+			this.workItems = workItems;
+		}
+
+		@Override
+		void record(final ComputeMetrics metrics, final long durationNanos) {
+			metrics.recordKernelLaunch(durationNanos);
+		}
+
+		@Override
+		String getSpanName() {
+			return kernel;
+		}
+
+		@Override
+		void addSpanArguments(final Map<String, Object> arguments) {
+			arguments.put("workItems", workItems);
+		}
+	}
+
+	@Name("com.christianfries.compute.HostToDeviceCopy")
+	@Label("Host to Device Copy")
+	public static final class HostToDeviceCopy extends ComputeEvent {
+
+		@Label("Size")
+		@DataAmount
+		long bytes;
+
+		HostToDeviceCopy(final String device, final long bytes) {
+			super(device);
+			this.bytes = bytes;
+		}
+
+		@Override
+		void record(final ComputeMetrics metrics, final long durationNanos) {
+			metrics.recordHostToDeviceCopy(bytes, durationNanos);
+		}
+
+		@Override
+		void addSpanArguments(final Map<String, Object> arguments) {
+			arguments.put("bytes", bytes);
+		}
+	}
+
+	@Name("com.christianfries.compute.DeviceToHostCopy")
+	@Label("Device to Host Copy")
+	public static final class DeviceToHostCopy extends ComputeEvent {
+
+		@Label("Size")
+		@DataAmount
+		long bytes;
+
+		DeviceToHostCopy(final String device, final long bytes) {
+			super(device);
+			this.bytes = bytes;
+		}
+
+		@Override
+		void record(final ComputeMetrics metrics, final long durationNanos) {
+			metrics.recordDeviceToHostCopy(bytes, durationNanos);
+		}
+
+		@Override
+		void addSpanArguments(final Map<String, Object> arguments) {
+			arguments.put("bytes", bytes);
+		}
+	}
+
+	@Name("com.christianfries.compute.DeviceAlloc")
+	@Label("Device Allocation")
+	public static final class DeviceAlloc extends ComputeEvent {
+
+		@Label("Size")
+		@DataAmount
+		long bytes;
+
+		DeviceAlloc(final String device, final long bytes) {
+			super(device);
+			this.bytes = bytes;
+		}
+
+		@Override
+		void record(final ComputeMetrics metrics, final long durationNanos) {
+			metrics.recordDeviceAllocation(bytes, durationNanos);
+		}
+
+		@Override
+		void addSpanArguments(final Map<String, Object> arguments) {
+			arguments.put("bytes", bytes);
+		}
+	}
+
+	@Name("com.christianfries.compute.ProgramBuild")
+	@Label("Program Build")
+	public static final class ProgramBuild extends ComputeEvent {
+
+		@Label("Program")
+		@Description("The file name or the kernel name of the program")
+		String program;
+
+		@Label("Source Length")
+		@Description("The number of characters of the source code (0 if unknown)")
+		long sourceLength;
+
+		ProgramBuild(final String device, final String program, final long sourceLength) {
+			super(device);
+			this.program = program;
+			this.sourceLength = sourceLength;
+		}
+
+		@Override
+		void record(final ComputeMetrics metrics, final long durationNanos) {
+			metrics.recordProgramBuild(durationNanos);
+		}
+
+		@Override
+		String getSpanName() {
+			return program;
+		}
+
+		@Override
+		void addSpanArguments(final Map<String, Object> arguments) {
+			arguments.put("sourceLength", sourceLength);
+		}
+	}
+
+	/**
+	 * Start a kernel launch event.
+	 *
+	 * @param device The id of the device.
+	 * @param kernel The name of the kernel.
+	 * @param workItems The number of elements (the global work size).
+	 * @return The started event.
+	 */
+	public static KernelLaunch startKernelLaunch(final String device, final String kernel, final long workItems) {
+		return (KernelLaunch)new KernelLaunch(device, kernel, workItems).start();
+	}
+
+	/**
+	 * Start a host to device copy event.
+	 *
+	 * @param device The id of the device.
+	 * @param bytes The number of bytes.
+	 * @return The started event.
+	 */
+	public static HostToDeviceCopy startHostToDeviceCopy(final String device, final long bytes) {
+		return (HostToDeviceCopy)new HostToDeviceCopy(device, bytes).start();
+	}
+
+	/**
+	 * Start a device to host copy event.
+	 *
+	 * @param device The id of the device.
+	 * @param bytes The number of bytes.
+	 * @return The started event.
+	 */
+	public static DeviceToHostCopy startDeviceToHostCopy(final String device, final long bytes) {
+		return (DeviceToHostCopy)new DeviceToHostCopy(device, bytes).start();
+	}
+
+	/**
+	 * Start a device allocation event.
+	 *
+	 * @param device The id of the device.
+	 * @param bytes The number of bytes.
+	 * @return The started event.
+	 */
+	public static DeviceAlloc startDeviceAlloc(final String device, final long bytes) {
+		return (DeviceAlloc)new DeviceAlloc(device, bytes).start();
+	}
+
+	/**
+	 * Start a program build event.
+	 *
+	 * @param device The id of the device.
+	 * @param program The file name or the kernel name of the program.
+	 * @param sourceLength The number of characters of the source code (0 if unknown).
+	 * @return The started event.
+	 */
+	public static ProgramBuild startProgramBuild(final String device, final String program, final long sourceLength) {
+		return (ProgramBuild)new ProgramBuild(device, program, sourceLength).start();
+	}
+}
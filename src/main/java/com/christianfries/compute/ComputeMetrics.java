@@ -0,0 +1,251 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.compute;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * A registry of metrics of the compute backends, fed by the {@link ComputeEvents}: histograms of kernel launch latencies,
+ * transfer rates, allocation latencies and program build times, and the hit rate of the device memory pool
+ * (the fraction of results written to a reused device buffer instead of a newly allocated one, e.g., by RandomVariableExpression)
+ * the hit rate of the result cache (e.g., RandomVariableCache) and the kernel variants selected by the {@link DivergenceDiagnostics}.
+ *
+ * The registry is a singleton, registered with the platform MBean server as
+ * <code>com.christianfries.compute:type=ComputeMetrics</code> on first use, such that the metrics can be
+ * scraped via JMX (e.g., by JConsole or a JMX exporter) without attaching a profiler.
+ *
+ * @author Christian Fries
+ */
+public class ComputeMetrics implements ComputeMetricsMXBean {
+
+	public static final String OBJECT_NAME = "com.christianfries.compute:type=ComputeMetrics";
+
+	private static final Logger logger = Logger.getLogger("com.christianfries.compute");
+
+	private final Histogram kernelLaunchLatency = new Histogram();
+	private final Histogram hostToDeviceThroughput = new Histogram();
+	private final Histogram deviceToHostThroughput = new Histogram();
+	private final Histogram deviceAllocationLatency = new Histogram();
+	private final Histogram programBuildTime = new Histogram();
+
+	private final LongAdder hostToDeviceBytes = new LongAdder();
+	private final LongAdder deviceToHostBytes = new LongAdder();
+	private final LongAdder allocatedBytes = new LongAdder();
+	private final LongAdder poolHits = new LongAdder();
+	private final LongAdder poolMisses = new LongAdder();
+	private final LongAdder cacheHits = new LongAdder();
+	private final LongAdder cacheMisses = new LongAdder();
+	private final LongAdder branchingKernelSelections = new LongAdder();
+	private final LongAdder predicatedKernelSelections = new LongAdder();
+	private final DoubleAdder kernelSelectionDivergence = new DoubleAdder();
+
+	private ComputeMetrics() {
+	}
+
+	/**
+	 * @return The metrics registry (registered with the platform MBean server).
+	 */
+	public static ComputeMetrics getInstance() {
+		return InstanceHolder.INSTANCE;
+	}
+
+	private static class InstanceHolder {
+		private static final ComputeMetrics INSTANCE = register(new ComputeMetrics());
+	}
+
+	private static ComputeMetrics register(final ComputeMetrics metrics) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+		}
+		catch(final JMException | SecurityException e) {
+			logger.log(Level.WARNING, "Failed to register " + OBJECT_NAME + ". Metrics are not available via JMX.", e);
+		}
+		return metrics;
+	}
+
+	void recordKernelLaunch(final long durationNanos) {
+		kernelLaunchLatency.record(durationNanos);
+	}
+
+	void recordHostToDeviceCopy(final long bytes, final long durationNanos) {
+		hostToDeviceBytes.add(bytes);
+		hostToDeviceThroughput.record(getBytesPerSecond(bytes, durationNanos));
+	}
+
+	void recordDeviceToHostCopy(final long bytes, final long durationNanos) {
+		deviceToHostBytes.add(bytes);
+		deviceToHostThroughput.record(getBytesPerSecond(bytes, durationNanos));
+	}
+
+	void recordDeviceAllocation(final long bytes, final long durationNanos) {
+		allocatedBytes.add(bytes);
+		deviceAllocationLatency.record(durationNanos);
+	}
+
+	void recordProgramBuild(final long durationNanos) {
+		programBuildTime.record(durationNanos);
+	}
+
+	/**
+	 * Record a request for device memory which may be served by reusing an existing buffer.
+	 * Lookups of compiled programs and kernels are not recorded (builds are recorded as {@link #getProgramBuildTime()}).
+	 *
+	 * @param isHit True if an existing device buffer was reused, false if new device memory had to be allocated.
+	 */
+	public void recordPoolAccess(final boolean isHit) {
+		(isHit ? poolHits : poolMisses).increment();
+	}
+
+	/**
+	 * Record a request to a cache of results of operations.
+	 *
+	 * @param isHit True if the request was served from the cache, false if the result had to be calculated.
+	 */
+	public void recordCacheAccess(final boolean isHit) {
+		(isHit ? cacheHits : cacheMisses).increment();
+	}
+
+	/**
+	 * Record the selection of a kernel variant for an expression with conditionals, see {@link DivergenceDiagnostics}.
+	 *
+	 * @param variant The selected variant.
+	 * @param divergence The estimated fraction of divergent blocks the selection is based on.
+	 */
+	void recordKernelVariantSelection(final KernelVariant variant, final double divergence) {
+		(variant == KernelVariant.BRANCHING ? branchingKernelSelections : predicatedKernelSelections).increment();
+		kernelSelectionDivergence.add(divergence);
+	}
+
+	private static long getBytesPerSecond(final long bytes, final long durationNanos) {
+		return (long)(bytes * 1E9 / Math.max(durationNanos, 1));
+	}
+
+	@Override
+	public Histogram.Snapshot getKernelLaunchLatency() {
+		return kernelLaunchLatency.getSnapshot();
+	}
+
+	@Override
+	public Histogram.Snapshot getHostToDeviceThroughput() {
+		return hostToDeviceThroughput.getSnapshot();
+	}
+
+	@Override
+	public Histogram.Snapshot getDeviceToHostThroughput() {
+		return deviceToHostThroughput.getSnapshot();
+	}
+
+	@Override
+	public Histogram.Snapshot getDeviceAllocationLatency() {
+		return deviceAllocationLatency.getSnapshot();
+	}
+
+	@Override
+	public Histogram.Snapshot getProgramBuildTime() {
+		return programBuildTime.getSnapshot();
+	}
+
+	@Override
+	public long getHostToDeviceBytes() {
+		return hostToDeviceBytes.sum();
+	}
+
+	@Override
+	public long getDeviceToHostBytes() {
+		return deviceToHostBytes.sum();
+	}
+
+	@Override
+	public long getAllocatedBytes() {
+		return allocatedBytes.sum();
+	}
+
+	@Override
+	public long getPoolHits() {
+		return poolHits.sum();
+	}
+
+	@Override
+	public long getPoolMisses() {
+		return poolMisses.sum();
+	}
+
+	@Override
+	public double getPoolHitRate() {
+		final long hits = getPoolHits();
+		final long requests = hits + getPoolMisses();
+		return requests > 0 ? (double)hits / requests : Double.NaN;
+	}
+
+	@Override
+	public long getCacheHits() {
+		return cacheHits.sum();
+	}
+
+	@Override
+	public long getCacheMisses() {
+		return cacheMisses.sum();
+	}
+
+	@Override
+	public double getCacheHitRate() {
+		final long hits = getCacheHits();
+		final long requests = hits + getCacheMisses();
+		return requests > 0 ? (double)hits / requests : Double.NaN;
+	}
+
+	@Override
+	public long getBranchingKernelSelections() {
+		return branchingKernelSelections.sum();
+	}
+
+	@Override
+	public long getPredicatedKernelSelections() {
+		return predicatedKernelSelections.sum();
+	}
+
+	@Override
+	public double getMeanKernelSelectionDivergence() {
+		final long selections = getBranchingKernelSelections() + getPredicatedKernelSelections();
+		return selections > 0 ? kernelSelectionDivergence.sum() / selections : Double.NaN;
+	}
+
+	@Override
+	public void reset() {
+		kernelLaunchLatency.reset();
+		hostToDeviceThroughput.reset();
+		deviceToHostThroughput.reset();
+		deviceAllocationLatency.reset();
+		programBuildTime.reset();
+		hostToDeviceBytes.reset();
+		deviceToHostBytes.reset();
+		allocatedBytes.reset();
+		poolHits.reset();
+		poolMisses.reset();
+		cacheHits.reset();
+		cacheMisses.reset();
+		branchingKernelSelections.reset();
+		predicatedKernelSelections.reset();
+		kernelSelectionDivergence.reset();
+	}
+
+	@Override
+	public String toString() {
+		return "ComputeMetrics [kernelLaunchLatency=" + getKernelLaunchLatency() + ", hostToDeviceThroughput=" + getHostToDeviceThroughput()
+				+ ", deviceToHostThroughput=" + getDeviceToHostThroughput() + ", deviceAllocationLatency=" + getDeviceAllocationLatency()
+				+ ", programBuildTime=" + getProgramBuildTime() + ", poolHitRate=" + getPoolHitRate() + ", cacheHitRate=" + getCacheHitRate()
+				+ ", branchingKernelSelections=" + getBranchingKernelSelections() + ", predicatedKernelSelections=" + getPredicatedKernelSelections()
+				+ ", meanKernelSelectionDivergence=" + getMeanKernelSelectionDivergence() + "]";
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.compute;
+
+/**
+ * The JMX interface of the {@link ComputeMetrics}, registered as <code>com.christianfries.compute:type=ComputeMetrics</code>.
+ *
+ * @author Christian Fries
+ */
+public interface ComputeMetricsMXBean {
+
+	/**
+	 * @return The histogram of the kernel launch latencies in nanoseconds.
+	 */
+	Histogram.Snapshot getKernelLaunchLatency();
+
+	/**
+	 * @return The histogram of the host to device transfer rates in bytes per second.
+	 */
+	Histogram.Snapshot getHostToDeviceThroughput();
+
+	/**
+	 * @return The histogram of the device to host transfer rates in bytes per second.
+	 */
+	Histogram.Snapshot getDeviceToHostThroughput();
+
+	/**
+	 * @return The histogram of the device allocation latencies in nanoseconds.
+	 */
+	Histogram.Snapshot getDeviceAllocationLatency();
+
+	/**
+	 * @return The histogram of the program build (compile and load) times in nanoseconds.
+	 */
+	Histogram.Snapshot getProgramBuildTime();
+
+	/**
+	 * @return The total number of bytes copied from host to device.
+	 */
+	long getHostToDeviceBytes();
+
+	/**
+	 * @return The total number of bytes copied from device to host.
+	 */
+	long getDeviceToHostBytes();
+
+	/**
+	 * @return The total number of bytes allocated on devices.
+	 */
+	long getAllocatedBytes();
+
+	long getPoolHits();
+
+	long getPoolMisses();
+
+	/**
+	 * @return The fraction of requests for device memory served by reusing a buffer, NaN if there was no request.
+	 */
+	double getPoolHitRate();
+
+	long getCacheHits();
+
+	long getCacheMisses();
+
+	/**
+	 * @return The fraction of requests served from the result cache, NaN if there was no request.
+	 */
+	double getCacheHitRate();
+
+	/**
+	 * @return The number of expressions with conditionals evaluated by the branching kernel variant.
+	 */
+	long getBranchingKernelSelections();
+
+	/**
+	 * @return The number of expressions with conditionals evaluated by the predicated kernel variant.
+	 */
+	long getPredicatedKernelSelections();
+
+	/**
+	 * @return The mean estimated fraction of divergent blocks of the kernel variant selections, NaN if there was no selection.
+	 */
+	double getMeanKernelSelectionDivergence();
+
+	/**
+	 * Reset all histograms and counters.
+	 */
+	void reset();
+}
@@ -0,0 +1,399 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.compute;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An opt-in tracer recording spans of host and device activity, written in the Chrome Trace Event format
+ * (JSON, to be loaded into <code>chrome://tracing</code> or Perfetto).
+ *
+ * Host spans (program builds, allocations, copies, kernel launches, synchronization waits and the phases of a valuation)
+ * are measured with <code>System.nanoTime()</code> and shown per thread. Device spans (kernels and transfers as executed
+ * by an OpenCL device) are taken from OpenCL profiling events, mapped to the host clock, and shown per device.
+ * Comparing the two shows overlap, gaps and serialization points of a valuation run.
+ *
+ * The tracer is disabled by default (recording a span is then a single volatile read). It is enabled by
+ * {@link #start()} or by the environment variable <code>JAVAGPU_TRACE=&lt;file&gt;</code> (or the system property
+ * <code>javagpu.trace</code>), in which case the trace is written to the file at the end of the JVM.
+ * OpenCL contexts created while tracing is enabled use a profiling command queue.
+ *
+ * At most {@link #MAX_NUMBER_OF_SPANS} spans are kept, further spans are counted as dropped.
+ *
+ * @author Christian Fries
+ */
+public class ComputeTracer {
+
+	public static final String TRACE_ENVIRONMENT_VARIABLE = "JAVAGPU_TRACE";
+	public static final String TRACE_PROPERTY = "javagpu.trace";
+
+	public static final int MAX_NUMBER_OF_SPANS = 1 << 20;
+
+	private static final String HOST = "host";
+
+	private static final Logger logger = Logger.getLogger("com.christianfries.compute");
+
+	/**
+	 * A span: an operation with a start time and a duration, on the host (per thread) or on a device.
+	 */
+	public static class Span {
+		private final String category;
+		private final String name;
+		private final String track;
+		private final long threadId;
+		private final String threadName;
+		private final long startNanos;
+		private final long durationNanos;
+		private final Map<String, Object> arguments;
+
+		Span(final String category, final String name, final String track, final long threadId, final String threadName, final long startNanos, final long durationNanos, final Map<String, Object> arguments) {
+			super();
+			this.category = category;
+			this.name = name;
+			this.track = track;
+			this.threadId = threadId;
+			this.threadName = threadName;
+			this.startNanos = startNanos;
+			this.durationNanos = durationNanos;
+			this.arguments = arguments;
+		}
+
+		public String getCategory() {
+			return category;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return The track of the span: <code>host</code> or the id of a device.
+		 */
+		public String getTrack() {
+			return track;
+		}
+
+		public long getThreadId() {
+			return threadId;
+		}
+
+		public String getThreadName() {
+			return threadName;
+		}
+
+		/**
+		 * @return The start time (<code>System.nanoTime()</code>).
+		 */
+		public long getStartNanos() {
+			return startNanos;
+		}
+
+		public long getDurationNanos() {
+			return durationNanos;
+		}
+
+		public Map<String, Object> getArguments() {
+			return arguments;
+		}
+
+		@Override
+		public String toString() {
+			return "Span [category=" + category + ", name=" + name + ", track=" + track + ", threadName=" + threadName
+					+ ", startNanos=" + startNanos + ", durationNanos=" + durationNanos + ", arguments=" + arguments + "]";
+		}
+	}
+
+	/**
+	 * A host span recorded when closed, to be used with try-with-resources.
+	 */
+	public static class Scope implements AutoCloseable {
+		private final ComputeTracer tracer;
+		private final String category;
+		private final String name;
+		private final long startNanos;
+		private Map<String, Object> arguments;
+
+		Scope(final ComputeTracer tracer, final String category, final String name) {
+			this.tracer = tracer;
+			this.category = category;
+			this.name = name;
+			this.startNanos = System.nanoTime();
+		}
+
+		/**
+		 * Add an argument shown with the span (e.g., the size of the problem).
+		 *
+		 * @param key The name of the argument.
+		 * @param value The value of the argument.
+		 * @return This scope.
+		 */
+		public Scope setArgument(final String key, final Object value) {
+			if(arguments == null) {
+				arguments = new LinkedHashMap<>();
+			}
+			arguments.put(key, value);
+			return this;
+		}
+
+		@Override
+		public void close() {
+			tracer.recordHostSpan(category, name, startNanos, System.nanoTime() - startNanos, arguments);
+		}
+	}
+
+	private volatile boolean isEnabled;
+
+	private final long originNanos = System.nanoTime();
+	private final ConcurrentLinkedQueue<Span> spans = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger numberOfSpans = new AtomicInteger();
+	private final AtomicLong numberOfDroppedSpans = new AtomicLong();
+
+	private ComputeTracer() {
+	}
+
+	/**
+	 * @return The tracer of this JVM (started if a trace file is configured).
+	 */
+	public static ComputeTracer getInstance() {
+		return InstanceHolder.INSTANCE;
+	}
+
+	private static class InstanceHolder {
+		private static final ComputeTracer INSTANCE = createInstance();
+	}
+
+	private static ComputeTracer createInstance() {
+		final ComputeTracer tracer = new ComputeTracer();
+
+		String traceFile = System.getProperty(TRACE_PROPERTY);
+		if(traceFile == null || traceFile.isBlank()) {
+			traceFile = System.getenv(TRACE_ENVIRONMENT_VARIABLE);
+		}
+		if(traceFile != null && !traceFile.isBlank()) {
+			final Path file = Paths.get(traceFile.trim());
+			tracer.start();
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				try {
+					tracer.write(file);
+				}
+				catch(final IOException e) {
+					logger.log(Level.WARNING, "Failed to write the trace to " + file, e);
+				}
+			}, "compute-tracer-shutdown"));
+			logger.config("Tracing to " + file);
+		}
+		return tracer;
+	}
+
+	/**
+	 * @return True if spans are recorded.
+	 */
+	public boolean isEnabled() {
+		return isEnabled;
+	}
+
+	/**
+	 * Start recording spans.
+	 */
+	public void start() {
+		isEnabled = true;
+	}
+
+	/**
+	 * Stop recording spans. The recorded spans are kept.
+	 */
+	public void stop() {
+		isEnabled = false;
+	}
+
+	/**
+	 * Remove all recorded spans.
+	 */
+	public void clear() {
+		spans.clear();
+		numberOfSpans.set(0);
+		numberOfDroppedSpans.set(0);
+	}
+
+	/**
+	 * Open a host span on the current thread, recorded when the scope is closed, e.g.,
+	 * <code>try(ComputeTracer.Scope scope = ComputeTracer.getInstance().scope("valuation", "bermudan")) { scope.setArgument("paths", numberOfPaths); ... }</code>.
+	 *
+	 * @param category The category.
+	 * @param name The name.
+	 * @return The scope.
+	 */
+	public Scope scope(final String category, final String name) {
+		return new Scope(this, category, name);
+	}
+
+	/**
+	 * Record a span of the current thread on the host.
+	 *
+	 * @param category The category, e.g., <code>KernelLaunch</code>.
+	 * @param name The name, e.g., the name of the kernel.
+	 * @param startNanos The start time (<code>System.nanoTime()</code>).
+	 * @param durationNanos The duration in nanoseconds.
+	 * @param arguments Additional arguments shown with the span (may be null).
+	 */
+	public void recordHostSpan(final String category, final String name, final long startNanos, final long durationNanos, final Map<String, Object> arguments) {
+		if(isEnabled) {
+			final Thread thread = Thread.currentThread();
+			add(new Span(category, name, HOST, thread.getId(), thread.getName(), startNanos, durationNanos, arguments));
+		}
+	}
+
+	/**
+	 * Record a span of a device (e.g., from a profiling event).
+	 *
+	 * @param device The id of the device.
+	 * @param category The category.
+	 * @param name The name.
+	 * @param startNanos The start time, mapped to the host clock (<code>System.nanoTime()</code>).
+	 * @param durationNanos The duration in nanoseconds.
+	 * @param arguments Additional arguments shown with the span (may be null).
+	 */
+	public void recordDeviceSpan(final String device, final String category, final String name, final long startNanos, final long durationNanos, final Map<String, Object> arguments) {
+		if(isEnabled) {
+			add(new Span(category, name, device, 0, "queue", startNanos, durationNanos, arguments));
+		}
+	}
+
+	private void add(final Span span) {
+		if(numberOfSpans.incrementAndGet() <= MAX_NUMBER_OF_SPANS) {
+			spans.add(span);
+		}
+		else {
+			numberOfSpans.decrementAndGet();
+			numberOfDroppedSpans.incrementAndGet();
+		}
+	}
+
+	/**
+	 * @return A copy of the recorded spans.
+	 */
+	public List<Span> getSpans() {
+		return new ArrayList<>(spans);
+	}
+
+	public long getNumberOfDroppedSpans() {
+		return numberOfDroppedSpans.get();
+	}
+
+	/**
+	 * Write the recorded spans to a file in the Chrome Trace Event format.
+	 *
+	 * @param file The file.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public void write(final Path file) throws IOException {
+		try(Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			write(writer);
+		}
+	}
+
+	/**
+	 * Write the recorded spans in the Chrome Trace Event format: complete events (<code>"ph":"X"</code>, times in microseconds
+	 * since the creation of the tracer), the host as process 0 (one track per thread) and every device as a separate process.
+	 *
+	 * @param writer The writer.
+	 * @throws IOException If the writer fails.
+	 */
+	public void write(final Writer writer) throws IOException {
+		final Writer out = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+		final List<Span> spans = getSpans();
+
+		// Process ids: the host is 0, devices in the order of first occurrence
+		final Map<String, Integer> processIds = new LinkedHashMap<>();
+		processIds.put(HOST, 0);
+		final Map<Long, String> threadNames = new LinkedHashMap<>();
+		for(final Span span : spans) {
+			processIds.putIfAbsent(span.track, processIds.size());
+			if(HOST.equals(span.track)) {
+				threadNames.putIfAbsent(span.threadId, span.threadName);
+			}
+		}
+
+		out.write("{\"displayTimeUnit\":\"ns\",\"otherData\":{\"droppedSpans\":" + getNumberOfDroppedSpans() + "},\"traceEvents\":[\n");
+		boolean isFirst = true;
+		for(final Map.Entry<String, Integer> process : processIds.entrySet()) {
+			isFirst = writeSeparator(out, isFirst);
+			out.write("{\"name\":\"process_name\",\"ph\":\"M\",\"pid\":" + process.getValue() + ",\"tid\":0,\"args\":{\"name\":" + quote(process.getKey()) + "}}");
+		}
+		for(final Map.Entry<Long, String> thread : threadNames.entrySet()) {
+			isFirst = writeSeparator(out, isFirst);
+			out.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":0,\"tid\":" + thread.getKey() + ",\"args\":{\"name\":" + quote(thread.getValue()) + "}}");
+		}
+		for(final Span span : spans) {
+			isFirst = writeSeparator(out, isFirst);
+			out.write("{\"name\":" + quote(span.name) + ",\"cat\":" + quote(span.category) + ",\"ph\":\"X\""
+					+ ",\"ts\":" + toMicroseconds(span.startNanos - originNanos) + ",\"dur\":" + toMicroseconds(span.durationNanos)
+					+ ",\"pid\":" + processIds.get(span.track) + ",\"tid\":" + span.threadId);
+			final Map<String, Object> arguments = span.arguments != null ? span.arguments : Collections.emptyMap();
+			out.write(",\"args\":{");
+			boolean isFirstArgument = true;
+			for(final Map.Entry<String, Object> argument : arguments.entrySet()) {
+				out.write((isFirstArgument ? "" : ",") + quote(argument.getKey()) + ":"
+						+ (argument.getValue() instanceof Number ? argument.getValue().toString() : quote(String.valueOf(argument.getValue()))));
+				isFirstArgument = false;
+			}
+			out.write("}}");
+		}
+		out.write("\n]}\n");
+		out.flush();
+	}
+
+	private static boolean writeSeparator(final Writer out, final boolean isFirst) throws IOException {
+		if(!isFirst) {
+			out.write(",\n");
+		}
+		return false;
+	}
+
+	private static String toMicroseconds(final long nanos) {
+		return String.format(Locale.ROOT, "%.3f", nanos / 1000.0);
+	}
+
+	private static String quote(final String string) {
+		final StringBuilder quoted = new StringBuilder(string.length() + 2).append('"');
+		for(int i=0; i<string.length(); i++) {
+			final char c = string.charAt(i);
+			switch(c) {
+			case '"':	quoted.append("\\\"");	break;
+			case '\\':	quoted.append("\\\\");	break;
+			case '\n':	quoted.append("\\n");	break;
+			case '\r':	quoted.append("\\r");	break;
+			case '\t':	quoted.append("\\t");	break;
+			default:
+				if(c < 0x20) {
+					quoted.append(String.format("\\u%04x", (int)c));
+				}
+				else {
+					quoted.append(c);
+				}
+			}
+		}
+		return quoted.append('"').toString();
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.compute;
+
+/**
+ * The result of a calibration run of a device: a linear model for the run time
+ * of an element-wise operation (<code>c[i] = a[i] + b[i]</code>) on <code>n</code> elements,
+ * 	t(n) = latency + n * timePerElement.
+ *
+ * @author Christian Fries
+ */
+public class DeviceCalibration {
+
+	private final double latency;
+	private final double timePerElement;
+
+	/**
+	 * Create a calibration from two measurements.
+	 *
+	 * @param smallSize The number of elements of the small run.
+	 * @param smallTime The run time (seconds) of the small run.
+	 * @param largeSize The number of elements of the large run.
+	 * @param largeTime The run time (seconds) of the large run.
+	 * @return The calibration.
+	 */
+	public static DeviceCalibration of(long smallSize, double smallTime, long largeSize, double largeTime) {
+		final double timePerElement = Math.max((largeTime - smallTime) / (largeSize - smallSize), 0.0);
+		final double latency = Math.max(smallTime - timePerElement * smallSize, 0.0);
+		return new DeviceCalibration(latency, timePerElement);
+	}
+
+	public DeviceCalibration(double latency, double timePerElement) {
+		super();
+		this.latency = latency;
+		this.timePerElement = timePerElement;
+	}
+
+	/**
+	 * @return The fixed cost (seconds) of a launch.
+	 */
+	public double getLatency() {
+		return latency;
+	}
+
+	/**
+	 * @return The marginal cost (seconds) per element.
+	 */
+	public double getTimePerElement() {
+		return timePerElement;
+	}
+
+	/**
+	 * Estimate the run time of an element-wise operation.
+	 *
+	 * @param numberOfElements The number of elements.
+	 * @return The estimated run time in seconds.
+	 */
+	public double getEstimatedTime(long numberOfElements) {
+		return latency + numberOfElements * timePerElement;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("DeviceCalibration [latency=%.1f µs, throughput=%.2f GElements/s]", latency * 1E6, timePerElement > 0 ? 1E-9 / timePerElement : Double.POSITIVE_INFINITY);
+	}
+}
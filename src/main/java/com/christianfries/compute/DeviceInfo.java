@@ -0,0 +1,148 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.compute;
+
+import org.jocl.cl_device_id;
+
+/**
+ * The capabilities of a compute device, as discovered by the {@link DeviceRegistry}.
+ *
+ * The device is identified by an id of the form <code>java</code>, <code>cuda:&lt;device&gt;</code>
+ * or <code>opencl:&lt;platform&gt;:&lt;device&gt;</code>, which may be used to override the device selection,
+ * see {@link DeviceRegistry}.
+ *
+ * @author Christian Fries
+ */
+public class DeviceInfo {
+
+	public enum DeviceType { CPU, GPU, ACCELERATOR, OTHER }
+
+	private final Backend backend;
+	private final int platformIndex;
+	private final int deviceIndex;
+	private final String name;
+	private final String vendor;
+	private final DeviceType deviceType;
+	private final int computeUnits;
+	private final long globalMemorySize;
+	private final long localMemorySize;
+	private final long maxWorkGroupSize;
+	private final boolean isDoublePrecisionSupported;
+
+	// Only for OpenCL devices
+	private final cl_device_id openCLDevice;
+
+	/**
+	 * Create a device description.
+	 *
+	 * @param backend The backend of the device.
+	 * @param platformIndex The index of the OpenCL platform (0 for other backends).
+	 * @param deviceIndex The index of the device within its platform (the ordinal for Cuda devices).
+	 * @param name The name of the device.
+	 * @param vendor The vendor of the device.
+	 * @param deviceType The type of the device.
+	 * @param computeUnits The number of compute units (multiprocessors for Cuda, cores for Java).
+	 * @param globalMemorySize The size of the global memory in bytes.
+	 * @param localMemorySize The size of the local (shared) memory per work group in bytes.
+	 * @param maxWorkGroupSize The maximum number of work items per work group (threads per block).
+	 * @param isDoublePrecisionSupported True if the device supports 64-bit floating point.
+	 * @param openCLDevice The OpenCL device id (null for other backends).
+	 */
+	public DeviceInfo(Backend backend, int platformIndex, int deviceIndex, String name, String vendor, DeviceType deviceType,
+			int computeUnits, long globalMemorySize, long localMemorySize, long maxWorkGroupSize, boolean isDoublePrecisionSupported,
+			cl_device_id openCLDevice) {
+		super();
+		this.backend = backend;
+		this.platformIndex = platformIndex;
+		this.deviceIndex = deviceIndex;
+		this.name = name;
+		this.vendor = vendor;
+		this.deviceType = deviceType;
+		this.computeUnits = computeUnits;
+		this.globalMemorySize = globalMemorySize;
+		this.localMemorySize = localMemorySize;
+		this.maxWorkGroupSize = maxWorkGroupSize;
+		this.isDoublePrecisionSupported = isDoublePrecisionSupported;
+		this.openCLDevice = openCLDevice;
+	}
+
+	/**
+	 * @return The id of the device, e.g., <code>java</code>, <code>cuda:0</code> or <code>opencl:0:1</code>.
+	 */
+	public String getId() {
+		switch(backend) {
+		case JAVA:
+		default:
+			return "java";
+		case CUDA:
+			return "cuda:" + deviceIndex;
+		case OPEN_CL:
+			return "opencl:" + platformIndex + ":" + deviceIndex;
+		}
+	}
+
+	public Backend getBackend() {
+		return backend;
+	}
+
+	public int getPlatformIndex() {
+		return platformIndex;
+	}
+
+	public int getDeviceIndex() {
+		return deviceIndex;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getVendor() {
+		return vendor;
+	}
+
+	public DeviceType getDeviceType() {
+		return deviceType;
+	}
+
+	public int getComputeUnits() {
+		return computeUnits;
+	}
+
+	public long getGlobalMemorySize() {
+		return globalMemorySize;
+	}
+
+	public long getLocalMemorySize() {
+		return localMemorySize;
+	}
+
+	public long getMaxWorkGroupSize() {
+		return maxWorkGroupSize;
+	}
+
+	public boolean isDoublePrecisionSupported() {
+		return isDoublePrecisionSupported;
+	}
+
+	/**
+	 * @return The OpenCL device id or null if this is not an OpenCL device.
+	 */
+	public cl_device_id getOpenCLDevice() {
+		return openCLDevice;
+	}
+
+	@Override
+	public String toString() {
+		return getId() + " [" + name + " (" + vendor + "), " + deviceType
+				+ ", computeUnits=" + computeUnits
+				+ ", globalMemory=" + globalMemorySize / (1024*1024) + " MB"
+				+ ", localMemory=" + localMemorySize / 1024 + " KB"
+				+ ", maxWorkGroupSize=" + maxWorkGroupSize
+				+ ", fp64=" + isDoublePrecisionSupported + "]";
+	}
+}
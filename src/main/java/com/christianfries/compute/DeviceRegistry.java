@@ -0,0 +1,555 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.compute;
+
+import static jcuda.driver.CUdevice_attribute.CU_DEVICE_ATTRIBUTE_MAX_SHARED_MEMORY_PER_BLOCK;
+import static jcuda.driver.CUdevice_attribute.CU_DEVICE_ATTRIBUTE_MAX_THREADS_PER_BLOCK;
+import static jcuda.driver.CUdevice_attribute.CU_DEVICE_ATTRIBUTE_MULTIPROCESSOR_COUNT;
+import static jcuda.driver.JCudaDriver.cuCtxPopCurrent;
+import static jcuda.driver.JCudaDriver.cuCtxPushCurrent;
+import static jcuda.driver.JCudaDriver.cuCtxSynchronize;
+import static jcuda.driver.JCudaDriver.cuDeviceGet;
+import static jcuda.driver.JCudaDriver.cuDeviceGetAttribute;
+import static jcuda.driver.JCudaDriver.cuDeviceGetCount;
+import static jcuda.driver.JCudaDriver.cuDeviceGetName;
+import static jcuda.driver.JCudaDriver.cuDevicePrimaryCtxRelease;
+import static jcuda.driver.JCudaDriver.cuDevicePrimaryCtxRetain;
+import static jcuda.driver.JCudaDriver.cuDeviceTotalMem;
+import static jcuda.driver.JCudaDriver.cuInit;
+import static jcuda.driver.JCudaDriver.cuMemAlloc;
+import static jcuda.driver.JCudaDriver.cuMemFree;
+import static jcuda.driver.JCudaDriver.cuMemcpyDtoD;
+import static org.jocl.CL.CL_DEVICE_DOUBLE_FP_CONFIG;
+import static org.jocl.CL.CL_DEVICE_GLOBAL_MEM_SIZE;
+import static org.jocl.CL.CL_DEVICE_LOCAL_MEM_SIZE;
+import static org.jocl.CL.CL_DEVICE_MAX_COMPUTE_UNITS;
+import static org.jocl.CL.CL_DEVICE_MAX_WORK_GROUP_SIZE;
+import static org.jocl.CL.CL_DEVICE_NAME;
+import static org.jocl.CL.CL_DEVICE_TYPE;
+import static org.jocl.CL.CL_DEVICE_TYPE_ACCELERATOR;
+import static org.jocl.CL.CL_DEVICE_TYPE_ALL;
+import static org.jocl.CL.CL_DEVICE_TYPE_CPU;
+import static org.jocl.CL.CL_DEVICE_TYPE_GPU;
+import static org.jocl.CL.CL_DEVICE_VENDOR;
+import static org.jocl.CL.CL_MEM_READ_ONLY;
+import static org.jocl.CL.CL_MEM_READ_WRITE;
+import static org.jocl.CL.clGetDeviceInfo;
+import static org.jocl.CL.clReleaseMemObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import org.jocl.CL;
+import org.jocl.Pointer;
+import org.jocl.cl_device_id;
+import org.jocl.cl_mem;
+import org.jocl.cl_platform_id;
+
+import com.christianfries.opencl.ComputeContext;
+import com.christianfries.opencl.DeviceSelectionPolicy;
+import com.christianfries.opencl.KernelLauncher;
+import com.christianfries.opencl.NDRange;
+
+import jcuda.Sizeof;
+import jcuda.driver.CUcontext;
+import jcuda.driver.CUdevice;
+import jcuda.driver.CUdeviceptr;
+import jcuda.driver.JCudaDriver;
+
+/**
+ * Registry of all compute devices of this system.
+ *
+ * All OpenCL platforms / devices and all Cuda devices are enumerated once (on first use) and their
+ * capabilities are cached. The Java backend is always available, such that device selection
+ * falls back to it if neither OpenCL nor Cuda can be initialized.
+ *
+ * Devices are compared by a short calibration microbenchmark (an element-wise addition on
+ * a small and on a large vector), which is run lazily, once per device.
+ * The result is a linear model of the run time, see {@link DeviceCalibration}, such that the fastest
+ * device can be selected for a given workload size.
+ *
+ * The selection can be overridden by the environment variable <code>JAVAGPU_DEVICE</code> (or the
+ * system property <code>javagpu.device</code>), either with a device id (<code>java</code>,
+ * <code>cuda:0</code>, <code>opencl:0:1</code>) or with a backend name (<code>java</code>,
+ * <code>cuda</code>, <code>opencl</code>). Setting <code>JAVAGPU_CALIBRATION=false</code> (or the
+ * system property <code>javagpu.calibration</code>) replaces the microbenchmark by an estimate from
+ * the device capabilities.
+ *
+ * @author Christian Fries
+ */
+public class DeviceRegistry {
+
+	public static final String DEVICE_ENVIRONMENT_VARIABLE = "JAVAGPU_DEVICE";
+	public static final String DEVICE_PROPERTY = "javagpu.device";
+	public static final String CALIBRATION_ENVIRONMENT_VARIABLE = "JAVAGPU_CALIBRATION";
+	public static final String CALIBRATION_PROPERTY = "javagpu.calibration";
+
+	private static final Logger logger = Logger.getLogger("com.christianfries.compute");
+
+	private static final int CALIBRATION_SIZE_SMALL = 1 << 10;
+	private static final int CALIBRATION_SIZE_LARGE = 1 << 22;
+	private static final int CALIBRATION_REPETITIONS = 3;
+
+	private static class InstanceHolder {
+		private static final DeviceRegistry INSTANCE = new DeviceRegistry();
+	}
+
+	private final List<DeviceInfo> devices;
+	private final Map<String, DeviceCalibration> calibrations = new ConcurrentHashMap<>();
+
+	/**
+	 * @return The registry of this JVM. Devices are enumerated on the first call.
+	 */
+	public static DeviceRegistry getInstance() {
+		return InstanceHolder.INSTANCE;
+	}
+
+	private DeviceRegistry() {
+		final List<DeviceInfo> devices = new ArrayList<>();
+		devices.addAll(discoverCudaDevices());
+		devices.addAll(discoverOpenCLDevices());
+		devices.add(getJavaDevice());
+		this.devices = Collections.unmodifiableList(devices);
+
+		for(final DeviceInfo device : devices) {
+			logger.config("Found device " + device);
+		}
+	}
+
+	/**
+	 * @return All devices, Cuda devices first, then OpenCL devices (by platform), then the Java backend.
+	 */
+	public List<DeviceInfo> getDevices() {
+		return devices;
+	}
+
+	/**
+	 * @param backend A backend.
+	 * @return All devices of the given backend.
+	 */
+	public List<DeviceInfo> getDevices(final Backend backend) {
+		return devices.stream().filter(device -> device.getBackend() == backend).collect(Collectors.toList());
+	}
+
+	/**
+	 * Get a device by its index among the devices of a given backend and type (over all platforms).
+	 *
+	 * @param backend The backend.
+	 * @param deviceType The device type.
+	 * @param index The index. Negative values count from the end, i.e., -1 is the last device.
+	 * @return The device.
+	 * @throws IllegalStateException If there is no such device.
+	 */
+	public DeviceInfo getDevice(final Backend backend, final DeviceInfo.DeviceType deviceType, final int index) {
+		final List<DeviceInfo> candidates = devices.stream()
+				.filter(device -> device.getBackend() == backend && device.getDeviceType() == deviceType)
+				.collect(Collectors.toList());
+		final int deviceIndex = index >= 0 ? index : candidates.size() + index;
+		if(deviceIndex < 0 || deviceIndex >= candidates.size()) {
+			throw new IllegalStateException("No " + backend + " " + deviceType + " device with index " + index + ". Number of devices: " + candidates.size());
+		}
+		return candidates.get(deviceIndex);
+	}
+
+	/**
+	 * @param id A device id, e.g., <code>cuda:0</code>.
+	 * @return The device with the given id, if it exists.
+	 */
+	public Optional<DeviceInfo> getDevice(final String id) {
+		return devices.stream().filter(device -> device.getId().equalsIgnoreCase(id)).findFirst();
+	}
+
+	/**
+	 * @return The device selection override given by environment variable or system property, if any.
+	 */
+	public Optional<String> getDeviceOverride() {
+		return Optional.ofNullable(getSetting(DEVICE_PROPERTY, DEVICE_ENVIRONMENT_VARIABLE)).map(String::trim).filter(value -> !value.isEmpty());
+	}
+
+	/**
+	 * Select the fastest device for an element-wise workload of the given size, considering all backends.
+	 *
+	 * @param numberOfElements The size of the workload.
+	 * @return The selected device (the Java backend if no other device is available).
+	 */
+	public DeviceInfo selectFastest(final long numberOfElements) {
+		return selectFastest(device -> true, numberOfElements);
+	}
+
+	/**
+	 * Select the fastest device of a given backend for an element-wise workload of the given size.
+	 *
+	 * @param backend The backend.
+	 * @param numberOfElements The size of the workload.
+	 * @return The selected device.
+	 * @throws IllegalStateException If there is no device for this backend.
+	 */
+	public DeviceInfo selectFastest(final Backend backend, final long numberOfElements) {
+		return selectFastest(device -> device.getBackend() == backend, numberOfElements);
+	}
+
+	/**
+	 * Select the fastest device of a given backend and type for an element-wise workload of the given size.
+	 *
+	 * @param backend The backend.
+	 * @param deviceType The device type.
+	 * @param numberOfElements The size of the workload.
+	 * @return The selected device.
+	 * @throws IllegalStateException If there is no device for this backend and type.
+	 */
+	public DeviceInfo selectFastest(final Backend backend, final DeviceInfo.DeviceType deviceType, final long numberOfElements) {
+		return selectFastest(device -> device.getBackend() == backend && device.getDeviceType() == deviceType, numberOfElements);
+	}
+
+	/**
+	 * Select the fastest device among the devices accepted by the given filter.
+	 *
+	 * If a device override is set (see class documentation) and it matches an accepted device,
+	 * the override wins. Otherwise the device with the smallest estimated run time is returned.
+	 *
+	 * @param filter A filter for the devices to consider.
+	 * @param numberOfElements The size of the workload.
+	 * @return The selected device.
+	 * @throws IllegalStateException If no device is accepted by the filter.
+	 */
+	public DeviceInfo selectFastest(final Predicate<DeviceInfo> filter, final long numberOfElements) {
+		final List<DeviceInfo> candidates = devices.stream().filter(filter).collect(Collectors.toList());
+
+		final Optional<String> override = getDeviceOverride();
+		if(override.isPresent()) {
+			final String value = override.get();
+			final List<DeviceInfo> overrideCandidates = candidates.stream()
+					.filter(device -> device.getId().equalsIgnoreCase(value) || device.getBackend().name().replace("_", "").equalsIgnoreCase(value))
+					.collect(Collectors.toList());
+			if(!overrideCandidates.isEmpty()) {
+				return getFastest(overrideCandidates, numberOfElements);
+			}
+			logger.warning("Device override " + value + " does not match an available device. Using automatic selection.");
+		}
+
+		if(candidates.isEmpty()) {
+			throw new IllegalStateException("No compute device available matching the requested criteria.");
+		}
+		return getFastest(candidates, numberOfElements);
+	}
+
+	private DeviceInfo getFastest(final List<DeviceInfo> candidates, final long numberOfElements) {
+		if(candidates.size() == 1) {
+			return candidates.get(0);
+		}
+		return candidates.stream().min(Comparator.comparingDouble(device -> getCalibration(device).getEstimatedTime(numberOfElements))).get();
+	}
+
+	/**
+	 * Get the calibration of a device. The calibration is run once on first request.
+	 * If the calibration fails, the device is considered infinitely slow.
+	 *
+	 * @param device The device.
+	 * @return The calibration.
+	 */
+	public DeviceCalibration getCalibration(final DeviceInfo device) {
+		return calibrations.computeIfAbsent(device.getId(), id -> {
+			if(!isCalibrationEnabled()) {
+				return getEstimatedCalibration(device);
+			}
+			try {
+				final DeviceCalibration calibration = calibrate(device);
+				logger.config("Calibrated device " + device.getId() + ": " + calibration);
+				return calibration;
+			}
+			catch(final RuntimeException | LinkageError e) {
+				logger.log(Level.WARNING, "Calibration of device " + device.getId() + " failed. Device will not be selected automatically.", e);
+				return new DeviceCalibration(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+			}
+		});
+	}
+
+	private boolean isCalibrationEnabled() {
+		final String value = getSetting(CALIBRATION_PROPERTY, CALIBRATION_ENVIRONMENT_VARIABLE);
+		return value == null || !value.trim().equalsIgnoreCase("false");
+	}
+
+	private static String getSetting(final String property, final String environmentVariable) {
+		final String value = System.getProperty(property);
+		return value != null ? value : System.getenv(environmentVariable);
+	}
+
+	/*
+	 * Discovery
+	 */
+
+	private static List<DeviceInfo> discoverCudaDevices() {
+		final List<DeviceInfo> cudaDevices = new ArrayList<>();
+		try {
+			JCudaDriver.setExceptionsEnabled(true);
+			cuInit(0);
+
+			final int[] numberOfDevices = new int[1];
+			cuDeviceGetCount(numberOfDevices);
+			for(int deviceIndex=0; deviceIndex<numberOfDevices[0]; deviceIndex++) {
+				final CUdevice device = new CUdevice();
+				cuDeviceGet(device, deviceIndex);
+
+				final byte[] name = new byte[256];
+				cuDeviceGetName(name, name.length, device);
+				final long[] totalMemory = new long[1];
+				cuDeviceTotalMem(totalMemory, device);
+
+				cudaDevices.add(new DeviceInfo(Backend.CUDA, 0, deviceIndex, toString(name), "NVIDIA", DeviceInfo.DeviceType.GPU,
+						getCudaAttribute(device, CU_DEVICE_ATTRIBUTE_MULTIPROCESSOR_COUNT),
+						totalMemory[0],
+						getCudaAttribute(device, CU_DEVICE_ATTRIBUTE_MAX_SHARED_MEMORY_PER_BLOCK),
+						getCudaAttribute(device, CU_DEVICE_ATTRIBUTE_MAX_THREADS_PER_BLOCK),
+						true, null));
+			}
+		}
+		catch(final RuntimeException | LinkageError e) {
+			logger.info("Cuda not available: " + e.getMessage());
+		}
+		return cudaDevices;
+	}
+
+	private static List<DeviceInfo> discoverOpenCLDevices() {
+		final List<DeviceInfo> openCLDevices = new ArrayList<>();
+		try {
+			CL.setExceptionsEnabled(true);
+
+			final cl_platform_id[] platforms = DeviceSelectionPolicy.getPlatforms();
+			for(int platformIndex=0; platformIndex<platforms.length; platformIndex++) {
+				final cl_device_id[] platformDevices = DeviceSelectionPolicy.getDevices(platforms[platformIndex], CL_DEVICE_TYPE_ALL);
+				for(int deviceIndex=0; deviceIndex<platformDevices.length; deviceIndex++) {
+					final cl_device_id device = platformDevices[deviceIndex];
+
+					final long type = getOpenCLLong(device, CL_DEVICE_TYPE);
+					final DeviceInfo.DeviceType deviceType;
+					if((type & CL_DEVICE_TYPE_GPU) != 0)				deviceType = DeviceInfo.DeviceType.GPU;
+					else if((type & CL_DEVICE_TYPE_CPU) != 0)			deviceType = DeviceInfo.DeviceType.CPU;
+					else if((type & CL_DEVICE_TYPE_ACCELERATOR) != 0)	deviceType = DeviceInfo.DeviceType.ACCELERATOR;
+					else												deviceType = DeviceInfo.DeviceType.OTHER;
+
+					boolean isDoublePrecisionSupported;
+					try {
+						isDoublePrecisionSupported = getOpenCLLong(device, CL_DEVICE_DOUBLE_FP_CONFIG) != 0;
+					}
+					catch(final RuntimeException e) {
+						// Devices without cl_khr_fp64 may report an invalid value
+						isDoublePrecisionSupported = false;
+					}
+
+					openCLDevices.add(new DeviceInfo(Backend.OPEN_CL, platformIndex, deviceIndex,
+							getOpenCLString(device, CL_DEVICE_NAME),
+							getOpenCLString(device, CL_DEVICE_VENDOR),
+							deviceType,
+							getOpenCLInt(device, CL_DEVICE_MAX_COMPUTE_UNITS),
+							getOpenCLLong(device, CL_DEVICE_GLOBAL_MEM_SIZE),
+							getOpenCLLong(device, CL_DEVICE_LOCAL_MEM_SIZE),
+							getOpenCLSize(device, CL_DEVICE_MAX_WORK_GROUP_SIZE),
+							isDoublePrecisionSupported, device));
+				}
+			}
+		}
+		catch(final RuntimeException | LinkageError e) {
+			logger.info("OpenCL not available: " + e.getMessage());
+		}
+		return openCLDevices;
+	}
+
+	private static DeviceInfo getJavaDevice() {
+		return new DeviceInfo(Backend.JAVA, 0, 0,
+				"Java " + System.getProperty("java.vm.name"),
+				System.getProperty("java.vendor"),
+				DeviceInfo.DeviceType.CPU,
+				Runtime.getRuntime().availableProcessors(),
+				Runtime.getRuntime().maxMemory(),
+				0, 1, true, null);
+	}
+
+	private static int getCudaAttribute(final CUdevice device, final int attribute) {
+		final int[] value = new int[1];
+		cuDeviceGetAttribute(value, attribute, device);
+		return value[0];
+	}
+
+	private static String getOpenCLString(final cl_device_id device, final int parameter) {
+		final long[] size = new long[1];
+		clGetDeviceInfo(device, parameter, 0, null, size);
+		final byte[] buffer = new byte[(int)size[0]];
+		clGetDeviceInfo(device, parameter, buffer.length, Pointer.to(buffer), null);
+		return toString(buffer);
+	}
+
+	private static int getOpenCLInt(final cl_device_id device, final int parameter) {
+		final int[] value = new int[1];
+		clGetDeviceInfo(device, parameter, org.jocl.Sizeof.cl_uint, Pointer.to(value), null);
+		return value[0];
+	}
+
+	private static long getOpenCLLong(final cl_device_id device, final int parameter) {
+		final long[] value = new long[1];
+		clGetDeviceInfo(device, parameter, org.jocl.Sizeof.cl_ulong, Pointer.to(value), null);
+		return value[0];
+	}
+
+	private static long getOpenCLSize(final cl_device_id device, final int parameter) {
+		// On 32 bit systems only the lower 4 bytes are written (little endian)
+		final long[] value = new long[1];
+		clGetDeviceInfo(device, parameter, org.jocl.Sizeof.size_t, Pointer.to(value), null);
+		return value[0];
+	}
+
+	private static String toString(final byte[] nullTerminated) {
+		int length = 0;
+		while(length < nullTerminated.length && nullTerminated[length] != 0) {
+			length++;
+		}
+		return new String(nullTerminated, 0, length).trim();
+	}
+
+	/*
+	 * Calibration
+	 */
+
+	private static DeviceCalibration calibrate(final DeviceInfo device) {
+		switch(device.getBackend()) {
+		case JAVA:
+		default:
+			return calibrateJava();
+		case OPEN_CL:
+			return calibrateOpenCL(device);
+		case CUDA:
+			return calibrateCuda(device);
+		}
+	}
+
+	/**
+	 * Estimate a calibration from the device capabilities (used if calibration is disabled).
+	 * This is a rough guess, preferring GPUs with many compute units.
+	 */
+	private static DeviceCalibration getEstimatedCalibration(final DeviceInfo device) {
+		final double elementsPerSecondPerComputeUnit = device.getDeviceType() == DeviceInfo.DeviceType.GPU ? 1E9 : 1E8;
+		final double latency = device.getBackend() == Backend.JAVA ? 1E-6 : 2E-5;
+		return new DeviceCalibration(latency, 1.0 / (elementsPerSecondPerComputeUnit * Math.max(device.getComputeUnits(), 1)));
+	}
+
+	/**
+	 * Measure a run of the given benchmark for the small and the large size (best of a few repetitions after a warm up).
+	 *
+	 * @param benchmark Function mapping a size to the measured run time in seconds.
+	 * @return The calibration.
+	 */
+	private static DeviceCalibration measure(final IntToDoubleFunction benchmark) {
+		final double[] bestTimes = new double[] { Double.MAX_VALUE, Double.MAX_VALUE };
+		final int[] sizes = new int[] { CALIBRATION_SIZE_SMALL, CALIBRATION_SIZE_LARGE };
+		for(int i=0; i<sizes.length; i++) {
+			benchmark.applyAsDouble(sizes[i]);	// Warm up
+			for(int repetition=0; repetition<CALIBRATION_REPETITIONS; repetition++) {
+				bestTimes[i] = Math.min(bestTimes[i], benchmark.applyAsDouble(sizes[i]));
+			}
+		}
+		return DeviceCalibration.of(sizes[0], bestTimes[0], sizes[1], bestTimes[1]);
+	}
+
+	private static DeviceCalibration calibrateJava() {
+		final float[] a = new float[CALIBRATION_SIZE_LARGE];
+		final float[] b = new float[CALIBRATION_SIZE_LARGE];
+		final float[] c = new float[CALIBRATION_SIZE_LARGE];
+
+		return measure(size -> {
+			final long start = System.nanoTime();
+			JavaComputeEngine.getDefault().forEachRange(size, (rangeStart, rangeEnd) -> {
+				for(int i=rangeStart; i<rangeEnd; i++) c[i] = a[i] + b[i];
+			});
+			return (System.nanoTime() - start) / 1E9;
+		});
+	}
+
+	private static DeviceCalibration calibrateOpenCL(final DeviceInfo device) {
+		final String source =
+				"__kernel void calibrate(__global const float *a, __global const float *b, __global float *c)"
+						+ "{"
+						+ "  int i = get_global_id(0);"
+						+ "  c[i] = a[i] + b[i];"
+						+ "}";
+
+		try(ComputeContext computeContext = new ComputeContext(device.getOpenCLDevice());
+				KernelLauncher kernel = computeContext.createKernel(source, null, "calibrate")) {
+			final long bytes = (long)org.jocl.Sizeof.cl_float * CALIBRATION_SIZE_LARGE;
+			final cl_mem a = computeContext.createBuffer(CL_MEM_READ_ONLY, bytes);
+			final cl_mem b = computeContext.createBuffer(CL_MEM_READ_ONLY, bytes);
+			final cl_mem c = computeContext.createBuffer(CL_MEM_READ_WRITE, bytes);
+			kernel.setArg(0, a).setArg(1, b).setArg(2, c);
+			try {
+				return measure(size -> {
+					final long start = System.nanoTime();
+					kernel.launch(NDRange.of(size));
+					computeContext.finish();
+					return (System.nanoTime() - start) / 1E9;
+				});
+			}
+			finally {
+				clReleaseMemObject(a);
+				clReleaseMemObject(b);
+				clReleaseMemObject(c);
+			}
+		}
+	}
+
+	/**
+	 * Calibrate a Cuda device. To avoid compiling a kernel, the benchmark is a device to device copy.
+	 * An element-wise operation <code>c[i] = a[i] + b[i]</code> moves 12 bytes per element (two reads, one write),
+	 * a copy 8 bytes per element (one read, one write), hence the copy of <code>size</code> elements moves
+	 * <code>3/2 size</code> floats, such that it has the memory traffic of the element-wise operation.
+	 */
+	private static DeviceCalibration calibrateCuda(final DeviceInfo device) {
+		final long bytes = (long)Sizeof.FLOAT * CALIBRATION_SIZE_LARGE * 3 / 2;
+		final CUdevice cuDevice = new CUdevice();
+		cuDeviceGet(cuDevice, device.getDeviceIndex());
+		final CUcontext context = new CUcontext();
+		cuDevicePrimaryCtxRetain(context, cuDevice);
+		try {
+			cuCtxPushCurrent(context);
+			try {
+				final CUdeviceptr source = new CUdeviceptr();
+				cuMemAlloc(source, bytes);
+				try {
+					final CUdeviceptr target = new CUdeviceptr();
+					cuMemAlloc(target, bytes);
+					try {
+						return measure(size -> {
+							final long start = System.nanoTime();
+							cuMemcpyDtoD(target, source, (long)Sizeof.FLOAT * size * 3 / 2);
+							cuCtxSynchronize();
+							return (System.nanoTime() - start) / 1E9;
+						});
+					}
+					finally {
+						cuMemFree(target);
+					}
+				}
+				finally {
+					cuMemFree(source);
+				}
+			}
+			finally {
+				cuCtxPopCurrent(new CUcontext());
+			}
+		}
+		finally {
+			cuDevicePrimaryCtxRelease(cuDevice);
+		}
+	}
+}
@@ -0,0 +1,435 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.compute;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.christianfries.compute.Expression.Operator;
+
+/**
+ * Estimates the divergence of a conditional kernel from its input data and selects the faster kernel variant,
+ * {@link KernelVariant#BRANCHING} or {@link KernelVariant#PREDICATED}, at launch time.
+ *
+ * The threads of a warp (Cuda), a wavefront (AMD) or the lanes of a SIMD unit (CPU) execute in lock step.
+ * If the threads of such a block take different branches, the block executes both branches (divergence).
+ * The diagnostics sample blocks of the input and measure for each block whether the predicate is true
+ * for some and false for some of its elements. With <i>p</i><sub>T</sub> (<i>p</i><sub>F</sub>) the fraction of blocks having
+ * some element taking the true (false) branch and <i>p</i><sub>D</sub> the fraction of divergent blocks, the expected cost per block is
+ * <ul>
+ * 	<li>branching: <i>p</i><sub>T</sub> <i>c</i><sub>T</sub> + <i>p</i><sub>F</sub> <i>c</i><sub>F</sub> + <i>p</i><sub>D</sub> <i>c</i><sub>D</sub>,</li>
+ * 	<li>predicated: <i>c</i><sub>T</sub> + <i>c</i><sub>F</sub>,</li>
+ * </ul>
+ * where <i>c</i><sub>T</sub>, <i>c</i><sub>F</sub> are the costs of the branches and <i>c</i><sub>D</sub> is the overhead of a divergent block
+ * (serialization and re-convergence). Hence the branching kernel wins if the blocks are uniform (e.g., sorted data), the predicated kernel
+ * wins if (almost) all blocks diverge (e.g., interleaved data) and the branches are cheap.
+ *
+ * The selection and the estimated divergence are reported to the logger <code>com.christianfries.compute</code> (level <code>FINE</code>)
+ * and are available from the returned {@link Selection}.
+ *
+ * @author Christian Fries
+ */
+public class DivergenceDiagnostics {
+
+	private static final Logger logger = Logger.getLogger("com.christianfries.compute");
+
+	public static final int DEFAULT_NUMBER_OF_SAMPLED_BLOCKS = 1024;
+	public static final double DEFAULT_DIVERGENCE_OVERHEAD = 1.0;
+
+	private static final long SEED = 3141;
+
+	private final int blockSize;
+	private final int numberOfSampledBlocks;
+	private final double divergenceOverhead;
+
+	/**
+	 * The predicate statistics of the sampled blocks.
+	 */
+	public static class Estimate {
+		private final int blockSize;
+		private final int numberOfSampledBlocks;
+		private final double predicateDensity;
+		private final double fractionOfBlocksTakingTrue;
+		private final double fractionOfBlocksTakingFalse;
+		private final double fractionOfDivergentBlocks;
+
+		Estimate(int blockSize, int numberOfSampledBlocks, double predicateDensity, double fractionOfBlocksTakingTrue, double fractionOfBlocksTakingFalse, double fractionOfDivergentBlocks) {
+			this.blockSize = blockSize;
+			this.numberOfSampledBlocks = numberOfSampledBlocks;
+			this.predicateDensity = predicateDensity;
+			this.fractionOfBlocksTakingTrue = fractionOfBlocksTakingTrue;
+			this.fractionOfBlocksTakingFalse = fractionOfBlocksTakingFalse;
+			this.fractionOfDivergentBlocks = fractionOfDivergentBlocks;
+		}
+
+		public int getBlockSize() {
+			return blockSize;
+		}
+
+		public int getNumberOfSampledBlocks() {
+			return numberOfSampledBlocks;
+		}
+
+		/**
+		 * @return The fraction of the sampled elements for which the predicate is true.
+		 */
+		public double getPredicateDensity() {
+			return predicateDensity;
+		}
+
+		/**
+		 * @return The fraction of the sampled blocks in which some element takes the true branch.
+		 */
+		public double getFractionOfBlocksTakingTrue() {
+			return fractionOfBlocksTakingTrue;
+		}
+
+		/**
+		 * @return The fraction of the sampled blocks in which some element takes the false branch.
+		 */
+		public double getFractionOfBlocksTakingFalse() {
+			return fractionOfBlocksTakingFalse;
+		}
+
+		/**
+		 * @return The fraction of the sampled blocks taking both branches (the estimated divergence).
+		 */
+		public double getFractionOfDivergentBlocks() {
+			return fractionOfDivergentBlocks;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("blockSize=%d, sampledBlocks=%d, predicateDensity=%.1f%%, divergence=%.1f%%",
+					blockSize, numberOfSampledBlocks, 100.0 * predicateDensity, 100.0 * fractionOfDivergentBlocks);
+		}
+	}
+
+	/**
+	 * The selected kernel variant together with the estimates it is based on.
+	 */
+	public static class Selection {
+		private final KernelVariant variant;
+		private final List<Estimate> estimates;
+		private final double expectedCostBranching;
+		private final double expectedCostPredicated;
+
+		Selection(List<Estimate> estimates, double expectedCostBranching, double expectedCostPredicated) {
+			this.variant = expectedCostPredicated < expectedCostBranching ? KernelVariant.PREDICATED : KernelVariant.BRANCHING;
+			this.estimates = Collections.unmodifiableList(estimates);
+			this.expectedCostBranching = expectedCostBranching;
+			this.expectedCostPredicated = expectedCostPredicated;
+		}
+
+		public KernelVariant getVariant() {
+			return variant;
+		}
+
+		/**
+		 * @return The estimates, one for each conditional.
+		 */
+		public List<Estimate> getEstimates() {
+			return estimates;
+		}
+
+		/**
+		 * @return The largest estimated divergence of the conditionals.
+		 */
+		public double getDivergence() {
+			return estimates.stream().mapToDouble(Estimate::getFractionOfDivergentBlocks).max().orElse(0.0);
+		}
+
+		/**
+		 * @param variant The kernel variant.
+		 * @return The expected cost per block of the given variant.
+		 */
+		public double getExpectedCost(KernelVariant variant) {
+			return variant == KernelVariant.BRANCHING ? expectedCostBranching : expectedCostPredicated;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s (expected cost per block: branching %.1f, predicated %.1f) %s",
+					variant, expectedCostBranching, expectedCostPredicated, estimates);
+		}
+	}
+
+	/**
+	 * Create the diagnostics.
+	 *
+	 * @param blockSize The number of threads executing in lock step (warp size, SIMD width).
+	 * @param numberOfSampledBlocks The maximum number of blocks sampled from the input.
+	 * @param divergenceOverhead The overhead of a divergent block (in addition to executing both branches), relative to the cost of a single operation.
+	 */
+	public DivergenceDiagnostics(int blockSize, int numberOfSampledBlocks, double divergenceOverhead) {
+		super();
+		if(blockSize < 1 || numberOfSampledBlocks < 1) {
+			throw new IllegalArgumentException("Block size and number of sampled blocks have to be positive.");
+		}
+		this.blockSize = blockSize;
+		this.numberOfSampledBlocks = numberOfSampledBlocks;
+		this.divergenceOverhead = divergenceOverhead;
+	}
+
+	/**
+	 * Create the diagnostics for the given device, see {@link #getBlockSize(DeviceInfo)}.
+	 *
+	 * @param device The device executing the kernel.
+	 */
+	public DivergenceDiagnostics(DeviceInfo device) {
+		this(getBlockSize(device), DEFAULT_NUMBER_OF_SAMPLED_BLOCKS, DEFAULT_DIVERGENCE_OVERHEAD);
+	}
+
+	/**
+	 * @param device A device.
+	 * @return The number of threads executing in lock step: 32 for Cuda and OpenCL GPUs (64 for AMD GPUs), 8 (256 bit SIMD) for CPUs.
+	 */
+	public static int getBlockSize(DeviceInfo device) {
+		if(device.getBackend() == Backend.CUDA) {
+			return 32;
+		}
+		else if(device.getBackend() == Backend.OPEN_CL && device.getDeviceType() == DeviceInfo.DeviceType.GPU) {
+			final String vendor = device.getVendor() != null ? device.getVendor().toUpperCase() : "";
+			return vendor.contains("AMD") || vendor.contains("ADVANCED MICRO") ? 64 : 32;
+		}
+		else {
+			return 8;
+		}
+	}
+
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	/**
+	 * Estimate the divergence of a predicate over the index range <code>[0, size)</code>.
+	 *
+	 * @param size The number of elements.
+	 * @param predicate The predicate as a function of the index (true if the element takes the true branch).
+	 * @return The estimate.
+	 */
+	public Estimate analyze(int size, IntPredicate predicate) {
+		final int[] blockStarts = getSampledBlocks(size);
+		final boolean[] samples = new boolean[getNumberOfSamples(blockStarts, size)];
+		int sample = 0;
+		for(final int blockStart : blockStarts) {
+			for(int i=blockStart; i<Math.min(size, blockStart + blockSize); i++) {
+				samples[sample++] = predicate.test(i);
+			}
+		}
+		return getEstimate(samples);
+	}
+
+	/**
+	 * Estimate the divergence of a condition evaluated on the given data.
+	 *
+	 * @param condition The condition.
+	 * @param variableNames The names of the variables (a superset of the variables of the condition).
+	 * @param variables The values of the variables (all of the same length).
+	 * @param parameterNames The names of the parameters (a superset of the parameters of the condition).
+	 * @param parameters The values of the parameters.
+	 * @return The estimate.
+	 */
+	public Estimate analyze(Expression condition, List<String> variableNames, float[][] variables, List<String> parameterNames, float[] parameters) {
+		if(!condition.isCondition()) {
+			throw new IllegalArgumentException("The expression has to be a condition.");
+		}
+		final int size = variables.length > 0 ? variables[0].length : 1;
+		final int[] blockStarts = getSampledBlocks(size);
+		final int numberOfSamples = getNumberOfSamples(blockStarts, size);
+
+		// Gather the sampled blocks of the variables used by the condition
+		final Expression indicator = Expression.ifThenElse(condition, Expression.constant(1.0f), Expression.constant(0.0f));
+		final List<String> conditionVariableNames = indicator.getVariableNames();
+		final float[][] sampledVariables = new float[conditionVariableNames.size()][numberOfSamples];
+		for(int k=0; k<conditionVariableNames.size(); k++) {
+			final float[] variable = variables[variableNames.indexOf(conditionVariableNames.get(k))];
+			int sample = 0;
+			for(final int blockStart : blockStarts) {
+				final int length = Math.min(size, blockStart + blockSize) - blockStart;
+				System.arraycopy(variable, blockStart, sampledVariables[k], sample, length);
+				sample += length;
+			}
+		}
+		final List<String> conditionParameterNames = indicator.getParameterNames();
+		final float[] conditionParameters = new float[conditionParameterNames.size()];
+		for(int k=0; k<conditionParameterNames.size(); k++) {
+			conditionParameters[k] = parameters[parameterNames.indexOf(conditionParameterNames.get(k))];
+		}
+
+		final float[] values = ExpressionCompiler.getJavaKernel(indicator).evaluate(sampledVariables, conditionParameters);
+		final boolean[] samples = new boolean[numberOfSamples];
+		for(int i=0; i<numberOfSamples; i++) {
+			samples[i] = values.length == 1 ? values[0] != 0.0f : values[i] != 0.0f;
+		}
+		return getEstimate(samples);
+	}
+
+	/**
+	 * Select the kernel variant for a kernel with a single conditional.
+	 *
+	 * @param estimate The estimate of the predicate of the conditional.
+	 * @param costIfTrue The cost of the true branch (e.g., number of operations).
+	 * @param costIfFalse The cost of the false branch.
+	 * @return The selection.
+	 */
+	public Selection selectVariant(Estimate estimate, double costIfTrue, double costIfFalse) {
+		final Selection selection = new Selection(List.of(estimate),
+				getExpectedCost(estimate, KernelVariant.BRANCHING, costIfTrue, costIfFalse),
+				getExpectedCost(estimate, KernelVariant.PREDICATED, costIfTrue, costIfFalse));
+		report(selection);
+		return selection;
+	}
+
+	/**
+	 * Select the kernel variant of the given expression for the given data.
+	 * The divergence of each conditional is estimated separately. The cost of a branch is the number of its operations,
+	 * where exponential, logarithm and division count four times.
+	 *
+	 * @param expression The expression.
+	 * @param variables The values of the variables (in the order of {@link Expression#getVariableNames()}).
+	 * @param parameters The values of the parameters (in the order of {@link Expression#getParameterNames()}).
+	 * @return The selection.
+	 */
+	public Selection selectVariant(Expression expression, float[][] variables, float[] parameters) {
+		final List<String> variableNames = expression.getVariableNames();
+		final List<String> parameterNames = expression.getParameterNames();
+		final Set<Expression> evaluatedUnconditionally = new HashSet<>(expression.getNodesInEvaluationOrder(Collections.emptySet(), false));
+
+		final List<Estimate> estimates = new ArrayList<>();
+		double expectedCostBranching = 0.0;
+		double expectedCostPredicated = 0.0;
+		for(final Expression node : expression.getNodesInEvaluationOrder()) {
+			if(node.getOperator() != Operator.CONDITIONAL) {
+				continue;
+			}
+			final Estimate estimate = analyze(node.getArgument(0), variableNames, variables, parameterNames, parameters);
+			final double costIfTrue = getCost(node.getArgument(1).getNodesInEvaluationOrder(evaluatedUnconditionally, false));
+			final double costIfFalse = getCost(node.getArgument(2).getNodesInEvaluationOrder(evaluatedUnconditionally, false));
+			estimates.add(estimate);
+			expectedCostBranching += getExpectedCost(estimate, KernelVariant.BRANCHING, costIfTrue, costIfFalse);
+			expectedCostPredicated += getExpectedCost(estimate, KernelVariant.PREDICATED, costIfTrue, costIfFalse);
+		}
+
+		final Selection selection = new Selection(estimates, expectedCostBranching, expectedCostPredicated);
+		report(selection);
+		return selection;
+	}
+
+	/**
+	 * @param estimate The estimate of the predicate.
+	 * @param variant The kernel variant.
+	 * @param costIfTrue The cost of the true branch.
+	 * @param costIfFalse The cost of the false branch.
+	 * @return The expected cost per block.
+	 */
+	public double getExpectedCost(Estimate estimate, KernelVariant variant, double costIfTrue, double costIfFalse) {
+		switch(variant) {
+		case BRANCHING:
+			return estimate.getFractionOfBlocksTakingTrue() * costIfTrue + estimate.getFractionOfBlocksTakingFalse() * costIfFalse
+					+ estimate.getFractionOfDivergentBlocks() * divergenceOverhead;
+		case PREDICATED:
+		default:
+			return costIfTrue + costIfFalse;
+		}
+	}
+
+	private static double getCost(List<Expression> nodes) {
+		double cost = 0.0;
+		for(final Expression node : nodes) {
+			switch(node.getOperator()) {
+			case EXP:
+			case LOG:
+			case DIV:
+				cost += 4.0;
+				break;
+			default:
+				cost += 1.0;
+				break;
+			}
+		}
+		return cost;
+	}
+
+	private void report(Selection selection) {
+		ComputeMetrics.getInstance().recordKernelVariantSelection(selection.getVariant(), selection.getDivergence());
+		if(logger.isLoggable(Level.FINE)) {
+			logger.fine("Selected kernel variant " + selection);
+		}
+	}
+
+	/**
+	 * @return The start indices of the sampled blocks: all blocks if there are few, otherwise one random block out of each of
+	 * <code>numberOfSampledBlocks</code> equally sized strata (deterministic seed).
+	 */
+	private int[] getSampledBlocks(int size) {
+		final int numberOfBlocks = (int)(((long)size + blockSize - 1) / blockSize);
+		final int[] blockStarts = new int[Math.min(numberOfBlocks, numberOfSampledBlocks)];
+		if(numberOfBlocks <= numberOfSampledBlocks) {
+			for(int k=0; k<numberOfBlocks; k++) {
+				blockStarts[k] = k * blockSize;
+			}
+		}
+		else {
+			final Random random = new Random(SEED);
+			for(int k=0; k<blockStarts.length; k++) {
+				final long stratumStart = (long)k * numberOfBlocks / blockStarts.length;
+				final long stratumEnd = (long)(k+1) * numberOfBlocks / blockStarts.length;
+				blockStarts[k] = (int)((stratumStart + random.nextInt((int)(stratumEnd - stratumStart))) * blockSize);
+			}
+		}
+		return blockStarts;
+	}
+
+	private int getNumberOfSamples(int[] blockStarts, int size) {
+		int numberOfSamples = 0;
+		for(final int blockStart : blockStarts) {
+			numberOfSamples += Math.min(size, blockStart + blockSize) - blockStart;
+		}
+		return numberOfSamples;
+	}
+
+	/**
+	 * @param samples The predicate of the sampled elements, block by block (only the last block of the data may be shorter).
+	 */
+	private Estimate getEstimate(boolean[] samples) {
+		int numberOfTrue = 0;
+		int numberOfBlocks = 0;
+		int numberOfBlocksTakingTrue = 0;
+		int numberOfBlocksTakingFalse = 0;
+		int numberOfDivergentBlocks = 0;
+		for(int blockStart = 0; blockStart < samples.length; blockStart += blockSize) {
+			boolean isTakingTrue = false;
+			boolean isTakingFalse = false;
+			for(int i=blockStart; i<Math.min(samples.length, blockStart + blockSize); i++) {
+				if(samples[i]) {
+					numberOfTrue++;
+					isTakingTrue = true;
+				}
+				else {
+					isTakingFalse = true;
+				}
+			}
+			numberOfBlocks++;
+			if(isTakingTrue) numberOfBlocksTakingTrue++;
+			if(isTakingFalse) numberOfBlocksTakingFalse++;
+			if(isTakingTrue && isTakingFalse) numberOfDivergentBlocks++;
+		}
+		if(numberOfBlocks == 0) {
+			return new Estimate(blockSize, 0, 0.0, 0.0, 0.0, 0.0);
+		}
+		return new Estimate(blockSize, numberOfBlocks, (double)numberOfTrue / samples.length,
+				(double)numberOfBlocksTakingTrue / numberOfBlocks, (double)numberOfBlocksTakingFalse / numberOfBlocks, (double)numberOfDivergentBlocks / numberOfBlocks);
+	}
+}
@@ -0,0 +1,327 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.compute;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An element-wise expression of float vectors, e.g., a payoff
+ * <code>max(variable("S").sub(parameter("K")), constant(0))</code>, which can be compiled to an
+ * OpenCL or Cuda kernel or to a Java loop, see {@link ExpressionCompiler}. The whole expression is
+ * then evaluated in a single pass over the data.
+ *
+ * An expression is built from
+ * <ul>
+ * 	<li>variables (vectors, one value per element),</li>
+ * 	<li>parameters (scalars passed to the kernel, changing a parameter does not require a new kernel),</li>
+ * 	<li>constants (literals of the generated code),</li>
+ * 	<li>arithmetic operations, <code>exp</code>, <code>log</code>, <code>max</code>, <code>min</code>,</li>
+ * 	<li>comparisons (conditions) and conditional expressions {@link #ifThenElse(Expression, Expression, Expression)}.</li>
+ * </ul>
+ *
+ * Expressions are immutable and compare by structure (<code>equals</code> and <code>hashCode</code>), such that
+ * compiled kernels can be cached by expression. A sub-expression occurring several times is evaluated once.
+ *
+ * @author Christian Fries
+ */
+public final class Expression {
+
+	enum Operator {
+		VARIABLE, PARAMETER, CONSTANT,
+		ADD, SUB, MULT, DIV, NEG, EXP, LOG, MAX, MIN,
+		LESS, LESS_EQUAL, GREATER, GREATER_EQUAL,
+		CONDITIONAL;
+
+		boolean isCondition() {
+			return this == LESS || this == LESS_EQUAL || this == GREATER || this == GREATER_EQUAL;
+		}
+	}
+
+	private final Operator operator;
+	private final String name;
+	private final float value;
+	private final Expression[] arguments;
+	private final int hashCode;
+
+	private Expression(Operator operator, String name, float value, Expression... arguments) {
+		this.operator = operator;
+		this.name = name;
+		this.value = value;
+		this.arguments = arguments;
+		this.hashCode = 31 * (31 * (31 * operator.hashCode() + (name != null ? name.hashCode() : 0)) + Float.floatToIntBits(value)) + Arrays.hashCode(arguments);
+	}
+
+	/**
+	 * @param name The name of the variable.
+	 * @return A variable, i.e., a vector argument of the compiled expression.
+	 */
+	public static Expression variable(String name) {
+		return new Expression(Operator.VARIABLE, name, 0.0f);
+	}
+
+	/**
+	 * @param name The name of the parameter.
+	 * @return A parameter, i.e., a scalar argument of the compiled expression.
+	 */
+	public static Expression parameter(String name) {
+		return new Expression(Operator.PARAMETER, name, 0.0f);
+	}
+
+	/**
+	 * @param value The value.
+	 * @return A constant (a literal in the compiled expression).
+	 */
+	public static Expression constant(float value) {
+		return new Expression(Operator.CONSTANT, null, value);
+	}
+
+	/**
+	 * @param condition A condition (a comparison).
+	 * @param valueIfTrue The value if the condition is true.
+	 * @param valueIfFalse The value if the condition is false.
+	 * @return The expression <code>condition ? valueIfTrue : valueIfFalse</code>.
+	 */
+	public static Expression ifThenElse(Expression condition, Expression valueIfTrue, Expression valueIfFalse) {
+		if(!condition.isCondition()) {
+			throw new IllegalArgumentException("The first argument of a conditional expression has to be a condition.");
+		}
+		return numeric(Operator.CONDITIONAL, condition, valueIfTrue, valueIfFalse);
+	}
+
+	public Expression add(Expression expression) {
+		return numeric(Operator.ADD, this, expression);
+	}
+
+	public Expression sub(Expression expression) {
+		return numeric(Operator.SUB, this, expression);
+	}
+
+	public Expression mult(Expression expression) {
+		return numeric(Operator.MULT, this, expression);
+	}
+
+	public Expression div(Expression expression) {
+		return numeric(Operator.DIV, this, expression);
+	}
+
+	public Expression add(float value) {
+		return add(constant(value));
+	}
+
+	public Expression sub(float value) {
+		return sub(constant(value));
+	}
+
+	public Expression mult(float value) {
+		return mult(constant(value));
+	}
+
+	public Expression div(float value) {
+		return div(constant(value));
+	}
+
+	public Expression neg() {
+		return numeric(Operator.NEG, this);
+	}
+
+	public Expression exp() {
+		return numeric(Operator.EXP, this);
+	}
+
+	public Expression log() {
+		return numeric(Operator.LOG, this);
+	}
+
+	public Expression max(Expression expression) {
+		return numeric(Operator.MAX, this, expression);
+	}
+
+	public Expression min(Expression expression) {
+		return numeric(Operator.MIN, this, expression);
+	}
+
+	public Expression max(float value) {
+		return max(constant(value));
+	}
+
+	public Expression min(float value) {
+		return min(constant(value));
+	}
+
+	public Expression lessThan(Expression expression) {
+		return condition(Operator.LESS, this, expression);
+	}
+
+	public Expression lessThanOrEqual(Expression expression) {
+		return condition(Operator.LESS_EQUAL, this, expression);
+	}
+
+	public Expression greaterThan(Expression expression) {
+		return condition(Operator.GREATER, this, expression);
+	}
+
+	public Expression greaterThanOrEqual(Expression expression) {
+		return condition(Operator.GREATER_EQUAL, this, expression);
+	}
+
+	private static Expression numeric(Operator operator, Expression... arguments) {
+		for(int i=operator == Operator.CONDITIONAL ? 1 : 0; i<arguments.length; i++) {
+			if(arguments[i].isCondition()) {
+				throw new IllegalArgumentException("A condition cannot be used as a value (use ifThenElse).");
+			}
+		}
+		return new Expression(operator, null, 0.0f, arguments);
+	}
+
+	private static Expression condition(Operator operator, Expression left, Expression right) {
+		if(left.isCondition() || right.isCondition()) {
+			throw new IllegalArgumentException("Conditions can only compare values.");
+		}
+		return new Expression(operator, null, 0.0f, left, right);
+	}
+
+	/**
+	 * @return True if this expression is a condition (a comparison), false if it is a value.
+	 */
+	public boolean isCondition() {
+		return operator.isCondition();
+	}
+
+	Operator getOperator() {
+		return operator;
+	}
+
+	String getName() {
+		return name;
+	}
+
+	float getValue() {
+		return value;
+	}
+
+	Expression getArgument(int index) {
+		return arguments[index];
+	}
+
+	int getNumberOfArguments() {
+		return arguments.length;
+	}
+
+	/**
+	 * @return The names of the variables in the order of the vector arguments of the compiled expression (order of first occurrence).
+	 */
+	public List<String> getVariableNames() {
+		return getNames(Operator.VARIABLE);
+	}
+
+	/**
+	 * @return The names of the parameters in the order of the scalar arguments of the compiled expression (order of first occurrence).
+	 */
+	public List<String> getParameterNames() {
+		return getNames(Operator.PARAMETER);
+	}
+
+	private List<String> getNames(Operator operator) {
+		final Set<String> names = new LinkedHashSet<>();
+		for(final Expression node : getNodesInEvaluationOrder()) {
+			if(node.operator == operator) {
+				names.add(node.name);
+			}
+		}
+		return new ArrayList<>(names);
+	}
+
+	/**
+	 * @return The distinct nodes of this expression, each node after its arguments (iterative post-order).
+	 * Structurally equal sub-expressions are represented by a single node (common sub-expression elimination).
+	 */
+	List<Expression> getNodesInEvaluationOrder() {
+		return getNodesInEvaluationOrder(Collections.emptySet(), true);
+	}
+
+	/**
+	 * @param evaluated Nodes which are already evaluated (these and their arguments are not included).
+	 * @param isDescendingIntoBranches If false, the branches of a conditional expression are not included (only its condition).
+	 * @return The distinct nodes of this expression, each node after its arguments (iterative post-order).
+	 */
+	List<Expression> getNodesInEvaluationOrder(Set<Expression> evaluated, boolean isDescendingIntoBranches) {
+		final List<Expression> nodes = new ArrayList<>();
+		if(evaluated.contains(this)) {
+			return nodes;
+		}
+		final Map<Expression, Boolean> visited = new HashMap<>();
+		final Deque<Expression> stack = new ArrayDeque<>();
+		stack.push(this);
+		while(!stack.isEmpty()) {
+			final Expression node = stack.peek();
+			final Boolean isExpanded = visited.get(node);
+			if(isExpanded == null) {
+				visited.put(node, Boolean.FALSE);
+				final int numberOfArguments = node.operator == Operator.CONDITIONAL && !isDescendingIntoBranches ? 1 : node.arguments.length;
+				for(int i=numberOfArguments-1; i>=0; i--) {
+					if(!visited.containsKey(node.arguments[i]) && !evaluated.contains(node.arguments[i])) stack.push(node.arguments[i]);
+				}
+			}
+			else {
+				stack.pop();
+				if(!isExpanded) {
+					visited.put(node, Boolean.TRUE);
+					nodes.add(node);
+				}
+			}
+		}
+		return nodes;
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj) {
+			return true;
+		}
+		if(!(obj instanceof Expression)) {
+			return false;
+		}
+		final Expression other = (Expression)obj;
+		return hashCode == other.hashCode && operator == other.operator
+				&& (name == null ? other.name == null : name.equals(other.name))
+				&& Float.floatToIntBits(value) == Float.floatToIntBits(other.value)
+				&& Arrays.equals(arguments, other.arguments);
+	}
+
+	@Override
+	public String toString() {
+		switch(operator) {
+		case VARIABLE:
+		case PARAMETER:
+			return name;
+		case CONSTANT:
+			return Float.toString(value);
+		case CONDITIONAL:
+			return "(" + arguments[0] + " ? " + arguments[1] + " : " + arguments[2] + ")";
+		default:
+			final StringBuilder string = new StringBuilder(operator.name().toLowerCase()).append("(");
+			for(int i=0; i<arguments.length; i++) {
+				string.append(i > 0 ? ", " : "").append(arguments[i]);
+			}
+			return string.append(")").toString();
+		}
+	}
+}
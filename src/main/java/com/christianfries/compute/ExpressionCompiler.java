@@ -0,0 +1,433 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.compute;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import com.christianfries.compute.Expression.Operator;
+
+/**
+ * Compiles an {@link Expression} to a fused element-wise kernel, such that the whole expression is evaluated
+ * in a single pass over the data:
+ * <ul>
+ * 	<li>OpenCL C or Cuda C source of a kernel (see {@link #getKernelSource(Expression, Dialect, KernelVariant)}),</li>
+ * 	<li>a Java kernel for the CPU (see {@link #getJavaKernel(Expression)}).</li>
+ * </ul>
+ *
+ * All kernels have the arguments <code>(n, variables..., parameters..., result)</code>, where <code>n</code> is a 64-bit integer
+ * (<code>long</code> in OpenCL C, <code>long long</code> in Cuda C) and the variables
+ * and parameters are in the order of {@link Expression#getVariableNames()} and {@link Expression#getParameterNames()}.
+ * Variables may be passed as scalars (<code>const float</code>) instead of vectors, e.g. the values of deterministic random variables,
+ * see {@link #getKernelSource(Expression, Dialect, KernelVariant, BitSet)}.
+ * The compiled kernels are cached by expression (its structural hash), hence building the same expression again
+ * does not generate or compile new code.
+ *
+ * The source of an expression containing conditionals may be generated in two variants: the predicated kernel
+ * evaluates both branches and selects the result, the branching kernel evaluates only the branch taken
+ * (if-else blocks). Which one is faster depends on the data, see {@link DivergenceDiagnostics}.
+ * The Java kernel is always predicated.
+ *
+ * @author Christian Fries
+ */
+public class ExpressionCompiler {
+
+	/**
+	 * The language of the generated kernel source.
+	 */
+	public enum Dialect {
+		OPEN_CL,
+		CUDA
+	}
+
+	private static final Map<Dialect, Map<KernelVariant, Map<BitSet, Map<Expression, String>>>> kernelSources = new ConcurrentHashMap<>();
+	private static final Map<Expression, JavaKernel> javaKernels = new ConcurrentHashMap<>();
+
+	private ExpressionCompiler() { }
+
+	/**
+	 * @param expression The expression.
+	 * @return The name of the (predicated) kernel generated for the expression.
+	 */
+	public static String getKernelName(Expression expression) {
+		return getKernelName(expression, KernelVariant.PREDICATED);
+	}
+
+	/**
+	 * @param expression The expression.
+	 * @param variant The variant of the kernel.
+	 * @return The name of the kernel generated for the expression.
+	 */
+	public static String getKernelName(Expression expression, KernelVariant variant) {
+		return getKernelName(expression, variant, new BitSet());
+	}
+
+	/**
+	 * @param expression The expression.
+	 * @param variant The variant of the kernel.
+	 * @param scalarVariables The indices of the variables passed as scalars.
+	 * @return The name of the kernel generated for the expression.
+	 */
+	public static String getKernelName(Expression expression, KernelVariant variant, BitSet scalarVariables) {
+		final StringBuilder name = new StringBuilder("expression_").append(Integer.toHexString(expression.hashCode()));
+		if(variant == KernelVariant.BRANCHING) {
+			name.append("_branching");
+		}
+		if(!scalarVariables.isEmpty()) {
+			name.append("_scalar");
+			for(final long word : scalarVariables.toLongArray()) {
+				name.append('_').append(Long.toHexString(word));
+			}
+		}
+		return name.toString();
+	}
+
+	/**
+	 * Get the source code of a (predicated) kernel evaluating the expression (grid-stride loop over the elements).
+	 *
+	 * @param expression The expression.
+	 * @param dialect The language of the source.
+	 * @return The source code of the kernel {@link #getKernelName(Expression)}.
+	 */
+	public static String getKernelSource(Expression expression, Dialect dialect) {
+		return getKernelSource(expression, dialect, KernelVariant.PREDICATED);
+	}
+
+	/**
+	 * Get the source code of a kernel evaluating the expression (grid-stride loop over the elements).
+	 *
+	 * @param expression The expression.
+	 * @param dialect The language of the source.
+	 * @param variant The variant of the kernel (differs only for expressions containing conditionals).
+	 * @return The source code of the kernel {@link #getKernelName(Expression, KernelVariant)}.
+	 */
+	public static String getKernelSource(Expression expression, Dialect dialect, KernelVariant variant) {
+		return getKernelSource(expression, dialect, variant, new BitSet());
+	}
+
+	/**
+	 * Get the source code of a kernel evaluating the expression (grid-stride loop over the elements), where the given
+	 * variables are passed as scalars (<code>const float</code>, the same value for all elements) instead of vectors.
+	 *
+	 * @param expression The expression.
+	 * @param dialect The language of the source.
+	 * @param variant The variant of the kernel (differs only for expressions containing conditionals).
+	 * @param scalarVariables The indices of the variables (in the order of {@link Expression#getVariableNames()}) passed as scalars.
+	 * @return The source code of the kernel {@link #getKernelName(Expression, KernelVariant, BitSet)}.
+	 */
+	public static String getKernelSource(Expression expression, Dialect dialect, KernelVariant variant, BitSet scalarVariables) {
+		if(expression.isCondition()) {
+			throw new IllegalArgumentException("The expression has to be a value, not a condition.");
+		}
+		if(scalarVariables.length() > expression.getVariableNames().size()) {
+			throw new IllegalArgumentException("The expression has " + expression.getVariableNames().size() + " variables, scalar variables " + scalarVariables + " requested.");
+		}
+		final BitSet scalarVariablesCopy = (BitSet)scalarVariables.clone();
+		return kernelSources.computeIfAbsent(dialect, key -> new ConcurrentHashMap<>()).computeIfAbsent(variant, key -> new ConcurrentHashMap<>())
+				.computeIfAbsent(scalarVariablesCopy, key -> new ConcurrentHashMap<>())
+				.computeIfAbsent(expression, key -> generateKernelSource(expression, dialect, variant, scalarVariablesCopy));
+	}
+
+	private static String generateKernelSource(Expression expression, Dialect dialect, KernelVariant variant, BitSet scalarVariables) {
+		final boolean isOpenCL = dialect == Dialect.OPEN_CL;
+		final List<String> variableNames = expression.getVariableNames();
+		final List<String> parameterNames = expression.getParameterNames();
+
+		final StringBuilder source = new StringBuilder();
+		source.append(isOpenCL ? "__kernel void " : "extern \"C\"\n__global__ void ").append(getKernelName(expression, variant, scalarVariables)).append(isOpenCL ? "(const long n" : "(const long long n");
+		for(int i=0; i<variableNames.size(); i++) {
+			source.append(scalarVariables.get(i) ? ", const float x" : isOpenCL ? ", __global const float *x" : ", const float *x").append(i);
+		}
+		for(int i=0; i<parameterNames.size(); i++) {
+			source.append(", const float p").append(i);
+		}
+		source.append(isOpenCL ? ", __global float *result)\n{\n" : ", float *result)\n{\n");
+		// 64-bit index and grid-stride loop (the grid may be smaller than n, see LaunchPolicy)
+		source.append(isOpenCL ? "    for (long i = get_global_id(0); i < n; i += get_global_size(0))\n    {\n"
+				: "    for (long long i = (long long)blockIdx.x * blockDim.x + threadIdx.x; i < n; i += (long long)gridDim.x * blockDim.x)\n    {\n");
+
+		// One statement per node (static single assignment)
+		final String result;
+		if(variant == KernelVariant.BRANCHING) {
+			result = appendBlock(source, expression, new HashMap<>(), new int[1], "        ", variableNames, scalarVariables, parameterNames, isOpenCL);
+		}
+		else {
+			final Map<Expression, String> values = new HashMap<>();
+			for(final Expression node : expression.getNodesInEvaluationOrder()) {
+				final String value = "t" + values.size();
+				values.put(node, value);
+				appendStatement(source, "        ", node, value, values, variableNames, scalarVariables, parameterNames, isOpenCL);
+			}
+			result = values.get(expression);
+		}
+		source.append("        result[i] = ").append(result).append(";\n");
+		source.append("    }\n}\n");
+		return source.toString();
+	}
+
+	/**
+	 * Append the statements evaluating the given node, where the branches of a conditional are evaluated in if-else blocks.
+	 * A node evaluated within a block is visible only within that block.
+	 *
+	 * @param values The names of the values already evaluated in the enclosing blocks. Nodes evaluated by this block are added.
+	 * @param counter The number of values declared so far (to generate unique names).
+	 * @return The name of the value of the node.
+	 */
+	private static String appendBlock(StringBuilder source, Expression root, Map<Expression, String> values, int[] counter, String indent,
+			List<String> variableNames, BitSet scalarVariables, List<String> parameterNames, boolean isOpenCL) {
+		for(final Expression node : root.getNodesInEvaluationOrder(values.keySet(), false)) {
+			final String value = "t" + counter[0]++;
+			if(node.getOperator() == Operator.CONDITIONAL) {
+				source.append(indent).append("float ").append(value).append(";\n");
+				source.append(indent).append("if (").append(values.get(node.getArgument(0))).append(") {\n");
+				final String valueIfTrue = appendBlock(source, node.getArgument(1), new HashMap<>(values), counter, indent + "    ", variableNames, scalarVariables, parameterNames, isOpenCL);
+				source.append(indent).append("    ").append(value).append(" = ").append(valueIfTrue).append(";\n");
+				source.append(indent).append("} else {\n");
+				final String valueIfFalse = appendBlock(source, node.getArgument(2), new HashMap<>(values), counter, indent + "    ", variableNames, scalarVariables, parameterNames, isOpenCL);
+				source.append(indent).append("    ").append(value).append(" = ").append(valueIfFalse).append(";\n");
+				source.append(indent).append("}\n");
+				values.put(node, value);
+			}
+			else {
+				values.put(node, value);
+				appendStatement(source, indent, node, value, values, variableNames, scalarVariables, parameterNames, isOpenCL);
+			}
+		}
+		return values.get(root);
+	}
+
+	private static void appendStatement(StringBuilder source, String indent, Expression node, String value, Map<Expression, String> values,
+			List<String> variableNames, BitSet scalarVariables, List<String> parameterNames, boolean isOpenCL) {
+		source.append(indent).append("const ").append(node.isCondition() ? "int " : "float ").append(value).append(" = ");
+		source.append(getSource(node, values, variableNames, scalarVariables, parameterNames, isOpenCL)).append(";\n");
+	}
+
+	private static String getSource(Expression node, Map<Expression, String> values, List<String> variableNames, BitSet scalarVariables, List<String> parameterNames, boolean isOpenCL) {
+		final String[] arguments = new String[node.getNumberOfArguments()];
+		for(int i=0; i<arguments.length; i++) {
+			arguments[i] = values.get(node.getArgument(i));
+		}
+
+		switch(node.getOperator()) {
+		case VARIABLE:
+		{
+			final int variable = variableNames.indexOf(node.getName());
+			return "x" + variable + (scalarVariables.get(variable) ? "" : "[i]");
+		}
+		case PARAMETER:		return "p" + parameterNames.indexOf(node.getName());
+		case CONSTANT:		return getLiteral(node.getValue(), isOpenCL);
+		case ADD:			return arguments[0] + " + " + arguments[1];
+		case SUB:			return arguments[0] + " - " + arguments[1];
+		case MULT:			return arguments[0] + " * " + arguments[1];
+		case DIV:			return arguments[0] + " / " + arguments[1];
+		case NEG:			return "-" + arguments[0];
+		case EXP:			return (isOpenCL ? "exp(" : "expf(") + arguments[0] + ")";
+		case LOG:			return (isOpenCL ? "log(" : "logf(") + arguments[0] + ")";
+		case MAX:			return (isOpenCL ? "fmax(" : "fmaxf(") + arguments[0] + ", " + arguments[1] + ")";
+		case MIN:			return (isOpenCL ? "fmin(" : "fminf(") + arguments[0] + ", " + arguments[1] + ")";
+		case LESS:			return arguments[0] + " < " + arguments[1];
+		case LESS_EQUAL:	return arguments[0] + " <= " + arguments[1];
+		case GREATER:		return arguments[0] + " > " + arguments[1];
+		case GREATER_EQUAL:	return arguments[0] + " >= " + arguments[1];
+		case CONDITIONAL:	return arguments[0] + " ? " + arguments[1] + " : " + arguments[2];
+		default:
+			throw new UnsupportedOperationException("Operator " + node.getOperator() + " not supported.");
+		}
+	}
+
+	/**
+	 * @return An exact float literal: hexadecimal floating point for OpenCL C, decimal with 9 significant digits for Cuda C
+	 * (hexadecimal floating point literals are not part of C++14, 9 digits represent every float exactly).
+	 */
+	private static String getLiteral(float value, boolean isOpenCL) {
+		if(Float.isNaN(value)) {
+			return "(0.0f/0.0f)";
+		}
+		else if(Float.isInfinite(value)) {
+			return value > 0 ? "(1.0f/0.0f)" : "(-1.0f/0.0f)";
+		}
+		return "(" + (isOpenCL ? Float.toHexString(value) : String.format(Locale.ROOT, "%.9g", value)) + "f)";
+	}
+
+	/**
+	 * Get a Java kernel evaluating the expression.
+	 *
+	 * @param expression The expression.
+	 * @return The Java kernel.
+	 */
+	public static JavaKernel getJavaKernel(Expression expression) {
+		if(expression.isCondition()) {
+			throw new IllegalArgumentException("The expression has to be a value, not a condition.");
+		}
+		return javaKernels.computeIfAbsent(expression, JavaKernel::new);
+	}
+
+	/**
+	 * A Java kernel evaluating an expression.
+	 *
+	 * The expression is compiled to a sequence of instructions, each being a simple loop over a chunk of elements
+	 * (a lambda the JIT compiles and vectorizes separately). The elements are processed chunk by chunk (in parallel),
+	 * such that all intermediate results of a chunk stay in the cache and the data is read from memory once.
+	 * Intermediate results are held in registers (chunk sized arrays), a register is reused once its value is no
+	 * longer needed. Conditions are represented by 1 (true) and 0 (false).
+	 */
+	public static class JavaKernel {
+
+		private static final int CHUNK_SIZE = 1024;
+		private static final int CHUNKS_PER_TASK = 64;
+
+		private interface Instruction {
+			void execute(float[][] registers, float[][] variables, float[] parameters, int offset, int length);
+		}
+
+		private final int numberOfVariables;
+		private final int numberOfParameters;
+		private final Instruction[] instructions;
+		private final int numberOfRegisters;
+		private final int resultRegister;
+
+		private JavaKernel(Expression expression) {
+			final List<String> variableNames = expression.getVariableNames();
+			final List<String> parameterNames = expression.getParameterNames();
+			final List<Expression> nodes = expression.getNodesInEvaluationOrder();
+
+			// The index of the last node using the value of a node
+			final Map<Expression, Integer> lastUse = new HashMap<>();
+			for(int i=0; i<nodes.size(); i++) {
+				for(int j=0; j<nodes.get(i).getNumberOfArguments(); j++) {
+					lastUse.put(nodes.get(i).getArgument(j), i);
+				}
+			}
+
+			final Map<Expression, Integer> registers = new HashMap<>();
+			final Deque<Integer> freeRegisters = new ArrayDeque<>();
+			final List<Instruction> instructions = new ArrayList<>();
+			int numberOfRegisters = 0;
+			for(int i=0; i<nodes.size(); i++) {
+				final Expression node = nodes.get(i);
+				final int[] arguments = new int[node.getNumberOfArguments()];
+				for(int j=0; j<arguments.length; j++) {
+					arguments[j] = registers.get(node.getArgument(j));
+				}
+
+				// Release the registers of arguments used for the last time (the result may use them)
+				for(int j=0; j<arguments.length; j++) {
+					if(lastUse.get(node.getArgument(j)) == i && !freeRegisters.contains(arguments[j])) {
+						freeRegisters.push(arguments[j]);
+					}
+				}
+				final int target = freeRegisters.isEmpty() ? numberOfRegisters++ : freeRegisters.pop();
+				registers.put(node, target);
+
+				instructions.add(getInstruction(node, target, arguments, variableNames, parameterNames));
+			}
+
+			this.numberOfVariables = variableNames.size();
+			this.numberOfParameters = parameterNames.size();
+			this.instructions = instructions.toArray(new Instruction[0]);
+			this.numberOfRegisters = numberOfRegisters;
+			this.resultRegister = registers.get(expression);
+		}
+
+		/**
+		 * Evaluate the expression.
+		 *
+		 * @param variables The values of the variables (in the order of {@link Expression#getVariableNames()}), all of the same length.
+		 * @param parameters The values of the parameters (in the order of {@link Expression#getParameterNames()}).
+		 * @return The values of the expression.
+		 */
+		public float[] evaluate(float[][] variables, float[] parameters) {
+			if(variables.length != numberOfVariables || parameters.length != numberOfParameters) {
+				throw new IllegalArgumentException("Expected " + numberOfVariables + " variables and " + numberOfParameters + " parameters.");
+			}
+			final int size = variables.length > 0 ? variables[0].length : 1;
+			for(final float[] variable : variables) {
+				if(variable.length != size) {
+					throw new IllegalArgumentException("All variables have to have the same length.");
+				}
+			}
+
+			final float[] result = new float[size];
+			final int taskSize = CHUNK_SIZE * CHUNKS_PER_TASK;
+			IntStream.range(0, (size + taskSize - 1) / taskSize).parallel().forEach(task -> {
+				final float[][] registers = new float[numberOfRegisters][CHUNK_SIZE];
+				final int end = Math.min(size, (task+1) * taskSize);
+				for(int offset = task * taskSize; offset < end; offset += CHUNK_SIZE) {
+					final int length = Math.min(CHUNK_SIZE, end - offset);
+					for(final Instruction instruction : instructions) {
+						instruction.execute(registers, variables, parameters, offset, length);
+					}
+					System.arraycopy(registers[resultRegister], 0, result, offset, length);
+				}
+			});
+			return result;
+		}
+
+		private static Instruction getInstruction(Expression node, int target, int[] arguments, List<String> variableNames, List<String> parameterNames) {
+			final int a = arguments.length > 0 ? arguments[0] : -1;
+			final int b = arguments.length > 1 ? arguments[1] : -1;
+			final int c = arguments.length > 2 ? arguments[2] : -1;
+
+			switch(node.getOperator()) {
+			case VARIABLE:
+			{
+				final int variable = variableNames.indexOf(node.getName());
+				return (r, x, p, offset, length) -> System.arraycopy(x[variable], offset, r[target], 0, length);
+			}
+			case PARAMETER:
+			{
+				final int parameter = parameterNames.indexOf(node.getName());
+				return (r, x, p, offset, length) -> Arrays.fill(r[target], 0, length, p[parameter]);
+			}
+			case CONSTANT:
+			{
+				final float value = node.getValue();
+				return (r, x, p, offset, length) -> Arrays.fill(r[target], 0, length, value);
+			}
+			case ADD:
+				return (r, x, p, offset, length) -> { final float[] u = r[a], v = r[b], t = r[target]; for(int k=0; k<length; k++) t[k] = u[k] + v[k]; };
+			case SUB:
+				return (r, x, p, offset, length) -> { final float[] u = r[a], v = r[b], t = r[target]; for(int k=0; k<length; k++) t[k] = u[k] - v[k]; };
+			case MULT:
+				return (r, x, p, offset, length) -> { final float[] u = r[a], v = r[b], t = r[target]; for(int k=0; k<length; k++) t[k] = u[k] * v[k]; };
+			case DIV:
+				return (r, x, p, offset, length) -> { final float[] u = r[a], v = r[b], t = r[target]; for(int k=0; k<length; k++) t[k] = u[k] / v[k]; };
+			case NEG:
+				return (r, x, p, offset, length) -> { final float[] u = r[a], t = r[target]; for(int k=0; k<length; k++) t[k] = -u[k]; };
+			case EXP:
+				return (r, x, p, offset, length) -> { final float[] u = r[a], t = r[target]; for(int k=0; k<length; k++) t[k] = (float)Math.exp(u[k]); };
+			case LOG:
+				return (r, x, p, offset, length) -> { final float[] u = r[a], t = r[target]; for(int k=0; k<length; k++) t[k] = (float)Math.log(u[k]); };
+			case MAX:
+				return (r, x, p, offset, length) -> { final float[] u = r[a], v = r[b], t = r[target]; for(int k=0; k<length; k++) t[k] = Math.max(u[k], v[k]); };
+			case MIN:
+				return (r, x, p, offset, length) -> { final float[] u = r[a], v = r[b], t = r[target]; for(int k=0; k<length; k++) t[k] = Math.min(u[k], v[k]); };
+			case LESS:
+				return (r, x, p, offset, length) -> { final float[] u = r[a], v = r[b], t = r[target]; for(int k=0; k<length; k++) t[k] = u[k] < v[k] ? 1.0f : 0.0f; };
+			case LESS_EQUAL:
+				return (r, x, p, offset, length) -> { final float[] u = r[a], v = r[b], t = r[target]; for(int k=0; k<length; k++) t[k] = u[k] <= v[k] ? 1.0f : 0.0f; };
+			case GREATER:
+				return (r, x, p, offset, length) -> { final float[] u = r[a], v = r[b], t = r[target]; for(int k=0; k<length; k++) t[k] = u[k] > v[k] ? 1.0f : 0.0f; };
+			case GREATER_EQUAL:
+				return (r, x, p, offset, length) -> { final float[] u = r[a], v = r[b], t = r[target]; for(int k=0; k<length; k++) t[k] = u[k] >= v[k] ? 1.0f : 0.0f; };
+			case CONDITIONAL:
+				return (r, x, p, offset, length) -> { final float[] u = r[a], v = r[b], w = r[c], t = r[target]; for(int k=0; k<length; k++) t[k] = u[k] != 0.0f ? v[k] : w[k]; };
+			default:
+				throw new UnsupportedOperationException("Operator " + node.getOperator() + " not supported.");
+			}
+		}
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.compute;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.ConstructorParameters;
+
+/**
+ * A lock-free histogram of non-negative long values (e.g., durations in nanoseconds or throughputs in bytes per second)
+ * with logarithmic buckets: bucket <i>k</i> counts the values <i>v</i> with <i>2<sup>k-1</sup> &le; v &lt; 2<sup>k</sup></i>.
+ *
+ * Recording a value is a few atomic increments, such that the histogram can be updated on every kernel launch.
+ * Percentiles are approximated by the upper bound of their bucket (relative error below a factor of 2).
+ *
+ * @author Christian Fries
+ */
+public class Histogram {
+
+	private static final int NUMBER_OF_BUCKETS = 64;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(NUMBER_OF_BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+	private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+	/**
+	 * An immutable snapshot of a histogram (mapped to a composite type by JMX).
+	 */
+	public static class Snapshot {
+		private final long count;
+		private final double mean;
+		private final long min;
+		private final long max;
+		private final long median;
+		private final long percentile90;
+		private final long percentile99;
+
+		@ConstructorParameters({ "count", "mean", "min", "max", "median", "percentile90", "percentile99" })
+		public Snapshot(final long count, final double mean, final long min, final long max, final long median, final long percentile90, final long percentile99) {
+			super();
+			this.count = count;
+			this.mean = mean;
+			this.min = min;
+			this.max = max;
+			this.median = median;
+			this.percentile90 = percentile90;
+			this.percentile99 = percentile99;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public double getMean() {
+			return mean;
+		}
+
+		public long getMin() {
+			return min;
+		}
+
+		public long getMax() {
+			return max;
+		}
+
+		public long getMedian() {
+			return median;
+		}
+
+		public long getPercentile90() {
+			return percentile90;
+		}
+
+		public long getPercentile99() {
+			return percentile99;
+		}
+
+		@Override
+		public String toString() {
+			return "Snapshot [count=" + count + ", mean=" + mean + ", min=" + min + ", max=" + max
+					+ ", median=" + median + ", percentile90=" + percentile90 + ", percentile99=" + percentile99 + "]";
+		}
+	}
+
+	/**
+	 * Record a value. Negative values are recorded as 0.
+	 *
+	 * @param value The value.
+	 */
+	public void record(final long value) {
+		final long nonNegativeValue = Math.max(value, 0);
+		buckets.incrementAndGet(getBucket(nonNegativeValue));
+		count.increment();
+		sum.add(nonNegativeValue);
+		min.accumulateAndGet(nonNegativeValue, Math::min);
+		max.accumulateAndGet(nonNegativeValue, Math::max);
+	}
+
+	private static int getBucket(final long value) {
+		return Math.min(NUMBER_OF_BUCKETS - Long.numberOfLeadingZeros(value), NUMBER_OF_BUCKETS - 1);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Get an approximation of a percentile (the upper bound of the bucket containing the percentile, capped by the maximum).
+	 *
+	 * @param quantile The quantile, 0 &le; quantile &le; 1.
+	 * @return The approximate percentile, 0 if the histogram is empty.
+	 */
+	public long getPercentile(final double quantile) {
+		final long numberOfValues = getCount();
+		if(numberOfValues == 0) {
+			return 0;
+		}
+		final long rank = Math.max(1, (long)Math.ceil(quantile * numberOfValues));
+		long cumulated = 0;
+		for(int bucket=0; bucket<NUMBER_OF_BUCKETS; bucket++) {
+			cumulated += buckets.get(bucket);
+			if(cumulated >= rank) {
+				final long upperBound = bucket == 0 ? 0 : bucket >= NUMBER_OF_BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+				return Math.max(Math.min(upperBound, max.get()), min.get());
+			}
+		}
+		return max.get();
+	}
+
+	/**
+	 * @return A snapshot of the histogram. Concurrent updates may be partially included.
+	 */
+	public Snapshot getSnapshot() {
+		final long numberOfValues = getCount();
+		if(numberOfValues == 0) {
+			return new Snapshot(0, 0.0, 0, 0, 0, 0, 0);
+		}
+		return new Snapshot(numberOfValues, (double)sum.sum() / numberOfValues, min.get(), max.get(),
+				getPercentile(0.5), getPercentile(0.9), getPercentile(0.99));
+	}
+
+	/**
+	 * Remove all values.
+	 */
+	public void reset() {
+		for(int bucket=0; bucket<NUMBER_OF_BUCKETS; bucket++) {
+			buckets.set(bucket, 0);
+		}
+		count.reset();
+		sum.reset();
+		min.set(Long.MAX_VALUE);
+		max.set(Long.MIN_VALUE);
+	}
+
+	@Override
+	public String toString() {
+		return "Histogram " + getSnapshot();
+	}
+}
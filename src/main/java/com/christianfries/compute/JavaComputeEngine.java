@@ -0,0 +1,230 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.compute;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A reusable engine running data parallel loops on the CPU (the Java backend).
+ *
+ * The engine owns a persistent <code>ForkJoinPool</code> (no thread creation per call) and splits an index range
+ * <code>[0, size)</code> into contiguous chunks, each processed by a single call of a {@link RangeBody}.
+ * The body is a plain counted loop over its range, which the JIT compiles (and auto-vectorizes) once, in contrast
+ * to a lambda call per index. Chunk boundaries are multiples of a cache line (16 floats), such that two threads
+ * never write to the same cache line of a result array (no false sharing).
+ *
+ * Two partitioning strategies are supported:
+ * <ul>
+ * 	<li>{@link Partitioning#STATIC}: one contiguous block per worker thread. Minimal overhead, best if the cost per element is uniform.</li>
+ * 	<li>{@link Partitioning#WORK_STEALING}: recursive splitting down to a grain size, idle workers steal chunks.
+ * 	Balances data dependent costs (e.g., branches taken only for some elements).</li>
+ * </ul>
+ *
+ * Java does not offer thread pinning. On NUMA systems run the JVM with <code>-XX:+UseNUMA</code> (node local allocation)
+ * and restrict it to the cores of a node (e.g. <code>numactl --cpunodebind</code>) when comparing with a device attached to that node.
+ *
+ * @author Christian Fries
+ */
+public class JavaComputeEngine implements AutoCloseable {
+
+	/**
+	 * The strategy of splitting an index range into tasks.
+	 */
+	public enum Partitioning {
+		STATIC,
+		WORK_STEALING
+	}
+
+	/**
+	 * The body of a parallel loop, processing the indices <code>start &le; i &lt; end</code>.
+	 */
+	@FunctionalInterface
+	public interface RangeBody {
+		void apply(int start, int end);
+	}
+
+	/**
+	 * The body of a parallel loop over blocks, processing the indices <code>start &le; i &lt; end</code> of the block with index <code>block</code>.
+	 */
+	@FunctionalInterface
+	public interface BlockBody {
+		void apply(int block, int start, int end);
+	}
+
+	// Number of floats per cache line (64 bytes)
+	private static final int CACHE_LINE_FLOATS = 16;
+
+	private static final int DEFAULT_GRAIN_SIZE = 1 << 14;
+
+	private final ForkJoinPool pool;
+	private final Partitioning partitioning;
+	private final int grainSize;
+
+	/**
+	 * Create an engine.
+	 *
+	 * @param parallelism The number of worker threads.
+	 * @param partitioning The partitioning strategy.
+	 * @param grainSize The minimal number of elements of a task (for {@link Partitioning#WORK_STEALING}), rounded up to a multiple of a cache line.
+	 */
+	public JavaComputeEngine(final int parallelism, final Partitioning partitioning, final int grainSize) {
+		super();
+		this.pool = new ForkJoinPool(parallelism, pool -> {
+			final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			thread.setName("java-compute-" + partitioning.name().toLowerCase() + "-" + thread.getPoolIndex());
+			thread.setDaemon(true);
+			return thread;
+		}, null, false);
+		this.partitioning = partitioning;
+		this.grainSize = alignToCacheLine(Math.max(grainSize, 1));
+	}
+
+	/**
+	 * Create an engine with one worker thread per available processor.
+	 *
+	 * @param partitioning The partitioning strategy.
+	 */
+	public JavaComputeEngine(final Partitioning partitioning) {
+		this(Runtime.getRuntime().availableProcessors(), partitioning, DEFAULT_GRAIN_SIZE);
+	}
+
+	/**
+	 * @return A shared engine with one worker thread per available processor and work stealing.
+	 */
+	public static JavaComputeEngine getDefault() {
+		return DefaultHolder.DEFAULT;
+	}
+
+	private static class DefaultHolder {
+		private static final JavaComputeEngine DEFAULT = new JavaComputeEngine(Partitioning.WORK_STEALING);
+	}
+
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	public Partitioning getPartitioning() {
+		return partitioning;
+	}
+
+	/**
+	 * Run the body in parallel over contiguous chunks of <code>[0, size)</code> and wait for its completion.
+	 *
+	 * @param size The number of elements.
+	 * @param body The body processing a chunk.
+	 */
+	public void forEachRange(final int size, final RangeBody body) {
+		if(size <= 0) {
+			return;
+		}
+
+		switch(partitioning) {
+		case STATIC:
+		{
+			final int numberOfBlocks = (int)Math.min(getParallelism(), ((long)size + CACHE_LINE_FLOATS - 1) / CACHE_LINE_FLOATS);
+			final int blockSize = alignToCacheLine((int)(((long)size + numberOfBlocks - 1) / numberOfBlocks));
+			forEachBlock(size, blockSize, (block, start, end) -> body.apply(start, end));
+			break;
+		}
+		case WORK_STEALING:
+		default:
+			invoke(new RangeTask(body, 0, size, grainSize));
+			break;
+		}
+	}
+
+	/**
+	 * Run the body in parallel over the blocks <code>[k * blockSize, (k+1) * blockSize) &cap; [0, size)</code> and wait for its completion.
+	 * Each block is a task (independent of the partitioning), hence two loops with the same size and block size process the same blocks,
+	 * e.g., the two passes of a prefix sum (block sums, then the scan of each block with the offset of the preceding blocks).
+	 *
+	 * @param size The number of elements.
+	 * @param blockSize The number of elements of a block.
+	 * @param body The body processing a block.
+	 */
+	public void forEachBlock(final int size, final int blockSize, final BlockBody body) {
+		if(size <= 0) {
+			return;
+		}
+		if(blockSize <= 0) {
+			throw new IllegalArgumentException("Block size has to be positive, got " + blockSize + ".");
+		}
+
+		final List<ForkJoinTask<?>> tasks = new ArrayList<>((int)(((long)size + blockSize - 1) / blockSize));
+		int block = 0;
+		for(long start = 0; start < size; start += blockSize) {
+			final int blockIndex = block++;
+			final int blockStart = (int)start;
+			final int blockEnd = (int)Math.min(size, start + blockSize);
+			tasks.add(ForkJoinTask.adapt(() -> body.apply(blockIndex, blockStart, blockEnd)));
+		}
+		invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(tasks);
+			}
+		});
+	}
+
+	private void invoke(final ForkJoinTask<?> task) {
+		if(ForkJoinTask.inForkJoinPool() && ForkJoinTask.getPool() == pool) {
+			// Nested parallel loop: run within the current pool
+			task.invoke();
+		}
+		else {
+			pool.invoke(task);
+		}
+	}
+
+	/**
+	 * A task splitting its range in two halves (at a cache line boundary) until it is smaller than the grain size.
+	 */
+	private static class RangeTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final transient RangeBody body;
+		private final int start;
+		private final int end;
+		private final int grainSize;
+
+		RangeTask(final RangeBody body, final int start, final int end, final int grainSize) {
+			this.body = body;
+			this.start = start;
+			this.end = end;
+			this.grainSize = grainSize;
+		}
+
+		@Override
+		protected void compute() {
+			if(end - start <= grainSize) {
+				body.apply(start, end);
+				return;
+			}
+			final int middle = start + alignToCacheLine((end - start) / 2);
+			invokeAll(new RangeTask(body, start, middle, grainSize), new RangeTask(body, middle, end, grainSize));
+		}
+	}
+
+	private static int alignToCacheLine(final int size) {
+		return (int)Math.min(Integer.MAX_VALUE, ((long)size + CACHE_LINE_FLOATS - 1) / CACHE_LINE_FLOATS * CACHE_LINE_FLOATS);
+	}
+
+	/**
+	 * Shut down the worker threads. The shared default engine should not be closed.
+	 */
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+}
@@ -0,0 +1,17 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.compute;
+
+/**
+ * The variants of a kernel containing a conditional, see {@link DivergenceDiagnostics}.
+ *
+ * @author Christian Fries
+ */
+public enum KernelVariant {
+	BRANCHING,		// Evaluate only the branch taken (if-else). Threads of a warp taking different branches execute both (divergence).
+	PREDICATED		// Evaluate both branches and select the result (branch free). No divergence, but always pays for both branches.
+}
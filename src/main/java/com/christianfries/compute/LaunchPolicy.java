@@ -0,0 +1,154 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.compute;
+
+/**
+ * Selects the launch configuration (grid size and block size) of a one dimensional kernel by problem size.
+ *
+ * The kernels use a grid-stride loop (<code>for(i = globalId; i &lt; n; i += globalSize)</code>), such that any grid
+ * size is valid. The policy distinguishes three regimes:
+ * <ul>
+ * 	<li>{@link Strategy#SMALL_BLOCKS}: fewer elements than one block per compute unit. The block size is reduced (to a multiple of the warp size),
+ * 	such that the work is spread over all compute units instead of a few full blocks.</li>
+ * 	<li>{@link Strategy#ONE_THREAD_PER_ELEMENT}: one thread per element with full blocks, each thread runs a single loop iteration.</li>
+ * 	<li>{@link Strategy#PERSISTENT}: more than {@link #PERSISTENT_WAVES} waves of resident threads. The grid is limited to the threads which can be resident
+ * 	on the device at the same time (persistent threads), each thread processes several elements. This removes the cost of scheduling
+ * 	(and retiring) a huge number of blocks.</li>
+ * </ul>
+ *
+ * The policy is a pure function of the device properties and the problem size, it does not require a device.
+ *
+ * @author Christian Fries
+ */
+public class LaunchPolicy {
+
+	/**
+	 * The regime of a launch configuration.
+	 */
+	public enum Strategy {
+		SMALL_BLOCKS,
+		ONE_THREAD_PER_ELEMENT,
+		PERSISTENT
+	}
+
+	/**
+	 * The number of waves of resident threads above which a persistent grid is used.
+	 */
+	public static final int PERSISTENT_WAVES = 8;
+
+	/**
+	 * The grid size and block size of a launch.
+	 */
+	public static class LaunchConfiguration {
+		private final Strategy strategy;
+		private final long gridSize;
+		private final int blockSize;
+
+		LaunchConfiguration(final Strategy strategy, final long gridSize, final int blockSize) {
+			super();
+			this.strategy = strategy;
+			this.gridSize = gridSize;
+			this.blockSize = blockSize;
+		}
+
+		public Strategy getStrategy() {
+			return strategy;
+		}
+
+		/**
+		 * @return The number of blocks (work groups).
+		 */
+		public long getGridSize() {
+			return gridSize;
+		}
+
+		/**
+		 * @return The number of threads per block (the local work size).
+		 */
+		public int getBlockSize() {
+			return blockSize;
+		}
+
+		/**
+		 * @return The total number of threads (the global work size).
+		 */
+		public long getGlobalSize() {
+			return gridSize * blockSize;
+		}
+
+		@Override
+		public String toString() {
+			return "LaunchConfiguration [strategy=" + strategy + ", gridSize=" + gridSize + ", blockSize=" + blockSize + "]";
+		}
+	}
+
+	private final int computeUnits;
+	private final int residentThreadsPerComputeUnit;
+	private final int blockSize;
+	private final int warpSize;
+	private final long maxGridSize;
+
+	/**
+	 * Create a launch policy for a device.
+	 *
+	 * @param computeUnits The number of compute units (Cuda: multiprocessors, OpenCL: compute units).
+	 * @param residentThreadsPerComputeUnit The maximum number of threads resident on a compute unit.
+	 * @param blockSize The (maximal) block size.
+	 * @param warpSize The granularity of the block size for small problems (the warp size or SIMD width).
+	 * @param maxGridSize The maximum number of blocks of a launch.
+	 */
+	public LaunchPolicy(final int computeUnits, final int residentThreadsPerComputeUnit, final int blockSize, final int warpSize, final long maxGridSize) {
+		super();
+		this.computeUnits = Math.max(computeUnits, 1);
+		this.blockSize = Math.max(blockSize, 1);
+		this.warpSize = Math.max(Math.min(warpSize, this.blockSize), 1);
+		this.residentThreadsPerComputeUnit = Math.max(residentThreadsPerComputeUnit, this.blockSize);
+		this.maxGridSize = Math.max(maxGridSize, 1);
+	}
+
+	/**
+	 * @return The (maximal) block size.
+	 */
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	/**
+	 * @return The number of threads resident on the device at the same time (one wave).
+	 */
+	public long getResidentThreads() {
+		return (long)computeUnits * (residentThreadsPerComputeUnit / blockSize) * blockSize;
+	}
+
+	/**
+	 * Get the launch configuration for the given number of elements.
+	 *
+	 * @param numberOfElements The number of elements.
+	 * @return The launch configuration.
+	 */
+	public LaunchConfiguration getConfiguration(final long numberOfElements) {
+		final long n = Math.max(numberOfElements, 1);
+		if(n <= (long)computeUnits * blockSize) {
+			// Spread the elements over all compute units using smaller blocks
+			final long elementsPerComputeUnit = (n + computeUnits - 1) / computeUnits;
+			final int smallBlockSize = (int)Math.min(blockSize, (elementsPerComputeUnit + warpSize - 1) / warpSize * warpSize);
+			return new LaunchConfiguration(Strategy.SMALL_BLOCKS, (n + smallBlockSize - 1) / smallBlockSize, smallBlockSize);
+		}
+		else if(n <= PERSISTENT_WAVES * getResidentThreads()) {
+			return new LaunchConfiguration(Strategy.ONE_THREAD_PER_ELEMENT, Math.min(maxGridSize, (n + blockSize - 1) / blockSize), blockSize);
+		}
+		else {
+			return new LaunchConfiguration(Strategy.PERSISTENT, Math.min(maxGridSize, getResidentThreads() / blockSize), blockSize);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "LaunchPolicy [computeUnits=" + computeUnits + ", residentThreadsPerComputeUnit=" + residentThreadsPerComputeUnit
+				+ ", blockSize=" + blockSize + ", warpSize=" + warpSize + ", maxGridSize=" + maxGridSize + "]";
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.compute;
+
+/**
+ * Standard data parallel primitives: prefix sum (scan), stream compaction, sort and histogram.
+ *
+ * The primitives are building blocks for, e.g., compacting the paths taking a branch (to avoid divergence),
+ * quantiles (sort) and empirical distribution functions (histogram and scan).
+ * The implementations ({@link ParallelPrimitivesJava} and <code>ParallelPrimitivesOpenCL</code>) return identical results.
+ *
+ * @author Christian Fries
+ */
+public interface ParallelPrimitives {
+
+	/**
+	 * Exclusive prefix sum, <code>result[i] = values[0] + ... + values[i-1]</code> (with <code>result[0] = 0</code>).
+	 * The sums are calculated in int arithmetic (overflow wraps around).
+	 *
+	 * @param values The values.
+	 * @return The exclusive prefix sum.
+	 */
+	int[] exclusiveScan(int[] values);
+
+	/**
+	 * Stream compaction of indices.
+	 *
+	 * @param flags The flags.
+	 * @return The (increasing) indices <code>i</code> with <code>flags[i] != 0</code>.
+	 */
+	int[] compactIndices(int[] flags);
+
+	/**
+	 * Stream compaction of values.
+	 *
+	 * @param values The values.
+	 * @param flags The flags (of the same length as the values).
+	 * @return The values <code>values[i]</code> with <code>flags[i] != 0</code>, in their original order.
+	 */
+	float[] compact(float[] values, int[] flags);
+
+	/**
+	 * Stable sort of floats. The order is the order of {@link Float#compare(float, float)} for all values except NaNs,
+	 * which are sorted by their bits (NaNs with the sign bit set first, others last).
+	 *
+	 * @param values The values, sorted in place.
+	 * @return The permutation: <code>permutation[k]</code> is the original index of the <code>k</code>-th sorted value.
+	 */
+	int[] sort(float[] values);
+
+	/**
+	 * Histogram of values over equally sized bins of <code>[minValue, maxValue)</code>. The bin of a value is
+	 * <code>floor((value - minValue) * scale)</code>, calculated in float, where the scale is calculated once (on the host)
+	 * in double and rounded to float, see {@link #getHistogramScale(float, float, int)}. Values outside the range are
+	 * counted in the first or the last bin. NaNs are not counted.
+	 *
+	 * @param values The values.
+	 * @param minValue The lower bound of the first bin.
+	 * @param maxValue The upper bound of the last bin.
+	 * @param numberOfBins The number of bins.
+	 * @return The number of values in each bin.
+	 */
+	int[] histogram(float[] values, float minValue, float maxValue, int numberOfBins);
+
+	/**
+	 * Map a float to an int whose signed order is the order of the floats (negative values have their bits flipped,
+	 * positive values their sign bit set, the result is shifted to signed order). The key of the radix sort.
+	 *
+	 * @param value The value.
+	 * @return The sort key.
+	 */
+	static int getSortKey(final float value) {
+		final int bits = Float.floatToRawIntBits(value);
+		return (bits < 0 ? ~bits : bits | 0x80000000) ^ 0x80000000;
+	}
+
+	/**
+	 * @param minValue The lower bound of the first bin.
+	 * @param maxValue The upper bound of the last bin.
+	 * @param numberOfBins The number of bins.
+	 * @return The scale of the histogram, <code>(float)(numberOfBins / ((double)maxValue - minValue))</code>, i.e., calculated in double
+	 * (the difference of the bounds is exact) and rounded to float once.
+	 */
+	static float getHistogramScale(final float minValue, final float maxValue, final int numberOfBins) {
+		if(numberOfBins <= 0 || !(maxValue > minValue)) {
+			throw new IllegalArgumentException("Expected numberOfBins > 0 and maxValue > minValue, got " + numberOfBins + ", [" + minValue + ", " + maxValue + ").");
+		}
+		return (float)(numberOfBins / ((double)maxValue - minValue));
+	}
+}
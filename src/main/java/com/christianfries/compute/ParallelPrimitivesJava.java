@@ -0,0 +1,167 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.compute;
+
+import java.util.Arrays;
+
+/**
+ * The parallel primitives on the CPU, running on a {@link JavaComputeEngine}.
+ *
+ * Scan and compaction run in two passes over the same blocks (see {@link JavaComputeEngine#forEachBlock(int, int, JavaComputeEngine.BlockBody)}):
+ * the first pass calculates the sum (or count) of each block, the second pass scans (or scatters) each block starting
+ * at the sum of the preceding blocks. The sort is a parallel sort of the (order preserving) int key of each value combined with its index,
+ * such that it is stable and its result is identical to the radix sort of the OpenCL implementation. The histogram counts into private
+ * bins per chunk (like the local memory privatization of the OpenCL implementation), which are added once per chunk.
+ *
+ * @author Christian Fries
+ */
+public class ParallelPrimitivesJava implements ParallelPrimitives {
+
+	// The minimal size of a block of a scan (smaller blocks do not pay for the task)
+	private static final int MIN_BLOCK_SIZE = 1 << 14;
+
+	// The number of blocks per worker thread (load balancing)
+	private static final int BLOCKS_PER_THREAD = 4;
+
+	private final JavaComputeEngine engine;
+
+	/**
+	 * Create the primitives running on the given engine.
+	 *
+	 * @param engine The engine.
+	 */
+	public ParallelPrimitivesJava(final JavaComputeEngine engine) {
+		super();
+		this.engine = engine;
+	}
+
+	/**
+	 * Create the primitives running on the shared default engine.
+	 */
+	public ParallelPrimitivesJava() {
+		this(JavaComputeEngine.getDefault());
+	}
+
+	@Override
+	public int[] exclusiveScan(final int[] values) {
+		final int[] result = new int[values.length];
+		final int blockSize = getBlockSize(values.length);
+		final int[] blockOffsets = new int[getNumberOfBlocks(values.length, blockSize)];
+
+		engine.forEachBlock(values.length, blockSize, (block, start, end) -> {
+			int sum = 0;
+			for(int i=start; i<end; i++) sum += values[i];
+			blockOffsets[block] = sum;
+		});
+		exclusiveScanInPlace(blockOffsets);
+		engine.forEachBlock(values.length, blockSize, (block, start, end) -> {
+			int sum = blockOffsets[block];
+			for(int i=start; i<end; i++) {
+				result[i] = sum;
+				sum += values[i];
+			}
+		});
+
+		return result;
+	}
+
+	@Override
+	public int[] compactIndices(final int[] flags) {
+		final int blockSize = getBlockSize(flags.length);
+		final int[] blockOffsets = new int[getNumberOfBlocks(flags.length, blockSize)];
+
+		engine.forEachBlock(flags.length, blockSize, (block, start, end) -> {
+			int count = 0;
+			for(int i=start; i<end; i++) if(flags[i] != 0) count++;
+			blockOffsets[block] = count;
+		});
+		final int numberOfIndices = exclusiveScanInPlace(blockOffsets);
+
+		final int[] indices = new int[numberOfIndices];
+		engine.forEachBlock(flags.length, blockSize, (block, start, end) -> {
+			int position = blockOffsets[block];
+			for(int i=start; i<end; i++) if(flags[i] != 0) indices[position++] = i;
+		});
+
+		return indices;
+	}
+
+	@Override
+	public float[] compact(final float[] values, final int[] flags) {
+		if(values.length != flags.length) {
+			throw new IllegalArgumentException("Expected flags of length " + values.length + ", got " + flags.length + ".");
+		}
+		final int[] indices = compactIndices(flags);
+		final float[] result = new float[indices.length];
+		engine.forEachRange(indices.length, (start, end) -> {
+			for(int i=start; i<end; i++) result[i] = values[indices[i]];
+		});
+		return result;
+	}
+
+	@Override
+	public int[] sort(final float[] values) {
+		final long[] keysAndIndices = new long[values.length];
+		engine.forEachRange(values.length, (start, end) -> {
+			for(int i=start; i<end; i++) keysAndIndices[i] = ((long)ParallelPrimitives.getSortKey(values[i]) << 32) | i;
+		});
+
+		Arrays.parallelSort(keysAndIndices);
+
+		final float[] unsortedValues = values.clone();
+		final int[] permutation = new int[values.length];
+		engine.forEachRange(values.length, (start, end) -> {
+			for(int k=start; k<end; k++) {
+				permutation[k] = (int)keysAndIndices[k];
+				values[k] = unsortedValues[permutation[k]];
+			}
+		});
+		return permutation;
+	}
+
+	@Override
+	public int[] histogram(final float[] values, final float minValue, final float maxValue, final int numberOfBins) {
+		final float scale = ParallelPrimitives.getHistogramScale(minValue, maxValue, numberOfBins);
+		final int[] bins = new int[numberOfBins];
+		engine.forEachRange(values.length, (start, end) -> {
+			final int[] privateBins = new int[numberOfBins];
+			for(int i=start; i<end; i++) {
+				final float value = values[i];
+				if(!Float.isNaN(value)) {
+					final int bin = (int)Math.floor((value - minValue) * scale);
+					privateBins[Math.max(0, Math.min(bin, numberOfBins - 1))]++;
+				}
+			}
+			synchronized(bins) {
+				for(int bin=0; bin<numberOfBins; bin++) bins[bin] += privateBins[bin];
+			}
+		});
+		return bins;
+	}
+
+	private int getBlockSize(final int size) {
+		final long numberOfBlocks = (long)BLOCKS_PER_THREAD * engine.getParallelism();
+		return (int)Math.max(MIN_BLOCK_SIZE, (size + numberOfBlocks - 1) / numberOfBlocks);
+	}
+
+	private static int getNumberOfBlocks(final int size, final int blockSize) {
+		return (int)(((long)size + blockSize - 1) / blockSize);
+	}
+
+	/*
+	 * Serial exclusive scan (of the few block sums). Returns the total.
+	 */
+	private static int exclusiveScanInPlace(final int[] values) {
+		int sum = 0;
+		for(int i=0; i<values.length; i++) {
+			final int value = values[i];
+			values[i] = sum;
+			sum += value;
+		}
+		return sum;
+	}
+}
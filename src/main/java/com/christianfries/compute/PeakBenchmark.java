@@ -0,0 +1,32 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.compute;
+
+import com.christianfries.compute.RooflineAnalyzer.Peak;
+
+/**
+ * The measurement of the peak memory bandwidth and floating point rate of a device by kernels of its backend,
+ * used by the {@link RooflineAnalyzer}.
+ *
+ * The bandwidth is measured by a STREAM-like copy kernel (<code>c[i] = a[i]</code>, 8 bytes moved per element),
+ * the floating point rate by a kernel running independent chains of multiply-adds (no memory traffic),
+ * see {@link PeakBenchmarkJava} and <code>com.christianfries.opencl.PeakBenchmarkOpenCL</code>.
+ *
+ * @author Christian Fries
+ */
+public interface PeakBenchmark {
+
+	/**
+	 * Measure the peak (best of a few repetitions after a warm up, see {@link RooflineAnalyzer#getBestTime(java.util.function.DoubleSupplier)}).
+	 *
+	 * @param bandwidthSize The number of floats copied by the bandwidth kernel (should exceed the caches).
+	 * @param flopsSize The number of work items of the FLOP kernel.
+	 * @param iterations The number of multiply-add iterations per work item of the FLOP kernel.
+	 * @return The peak bandwidth and FLOP rate.
+	 */
+	Peak measure(int bandwidthSize, int flopsSize, int iterations);
+}
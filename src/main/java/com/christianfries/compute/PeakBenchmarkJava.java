@@ -0,0 +1,72 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.compute;
+
+import com.christianfries.compute.RooflineAnalyzer.Peak;
+
+/**
+ * The peak of the Java backend, measured by loops running on the {@link JavaComputeEngine}.
+ *
+ * @author Christian Fries
+ */
+public class PeakBenchmarkJava implements PeakBenchmark {
+
+	// The elements processed in the cache by a task of the FLOP kernel
+	private static final int CHUNK_SIZE = 1024;
+
+	private final JavaComputeEngine engine;
+
+	/**
+	 * Create the benchmark running on the given engine.
+	 *
+	 * @param engine The Java compute engine.
+	 */
+	public PeakBenchmarkJava(final JavaComputeEngine engine) {
+		super();
+		this.engine = engine;
+	}
+
+	/**
+	 * Create the benchmark running on the default engine.
+	 */
+	public PeakBenchmarkJava() {
+		this(JavaComputeEngine.getDefault());
+	}
+
+	@Override
+	public Peak measure(final int bandwidthSize, final int flopsSize, final int iterations) {
+		final float[] a = new float[bandwidthSize];
+		final float[] c = new float[bandwidthSize];
+		final double copyTime = RooflineAnalyzer.getBestTime(() -> {
+			final long start = System.nanoTime();
+			engine.forEachRange(bandwidthSize, (rangeStart, rangeEnd) -> {
+				for(int i=rangeStart; i<rangeEnd; i++) c[i] = a[i];
+			});
+			return (System.nanoTime() - start) / 1E9;
+		});
+
+		// The iterations are the outer loop over a cache resident chunk, such that the inner loop is vectorized (independent chains)
+		final float[] result = new float[flopsSize];
+		final double fmaTime = RooflineAnalyzer.getBestTime(() -> {
+			final long start = System.nanoTime();
+			engine.forEachRange(flopsSize, (rangeStart, rangeEnd) -> {
+				final float[] x = new float[CHUNK_SIZE];
+				for(int chunkStart = rangeStart; chunkStart < rangeEnd; chunkStart += CHUNK_SIZE) {
+					final int chunkLength = Math.min(CHUNK_SIZE, rangeEnd - chunkStart);
+					for(int i=0; i<chunkLength; i++) x[i] = (chunkStart + i) * 1E-9f;
+					for(int j=0; j<iterations; j++) {
+						for(int i=0; i<chunkLength; i++) x[i] = x[i] * 0.999999f + 1E-7f;
+					}
+					System.arraycopy(x, 0, result, chunkStart, chunkLength);
+				}
+			});
+			return (System.nanoTime() - start) / 1E9;
+		});
+
+		return new Peak(2.0 * Float.BYTES * bandwidthSize / copyTime, 2.0 * iterations * flopsSize / fmaTime);
+	}
+}
@@ -0,0 +1,351 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.compute;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+import java.util.logging.Logger;
+
+/**
+ * The residency of device memory: tracks the recency of use of each device allocation (a {@link Resident}, e.g., the realizations of a random variable)
+ * and spills the least recently used allocations to host memory under memory pressure, such that workloads exceeding the device memory
+ * degrade (by transfers) instead of failing.
+ *
+ * The manager reacts to two kinds of pressure:
+ * <ul>
+ * <li>an allocation fails ({@link #allocate(long, LongFunction)} receives null from the device): the least recently used resident is spilled
+ * and the allocation is retried, until it succeeds or there is nothing left to spill;</li>
+ * <li>an allocation would exceed the capacity (a budget of resident bytes, unbounded by default): the least recently used residents are spilled first.</li>
+ * </ul>
+ * A spilled resident is restored (re-uploaded) by {@link #use(Resident)}, which has to be called before each access to its device memory.
+ *
+ * The device memory of a resident may only be accessed while it cannot be spilled. An operation therefore enters a scope
+ * (per thread, scopes may be nested, see {@link #enterScope()} and {@link #exitScope()}): all residents used within the scope
+ * are pinned until the outermost scope is exited.
+ *
+ * The policy does not depend on a device, hence it can be tested with a simulated device (an allocation function failing beyond a given size).
+ *
+ * @author Christian Fries
+ */
+public class ResidencyManager {
+
+	private static final Logger logger = Logger.getLogger("com.christianfries.compute");
+
+	// The maximum size of a memory mapped buffer
+	private static final int MAPPED_CHUNK_SIZE = 1 << 30;
+
+	/**
+	 * The host storage of spilled device memory.
+	 */
+	public enum SpillStorage {
+		/**
+		 * Page locked host memory (fast transfers, limited by the physical memory).
+		 */
+		PINNED_HOST,
+		/**
+		 * A memory mapped temporary file (limited by the disk, paged by the operating system).
+		 */
+		MEMORY_MAPPED_FILE
+	}
+
+	/**
+	 * A device allocation managed by the residency manager.
+	 */
+	public interface Resident {
+
+		/**
+		 * @return The size of the device memory.
+		 */
+		long getSizeInBytes();
+
+		/**
+		 * Copy the device memory to the host and release the device memory.
+		 *
+		 * @param storage The preferred host storage (an implementation may fall back to another storage, e.g. if pinned memory is exhausted).
+		 */
+		void spill(SpillStorage storage);
+
+		/**
+		 * Allocate the device memory (by {@link ResidencyManager#allocate(long, LongFunction)}), copy the host memory to it and release the host memory.
+		 */
+		void restore();
+	}
+
+	private final ThreadLocal<ScopeOfThread> currentScope = new ThreadLocal<>();
+
+	// The residents on the device in access order (the eldest is the least recently used) and the spilled residents
+	private final Map<Resident, Boolean> residents = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<Resident, Boolean> spilledResidents = new IdentityHashMap<>();
+	private final Map<Resident, Integer> pins = new IdentityHashMap<>();
+
+	private long capacityInBytes;
+	private SpillStorage spillStorage;
+
+	private long residentBytes;
+	private long spilledBytes;
+	private long spills;
+	private long restores;
+
+	/**
+	 * Create a residency manager.
+	 *
+	 * @param capacityInBytes The maximum number of resident bytes (the residents are spilled before the capacity is exceeded).
+	 * @param spillStorage The host storage of spilled residents.
+	 */
+	public ResidencyManager(final long capacityInBytes, final SpillStorage spillStorage) {
+		super();
+		this.capacityInBytes = capacityInBytes;
+		this.spillStorage = spillStorage;
+	}
+
+	/**
+	 * Create a residency manager with unbounded capacity (residents are spilled if an allocation fails), spilling to pinned host memory.
+	 */
+	public ResidencyManager() {
+		this(Long.MAX_VALUE, SpillStorage.PINNED_HOST);
+	}
+
+	/**
+	 * Allocate device memory. If the allocation would exceed the capacity or fails, the least recently used (unpinned) residents are spilled.
+	 *
+	 * @param sizeInBytes The size of the allocation.
+	 * @param allocation The allocation on the device, returning null if the device is out of memory.
+	 * @param <T> The type of the allocation.
+	 * @return The allocation or null if the device is out of memory although all unpinned residents have been spilled.
+	 */
+	public synchronized <T> T allocate(final long sizeInBytes, final LongFunction<T> allocation) {
+		while(residentBytes + sizeInBytes > capacityInBytes && spillLeastRecentlyUsed()) {
+			logger.finest(() -> "Spilled for an allocation of " + sizeInBytes + " bytes exceeding the capacity of " + capacityInBytes + " bytes.");
+		}
+		while(true) {
+			final T allocated = allocation.apply(sizeInBytes);
+			if(allocated != null) {
+				return allocated;
+			}
+			if(!spillLeastRecentlyUsed()) {
+				logger.warning("Out of device memory for an allocation of " + sizeInBytes + " bytes (" + residentBytes + " bytes resident, " + pins.size() + " pinned).");
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Register a resident (after its device memory has been allocated). It becomes the most recently used resident.
+	 *
+	 * @param resident The resident.
+	 */
+	public synchronized void register(final Resident resident) {
+		if(residents.put(resident, Boolean.TRUE) == null) {
+			residentBytes += resident.getSizeInBytes();
+		}
+		pinInCurrentScope(resident);
+	}
+
+	/**
+	 * Unregister a resident (before its memory is released), on the device or spilled.
+	 *
+	 * @param resident The resident.
+	 */
+	public synchronized void unregister(final Resident resident) {
+		if(residents.remove(resident) != null) {
+			residentBytes -= resident.getSizeInBytes();
+		}
+		if(spilledResidents.remove(resident) != null) {
+			spilledBytes -= resident.getSizeInBytes();
+		}
+		pins.remove(resident);
+	}
+
+	/**
+	 * Mark a resident as used: restore it if it has been spilled, make it the most recently used resident and pin it in the current scope (if any).
+	 * Has to be called before each access to the device memory of the resident.
+	 *
+	 * @param resident The resident.
+	 */
+	public synchronized void use(final Resident resident) {
+		if(spilledResidents.containsKey(resident)) {
+			resident.restore();
+			spilledResidents.remove(resident);
+			spilledBytes -= resident.getSizeInBytes();
+			residents.put(resident, Boolean.TRUE);
+			residentBytes += resident.getSizeInBytes();
+			restores++;
+		}
+		else if(residents.get(resident) == null) {
+			throw new IllegalArgumentException("The resident is not registered.");
+		}
+		pinInCurrentScope(resident);
+	}
+
+	/**
+	 * Enter a scope (for the current thread). Residents used (or registered) within the scope are not spilled until the outermost scope is exited.
+	 * Each call has to be followed by a call of {@link #exitScope()} (in a <code>finally</code> block).
+	 */
+	public void enterScope() {
+		ScopeOfThread scope = currentScope.get();
+		if(scope == null) {
+			scope = new ScopeOfThread();
+			currentScope.set(scope);
+		}
+		scope.depth++;
+	}
+
+	/**
+	 * Exit the scope entered last by the current thread. Exiting the outermost scope unpins the residents used within it.
+	 *
+	 * @throws IllegalStateException If the current thread has not entered a scope.
+	 */
+	public void exitScope() {
+		final ScopeOfThread scope = currentScope.get();
+		if(scope == null) {
+			throw new IllegalStateException("No scope entered by the current thread.");
+		}
+		if(--scope.depth == 0) {
+			currentScope.remove();
+			unpin(scope.pinnedResidents);
+		}
+	}
+
+	/**
+	 * @param resident The resident.
+	 * @return True if the resident is on the device, false if it is spilled (or not registered).
+	 */
+	public synchronized boolean isResident(final Resident resident) {
+		return residents.containsKey(resident);
+	}
+
+	public synchronized long getCapacity() {
+		return capacityInBytes;
+	}
+
+	/**
+	 * Set the capacity. Residents exceeding it are spilled upon the next allocation.
+	 *
+	 * @param capacityInBytes The maximum number of resident bytes.
+	 */
+	public synchronized void setCapacity(final long capacityInBytes) {
+		this.capacityInBytes = capacityInBytes;
+	}
+
+	public synchronized SpillStorage getSpillStorage() {
+		return spillStorage;
+	}
+
+	public synchronized void setSpillStorage(final SpillStorage spillStorage) {
+		this.spillStorage = spillStorage;
+	}
+
+	public synchronized long getResidentBytes() {
+		return residentBytes;
+	}
+
+	public synchronized long getSpilledBytes() {
+		return spilledBytes;
+	}
+
+	public synchronized int getNumberOfResidents() {
+		return residents.size() + spilledResidents.size();
+	}
+
+	/**
+	 * @return The number of residents spilled to the host.
+	 */
+	public synchronized long getSpills() {
+		return spills;
+	}
+
+	/**
+	 * @return The number of residents restored to the device.
+	 */
+	public synchronized long getRestores() {
+		return restores;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "ResidencyManager [capacity=" + capacityInBytes + ", spillStorage=" + spillStorage + ", residentBytes=" + residentBytes
+				+ ", spilledBytes=" + spilledBytes + ", spills=" + spills + ", restores=" + restores + "]";
+	}
+
+	/**
+	 * Map a temporary file (deleted when the mapping is released) as host storage.
+	 *
+	 * @param sizeInBytes The size.
+	 * @return Consecutive buffers (in native byte order) of the mapped file.
+	 * @throws UncheckedIOException If the file cannot be created or mapped.
+	 */
+	public static ByteBuffer[] mapTemporaryFile(final long sizeInBytes) {
+		try {
+			final Path file = Files.createTempFile("residency", ".spill");
+			try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE)) {
+				final ByteBuffer[] buffers = new ByteBuffer[(int)((sizeInBytes + MAPPED_CHUNK_SIZE - 1) / MAPPED_CHUNK_SIZE)];
+				for(int i=0; i<buffers.length; i++) {
+					final long offset = (long)i * MAPPED_CHUNK_SIZE;
+					buffers[i] = channel.map(FileChannel.MapMode.READ_WRITE, offset, Math.min(MAPPED_CHUNK_SIZE, sizeInBytes - offset)).order(ByteOrder.nativeOrder());
+				}
+				// The mapping stays valid after the channel is closed
+				return buffers;
+			}
+		}
+		catch(final IOException e) {
+			throw new UncheckedIOException("Failed to map a temporary file of " + sizeInBytes + " bytes.", e);
+		}
+	}
+
+	/*
+	 * Spill the least recently used resident which is not pinned. Returns false if there is none.
+	 */
+	private boolean spillLeastRecentlyUsed() {
+		final Iterator<Resident> leastRecentlyUsed = residents.keySet().iterator();
+		while(leastRecentlyUsed.hasNext()) {
+			final Resident resident = leastRecentlyUsed.next();
+			if(pins.containsKey(resident)) {
+				continue;
+			}
+			resident.spill(spillStorage);
+			leastRecentlyUsed.remove();
+			residentBytes -= resident.getSizeInBytes();
+			spilledResidents.put(resident, Boolean.TRUE);
+			spilledBytes += resident.getSizeInBytes();
+			spills++;
+			return true;
+		}
+		return false;
+	}
+
+	private void pinInCurrentScope(final Resident resident) {
+		final ScopeOfThread scope = currentScope.get();
+		if(scope != null) {
+			pins.merge(resident, 1, Integer::sum);
+			scope.pinnedResidents.add(resident);
+		}
+	}
+
+	private synchronized void unpin(final List<Resident> pinnedResidents) {
+		for(final Resident resident : pinnedResidents) {
+			pins.computeIfPresent(resident, (key, count) -> count > 1 ? count - 1 : null);
+		}
+	}
+
+	private static class ScopeOfThread {
+		private final List<Resident> pinnedResidents = new ArrayList<>();
+		private int depth;
+	}
+}
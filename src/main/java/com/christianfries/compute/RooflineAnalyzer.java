@@ -0,0 +1,310 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.compute;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.DoubleSupplier;
+
+/**
+ * A roofline analyzer relating the performance of kernels to the limits of a device.
+ *
+ * The analyzer measures the peak memory bandwidth of the device with a STREAM-like copy kernel
+ * (<code>c[i] = a[i]</code>, 8 bytes moved per element) and its peak floating point rate with a kernel
+ * running independent chains of multiply-adds (no memory traffic), see {@link PeakBenchmark}. A kernel is then annotated from its declared
+ * bytes moved and FLOPs per element and its measured run time: its arithmetic intensity (FLOP per byte),
+ * the achieved bandwidth and FLOP rate, the attainable rate <i>min(peak FLOP/s, intensity &times; peak bandwidth)</i>
+ * (the roofline), whether it is memory or compute bound, and the achieved fraction of the roofline.
+ *
+ * The peak kernels of the Java backend ({@link PeakBenchmarkJava}) are used by default. For an OpenCL device (CPU or GPU),
+ * pass the benchmark of the OpenCL backend (<code>com.christianfries.opencl.PeakBenchmarkOpenCL</code>).
+ * Cuda devices are not supported (their kernels can be annotated with {@link #annotate(String, long, double, double, double)}
+ * against the peak of another backend only).
+ *
+ * @author Christian Fries
+ */
+public class RooflineAnalyzer {
+
+	private static final int DEFAULT_BANDWIDTH_SIZE = 1 << 24;
+	private static final int DEFAULT_FLOPS_SIZE = 1 << 20;
+	private static final int DEFAULT_ITERATIONS = 256;
+	private static final int REPETITIONS = 5;
+
+	/**
+	 * The peak bandwidth and floating point rate of a device.
+	 */
+	public static class Peak {
+		private final double bytesPerSecond;
+		private final double flopsPerSecond;
+
+		public Peak(final double bytesPerSecond, final double flopsPerSecond) {
+			super();
+			this.bytesPerSecond = bytesPerSecond;
+			this.flopsPerSecond = flopsPerSecond;
+		}
+
+		public double getBytesPerSecond() {
+			return bytesPerSecond;
+		}
+
+		public double getFlopsPerSecond() {
+			return flopsPerSecond;
+		}
+
+		/**
+		 * @return The arithmetic intensity (FLOP per byte) above which a kernel is compute bound.
+		 */
+		public double getRidgePoint() {
+			return flopsPerSecond / bytesPerSecond;
+		}
+
+		/**
+		 * @param arithmeticIntensity The arithmetic intensity (FLOP per byte).
+		 * @return The attainable FLOP rate, <i>min(peak FLOP/s, intensity &times; peak bandwidth)</i>.
+		 */
+		public double getAttainableFlopsPerSecond(final double arithmeticIntensity) {
+			return Math.min(flopsPerSecond, arithmeticIntensity * bytesPerSecond);
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "%.1f GB/s, %.1f GFLOP/s, ridge point %.2f FLOP/byte", bytesPerSecond / 1E9, flopsPerSecond / 1E9, getRidgePoint());
+		}
+	}
+
+	/**
+	 * The performance of a kernel relative to the roofline of a device.
+	 */
+	public static class Annotation {
+		private final String kernelName;
+		private final long numberOfElements;
+		private final double bytesPerElement;
+		private final double flopsPerElement;
+		private final double seconds;
+		private final Peak peak;
+
+		Annotation(final String kernelName, final long numberOfElements, final double bytesPerElement, final double flopsPerElement, final double seconds, final Peak peak) {
+			super();
+			this.kernelName = kernelName;
+			this.numberOfElements = numberOfElements;
+			this.bytesPerElement = bytesPerElement;
+			this.flopsPerElement = flopsPerElement;
+			this.seconds = seconds;
+			this.peak = peak;
+		}
+
+		public String getKernelName() {
+			return kernelName;
+		}
+
+		public long getNumberOfElements() {
+			return numberOfElements;
+		}
+
+		public double getSeconds() {
+			return seconds;
+		}
+
+		/**
+		 * @return The declared FLOPs per declared byte moved (infinite if no bytes are moved).
+		 */
+		public double getArithmeticIntensity() {
+			return bytesPerElement > 0 ? flopsPerElement / bytesPerElement : Double.POSITIVE_INFINITY;
+		}
+
+		public double getBytesPerSecond() {
+			return numberOfElements * bytesPerElement / seconds;
+		}
+
+		public double getFlopsPerSecond() {
+			return numberOfElements * flopsPerElement / seconds;
+		}
+
+		/**
+		 * @return True if the arithmetic intensity is below the ridge point of the device.
+		 */
+		public boolean isMemoryBound() {
+			return getArithmeticIntensity() < peak.getRidgePoint();
+		}
+
+		/**
+		 * @return The achieved fraction of the roofline: of the peak bandwidth for a memory bound kernel, of the peak FLOP rate for a compute bound kernel.
+		 */
+		public double getFractionOfPeak() {
+			return isMemoryBound() ? getBytesPerSecond() / peak.getBytesPerSecond() : getFlopsPerSecond() / peak.getFlopsPerSecond();
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "%s: %.2f FLOP/byte, %.2f GB/s, %.2f GFLOP/s, %s bound, %.1f%% of peak",
+					kernelName, getArithmeticIntensity(), getBytesPerSecond() / 1E9, getFlopsPerSecond() / 1E9, isMemoryBound() ? "memory" : "compute", 100.0 * getFractionOfPeak());
+		}
+	}
+
+	private final DeviceInfo device;
+	private final PeakBenchmark peakBenchmark;
+	private final int bandwidthSize;
+	private final int flopsSize;
+	private final int iterations;
+
+	private Peak peak;
+	private final List<Annotation> annotations = new ArrayList<>();
+
+	/**
+	 * Create an analyzer for a device.
+	 *
+	 * @param device The device (OpenCL or Java backend).
+	 * @param peakBenchmark The measurement of the peak by kernels running on the device.
+	 * @param bandwidthSize The number of floats copied by the bandwidth kernel (should exceed the caches).
+	 * @param flopsSize The number of work items of the FLOP kernel.
+	 * @param iterations The number of multiply-add iterations per work item of the FLOP kernel.
+	 */
+	public RooflineAnalyzer(final DeviceInfo device, final PeakBenchmark peakBenchmark, final int bandwidthSize, final int flopsSize, final int iterations) {
+		super();
+		if(device.getBackend() == Backend.CUDA) {
+			throw new IllegalArgumentException("The roofline analyzer supports OpenCL devices and the Java backend.");
+		}
+		this.device = device;
+		this.peakBenchmark = peakBenchmark;
+		this.bandwidthSize = bandwidthSize;
+		this.flopsSize = flopsSize;
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Create an analyzer for a device, copying 64 MB for the bandwidth and running 2<sup>20</sup> work items with 256 iterations for the FLOP rate.
+	 *
+	 * @param device The device (OpenCL or Java backend).
+	 * @param peakBenchmark The measurement of the peak by kernels running on the device.
+	 */
+	public RooflineAnalyzer(final DeviceInfo device, final PeakBenchmark peakBenchmark) {
+		this(device, peakBenchmark, DEFAULT_BANDWIDTH_SIZE, DEFAULT_FLOPS_SIZE, DEFAULT_ITERATIONS);
+	}
+
+	/**
+	 * Create an analyzer for the Java backend.
+	 *
+	 * @param device The device (Java backend).
+	 * @param bandwidthSize The number of floats copied by the bandwidth kernel (should exceed the caches).
+	 * @param flopsSize The number of work items of the FLOP kernel.
+	 * @param iterations The number of multiply-add iterations per work item of the FLOP kernel.
+	 */
+	public RooflineAnalyzer(final DeviceInfo device, final int bandwidthSize, final int flopsSize, final int iterations) {
+		this(device, getJavaPeakBenchmark(device), bandwidthSize, flopsSize, iterations);
+	}
+
+	/**
+	 * Create an analyzer for the Java backend, copying 64 MB for the bandwidth and running 2<sup>20</sup> work items with 256 iterations for the FLOP rate.
+	 *
+	 * @param device The device (Java backend).
+	 */
+	public RooflineAnalyzer(final DeviceInfo device) {
+		this(device, DEFAULT_BANDWIDTH_SIZE, DEFAULT_FLOPS_SIZE, DEFAULT_ITERATIONS);
+	}
+
+	private static PeakBenchmark getJavaPeakBenchmark(final DeviceInfo device) {
+		if(device.getBackend() != Backend.JAVA) {
+			throw new IllegalArgumentException("The device " + device.getId() + " requires the peak benchmark of its backend.");
+		}
+		return new PeakBenchmarkJava();
+	}
+
+	public DeviceInfo getDevice() {
+		return device;
+	}
+
+	/**
+	 * Get the peak of the device, measured on first call (best of a few repetitions after a warm up).
+	 *
+	 * @return The peak bandwidth and FLOP rate.
+	 */
+	public synchronized Peak getPeak() {
+		if(peak == null) {
+			peak = peakBenchmark.measure(bandwidthSize, flopsSize, iterations);
+		}
+		return peak;
+	}
+
+	/**
+	 * Annotate a kernel with its performance relative to the roofline and add it to the table.
+	 *
+	 * @param kernelName The name of the kernel.
+	 * @param numberOfElements The number of elements processed.
+	 * @param bytesPerElement The declared bytes moved from and to memory per element.
+	 * @param flopsPerElement The declared floating point operations per element.
+	 * @param seconds The measured run time.
+	 * @return The annotation.
+	 */
+	public Annotation annotate(final String kernelName, final long numberOfElements, final double bytesPerElement, final double flopsPerElement, final double seconds) {
+		final Annotation annotation = new Annotation(kernelName, numberOfElements, bytesPerElement, flopsPerElement, seconds, getPeak());
+		synchronized(annotations) {
+			annotations.add(annotation);
+		}
+		return annotation;
+	}
+
+	/**
+	 * Measure a kernel (best of a few repetitions after a warm up) and annotate it, see {@link #annotate(String, long, double, double, double)}.
+	 *
+	 * @param kernelName The name of the kernel.
+	 * @param numberOfElements The number of elements processed.
+	 * @param bytesPerElement The declared bytes moved from and to memory per element.
+	 * @param flopsPerElement The declared floating point operations per element.
+	 * @param kernel A synchronous run of the kernel.
+	 * @return The annotation.
+	 */
+	public Annotation measure(final String kernelName, final long numberOfElements, final double bytesPerElement, final double flopsPerElement, final Runnable kernel) {
+		return annotate(kernelName, numberOfElements, bytesPerElement, flopsPerElement, getBestTime(() -> {
+			final long start = System.nanoTime();
+			kernel.run();
+			return (System.nanoTime() - start) / 1E9;
+		}));
+	}
+
+	/**
+	 * @return The annotated kernels in the order of their annotation.
+	 */
+	public List<Annotation> getAnnotations() {
+		synchronized(annotations) {
+			return Collections.unmodifiableList(new ArrayList<>(annotations));
+		}
+	}
+
+	/**
+	 * Print the roofline table: the peak of the device and a row per annotated kernel.
+	 *
+	 * @param out The stream to print to.
+	 */
+	public void printTable(final PrintStream out) {
+		out.println("Roofline of " + device.getId() + " (" + device.getName() + "): " + getPeak());
+		out.println(String.format(Locale.ROOT, "%-24s %12s %10s %10s %10s %10s %8s %8s", "kernel", "elements", "ms", "FLOP/byte", "GB/s", "GFLOP/s", "bound", "% peak"));
+		for(final Annotation annotation : getAnnotations()) {
+			out.println(String.format(Locale.ROOT, "%-24s %12d %10.3f %10.2f %10.2f %10.2f %8s %7.1f%%",
+					annotation.getKernelName(), annotation.getNumberOfElements(), annotation.getSeconds() * 1E3, annotation.getArithmeticIntensity(),
+					annotation.getBytesPerSecond() / 1E9, annotation.getFlopsPerSecond() / 1E9, annotation.isMemoryBound() ? "memory" : "compute",
+					100.0 * annotation.getFractionOfPeak()));
+		}
+	}
+
+	/**
+	 * Measure a benchmark: the best of a few repetitions after a warm up.
+	 *
+	 * @param benchmark A synchronous run of the benchmark, returning its run time in seconds.
+	 * @return The best run time in seconds.
+	 */
+	public static double getBestTime(final DoubleSupplier benchmark) {
+		benchmark.getAsDouble();	// Warm up
+		double bestTime = Double.MAX_VALUE;
+		for(int repetition=0; repetition<REPETITIONS; repetition++) {
+			bestTime = Math.min(bestTime, benchmark.getAsDouble());
+		}
+		return bestTime;
+	}
+}
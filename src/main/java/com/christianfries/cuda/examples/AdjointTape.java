@@ -0,0 +1,214 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A tape for adjoint (backward) algorithmic differentiation of calculations with random variables.
+ *
+ * Each operation on a {@link RandomVariableDifferentiable} appends an entry to the tape, holding the operator,
+ * the IDs of its operands and its value (the forward sweep). The gradient of a result with respect to all
+ * independent variables is calculated by a single backward sweep over the tape, propagating the adjoints
+ * <i>&part;y/&part;x</i> from the result to the operands. Hence the cost of all first order sensitivities is
+ * a small multiple of the cost of the valuation, independent of the number of risk factors (compared to one
+ * re-valuation per risk factor when bumping inputs).
+ *
+ * The backward sweep is expressed by operations of the random variables itself, i.e., it runs where the random
+ * variables live (Cuda kernels for <code>RandomVariableSimpleCuda</code>, Java loops for <code>RandomVariableSimpleJava</code>).
+ * Adjoints are accumulated in place (<code>addProductInPlace</code>, i.e., <code>axpy</code> for deterministic factors)
+ * and the adjoints of intermediate results are released as soon as they have been propagated.
+ *
+ * The tape holds the values of all recorded operations until it is no longer referenced.
+ *
+ * @author Christian Fries
+ */
+public class AdjointTape {
+
+	enum Operator { ADD, MULT, DIV, DISCOUNT, EXP }
+
+	/**
+	 * An entry of the tape. Independent variables and constants have no operator.
+	 */
+	private static class Entry {
+		private final Operator operator;
+		private final int[] argumentIds;
+		private final float parameter;
+		private final RandomVariableSimpleInterface value;
+		private final boolean isIndependent;
+
+		Entry(Operator operator, int[] argumentIds, float parameter, RandomVariableSimpleInterface value, boolean isIndependent) {
+			this.operator = operator;
+			this.argumentIds = argumentIds;
+			this.parameter = parameter;
+			this.value = value;
+			this.isIndependent = isIndependent;
+		}
+	}
+
+	private final RandomVariableFactory factory;
+	private final List<Entry> entries = new ArrayList<>();
+
+	/**
+	 * Create a tape.
+	 *
+	 * @param factory The factory of the random variables recorded on this tape (used to create the constants of the backward sweep).
+	 */
+	public AdjointTape(RandomVariableFactory factory) {
+		super();
+		this.factory = factory;
+	}
+
+	/**
+	 * Create an independent variable, i.e., a variable for which the gradient reports a sensitivity.
+	 *
+	 * @param value The value.
+	 * @return The variable recorded on this tape.
+	 */
+	public RandomVariableDifferentiable createVariable(RandomVariableSimpleInterface value) {
+		return add(new Entry(null, null, Float.NaN, value, true));
+	}
+
+	/**
+	 * Create a constant, i.e., a variable which does not appear in the gradient.
+	 *
+	 * @param value The value.
+	 * @return The constant recorded on this tape.
+	 */
+	public RandomVariableDifferentiable createConstant(RandomVariableSimpleInterface value) {
+		return add(new Entry(null, null, Float.NaN, value, false));
+	}
+
+	/**
+	 * @return The number of entries of this tape.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	RandomVariableDifferentiable record(Operator operator, float parameter, RandomVariableSimpleInterface value, RandomVariableDifferentiable... arguments) {
+		final int[] argumentIds = new int[arguments.length];
+		for(int i=0; i<arguments.length; i++) {
+			if(arguments[i].getTape() != this) {
+				throw new IllegalArgumentException("All operands have to be recorded on the same tape.");
+			}
+			argumentIds[i] = (int)arguments[i].getID();
+		}
+		return add(new Entry(operator, argumentIds, parameter, value, false));
+	}
+
+	private synchronized RandomVariableDifferentiable add(Entry entry) {
+		entries.add(entry);
+		return new RandomVariableDifferentiable(this, entries.size()-1, entry.value);
+	}
+
+	/**
+	 * Calculate the gradient of the given variable with respect to all independent variables it depends on (backward sweep).
+	 *
+	 * @param variable The variable <i>y</i> recorded on this tape.
+	 * @return Map from the ID of an independent variable <i>x</i> to the derivative <i>&part;y/&part;x</i> (path-wise).
+	 */
+	public Map<Long, RandomVariableSimpleInterface> getGradient(RandomVariableDifferentiable variable) {
+		if(variable.getTape() != this) {
+			throw new IllegalArgumentException("The variable is not recorded on this tape.");
+		}
+
+		final int end = (int)variable.getID();
+		final List<Entry> entries;
+		synchronized (this) {
+			entries = new ArrayList<>(this.entries.subList(0, end+1));
+		}
+
+		// The adjoints; an adjoint which is owned (created by the backward sweep) may be updated in place
+		final RandomVariableSimpleInterface[] adjoints = new RandomVariableSimpleInterface[end+1];
+		final boolean[] isOwned = new boolean[end+1];
+		adjoints[end] = factory.createRandomVariable(1.0f);
+
+		final Map<Long, RandomVariableSimpleInterface> gradient = new HashMap<>();
+		for(int id=end; id>=0; id--) {
+			final RandomVariableSimpleInterface adjoint = adjoints[id];
+			if(adjoint == null) {
+				continue;
+			}
+
+			final Entry entry = entries.get(id);
+			if(entry.operator == null) {
+				if(entry.isIndependent) {
+					gradient.put((long)id, adjoint);
+				}
+				continue;
+			}
+
+			final int[] argumentIds = entry.argumentIds;
+			switch(entry.operator) {
+			case ADD:
+				accumulate(adjoints, isOwned, argumentIds[0], adjoint, null);
+				accumulate(adjoints, isOwned, argumentIds[1], adjoint, null);
+				break;
+			case MULT:
+				accumulate(adjoints, isOwned, argumentIds[0], adjoint, entries.get(argumentIds[1]).value);
+				accumulate(adjoints, isOwned, argumentIds[1], adjoint, entries.get(argumentIds[0]).value);
+				break;
+			case DIV:
+			{
+				// z = a / b: dz/da = 1 / b, dz/db = - z / b
+				final RandomVariableSimpleInterface divisor = entries.get(argumentIds[1]).value;
+				final RandomVariableSimpleInterface adjointByDivisor = adjoint.div(divisor);
+				accumulate(adjoints, isOwned, argumentIds[1], adjointByDivisor.mult(entry.value), factory.createRandomVariable(-1.0f));
+				accumulate(adjoints, isOwned, argumentIds[0], adjointByDivisor, null);
+				break;
+			}
+			case DISCOUNT:
+			{
+				// z = a / (1 + r p): dz/da = 1 / (1 + r p), dz/dr = - z p / (1 + r p)
+				final RandomVariableSimpleInterface rate = entries.get(argumentIds[1]).value;
+				accumulate(adjoints, isOwned, argumentIds[0], adjoint.discount(rate, entry.parameter), null);
+				accumulate(adjoints, isOwned, argumentIds[1], adjoint.mult(entry.value).discount(rate, entry.parameter), factory.createRandomVariable(-entry.parameter));
+				break;
+			}
+			case EXP:
+				accumulate(adjoints, isOwned, argumentIds[0], adjoint, entry.value);
+				break;
+			default:
+				throw new UnsupportedOperationException("Operator " + entry.operator + " not supported.");
+			}
+
+			// The adjoint of an intermediate result is no longer needed
+			adjoints[id] = null;
+		}
+
+		return gradient;
+	}
+
+	/**
+	 * Add <code>contribution * factor</code> to the adjoint with the given ID.
+	 *
+	 * @param factor The factor or null (representing 1).
+	 */
+	private void accumulate(RandomVariableSimpleInterface[] adjoints, boolean[] isOwned, int id, RandomVariableSimpleInterface contribution, RandomVariableSimpleInterface factor) {
+		final RandomVariableSimpleInterface adjoint = adjoints[id];
+		if(adjoint == null) {
+			adjoints[id] = factor == null ? contribution : contribution.mult(factor);
+			isOwned[id] = factor != null;
+		}
+		else if(isOwned[id] && !adjoint.isDeterministic()) {
+			if(factor == null) {
+				adjoint.addInPlace(contribution);
+			}
+			else {
+				adjoint.addProductInPlace(contribution, factor);
+			}
+		}
+		else {
+			adjoints[id] = adjoint.add(factor == null ? contribution : contribution.mult(factor));
+			isOwned[id] = true;
+		}
+	}
+}
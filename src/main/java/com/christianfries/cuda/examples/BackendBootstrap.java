@@ -0,0 +1,195 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.christianfries.compute.Backend;
+import com.christianfries.compute.ComputeTracer;
+import com.christianfries.compute.DeviceRegistry;
+
+/**
+ * Explicit, fault-tolerant initialization of the Cuda backend.
+ *
+ * Initializing Cuda (driver, context, compiling the .cu files with <code>nvcc</code> and loading the modules, creating the cuBLAS handle)
+ * takes seconds. Instead of paying this on the first request (and failing with an obscure error if Cuda is not available),
+ * a service calls {@link #start()} at startup: the initialization runs asynchronously, the modules are compiled and loaded in parallel.
+ * The bootstrap reports its {@link State} and, once completed, provides a {@link RandomVariableFactory}:
+ * a {@link RandomVariableFactoryCuda} if the initialization succeeded, otherwise a {@link RandomVariableFactoryJava}
+ * (the CPU backend) together with the reason of the fallback, see {@link #getFailureReason()}.
+ *
+ * <pre>
+ * BackendBootstrap bootstrap = new BackendBootstrap();
+ * bootstrap.start();					// at service start, returns immediately
+ * ...
+ * RandomVariableFactory factory = bootstrap.getFactory();	// waits for the warm up (if still running)
+ * </pre>
+ *
+ * @author Christian Fries
+ */
+public class BackendBootstrap {
+
+	private static final Logger logger = Logger.getLogger("com.christianfries.compute");
+
+	/**
+	 * The state of the initialization.
+	 */
+	public enum State {
+		NOT_STARTED,
+		INITIALIZING,
+		READY,			// The Cuda backend is initialized
+		FALLBACK		// The initialization failed, the CPU backend is used
+	}
+
+	private final StoragePrecision precision;
+	private final List<String> cuFileNames;
+
+	private volatile State state = State.NOT_STARTED;
+	private volatile String failureReason;
+	private CompletableFuture<RandomVariableFactory> factory;
+
+	/**
+	 * Create a bootstrap loading the given Cuda source files.
+	 *
+	 * @param precision The storage precision of the random variables created by the factory.
+	 * @param cuFileNames The .cu files compiled and loaded during the warm up (e.g. <code>PathSimulationKernel.cu</code> if path simulations are used).
+	 */
+	public BackendBootstrap(final StoragePrecision precision, final List<String> cuFileNames) {
+		super();
+		this.precision = precision;
+		this.cuFileNames = List.copyOf(cuFileNames);
+	}
+
+	/**
+	 * Create a bootstrap loading the kernels of {@link RandomVariableSimpleCuda} (float storage).
+	 */
+	public BackendBootstrap() {
+		this(StoragePrecision.FLOAT32, List.of(RandomVariableSimpleCuda.cuFileName));
+	}
+
+	/**
+	 * Start the initialization asynchronously (once). Subsequent calls return the same future.
+	 *
+	 * @return A future completing with the factory (never completing exceptionally: failures result in the CPU backend).
+	 */
+	public synchronized CompletableFuture<RandomVariableFactory> start() {
+		if(factory == null) {
+			state = State.INITIALIZING;
+			// One thread running the initialization, one per module
+			final ExecutorService executor = Executors.newFixedThreadPool(1 + cuFileNames.size(), runnable -> {
+				final Thread thread = new Thread(runnable, "javagpu-bootstrap");
+				thread.setDaemon(true);
+				return thread;
+			});
+			factory = CompletableFuture.supplyAsync(() -> initialize(executor), executor)
+					.whenComplete((result, exception) -> executor.shutdown());
+		}
+		return factory;
+	}
+
+	/**
+	 * Get the factory, starting the initialization if required and waiting for its completion.
+	 *
+	 * @return The factory of the Cuda backend or, if its initialization failed, of the CPU backend.
+	 */
+	public RandomVariableFactory getFactory() {
+		return start().join();
+	}
+
+	/**
+	 * Get the factory, waiting at most the given time for the completion of the initialization.
+	 *
+	 * @param timeout The maximum time to wait.
+	 * @param unit The unit of the timeout.
+	 * @return The factory of the Cuda backend or, if its initialization failed, of the CPU backend.
+	 * @throws TimeoutException If the initialization did not complete in time.
+	 * @throws InterruptedException If the current thread was interrupted while waiting.
+	 */
+	public RandomVariableFactory getFactory(final long timeout, final TimeUnit unit) throws TimeoutException, InterruptedException {
+		try {
+			return start().get(timeout, unit);
+		}
+		catch(final ExecutionException e) {
+			// Not reached: failures are mapped to the fallback
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	public State getState() {
+		return state;
+	}
+
+	/**
+	 * @return True if the Cuda backend is initialized.
+	 */
+	public boolean isReady() {
+		return state == State.READY;
+	}
+
+	/**
+	 * @return The reason why the CPU backend is used, empty unless the state is {@link State#FALLBACK}.
+	 */
+	public Optional<String> getFailureReason() {
+		return Optional.ofNullable(failureReason);
+	}
+
+	private RandomVariableFactory initialize(final ExecutorService executor) {
+		final long startNanos = System.nanoTime();
+		try(ComputeTracer.Scope scope = ComputeTracer.getInstance().scope("Bootstrap", "Cuda")) {
+			if(DeviceRegistry.getInstance().getDevices(Backend.CUDA).isEmpty()) {
+				return fallback("No Cuda device available.", null);
+			}
+
+			final CudaDeviceContext deviceContext = CudaDeviceContext.getDefault();
+			scope.setArgument("device", deviceContext.getId());
+
+			// Compile and load the modules in parallel
+			final List<CompletableFuture<Void>> modules = new ArrayList<>();
+			for(final String cuFileName : cuFileNames) {
+				modules.add(CompletableFuture.runAsync(() -> {
+					try(ComputeTracer.Scope moduleScope = ComputeTracer.getInstance().scope("Bootstrap", cuFileName)) {
+						moduleScope.setArgument("device", deviceContext.getId());
+						deviceContext.loadModule(cuFileName);
+					}
+				}, executor));
+			}
+			deviceContext.getCublasHandle();
+			CompletableFuture.allOf(modules.toArray(new CompletableFuture<?>[0])).join();
+
+			state = State.READY;
+			logger.info(String.format("Cuda backend %s ready after %.2f s.", deviceContext.getId(), (System.nanoTime() - startNanos) / 1E9));
+			return new RandomVariableFactoryCuda(deviceContext, precision);
+		}
+		catch(final RuntimeException | LinkageError e) {
+			final Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+			return fallback(cause.getMessage(), cause);
+		}
+	}
+
+	private RandomVariableFactory fallback(final String reason, final Throwable cause) {
+		failureReason = reason;
+		state = State.FALLBACK;
+		logger.log(Level.WARNING, "Cuda backend not available, using the Java backend. Reason: " + reason, cause);
+		return new RandomVariableFactoryJava();
+	}
+
+	@Override
+	public String toString() {
+		return "BackendBootstrap [state=" + state + (failureReason != null ? ", failureReason=" + failureReason : "") + "]";
+	}
+}
@@ -0,0 +1,632 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+import static jcuda.driver.JCudaDriver.cuCtxEnablePeerAccess;
+import static jcuda.driver.JCudaDriver.cuCtxSetCurrent;
+import static jcuda.driver.JCudaDriver.cuCtxSynchronize;
+import static jcuda.driver.JCudaDriver.cuDeviceCanAccessPeer;
+import static jcuda.driver.JCudaDriver.cuDeviceGet;
+import static jcuda.driver.JCudaDriver.cuDeviceGetAttribute;
+import static jcuda.driver.JCudaDriver.cuDevicePrimaryCtxRetain;
+import static jcuda.driver.JCudaDriver.cuInit;
+import static jcuda.driver.JCudaDriver.cuLaunchKernel;
+import static jcuda.driver.JCudaDriver.cuMemcpyDtoH;
+import static jcuda.driver.JCudaDriver.cuMemcpyHtoD;
+import static jcuda.driver.JCudaDriver.cuMemcpyPeer;
+import static jcuda.driver.JCudaDriver.cuModuleGetFunction;
+import static jcuda.driver.JCudaDriver.cuModuleLoad;
+import static jcuda.driver.JCudaDriver.cuModuleLoadData;
+import static jcuda.nvrtc.JNvrtc.nvrtcCompileProgram;
+import static jcuda.nvrtc.JNvrtc.nvrtcCreateProgram;
+import static jcuda.nvrtc.JNvrtc.nvrtcDestroyProgram;
+import static jcuda.nvrtc.JNvrtc.nvrtcGetPTX;
+import static jcuda.nvrtc.JNvrtc.nvrtcGetProgramLog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import com.christianfries.compute.Backend;
+import com.christianfries.compute.ComputeEvents;
+import com.christianfries.compute.ComputeEvents.DeviceAlloc;
+import com.christianfries.compute.ComputeEvents.DeviceToHostCopy;
+import com.christianfries.compute.ComputeEvents.HostToDeviceCopy;
+import com.christianfries.compute.ComputeEvents.KernelLaunch;
+import com.christianfries.compute.ComputeEvents.ProgramBuild;
+import com.christianfries.compute.ComputeTracer;
+import com.christianfries.compute.DeviceRegistry;
+import com.christianfries.compute.LaunchPolicy;
+import com.christianfries.compute.LaunchPolicy.LaunchConfiguration;
+import com.christianfries.compute.ResidencyManager;
+
+import jcuda.CudaException;
+import jcuda.LogLevel;
+import jcuda.Pointer;
+import jcuda.Sizeof;
+import jcuda.driver.CUcontext;
+import jcuda.driver.CUdevice;
+import jcuda.driver.CUdevice_attribute;
+import jcuda.driver.CUdeviceptr;
+import jcuda.driver.CUfunction;
+import jcuda.driver.CUmodule;
+import jcuda.driver.CUresult;
+import jcuda.driver.JCudaDriver;
+import jcuda.jcublas.JCublas2;
+import jcuda.jcublas.cublasHandle;
+import jcuda.nvrtc.nvrtcProgram;
+import jcuda.nvrtc.nvrtcResult;
+
+/**
+ * The execution context of a single Cuda device.
+ *
+ * There is one instance per device (obtained via {@link #getContext(int)}). It holds the (primary)
+ * Cuda context of the device and caches the modules and functions loaded on this device.
+ * Cuda contexts are bound to threads: every operation on the device has to call {@link #makeCurrent()}
+ * first, which calls <code>cuCtxSetCurrent</code> only if the calling thread has a different context current.
+ *
+ * The Cuda driver is initialized lazily by the first context created (see {@link #initialize()}). If the initialization fails
+ * (no driver or no device), an <code>IllegalStateException</code> carrying the reason is thrown, such that a caller
+ * (e.g. the {@link BackendBootstrap}) can fall back to a CPU backend.
+ *
+ * @author Christian Fries
+ */
+public class CudaDeviceContext {
+
+	private static final Logger logger = Logger.getLogger("com.christianfries.compute");
+
+	private static final Map<Integer, CudaDeviceContext> contexts = new ConcurrentHashMap<>();
+	private static final Map<String, String> ptxFileNames = new ConcurrentHashMap<>();
+	private static final Map<String, String> ptxFromSource = new ConcurrentHashMap<>();
+
+	private static final ThreadLocal<CudaDeviceContext> currentContext = new ThreadLocal<>();
+
+	private static final int BLOCK_SIZE = 256;
+
+	// The size of the host buffer staging a copy between devices without peer access
+	private static final int STAGING_BUFFER_SIZE = 64 * 1024 * 1024;
+
+	private final int deviceIndex;
+	private final CUdevice device;
+	private final CUcontext context;
+	private final LaunchPolicy launchPolicy;
+
+	private final Map<String, CUmodule> modules = new ConcurrentHashMap<>();
+	private final Map<String, CUfunction> functions = new ConcurrentHashMap<>();
+	private final Map<String, CUfunction> functionsFromSource = new ConcurrentHashMap<>();
+	private final Map<CUfunction, String> functionNames = new ConcurrentHashMap<>();
+	private final Map<Integer, Boolean> peerAccess = new ConcurrentHashMap<>();
+
+	// Spills device memory to the host under memory pressure
+	private final ResidencyManager residencyManager = new ResidencyManager();
+
+	// Created on first use
+	private cublasHandle cublasHandle;
+
+	// The state of the driver initialization: initialized, or the failure (then Cuda is not used)
+	private static boolean isInitialized;
+	private static IllegalStateException initializationFailure;
+
+	// The default context, created on first use
+	private static volatile CudaDeviceContext defaultContext;
+
+	/**
+	 * Initialize the Cuda driver (once). Called by the first context created, may be called explicitly to initialize Cuda eagerly.
+	 *
+	 * @throws IllegalStateException If the driver cannot be initialized (the failure is remembered and thrown again on subsequent calls).
+	 */
+	public static synchronized void initialize() {
+		if(isInitialized) {
+			return;
+		}
+		if(initializationFailure != null) {
+			throw initializationFailure;
+		}
+		try {
+			// Enable exceptions and omit all subsequent error checks
+			JCudaDriver.setExceptionsEnabled(true);
+			JCudaDriver.setLogLevel(LogLevel.LOG_DEBUG);
+			JCublas2.setExceptionsEnabled(true);
+
+			cuInit(0);
+			isInitialized = true;
+		}
+		catch(final RuntimeException | LinkageError e) {
+			initializationFailure = new IllegalStateException("Cuda initialization failed: " + e.getMessage(), e);
+			throw initializationFailure;
+		}
+	}
+
+	/**
+	 * Get the context of the given device. The context is created on first use.
+	 *
+	 * @param deviceIndex The Cuda device ordinal.
+	 * @return The context of the device.
+	 * @throws IllegalStateException If the Cuda driver cannot be initialized.
+	 */
+	public static CudaDeviceContext getContext(final int deviceIndex) {
+		initialize();
+		return contexts.computeIfAbsent(deviceIndex, CudaDeviceContext::new);
+	}
+
+	/**
+	 * Get the context of the default device, that is the fastest device according to the {@link DeviceRegistry}
+	 * (may be overridden by <code>JAVAGPU_DEVICE=cuda:&lt;index&gt;</code>).
+	 *
+	 * @return The context of the default device.
+	 * @throws IllegalStateException If there is no Cuda device or the Cuda driver cannot be initialized.
+	 */
+	public static CudaDeviceContext getDefault() {
+		CudaDeviceContext context = defaultContext;
+		if(context == null) {
+			synchronized(CudaDeviceContext.class) {
+				context = defaultContext;
+				if(context == null) {
+					if(DeviceRegistry.getInstance().getDevices(Backend.CUDA).isEmpty()) {
+						throw new IllegalStateException("No Cuda device available.");
+					}
+					context = getContext(DeviceRegistry.getInstance().selectFastest(Backend.CUDA, 1 << 20).getDeviceIndex());
+					defaultContext = context;
+				}
+			}
+		}
+		return context;
+	}
+
+	private CudaDeviceContext(final int deviceIndex) {
+		this.deviceIndex = deviceIndex;
+		device = new CUdevice();
+		cuDeviceGet(device, deviceIndex);
+		context = new CUcontext();
+		cuDevicePrimaryCtxRetain(context, device);
+
+		final int[] maxGridDimX = new int[1];
+		final int[] multiprocessorCount = new int[1];
+		final int[] maxThreadsPerMultiprocessor = new int[1];
+		final int[] warpSize = new int[1];
+		cuDeviceGetAttribute(maxGridDimX, CUdevice_attribute.CU_DEVICE_ATTRIBUTE_MAX_GRID_DIM_X, device);
+		cuDeviceGetAttribute(multiprocessorCount, CUdevice_attribute.CU_DEVICE_ATTRIBUTE_MULTIPROCESSOR_COUNT, device);
+		cuDeviceGetAttribute(maxThreadsPerMultiprocessor, CUdevice_attribute.CU_DEVICE_ATTRIBUTE_MAX_THREADS_PER_MULTIPROCESSOR, device);
+		cuDeviceGetAttribute(warpSize, CUdevice_attribute.CU_DEVICE_ATTRIBUTE_WARP_SIZE, device);
+		launchPolicy = new LaunchPolicy(multiprocessorCount[0], maxThreadsPerMultiprocessor[0], BLOCK_SIZE, warpSize[0], maxGridDimX[0]);
+	}
+
+	public int getDeviceIndex() {
+		return deviceIndex;
+	}
+
+	/**
+	 * @return The id of the device, <code>cuda:&lt;index&gt;</code>, see {@link com.christianfries.compute.DeviceInfo#getId()}.
+	 */
+	public String getId() {
+		return "cuda:" + deviceIndex;
+	}
+
+	public CUdevice getDevice() {
+		return device;
+	}
+
+	public CUcontext getContext() {
+		return context;
+	}
+
+	/**
+	 * Make this context the current context of the calling thread.
+	 */
+	public void makeCurrent() {
+		if(currentContext.get() != this) {
+			cuCtxSetCurrent(context);
+			currentContext.set(this);
+		}
+	}
+
+	/**
+	 * Get the cuBLAS handle of this device. The handle is created on first use.
+	 *
+	 * The handle may be used concurrently, but a caller changing its configuration (e.g. the pointer mode)
+	 * has to synchronize on the handle.
+	 *
+	 * @return The cuBLAS handle of this device.
+	 */
+	public synchronized cublasHandle getCublasHandle() {
+		if(cublasHandle == null) {
+			makeCurrent();
+			cublasHandle = new cublasHandle();
+			JCublas2.cublasCreate(cublasHandle);
+		}
+		return cublasHandle;
+	}
+
+	/**
+	 * Get a function from a Cuda source file. The source is compiled to PTX once,
+	 * the module is loaded once per device.
+	 *
+	 * @param cuFileName The name of the .cu file.
+	 * @param functionName The name of the function.
+	 * @return The function.
+	 */
+	public CUfunction getFunction(final String cuFileName, final String functionName) {
+		final String key = cuFileName + "#" + functionName;
+		final CUfunction cachedFunction = functions.get(key);
+		if(cachedFunction != null) {
+			return cachedFunction;
+		}
+		return functions.computeIfAbsent(key, name -> {
+			final CUmodule module = getModule(cuFileName);
+			final CUfunction function = new CUfunction();
+			cuModuleGetFunction(function, module, functionName);
+			functionNames.put(function, functionName);
+			return function;
+		});
+	}
+
+	/**
+	 * Get a function from Cuda source code generated at runtime. The source is compiled to PTX by NVRTC
+	 * and loaded once per device (cached by source).
+	 *
+	 * @param source The Cuda source code.
+	 * @param functionName The name of the function (declared <code>extern "C"</code>).
+	 * @return The function.
+	 */
+	public CUfunction getFunctionFromSource(final String source, final String functionName) {
+		final String key = functionName + "\n" + source;
+		final CUfunction cachedFunction = functionsFromSource.get(key);
+		if(cachedFunction != null) {
+			return cachedFunction;
+		}
+		return functionsFromSource.computeIfAbsent(key, name -> {
+			final ProgramBuild event = ComputeEvents.startProgramBuild(getId(), functionName, source.length());
+			final String ptx = ptxFromSource.computeIfAbsent(source, CudaDeviceContext::compileToPtx);
+
+			makeCurrent();
+			final CUmodule module = new CUmodule();
+			cuModuleLoadData(module, ptx);
+			final CUfunction function = new CUfunction();
+			cuModuleGetFunction(function, module, functionName);
+			event.complete();
+			functionNames.put(function, functionName);
+			return function;
+		});
+	}
+
+	private static String compileToPtx(final String source) {
+		final nvrtcProgram program = new nvrtcProgram();
+		nvrtcCreateProgram(program, source, null, 0, null, null);
+		try {
+			if(nvrtcCompileProgram(program, 0, null) != nvrtcResult.NVRTC_SUCCESS) {
+				final String[] log = new String[1];
+				nvrtcGetProgramLog(program, log);
+				throw new IllegalArgumentException("Failed to compile Cuda source:\n" + log[0] + "\n" + source);
+			}
+			final String[] ptx = new String[1];
+			nvrtcGetPTX(program, ptx);
+			return ptx[0];
+		}
+		finally {
+			nvrtcDestroyProgram(program);
+		}
+	}
+
+	/**
+	 * Compile (if required) and load the module of a Cuda source file on this device, such that the first
+	 * {@link #getFunction(String, String)} does not pay for it. Modules of different files may be loaded concurrently.
+	 *
+	 * @param cuFileName The name of the .cu file.
+	 * @throws IllegalStateException If the source cannot be compiled.
+	 */
+	public void loadModule(final String cuFileName) {
+		getModule(cuFileName);
+	}
+
+	private CUmodule getModule(final String cuFileName) {
+		return modules.computeIfAbsent(cuFileName, key -> {
+			final ProgramBuild event = ComputeEvents.startProgramBuild(getId(), cuFileName, 0);
+			final String ptxFileName = ptxFileNames.computeIfAbsent(cuFileName, fileName -> {
+				try {
+					return preparePtxFile(fileName);
+				} catch (final IOException e) {
+					throw new IllegalStateException("Failed to compile " + fileName, e);
+				}
+			});
+
+			makeCurrent();
+			final CUmodule module = new CUmodule();
+			cuModuleLoad(module, ptxFileName);
+			event.complete();
+			return module;
+		});
+	}
+
+	/**
+	 * @return The residency manager of the device memory of the random variables on this device (its capacity is unbounded by default,
+	 * i.e., random variables are spilled if an allocation fails).
+	 */
+	public ResidencyManager getResidencyManager() {
+		return residencyManager;
+	}
+
+	/**
+	 * @return The policy selecting the grid size of a one dimensional launch (from the multiprocessor count of the device).
+	 */
+	public LaunchPolicy getLaunchPolicy() {
+		return launchPolicy;
+	}
+
+	/**
+	 * Launch a one dimensional kernel and wait for its completion. The grid is selected by the {@link LaunchPolicy} of this device:
+	 * smaller blocks for small vectors (to occupy all multiprocessors), one thread per element for medium sizes and a persistent grid
+	 * (sized to the resident threads of all multiprocessors) for huge vectors. The kernels use a grid-stride loop with a 64-bit index,
+	 * <code>GRID_STRIDE_LOOP</code>.
+	 *
+	 * @param cuFileName The name of the .cu file.
+	 * @param functionName The name of the kernel.
+	 * @param numberOfElements The number of elements.
+	 * @param arguments The kernel arguments.
+	 */
+	public void launch(final String cuFileName, final String functionName, final long numberOfElements, final Pointer... arguments) {
+		launch(getFunction(cuFileName, functionName), numberOfElements, arguments);
+	}
+
+	/**
+	 * Launch a one dimensional kernel and wait for its completion. The grid is selected by the {@link LaunchPolicy} of this device
+	 * and may be smaller than the number of elements (the kernel has to use a grid-stride loop).
+	 *
+	 * @param function The kernel.
+	 * @param numberOfElements The number of elements.
+	 * @param arguments The kernel arguments.
+	 */
+	public void launch(final CUfunction function, final long numberOfElements, final Pointer... arguments) {
+		// Set up the kernel parameters: A pointer to an array
+		// of pointers which point to the actual values.
+		final Pointer kernelParameters = Pointer.to(arguments);
+
+		// Call the kernel function.
+		final LaunchConfiguration configuration = launchPolicy.getConfiguration(numberOfElements);
+		final KernelLaunch event = ComputeEvents.startKernelLaunch(getId(), functionNames.getOrDefault(function, "unnamed"), numberOfElements);
+		makeCurrent();
+		cuLaunchKernel(function,
+				(int)configuration.getGridSize(), 1, 1, // Grid dimension
+				configuration.getBlockSize(), 1, 1,     // Block dimension
+				0, null,               // Shared memory size and stream
+				kernelParameters, null // Kernel- and extra parameters
+				);
+		synchronize();
+		event.complete();
+	}
+
+	/**
+	 * Allocate a device vector of floats.
+	 *
+	 * @param size The number of floats.
+	 * @return Pointer to device vector.
+	 */
+	public CUdeviceptr allocate(final long size) {
+		return allocateBytes(size * Sizeof.FLOAT);
+	}
+
+	/**
+	 * Allocate device memory. If the device is out of memory, the least recently used random variables are spilled to the host
+	 * (see {@link #getResidencyManager()}) and the allocation is retried.
+	 *
+	 * @param sizeInBytes The number of bytes.
+	 * @return Pointer to device memory.
+	 */
+	public CUdeviceptr allocateBytes(final long sizeInBytes) {
+		final DeviceAlloc event = ComputeEvents.startDeviceAlloc(getId(), sizeInBytes);
+		final CUdeviceptr cuDevicePtr = residencyManager.allocate(sizeInBytes, bytes -> {
+			makeCurrent();
+			final CUdeviceptr pointer = new CUdeviceptr();
+			try {
+				JCudaDriver.cuMemAlloc(pointer, bytes);
+			}
+			catch(final CudaException e) {
+				if(CUresult.stringFor(CUresult.CUDA_ERROR_OUT_OF_MEMORY).equals(e.getMessage())) {
+					return null;
+				}
+				throw e;
+			}
+			return pointer;
+		});
+		if(cuDevicePtr == null) {
+			throw new RuntimeException("Failed creating device vector with size=" + sizeInBytes + " bytes on device " + deviceIndex + ": out of memory (nothing left to spill).");
+		}
+		event.complete();
+		return cuDevicePtr;
+	}
+
+	/**
+	 * Copy host memory to device memory of this device (blocking).
+	 *
+	 * @param target The device memory.
+	 * @param source The host memory.
+	 * @param sizeInBytes The number of bytes.
+	 */
+	public void copyToDevice(final CUdeviceptr target, final Pointer source, final long sizeInBytes) {
+		final HostToDeviceCopy event = ComputeEvents.startHostToDeviceCopy(getId(), sizeInBytes);
+		makeCurrent();
+		cuMemcpyHtoD(target, source, sizeInBytes);
+		event.complete();
+	}
+
+	/**
+	 * Copy device memory of this device to host memory (blocking).
+	 *
+	 * @param target The host memory.
+	 * @param source The device memory.
+	 * @param sizeInBytes The number of bytes.
+	 */
+	public void copyToHost(final Pointer target, final CUdeviceptr source, final long sizeInBytes) {
+		final DeviceToHostCopy event = ComputeEvents.startDeviceToHostCopy(getId(), sizeInBytes);
+		makeCurrent();
+		cuMemcpyDtoH(target, source, sizeInBytes);
+		event.complete();
+	}
+
+	/**
+	 * Free a device vector allocated with {@link #allocate(long)}.
+	 *
+	 * @param cuDevicePtr Pointer to device vector.
+	 */
+	public void free(final CUdeviceptr cuDevicePtr) {
+		makeCurrent();
+		JCudaDriver.cuMemFree(cuDevicePtr);
+	}
+
+	/**
+	 * Wait for all work on this device to complete.
+	 */
+	public void synchronize() {
+		final long startNanos = System.nanoTime();
+		makeCurrent();
+		cuCtxSynchronize();
+		ComputeTracer.getInstance().recordHostSpan("Synchronize", "cuCtxSynchronize", startNanos, System.nanoTime() - startNanos, null);
+	}
+
+	/**
+	 * Check if this device can access memory of the other device directly. If so, peer access is enabled (once).
+	 *
+	 * @param other Another device context.
+	 * @return True if peer copies between the two devices are possible.
+	 */
+	public boolean enablePeerAccess(final CudaDeviceContext other) {
+		return peerAccess.computeIfAbsent(other.deviceIndex, otherDeviceIndex -> {
+			final int[] canAccessPeer = new int[1];
+			cuDeviceCanAccessPeer(canAccessPeer, device, other.device);
+			if(canAccessPeer[0] == 0) {
+				return false;
+			}
+			makeCurrent();
+			cuCtxEnablePeerAccess(other.context, 0);
+			return true;
+		});
+	}
+
+	/**
+	 * Copy device memory from another device to this device.
+	 *
+	 * The copy is a peer-to-peer copy if the devices support peer access, otherwise it is staged through a host buffer
+	 * of fixed size (chunk by chunk, such that the size is not limited by the size of a Java array).
+	 *
+	 * @param source The context owning the source memory.
+	 * @param sourcePtr The source memory.
+	 * @param sizeInBytes The number of bytes.
+	 * @return Newly allocated device memory on this device holding the copy.
+	 */
+	public CUdeviceptr copyFrom(final CudaDeviceContext source, final CUdeviceptr sourcePtr, final long sizeInBytes) {
+		final CUdeviceptr targetPtr = allocateBytes(sizeInBytes);
+		if(source == this || enablePeerAccess(source)) {
+			makeCurrent();
+			cuMemcpyPeer(targetPtr, context, sourcePtr, source.context, sizeInBytes);
+		}
+		else {
+			final byte[] staging = new byte[(int)Math.min(STAGING_BUFFER_SIZE, sizeInBytes)];
+			for(long offset = 0; offset < sizeInBytes; offset += staging.length) {
+				final long chunkSizeInBytes = Math.min(staging.length, sizeInBytes - offset);
+				source.copyToHost(Pointer.to(staging), sourcePtr.withByteOffset(offset), chunkSizeInBytes);
+				copyToDevice(targetPtr.withByteOffset(offset), Pointer.to(staging), chunkSizeInBytes);
+			}
+		}
+		return targetPtr;
+	}
+
+	@Override
+	public String toString() {
+		return "CudaDeviceContext [deviceIndex=" + deviceIndex + "]";
+	}
+
+	/**
+	 * The extension of the given file name is replaced with "ptx".
+	 * If the file with the resulting name does not exist, it is
+	 * compiled from the given file using NVCC. The name of the
+	 * PTX file is returned.
+	 *
+	 * @param cuFileName The name of the .CU file
+	 * @return The name of the PTX file
+	 * @throws IOException If an I/O error occurs
+	 */
+	private static String preparePtxFile(String cuFileName) throws IOException
+	{
+		int endIndex = cuFileName.lastIndexOf('.');
+		if (endIndex == -1)
+		{
+			endIndex = cuFileName.length()-1;
+		}
+		String ptxFileName = cuFileName.substring(0, endIndex+1)+"ptx";
+		File ptxFile = new File(ptxFileName);
+		if (ptxFile.exists())
+		{
+			return ptxFileName;
+		}
+
+		File cuFile = new File(cuFileName);
+		if (!cuFile.exists())
+		{
+			throw new IOException("Input file not found: "+cuFileName);
+		}
+		String modelString = "-m"+System.getProperty("sun.arch.data.model");
+		String command =
+				"nvcc " + modelString + " -ptx "+
+						cuFile.getPath()+" -o "+ptxFileName;
+
+		logger.info("Executing " + command);
+		Process process = Runtime.getRuntime().exec(command);
+
+		String errorMessage =
+				new String(toByteArray(process.getErrorStream()));
+		String outputMessage =
+				new String(toByteArray(process.getInputStream()));
+		int exitValue = 0;
+		try
+		{
+			exitValue = process.waitFor();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException(
+					"Interrupted while waiting for nvcc output", e);
+		}
+
+		if (exitValue != 0)
+		{
+			logger.warning("nvcc process exitValue " + exitValue + "\nerrorMessage:\n" + errorMessage + "\noutputMessage:\n" + outputMessage);
+			throw new IOException(
+					"Could not create .ptx file: "+errorMessage);
+		}
+
+		logger.info("Finished creating PTX file " + ptxFileName);
+		return ptxFileName;
+	}
+
+	/**
+	 * Fully reads the given InputStream and returns it as a byte array
+	 *
+	 * @param inputStream The input stream to read
+	 * @return The byte array containing the data from the input stream
+	 * @throws IOException If an I/O error occurs
+	 */
+	private static byte[] toByteArray(InputStream inputStream)
+			throws IOException
+			{
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		byte buffer[] = new byte[8192];
+		while (true)
+		{
+			int read = inputStream.read(buffer);
+			if (read == -1)
+			{
+				break;
+			}
+			baos.write(buffer, 0, read);
+		}
+		return baos.toByteArray();
+			}
+}
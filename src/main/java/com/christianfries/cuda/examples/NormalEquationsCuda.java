@@ -0,0 +1,100 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+import static jcuda.jcublas.JCublas2.cublasSetPointerMode;
+import static jcuda.jcublas.JCublas2.cublasSgemm;
+import static jcuda.jcublas.cublasOperation.CUBLAS_OP_N;
+import static jcuda.jcublas.cublasOperation.CUBLAS_OP_T;
+import static jcuda.jcublas.cublasPointerMode.CUBLAS_POINTER_MODE_HOST;
+
+import jcuda.Pointer;
+import jcuda.Sizeof;
+import jcuda.driver.CUdeviceptr;
+import jcuda.jcublas.cublasHandle;
+
+/**
+ * Calculation of the normal equations <i>X<sup>T</sup>X &beta; = X<sup>T</sup>y</i> of a least squares regression
+ * across paths on a Cuda device, where the columns of <i>X</i> are basis functions (random variables).
+ *
+ * The basis functions and the regressand are packed into a single column-major <i>n &times; (k+1)</i> matrix
+ * <i>A = [X y]</i> on the device (device to device copies) and <i>A<sup>T</sup>A</i> is calculated by a single
+ * cuBLAS <code>Sgemm</code>. Only the small <i>(k+1) &times; (k+1)</i> result crosses the bus.
+ * Since cuBLAS takes 32-bit sizes, more than 2<sup>30</sup> paths are processed in segments of paths,
+ * accumulating <i>A<sup>T</sup>A = &sum; A<sub>s</sub><sup>T</sup>A<sub>s</sub></i>.
+ *
+ * @author Christian Fries
+ */
+public class NormalEquationsCuda {
+
+	private NormalEquationsCuda() { }
+
+	/**
+	 * Calculate the normal equations.
+	 *
+	 * @param deviceContext The device performing the calculation.
+	 * @param basisFunctions The basis functions <i>X<sub>j</sub></i>, j = 0, ..., k-1.
+	 * @param value The regressand <i>y</i>.
+	 * @return The augmented matrix <i>[X<sup>T</sup>X | X<sup>T</sup>y]</i> (k rows, k+1 columns).
+	 */
+	public static double[][] getNormalEquations(CudaDeviceContext deviceContext, RandomVariableSimpleInterface[] basisFunctions, RandomVariableSimpleInterface value) {
+		final int numberOfBasisFunctions = basisFunctions.length;
+		final int numberOfColumns = numberOfBasisFunctions + 1;
+
+		final RandomVariableSimpleInterface[] columns = new RandomVariableSimpleInterface[numberOfColumns];
+		System.arraycopy(basisFunctions, 0, columns, 0, numberOfBasisFunctions);
+		columns[numberOfBasisFunctions] = value;
+
+		long numberOfPaths = -1;
+		for(final RandomVariableSimpleInterface column : columns) {
+			if(!column.isDeterministic()) {
+				numberOfPaths = column.size();
+				break;
+			}
+		}
+		if(numberOfPaths < 0) {
+			throw new IllegalArgumentException("At least one basis function or the value has to be stochastic.");
+		}
+
+		final CUdeviceptr product = deviceContext.allocate((long)numberOfColumns * numberOfColumns);
+		try {
+			final int segmentSize = (int)Math.min(numberOfPaths, RandomVariableSimpleCuda.MAX_CUBLAS_SEGMENT_SIZE);
+			for(long firstPath = 0; firstPath < numberOfPaths; firstPath += segmentSize) {
+				final int numberOfRows = (int)Math.min(segmentSize, numberOfPaths - firstPath);
+				final CUdeviceptr matrix = RandomVariableSimpleCuda.getColumnMajorMatrix(deviceContext, columns, numberOfPaths, firstPath, numberOfRows);
+				try {
+					final cublasHandle handle = deviceContext.getCublasHandle();
+					synchronized (handle) {
+						deviceContext.makeCurrent();
+						cublasSetPointerMode(handle, CUBLAS_POINTER_MODE_HOST);
+						cublasSgemm(handle, CUBLAS_OP_T, CUBLAS_OP_N, numberOfColumns, numberOfColumns, numberOfRows,
+								Pointer.to(new float[] { 1.0f }), matrix, numberOfRows, matrix, numberOfRows,
+								Pointer.to(new float[] { firstPath == 0 ? 0.0f : 1.0f }), product, numberOfColumns);
+					}
+				}
+				finally {
+					deviceContext.free(matrix);
+				}
+			}
+
+			final float[] productOnHost = new float[numberOfColumns * numberOfColumns];
+			deviceContext.copyToHost(Pointer.to(productOnHost), product, (long)productOnHost.length * Sizeof.FLOAT);
+
+			// The first k rows of A^T A (column-major) are [X^T X | X^T y]
+			final double[][] normalEquations = new double[numberOfBasisFunctions][numberOfColumns];
+			for(int i=0; i<numberOfBasisFunctions; i++) {
+				for(int j=0; j<numberOfColumns; j++) {
+					normalEquations[i][j] = productOnHost[j * numberOfColumns + i];
+				}
+			}
+			return normalEquations;
+		}
+		finally {
+			deviceContext.free(product);
+		}
+	}
+}
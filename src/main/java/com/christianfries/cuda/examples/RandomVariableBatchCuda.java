@@ -0,0 +1,212 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+import static jcuda.driver.JCudaDriver.cuMemcpyDtoD;
+
+import java.lang.ref.Cleaner;
+import java.util.Arrays;
+import java.util.List;
+
+import jcuda.Pointer;
+import jcuda.Sizeof;
+import jcuda.driver.CUdeviceptr;
+
+/**
+ * The Cuda implementation of <code>RandomVariableBatchInterface</code>: the realizations of all random variables
+ * are stored in a single device vector, the random variable <code>i</code> occupying the elements
+ * <code>offsets[i]</code> to <code>offsets[i+1]-1</code>.
+ *
+ * Element-wise operations of two batches are a single launch of the (non-batched) kernels over the whole vector.
+ * Operations with one value per random variable use segmented kernels, which look up the segment of an element
+ * in the offsets table (stored on the device, shared by all batches derived from this batch).
+ *
+ * Realizations are stored as float (<code>StoragePrecision.FLOAT32</code>).
+ *
+ * The device vector of the realizations is freed by {@link #close()} or, at the latest, when the batch is no longer
+ * referenced (by a {@link Cleaner}).
+ *
+ * @author Christian Fries
+ */
+public class RandomVariableBatchCuda implements RandomVariableBatchInterface, AutoCloseable {
+
+	private static final Cleaner cleaner = Cleaner.create();
+
+	/**
+	 * The offsets table, on host and device. The device vector is freed when the table is no longer referenced.
+	 */
+	private static class Offsets {
+		private final CudaDeviceContext deviceContext;
+		private final int[] offsets;
+		private final CUdeviceptr deviceOffsets;
+
+		private Offsets(CudaDeviceContext deviceContext, int[] offsets) {
+			this.deviceContext = deviceContext;
+			this.offsets = offsets;
+			// The kernels use 64-bit indices
+			final long[] offsetsAsLong = new long[offsets.length];
+			for(int i=0; i<offsets.length; i++) offsetsAsLong[i] = offsets[i];
+			final CUdeviceptr deviceOffsets = deviceContext.allocateBytes((long)offsets.length * Sizeof.LONG);
+			deviceContext.copyToDevice(deviceOffsets, Pointer.to(offsetsAsLong), (long)offsets.length * Sizeof.LONG);
+			this.deviceOffsets = deviceOffsets;
+			cleaner.register(this, () -> deviceContext.free(deviceOffsets));
+		}
+	}
+
+	private final CudaDeviceContext deviceContext;
+	private final CUdeviceptr realizations;
+	private final Offsets offsets;
+	private final Cleaner.Cleanable cleanable;
+
+	/**
+	 * Create a batch on the given device by packing the given vectors of realizations (a single transfer).
+	 *
+	 * @param deviceContext The device owning the realizations.
+	 * @param realizations The realizations of the random variables.
+	 */
+	public RandomVariableBatchCuda(CudaDeviceContext deviceContext, List<float[]> realizations) {
+		super();
+		this.deviceContext = deviceContext;
+		this.offsets = new Offsets(deviceContext, RandomVariableBatchJava.getOffsets(realizations));
+
+		final float[] packed = RandomVariableBatchJava.pack(realizations);
+		this.realizations = deviceContext.allocate(packed.length);
+		deviceContext.copyToDevice(this.realizations, Pointer.to(packed), (long)packed.length * Sizeof.FLOAT);
+		this.cleanable = register(this, deviceContext, this.realizations);
+	}
+
+	public RandomVariableBatchCuda(List<float[]> realizations) {
+		this(CudaDeviceContext.getDefault(), realizations);
+	}
+
+	private RandomVariableBatchCuda(CudaDeviceContext deviceContext, CUdeviceptr realizations, Offsets offsets) {
+		super();
+		this.deviceContext = deviceContext;
+		this.realizations = realizations;
+		this.offsets = offsets;
+		this.cleanable = register(this, deviceContext, realizations);
+	}
+
+	/*
+	 * Register the release of the realizations (the action must not reference the batch).
+	 */
+	private static Cleaner.Cleanable register(RandomVariableBatchCuda batch, CudaDeviceContext deviceContext, CUdeviceptr realizations) {
+		return cleaner.register(batch, () -> deviceContext.free(realizations));
+	}
+
+	/**
+	 * Free the device vector of the realizations. The batch must not be used afterwards. Calling this method more than once has no effect.
+	 */
+	@Override
+	public void close() {
+		cleanable.clean();
+	}
+
+	public CudaDeviceContext getDeviceContext() {
+		return deviceContext;
+	}
+
+	@Override
+	public int getNumberOfRandomVariables() {
+		return offsets.offsets.length-1;
+	}
+
+	@Override
+	public long size() {
+		return offsets.offsets[offsets.offsets.length-1];
+	}
+
+	@Override
+	public long size(int index) {
+		return offsets.offsets[index+1] - offsets.offsets[index];
+	}
+
+	@Override
+	public RandomVariableSimpleInterface get(int index) {
+		final long size = size(index);
+		final CUdeviceptr result = deviceContext.allocate(size);
+		deviceContext.makeCurrent();
+		cuMemcpyDtoD(result, realizations.withByteOffset((long)offsets.offsets[index] * Sizeof.FLOAT), size * Sizeof.FLOAT);
+		return new RandomVariableSimpleCuda(deviceContext, result, size);
+	}
+
+	@Override
+	public float[] getRealizations(int index) {
+		final float[] result = new float[(int)size(index)];
+		deviceContext.copyToHost(Pointer.to(result), realizations.withByteOffset((long)offsets.offsets[index] * Sizeof.FLOAT), result.length * (long)Sizeof.FLOAT);
+		return result;
+	}
+
+	@Override
+	public RandomVariableBatchInterface add(RandomVariableBatchInterface batch) {
+		return applyElementWise("cuAdd", batch);
+	}
+
+	@Override
+	public RandomVariableBatchInterface mult(RandomVariableBatchInterface batch) {
+		return applyElementWise("cuMult", batch);
+	}
+
+	@Override
+	public RandomVariableBatchInterface div(RandomVariableBatchInterface batch) {
+		return applyElementWise("cuDiv", batch);
+	}
+
+	@Override
+	public RandomVariableBatchInterface add(float[] values) {
+		return applySegmentScalar("addSegmentScalar", values);
+	}
+
+	@Override
+	public RandomVariableBatchInterface mult(float[] values) {
+		return applySegmentScalar("multSegmentScalar", values);
+	}
+
+	@Override
+	public RandomVariableBatchInterface div(float[] values) {
+		return applySegmentScalar("divSegmentScalar", values);
+	}
+
+	private RandomVariableBatchInterface applyElementWise(String functionName, RandomVariableBatchInterface batch) {
+		if(!(batch instanceof RandomVariableBatchCuda) || ((RandomVariableBatchCuda)batch).deviceContext != deviceContext
+				|| (((RandomVariableBatchCuda)batch).offsets != offsets && !Arrays.equals(((RandomVariableBatchCuda)batch).offsets.offsets, offsets.offsets))) {
+			throw new IllegalArgumentException("The operand has to be a " + RandomVariableBatchCuda.class.getSimpleName() + " on " + deviceContext + " with the same segments.");
+		}
+
+		final CUdeviceptr result = deviceContext.allocate(size());
+		deviceContext.launch(RandomVariableSimpleCuda.cuFileName, functionName, size(),
+				Pointer.to(new long[] { size() }),
+				Pointer.to(realizations),
+				Pointer.to(((RandomVariableBatchCuda)batch).realizations),
+				Pointer.to(result));
+		return new RandomVariableBatchCuda(deviceContext, result, offsets);
+	}
+
+	private RandomVariableBatchInterface applySegmentScalar(String functionName, float[] values) {
+		if(values.length != getNumberOfRandomVariables()) {
+			throw new IllegalArgumentException("Expected " + getNumberOfRandomVariables() + " values, got " + values.length + ".");
+		}
+
+		final CUdeviceptr deviceValues = deviceContext.allocate(values.length);
+		try {
+			deviceContext.copyToDevice(deviceValues, Pointer.to(values), (long)values.length * Sizeof.FLOAT);
+
+			final CUdeviceptr result = deviceContext.allocate(size());
+			deviceContext.launch(RandomVariableSimpleCuda.cuFileName, functionName, size(),
+					Pointer.to(new long[] { size() }),
+					Pointer.to(realizations),
+					Pointer.to(offsets.deviceOffsets),
+					Pointer.to(new int[] { getNumberOfRandomVariables() }),
+					Pointer.to(deviceValues),
+					Pointer.to(result));
+			return new RandomVariableBatchCuda(deviceContext, result, offsets);
+		}
+		finally {
+			deviceContext.free(deviceValues);
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+/**
+ * A batch of independent (stochastic) random variables, e.g., one per cash-flow date,
+ * stored in a single contiguous vector together with a table of offsets.
+ *
+ * An operation is applied to all random variables of the batch at once (a single kernel launch),
+ * hence the launch overhead does not dominate if the random variables are small.
+ * The random variables of a batch may have different sizes (segments).
+ *
+ * @author Christian Fries
+ */
+public interface RandomVariableBatchInterface {
+
+	/**
+	 * @return The number of random variables in this batch.
+	 */
+	int getNumberOfRandomVariables();
+
+	/**
+	 * @return The total number of realizations of all random variables in this batch.
+	 */
+	long size();
+
+	/**
+	 * @param index The index of a random variable in this batch.
+	 * @return The number of realizations of the random variable.
+	 */
+	long size(int index);
+
+	/**
+	 * @param index The index of a random variable in this batch.
+	 * @return A copy of the random variable.
+	 */
+	RandomVariableSimpleInterface get(int index);
+
+	/**
+	 * @param index The index of a random variable in this batch.
+	 * @return The realizations of the random variable.
+	 */
+	float[] getRealizations(int index);
+
+	/**
+	 * Element-wise addition of two batches with the same segments.
+	 *
+	 * @param batch The operand.
+	 * @return The result.
+	 */
+	RandomVariableBatchInterface add(RandomVariableBatchInterface batch);
+
+	/**
+	 * Element-wise multiplication of two batches with the same segments.
+	 *
+	 * @param batch The operand.
+	 * @return The result.
+	 */
+	RandomVariableBatchInterface mult(RandomVariableBatchInterface batch);
+
+	/**
+	 * Element-wise division of two batches with the same segments.
+	 *
+	 * @param batch The operand.
+	 * @return The result.
+	 */
+	RandomVariableBatchInterface div(RandomVariableBatchInterface batch);
+
+	/**
+	 * Add a (deterministic) value to each random variable of the batch.
+	 *
+	 * @param values The values, one per random variable.
+	 * @return The result.
+	 */
+	RandomVariableBatchInterface add(float[] values);
+
+	/**
+	 * Multiply each random variable of the batch with a (deterministic) value, e.g., a discount factor.
+	 *
+	 * @param values The values, one per random variable.
+	 * @return The result.
+	 */
+	RandomVariableBatchInterface mult(float[] values);
+
+	/**
+	 * Divide each random variable of the batch by a (deterministic) value.
+	 *
+	 * @param values The values, one per random variable.
+	 * @return The result.
+	 */
+	RandomVariableBatchInterface div(float[] values);
+}
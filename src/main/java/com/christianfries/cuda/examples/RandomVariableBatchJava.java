@@ -0,0 +1,170 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The Java (CPU) implementation of <code>RandomVariableBatchInterface</code>:
+ * the realizations of all random variables are stored in a single float array,
+ * the random variable <code>i</code> occupying the elements <code>offsets[i]</code> to <code>offsets[i+1]-1</code>.
+ *
+ * @author Christian Fries
+ */
+public class RandomVariableBatchJava implements RandomVariableBatchInterface {
+
+	private final float[] realizations;
+	private final int[] offsets;
+
+	/**
+	 * Create a batch by packing the given vectors of realizations.
+	 *
+	 * @param realizations The realizations of the random variables.
+	 */
+	public RandomVariableBatchJava(List<float[]> realizations) {
+		this(pack(realizations), getOffsets(realizations));
+	}
+
+	private RandomVariableBatchJava(float[] realizations, int[] offsets) {
+		super();
+		this.realizations = realizations;
+		this.offsets = offsets;
+	}
+
+	/**
+	 * @param realizations The realizations of the random variables.
+	 * @return The offsets of the random variables in the packed vector (with the total size as last element).
+	 */
+	static int[] getOffsets(List<float[]> realizations) {
+		final int[] offsets = new int[realizations.size()+1];
+		for(int i=0; i<realizations.size(); i++) {
+			offsets[i+1] = Math.addExact(offsets[i], realizations.get(i).length);
+		}
+		return offsets;
+	}
+
+	/**
+	 * @param realizations The realizations of the random variables.
+	 * @return All realizations in a single vector.
+	 */
+	static float[] pack(List<float[]> realizations) {
+		final int[] offsets = getOffsets(realizations);
+		final float[] packed = new float[offsets[offsets.length-1]];
+		for(int i=0; i<realizations.size(); i++) {
+			System.arraycopy(realizations.get(i), 0, packed, offsets[i], realizations.get(i).length);
+		}
+		return packed;
+	}
+
+	@Override
+	public int getNumberOfRandomVariables() {
+		return offsets.length-1;
+	}
+
+	@Override
+	public long size() {
+		return realizations.length;
+	}
+
+	@Override
+	public long size(int index) {
+		return offsets[index+1] - offsets[index];
+	}
+
+	@Override
+	public RandomVariableSimpleInterface get(int index) {
+		return new RandomVariableSimpleJava(getRealizations(index));
+	}
+
+	@Override
+	public float[] getRealizations(int index) {
+		return Arrays.copyOfRange(realizations, offsets[index], offsets[index+1]);
+	}
+
+	@Override
+	public RandomVariableBatchInterface add(RandomVariableBatchInterface batch) {
+		final float[] other = getRealizationsOf(batch);
+		final float[] result = new float[realizations.length];
+		for(int i=0; i<result.length; i++) {
+			result[i] = realizations[i] + other[i];
+		}
+		return new RandomVariableBatchJava(result, offsets);
+	}
+
+	@Override
+	public RandomVariableBatchInterface mult(RandomVariableBatchInterface batch) {
+		final float[] other = getRealizationsOf(batch);
+		final float[] result = new float[realizations.length];
+		for(int i=0; i<result.length; i++) {
+			result[i] = realizations[i] * other[i];
+		}
+		return new RandomVariableBatchJava(result, offsets);
+	}
+
+	@Override
+	public RandomVariableBatchInterface div(RandomVariableBatchInterface batch) {
+		final float[] other = getRealizationsOf(batch);
+		final float[] result = new float[realizations.length];
+		for(int i=0; i<result.length; i++) {
+			result[i] = realizations[i] / other[i];
+		}
+		return new RandomVariableBatchJava(result, offsets);
+	}
+
+	@Override
+	public RandomVariableBatchInterface add(float[] values) {
+		checkNumberOfValues(values);
+		final float[] result = new float[realizations.length];
+		for(int segment=0; segment<values.length; segment++) {
+			final float value = values[segment];
+			for(int i=offsets[segment]; i<offsets[segment+1]; i++) {
+				result[i] = realizations[i] + value;
+			}
+		}
+		return new RandomVariableBatchJava(result, offsets);
+	}
+
+	@Override
+	public RandomVariableBatchInterface mult(float[] values) {
+		checkNumberOfValues(values);
+		final float[] result = new float[realizations.length];
+		for(int segment=0; segment<values.length; segment++) {
+			final float value = values[segment];
+			for(int i=offsets[segment]; i<offsets[segment+1]; i++) {
+				result[i] = realizations[i] * value;
+			}
+		}
+		return new RandomVariableBatchJava(result, offsets);
+	}
+
+	@Override
+	public RandomVariableBatchInterface div(float[] values) {
+		checkNumberOfValues(values);
+		final float[] result = new float[realizations.length];
+		for(int segment=0; segment<values.length; segment++) {
+			final float value = values[segment];
+			for(int i=offsets[segment]; i<offsets[segment+1]; i++) {
+				result[i] = realizations[i] / value;
+			}
+		}
+		return new RandomVariableBatchJava(result, offsets);
+	}
+
+	private float[] getRealizationsOf(RandomVariableBatchInterface batch) {
+		if(!(batch instanceof RandomVariableBatchJava) || !Arrays.equals(offsets, ((RandomVariableBatchJava)batch).offsets)) {
+			throw new IllegalArgumentException("The operand has to be a " + RandomVariableBatchJava.class.getSimpleName() + " with the same segments.");
+		}
+		return ((RandomVariableBatchJava)batch).realizations;
+	}
+
+	private void checkNumberOfValues(float[] values) {
+		if(values.length != getNumberOfRandomVariables()) {
+			throw new IllegalArgumentException("Expected " + getNumberOfRandomVariables() + " values, got " + values.length + ".");
+		}
+	}
+}
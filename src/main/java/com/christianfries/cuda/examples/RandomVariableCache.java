@@ -0,0 +1,458 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import com.christianfries.compute.ComputeMetrics;
+
+/**
+ * A memoization cache of the results of operations on random variables, e.g., for a valuation session in which the
+ * same discount factors or the same <code>exp(x)</code> of a shared state variable are requested by many products.
+ *
+ * A result is identified by the name of the operation, the identity of its operands and its (float) parameters. Two operands
+ * with equal realizations but different identity are different keys, hence a lookup does not touch the realizations.
+ * The cache references the operands weakly: once an operand is garbage collected, the results depending on it are removed.
+ * The results are referenced strongly, hence a cached result may itself be the operand of a cached operation.
+ *
+ * Since a cached result is shared by all requests, the cache marks the operands and the result of a cached operation as read-only
+ * (see {@link RandomVariableSimpleInterface#setReadOnly()}): an in-place operation on them throws an {@link UnsupportedOperationException}
+ * instead of corrupting subsequent hits. Use a copy (e.g. <code>add</code> of zero) to obtain a writable random variable.
+ *
+ * The results are held in least recently used order, bounded by the (device) memory of their realizations. If the bound is exceeded,
+ * the least recently used results are spilled to host memory (their realizations are copied to the host and the cache releases the
+ * device random variable) and recreated upon their next request, in the storage precision and on the device of the original result.
+ * A recreated result is a new random variable, i.e., it is not identical to a result returned before. The host memory is bounded as well,
+ * results exceeding it are dropped. Results stored in {@link StoragePrecision#FLOAT64} are dropped instead of spilled, since the
+ * host copy holds float realizations. Deterministic results do not hold device memory and are never spilled.
+ *
+ * The bound on the device memory is nominal: the cache releases a spilled result but does not free its device memory, since a result
+ * returned before may still be referenced. The memory is freed once the result is no longer referenced (by the cleaner of the random variable),
+ * or spilled by the residency manager of the device under memory pressure (see {@link CudaDeviceContext#getResidencyManager()}).
+ *
+ * The methods are thread safe. The operation is performed outside the lock, hence concurrent requests of the same missing
+ * result may calculate it more than once (the first result inserted is kept).
+ *
+ * Requests are recorded in {@link ComputeMetrics#recordCacheAccess(boolean)} and in the counters of this cache.
+ *
+ * @author Christian Fries
+ */
+public class RandomVariableCache {
+
+	private static final Logger logger = Logger.getLogger("com.christianfries.compute");
+
+	// The size of the host arrays holding the realizations of a spilled result
+	private static final int SPILL_CHUNK_SIZE = 1 << 24;
+
+	private final RandomVariableFactory factory;
+	private final long maximumDeviceBytes;
+	private final long maximumHostBytes;
+
+	// In access order, the eldest entry is the least recently used
+	private final Map<Key, Entry> entriesOnDevice = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<Key, Entry> entriesOnHost = new LinkedHashMap<>(16, 0.75f, true);
+	private final ReferenceQueue<RandomVariableSimpleInterface> collectedOperands = new ReferenceQueue<>();
+
+	private long deviceBytes;
+	private long hostBytes;
+
+	private long hits;
+	private long hostHits;
+	private long misses;
+	private long spills;
+	private long drops;
+
+	/**
+	 * Create a cache.
+	 *
+	 * @param factory The factory used to recreate spilled results which are not {@link RandomVariableSimpleCuda} instances.
+	 * @param maximumDeviceBytes The maximum memory of the results held on the device.
+	 * @param maximumHostBytes The maximum memory of the results spilled to the host.
+	 */
+	public RandomVariableCache(final RandomVariableFactory factory, final long maximumDeviceBytes, final long maximumHostBytes) {
+		super();
+		this.factory = factory;
+		this.maximumDeviceBytes = maximumDeviceBytes;
+		this.maximumHostBytes = maximumHostBytes;
+	}
+
+	/**
+	 * Create a cache with unbounded host memory (spilled results are never dropped).
+	 *
+	 * @param factory The factory used to recreate spilled results which are not {@link RandomVariableSimpleCuda} instances.
+	 * @param maximumDeviceBytes The maximum memory of the results held on the device.
+	 */
+	public RandomVariableCache(final RandomVariableFactory factory, final long maximumDeviceBytes) {
+		this(factory, maximumDeviceBytes, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Get the result of an operation from the cache or calculate it. The operands and the result are read-only afterwards.
+	 *
+	 * @param operation The name of the operation.
+	 * @param operands The operands (compared by identity).
+	 * @param parameters The parameters of the operation (compared by value).
+	 * @param calculation The calculation of the result (called if the result is not cached).
+	 * @return The result.
+	 */
+	public RandomVariableSimpleInterface get(final String operation, final RandomVariableSimpleInterface[] operands, final float[] parameters,
+			final Supplier<RandomVariableSimpleInterface> calculation) {
+		final Key lookupKey = new Key(operation, operands, parameters, null);
+		synchronized(this) {
+			removeCollectedOperands();
+
+			final Entry entry = entriesOnDevice.get(lookupKey);
+			if(entry != null) {
+				hits++;
+				ComputeMetrics.getInstance().recordCacheAccess(true);
+				return entry.value;
+			}
+
+			final Entry spilledEntry = entriesOnHost.remove(lookupKey);
+			if(spilledEntry != null) {
+				hostBytes -= spilledEntry.sizeInBytes;
+				hostHits++;
+				ComputeMetrics.getInstance().recordCacheAccess(true);
+				final Entry restoredEntry = new Entry(spilledEntry.key, restore(spilledEntry).setReadOnly(), spilledEntry.sizeInBytes);
+				putOnDevice(restoredEntry);
+				return restoredEntry.value;
+			}
+
+			misses++;
+			ComputeMetrics.getInstance().recordCacheAccess(false);
+		}
+
+		final RandomVariableSimpleInterface value = calculation.get();
+		for(final RandomVariableSimpleInterface operand : operands) {
+			operand.setReadOnly();
+		}
+		value.setReadOnly();
+
+		synchronized(this) {
+			final Entry entry = entriesOnDevice.get(lookupKey);
+			if(entry != null) {
+				return entry.value;
+			}
+			putOnDevice(new Entry(new Key(operation, operands, parameters, collectedOperands), value, getSizeInBytes(value)));
+			return value;
+		}
+	}
+
+	/**
+	 * @param randomVariable The operand.
+	 * @return The (cached) random variable <code>exp(randomVariable)</code>.
+	 */
+	public RandomVariableSimpleInterface exp(final RandomVariableSimpleInterface randomVariable) {
+		return get("exp", new RandomVariableSimpleInterface[] { randomVariable }, new float[0], randomVariable::exp);
+	}
+
+	/**
+	 * @param randomVariable The operand.
+	 * @param other The second operand.
+	 * @return The (cached) random variable <code>randomVariable + other</code>.
+	 */
+	public RandomVariableSimpleInterface add(final RandomVariableSimpleInterface randomVariable, final RandomVariableSimpleInterface other) {
+		return get("add", new RandomVariableSimpleInterface[] { randomVariable, other }, new float[0], () -> randomVariable.add(other));
+	}
+
+	/**
+	 * @param randomVariable The operand.
+	 * @param other The second operand.
+	 * @return The (cached) random variable <code>randomVariable * other</code>.
+	 */
+	public RandomVariableSimpleInterface mult(final RandomVariableSimpleInterface randomVariable, final RandomVariableSimpleInterface other) {
+		return get("mult", new RandomVariableSimpleInterface[] { randomVariable, other }, new float[0], () -> randomVariable.mult(other));
+	}
+
+	/**
+	 * @param randomVariable The operand.
+	 * @param other The second operand.
+	 * @return The (cached) random variable <code>randomVariable / other</code>.
+	 */
+	public RandomVariableSimpleInterface div(final RandomVariableSimpleInterface randomVariable, final RandomVariableSimpleInterface other) {
+		return get("div", new RandomVariableSimpleInterface[] { randomVariable, other }, new float[0], () -> randomVariable.div(other));
+	}
+
+	/**
+	 * @param randomVariable The operand.
+	 * @param rate The rate.
+	 * @param periodLength The period length.
+	 * @return The (cached) random variable <code>randomVariable / (1 + rate * periodLength)</code>.
+	 */
+	public RandomVariableSimpleInterface discount(final RandomVariableSimpleInterface randomVariable, final RandomVariableSimpleInterface rate, final float periodLength) {
+		return get("discount", new RandomVariableSimpleInterface[] { randomVariable, rate }, new float[] { periodLength }, () -> randomVariable.discount(rate, periodLength));
+	}
+
+	/**
+	 * Remove all results (e.g. at the end of a session). The counters are not reset.
+	 */
+	public synchronized void clear() {
+		entriesOnDevice.clear();
+		entriesOnHost.clear();
+		deviceBytes = 0;
+		hostBytes = 0;
+	}
+
+	/**
+	 * @return The number of results held (on the device or spilled to the host).
+	 */
+	public synchronized int size() {
+		removeCollectedOperands();
+		return entriesOnDevice.size() + entriesOnHost.size();
+	}
+
+	/**
+	 * @return The memory of the results held on the device.
+	 */
+	public synchronized long getDeviceBytes() {
+		return deviceBytes;
+	}
+
+	/**
+	 * @return The memory of the results spilled to the host.
+	 */
+	public synchronized long getHostBytes() {
+		return hostBytes;
+	}
+
+	/**
+	 * @return The number of requests served from the device.
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return The number of requests served from a result spilled to the host (recreated on the device).
+	 */
+	public synchronized long getHostHits() {
+		return hostHits;
+	}
+
+	/**
+	 * @return The number of requests calculating the result.
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return The number of results spilled to the host.
+	 */
+	public synchronized long getSpills() {
+		return spills;
+	}
+
+	/**
+	 * @return The number of results dropped (exceeding the host memory or stored in {@link StoragePrecision#FLOAT64}).
+	 */
+	public synchronized long getDrops() {
+		return drops;
+	}
+
+	/**
+	 * @return The fraction of requests served from the cache (device or host), NaN if there was no request.
+	 */
+	public synchronized double getHitRate() {
+		final long requests = hits + hostHits + misses;
+		return requests > 0 ? (double)(hits + hostHits) / requests : Double.NaN;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "RandomVariableCache [factory=" + factory.getName() + ", deviceBytes=" + deviceBytes + ", hostBytes=" + hostBytes
+				+ ", hits=" + hits + ", hostHits=" + hostHits + ", misses=" + misses + ", spills=" + spills + ", drops=" + drops + "]";
+	}
+
+	/*
+	 * Insert the entry and spill the least recently used entries (but not the entry itself) exceeding the device memory.
+	 */
+	private void putOnDevice(final Entry entry) {
+		entriesOnDevice.put(entry.key, entry);
+		deviceBytes += entry.sizeInBytes;
+
+		final Iterator<Entry> leastRecentlyUsed = entriesOnDevice.values().iterator();
+		while(deviceBytes > maximumDeviceBytes && leastRecentlyUsed.hasNext()) {
+			final Entry eldest = leastRecentlyUsed.next();
+			if(eldest == entry || eldest.sizeInBytes == 0) {
+				continue;
+			}
+			leastRecentlyUsed.remove();
+			deviceBytes -= eldest.sizeInBytes;
+			spill(eldest);
+		}
+	}
+
+	private void spill(final Entry entry) {
+		final StoragePrecision precision = getStoragePrecision(entry.value);
+		if(entry.sizeInBytes > maximumHostBytes || precision == StoragePrecision.FLOAT64) {
+			drops++;
+			return;
+		}
+
+		final CudaDeviceContext deviceContext = entry.value instanceof RandomVariableSimpleCuda ? ((RandomVariableSimpleCuda)entry.value).getDeviceContext() : null;
+		final Entry spilledEntry = new Entry(entry.key, entry.value.getRealizationsInChunks(SPILL_CHUNK_SIZE), deviceContext, precision, entry.sizeInBytes);
+		spills++;
+		logger.finest(() -> "Spilling " + entry.key + " (" + entry.sizeInBytes + " bytes) to host memory.");
+		entriesOnHost.put(spilledEntry.key, spilledEntry);
+		hostBytes += spilledEntry.sizeInBytes;
+
+		final Iterator<Entry> leastRecentlyUsed = entriesOnHost.values().iterator();
+		while(hostBytes > maximumHostBytes && leastRecentlyUsed.hasNext()) {
+			final Entry eldest = leastRecentlyUsed.next();
+			leastRecentlyUsed.remove();
+			hostBytes -= eldest.sizeInBytes;
+			drops++;
+		}
+	}
+
+	/*
+	 * Recreate a spilled result, a Cuda random variable in its original storage precision (the float realizations represent it exactly).
+	 */
+	private RandomVariableSimpleInterface restore(final Entry spilledEntry) {
+		if(spilledEntry.deviceContext != null) {
+			return new RandomVariableSimpleCuda(spilledEntry.deviceContext, spilledEntry.realizationsOnHost, spilledEntry.precision);
+		}
+		return factory.createRandomVariable(spilledEntry.realizationsOnHost);
+	}
+
+	/*
+	 * Remove the entries with an operand that has been garbage collected (these can never be requested again).
+	 */
+	private void removeCollectedOperands() {
+		Reference<? extends RandomVariableSimpleInterface> reference;
+		while((reference = collectedOperands.poll()) != null) {
+			final Key key = ((OperandReference)reference).key;
+			final Entry entry = entriesOnDevice.remove(key);
+			if(entry != null) {
+				deviceBytes -= entry.sizeInBytes;
+			}
+			final Entry spilledEntry = entriesOnHost.remove(key);
+			if(spilledEntry != null) {
+				hostBytes -= spilledEntry.sizeInBytes;
+			}
+		}
+	}
+
+	private static long getSizeInBytes(final RandomVariableSimpleInterface value) {
+		if(value.isDeterministic()) {
+			return 0;
+		}
+		return value.size() * getStoragePrecision(value).getBytesPerElement();
+	}
+
+	private static StoragePrecision getStoragePrecision(final RandomVariableSimpleInterface value) {
+		return value instanceof RandomVariableSimpleCuda ? ((RandomVariableSimpleCuda)value).getStoragePrecision() : StoragePrecision.FLOAT32;
+	}
+
+	/**
+	 * A result on the device (value) or spilled to the host (realizations on host, with the device and storage precision of a Cuda result).
+	 */
+	private static class Entry {
+		private final Key key;
+		private final RandomVariableSimpleInterface value;
+		private final float[][] realizationsOnHost;
+		private final CudaDeviceContext deviceContext;
+		private final StoragePrecision precision;
+		private final long sizeInBytes;
+
+		Entry(final Key key, final RandomVariableSimpleInterface value, final long sizeInBytes) {
+			this.key = key;
+			this.value = value;
+			this.realizationsOnHost = null;
+			this.deviceContext = null;
+			this.precision = null;
+			this.sizeInBytes = sizeInBytes;
+		}
+
+		Entry(final Key key, final float[][] realizationsOnHost, final CudaDeviceContext deviceContext, final StoragePrecision precision, final long sizeInBytes) {
+			this.key = key;
+			this.value = null;
+			this.realizationsOnHost = realizationsOnHost;
+			this.deviceContext = deviceContext;
+			this.precision = precision;
+			this.sizeInBytes = sizeInBytes;
+		}
+	}
+
+	/**
+	 * A weak reference to an operand, knowing the key it belongs to.
+	 */
+	private static class OperandReference extends WeakReference<RandomVariableSimpleInterface> {
+		private final Key key;
+
+		OperandReference(final RandomVariableSimpleInterface operand, final Key key, final ReferenceQueue<RandomVariableSimpleInterface> queue) {
+			super(operand, queue);
+			this.key = key;
+		}
+	}
+
+	/**
+	 * The key of a result: operation, operands (by identity, weakly referenced) and parameters.
+	 */
+	private static class Key {
+		private final String operation;
+		private final OperandReference[] operands;
+		private final float[] parameters;
+		private final int hashCode;
+
+		/*
+		 * Create a key. If the queue is null, the key is a lookup key (its references are not enqueued).
+		 */
+		Key(final String operation, final RandomVariableSimpleInterface[] operands, final float[] parameters, final ReferenceQueue<RandomVariableSimpleInterface> queue) {
+			this.operation = operation;
+			this.operands = new OperandReference[operands.length];
+			this.parameters = parameters.clone();
+
+			int hashCode = operation.hashCode() * 31 + Arrays.hashCode(parameters);
+			for(int i=0; i<operands.length; i++) {
+				this.operands[i] = new OperandReference(operands[i], this, queue);
+				hashCode = hashCode * 31 + System.identityHashCode(operands[i]);
+			}
+			this.hashCode = hashCode;
+		}
+
+		@Override
+		public boolean equals(final Object object) {
+			if(this == object) {
+				return true;
+			}
+			if(!(object instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key)object;
+			if(hashCode != other.hashCode || !operation.equals(other.operation) || !Arrays.equals(parameters, other.parameters) || operands.length != other.operands.length) {
+				return false;
+			}
+			for(int i=0; i<operands.length; i++) {
+				final RandomVariableSimpleInterface operand = operands[i].get();
+				if(operand == null || operand != other.operands[i].get()) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public String toString() {
+			return operation + Arrays.toString(parameters);
+		}
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+import static jcuda.driver.JCudaDriver.cuMemsetD32;
+import static jcuda.jcublas.JCublas2.cublasSetPointerMode;
+import static jcuda.jcublas.JCublas2.cublasSgemv;
+import static jcuda.jcublas.JCublas2.cublasSger;
+import static jcuda.jcublas.JCublas2.cublasSsyrk;
+import static jcuda.jcublas.cublasFillMode.CUBLAS_FILL_MODE_UPPER;
+import static jcuda.jcublas.cublasOperation.CUBLAS_OP_T;
+import static jcuda.jcublas.cublasPointerMode.CUBLAS_POINTER_MODE_HOST;
+
+import jcuda.Pointer;
+import jcuda.Sizeof;
+import jcuda.driver.CUdeviceptr;
+import jcuda.jcublas.cublasHandle;
+
+/**
+ * Calculation of the covariance matrix <i>Cov(X<sub>i</sub>, X<sub>j</sub>)</i> of a set of random variables
+ * (the population covariance, i.e., normalized by the number of paths).
+ *
+ * Both implementations use the same two pass algorithm: the means are calculated first and the products
+ * of the centered realizations are accumulated afterwards (avoiding the cancellation of <i>E(XY) - E(X)E(Y)</i>).
+ * <ul>
+ * 	<li>For Cuda random variables the realizations are packed into a column-major matrix <i>X</i> on the device,
+ * 	the means are calculated by <code>Sgemv</code>, subtracted by the rank one update <code>Sger</code> and
+ * 	<i>X<sup>T</sup>X / n</i> is calculated by <code>Ssyrk</code>. Only the <i>k &times; k</i> result crosses the bus.</li>
+ * 	<li>For other random variables the calculation is performed on the CPU, accumulating in double precision.</li>
+ * </ul>
+ *
+ * @author Christian Fries
+ */
+public class RandomVariableCovariance {
+
+	private RandomVariableCovariance() { }
+
+	/**
+	 * Calculate the covariance matrix of the given random variables. Deterministic random variables have zero covariance.
+	 *
+	 * @param randomVariables The random variables <i>X<sub>0</sub>, ..., X<sub>k-1</sub></i> (stochastic ones have to have the same size).
+	 * @return The covariance matrix (k &times; k).
+	 */
+	public static double[][] getCovariance(RandomVariableSimpleInterface... randomVariables) {
+		RandomVariableSimpleInterface stochastic = null;
+		for(final RandomVariableSimpleInterface randomVariable : randomVariables) {
+			if(!randomVariable.isDeterministic()) {
+				stochastic = randomVariable;
+				break;
+			}
+		}
+		if(stochastic == null) {
+			return new double[randomVariables.length][randomVariables.length];
+		}
+
+		if(stochastic instanceof RandomVariableSimpleCuda) {
+			return getCovarianceCuda(((RandomVariableSimpleCuda)stochastic).getDeviceContext(), randomVariables, stochastic.size());
+		}
+		else {
+			return getCovarianceJava(randomVariables, stochastic.size());
+		}
+	}
+
+	private static double[][] getCovarianceCuda(CudaDeviceContext deviceContext, RandomVariableSimpleInterface[] randomVariables, long numberOfPaths) {
+		final int numberOfRandomVariables = randomVariables.length;
+		final int n = Math.toIntExact(numberOfPaths);
+
+		final CUdeviceptr matrix = RandomVariableSimpleCuda.getColumnMajorMatrix(deviceContext, randomVariables, numberOfPaths);
+		final CUdeviceptr ones = deviceContext.allocate(numberOfPaths);
+		final CUdeviceptr means = deviceContext.allocate(numberOfRandomVariables);
+		final CUdeviceptr covariance = deviceContext.allocate((long)numberOfRandomVariables * numberOfRandomVariables);
+		try {
+			deviceContext.makeCurrent();
+			cuMemsetD32(ones, Float.floatToRawIntBits(1.0f), numberOfPaths);
+
+			final cublasHandle handle = deviceContext.getCublasHandle();
+			synchronized (handle) {
+				deviceContext.makeCurrent();
+				cublasSetPointerMode(handle, CUBLAS_POINTER_MODE_HOST);
+
+				// means = X^T 1 / n
+				cublasSgemv(handle, CUBLAS_OP_T, n, numberOfRandomVariables,
+						Pointer.to(new float[] { 1.0f / n }), matrix, n, ones, 1,
+						Pointer.to(new float[] { 0.0f }), means, 1);
+
+				// X = X - 1 means^T
+				cublasSger(handle, n, numberOfRandomVariables,
+						Pointer.to(new float[] { -1.0f }), ones, 1, means, 1, matrix, n);
+
+				// covariance = X^T X / n (upper triangle)
+				cublasSsyrk(handle, CUBLAS_FILL_MODE_UPPER, CUBLAS_OP_T, numberOfRandomVariables, n,
+						Pointer.to(new float[] { 1.0f / n }), matrix, n,
+						Pointer.to(new float[] { 0.0f }), covariance, numberOfRandomVariables);
+			}
+
+			final float[] covarianceOnHost = new float[numberOfRandomVariables * numberOfRandomVariables];
+			deviceContext.copyToHost(Pointer.to(covarianceOnHost), covariance, (long)covarianceOnHost.length * Sizeof.FLOAT);
+
+			// Element (i,j), i <= j, of the column-major upper triangle
+			final double[][] result = new double[numberOfRandomVariables][numberOfRandomVariables];
+			for(int j=0; j<numberOfRandomVariables; j++) {
+				for(int i=0; i<=j; i++) {
+					result[i][j] = covarianceOnHost[j * numberOfRandomVariables + i];
+					result[j][i] = result[i][j];
+				}
+			}
+			return result;
+		}
+		finally {
+			deviceContext.free(covariance);
+			deviceContext.free(means);
+			deviceContext.free(ones);
+			deviceContext.free(matrix);
+		}
+	}
+
+	private static double[][] getCovarianceJava(RandomVariableSimpleInterface[] randomVariables, long numberOfPaths) {
+		final int numberOfRandomVariables = randomVariables.length;
+		final float[][] realizations = new float[numberOfRandomVariables][];
+		final double[] means = new double[numberOfRandomVariables];
+		for(int i=0; i<numberOfRandomVariables; i++) {
+			if(randomVariables[i].isDeterministic()) {
+				continue;
+			}
+			if(randomVariables[i].size() != numberOfPaths) {
+				throw new IllegalArgumentException("All random variables have to have the same size.");
+			}
+			realizations[i] = randomVariables[i].getRealizations();
+			double sum = 0.0;
+			for(final float value : realizations[i]) {
+				sum += value;
+			}
+			means[i] = sum / numberOfPaths;
+		}
+
+		final double[][] covariance = new double[numberOfRandomVariables][numberOfRandomVariables];
+		for(int i=0; i<numberOfRandomVariables; i++) {
+			for(int j=0; j<=i; j++) {
+				if(realizations[i] == null || realizations[j] == null) {
+					continue;
+				}
+				double sum = 0.0;
+				for(int path=0; path<numberOfPaths; path++) {
+					sum += (realizations[i][path] - means[i]) * (realizations[j][path] - means[j]);
+				}
+				covariance[i][j] = sum / numberOfPaths;
+				covariance[j][i] = covariance[i][j];
+			}
+		}
+		return covariance;
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+import java.util.Map;
+
+import com.christianfries.cuda.examples.AdjointTape.Operator;
+
+/**
+ * A random variable recorded on an {@link AdjointTape}, supporting the calculation of its gradient
+ * with respect to the independent variables of the tape by adjoint algorithmic differentiation.
+ *
+ * The operations calculate the value (using the operations of the underlying random variable) and record
+ * the operation on the tape. All operands have to be recorded on the same tape.
+ *
+ * @author Christian Fries
+ */
+public class RandomVariableDifferentiable {
+
+	private final AdjointTape tape;
+	private final long id;
+	private final RandomVariableSimpleInterface value;
+
+	RandomVariableDifferentiable(AdjointTape tape, long id, RandomVariableSimpleInterface value) {
+		super();
+		this.tape = tape;
+		this.id = id;
+		this.value = value;
+	}
+
+	/**
+	 * @return The tape on which this variable is recorded.
+	 */
+	public AdjointTape getTape() {
+		return tape;
+	}
+
+	/**
+	 * @return The ID of this variable on its tape (the key of this variable in a gradient).
+	 */
+	public long getID() {
+		return id;
+	}
+
+	/**
+	 * @return The value of this variable.
+	 */
+	public RandomVariableSimpleInterface getValue() {
+		return value;
+	}
+
+	public RandomVariableDifferentiable add(RandomVariableDifferentiable randomVariable) {
+		return tape.record(Operator.ADD, Float.NaN, value.add(randomVariable.value), this, randomVariable);
+	}
+
+	public RandomVariableDifferentiable mult(RandomVariableDifferentiable randomVariable) {
+		return tape.record(Operator.MULT, Float.NaN, value.mult(randomVariable.value), this, randomVariable);
+	}
+
+	public RandomVariableDifferentiable div(RandomVariableDifferentiable randomVariable) {
+		return tape.record(Operator.DIV, Float.NaN, value.div(randomVariable.value), this, randomVariable);
+	}
+
+	/**
+	 * Calculate <code>this / (1 + rate * periodLength)</code>.
+	 *
+	 * @param rate The rate.
+	 * @param periodLength The period length.
+	 * @return The discounted random variable.
+	 */
+	public RandomVariableDifferentiable discount(RandomVariableDifferentiable rate, float periodLength) {
+		return tape.record(Operator.DISCOUNT, periodLength, value.discount(rate.value, periodLength), this, rate);
+	}
+
+	public RandomVariableDifferentiable exp() {
+		return tape.record(Operator.EXP, Float.NaN, value.exp(), this);
+	}
+
+	/**
+	 * Calculate the gradient of this variable by a backward sweep over its tape.
+	 *
+	 * @return Map from the ID of an independent variable <i>x</i> to the derivative <i>&part;this/&part;x</i> (path-wise).
+	 * @see AdjointTape#getGradient(RandomVariableDifferentiable)
+	 */
+	public Map<Long, RandomVariableSimpleInterface> getGradient() {
+		return tape.getGradient(this);
+	}
+}
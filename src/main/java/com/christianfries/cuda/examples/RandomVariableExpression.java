@@ -0,0 +1,189 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.christianfries.compute.ComputeMetrics;
+
+/**
+ * A builder for expressions of random variables, which reuses the buffers of intermediate results.
+ *
+ * An expression is built from leafs (existing random variables, see {@link #of(RandomVariableSimpleInterface)})
+ * and operations. Nothing is calculated until {@link #evaluate()} is called. The evaluation counts
+ * the references of each intermediate result within the expression (escape analysis): if an operation
+ * consumes the last reference of an intermediate result, the result of the operation is written to the
+ * buffer of that intermediate result instead of allocating a new one. Leafs are never overwritten.
+ *
+ * For example, <code>of(a).add(of(b)).div(of(c)).add(of(d)).evaluate()</code> allocates a single
+ * result vector, while <code>a.add(b).div(c).add(d)</code> allocates three.
+ *
+ * All stochastic random variables of an expression have to live on the same device (and have the same storage precision).
+ *
+ * @author Christian Fries
+ */
+public class RandomVariableExpression {
+
+	private enum Operation { LEAF, ADD, MULT, DIV, DISCOUNT }
+
+	private final Operation operation;
+	private final RandomVariableSimpleInterface value;
+	private final RandomVariableExpression left;
+	private final RandomVariableExpression right;
+	private final float parameter;
+
+	private RandomVariableExpression(Operation operation, RandomVariableSimpleInterface value, RandomVariableExpression left, RandomVariableExpression right, float parameter) {
+		super();
+		this.operation = operation;
+		this.value = value;
+		this.left = left;
+		this.right = right;
+		this.parameter = parameter;
+	}
+
+	/**
+	 * Create an expression representing an existing random variable. The random variable is not modified by the evaluation.
+	 *
+	 * @param randomVariable The random variable.
+	 * @return The expression.
+	 */
+	public static RandomVariableExpression of(RandomVariableSimpleInterface randomVariable) {
+		return new RandomVariableExpression(Operation.LEAF, randomVariable, null, null, Float.NaN);
+	}
+
+	public RandomVariableExpression add(RandomVariableExpression expression) {
+		return new RandomVariableExpression(Operation.ADD, null, this, expression, Float.NaN);
+	}
+
+	public RandomVariableExpression mult(RandomVariableExpression expression) {
+		return new RandomVariableExpression(Operation.MULT, null, this, expression, Float.NaN);
+	}
+
+	public RandomVariableExpression div(RandomVariableExpression expression) {
+		return new RandomVariableExpression(Operation.DIV, null, this, expression, Float.NaN);
+	}
+
+	public RandomVariableExpression discount(RandomVariableExpression rate, float periodLength) {
+		return new RandomVariableExpression(Operation.DISCOUNT, null, this, rate, periodLength);
+	}
+
+	/**
+	 * Evaluate the expression.
+	 *
+	 * @return The value of the expression.
+	 */
+	public RandomVariableSimpleInterface evaluate() {
+		final List<RandomVariableExpression> nodes = getNodesInEvaluationOrder();
+
+		// Escape analysis: the number of references to each node within this expression
+		final Map<RandomVariableExpression, Integer> references = new IdentityHashMap<>();
+		for(final RandomVariableExpression node : nodes) {
+			if(node.operation != Operation.LEAF) {
+				references.merge(node.left, 1, Integer::sum);
+				references.merge(node.right, 1, Integer::sum);
+			}
+		}
+
+		final Map<RandomVariableExpression, RandomVariableSimpleInterface> values = new IdentityHashMap<>();
+		for(final RandomVariableExpression node : nodes) {
+			if(node.operation == Operation.LEAF) {
+				values.put(node, node.value);
+				continue;
+			}
+
+			final RandomVariableSimpleInterface leftValue = values.get(node.left);
+			final RandomVariableSimpleInterface rightValue = values.get(node.right);
+			final RandomVariableSimpleInterface target = getReusableBuffer(node, leftValue, rightValue, references, values);
+			if(!leftValue.isDeterministic() || !rightValue.isDeterministic()) {
+				ComputeMetrics.getInstance().recordPoolAccess(target != null);
+			}
+
+			final RandomVariableSimpleInterface result;
+			switch(node.operation) {
+			case ADD:
+				result = target != null ? leftValue.add(rightValue, target) : leftValue.add(rightValue);
+				break;
+			case MULT:
+				result = target != null ? leftValue.mult(rightValue, target) : leftValue.mult(rightValue);
+				break;
+			case DIV:
+				result = target != null ? leftValue.div(rightValue, target) : leftValue.div(rightValue);
+				break;
+			case DISCOUNT:
+				result = target != null ? leftValue.discount(rightValue, node.parameter, target) : leftValue.discount(rightValue, node.parameter);
+				break;
+			default:
+				throw new UnsupportedOperationException("Operation " + node.operation + " not supported.");
+			}
+			values.put(node, result);
+
+			// Release the operands which are no longer referenced
+			release(node.left, references, values);
+			release(node.right, references, values);
+		}
+
+		return values.get(this);
+	}
+
+	/**
+	 * Returns the value of an operand which is an intermediate result referenced only by the given node, such that its buffer can hold the result of the node.
+	 */
+	private static RandomVariableSimpleInterface getReusableBuffer(RandomVariableExpression node, RandomVariableSimpleInterface leftValue, RandomVariableSimpleInterface rightValue,
+			Map<RandomVariableExpression, Integer> references, Map<RandomVariableExpression, RandomVariableSimpleInterface> values) {
+		if(leftValue.isDeterministic() && rightValue.isDeterministic()) {
+			return null;
+		}
+		final long size = !leftValue.isDeterministic() ? leftValue.size() : rightValue.size();
+		for(final RandomVariableExpression operand : new RandomVariableExpression[] { node.left, node.right }) {
+			final RandomVariableSimpleInterface operandValue = values.get(operand);
+			if(operand.operation != Operation.LEAF && references.get(operand) == 1 && !operandValue.isDeterministic() && operandValue.size() == size) {
+				return operandValue;
+			}
+		}
+		return null;
+	}
+
+	private static void release(RandomVariableExpression operand, Map<RandomVariableExpression, Integer> references, Map<RandomVariableExpression, RandomVariableSimpleInterface> values) {
+		if(references.merge(operand, -1, Integer::sum) == 0) {
+			values.remove(operand);
+		}
+	}
+
+	/**
+	 * @return The distinct nodes of this expression, each node after its operands (iterative post-order, expressions may be deep).
+	 */
+	private List<RandomVariableExpression> getNodesInEvaluationOrder() {
+		final List<RandomVariableExpression> nodes = new ArrayList<>();
+		final Map<RandomVariableExpression, Boolean> visited = new IdentityHashMap<>();
+		final Deque<RandomVariableExpression> stack = new ArrayDeque<>();
+		stack.push(this);
+		while(!stack.isEmpty()) {
+			final RandomVariableExpression node = stack.peek();
+			final Boolean isExpanded = visited.get(node);
+			if(isExpanded == null) {
+				visited.put(node, Boolean.FALSE);
+				if(node.operation != Operation.LEAF) {
+					if(!visited.containsKey(node.right)) stack.push(node.right);
+					if(!visited.containsKey(node.left)) stack.push(node.left);
+				}
+			}
+			else {
+				stack.pop();
+				if(!isExpanded) {
+					visited.put(node, Boolean.TRUE);
+					nodes.add(node);
+				}
+			}
+		}
+		return nodes;
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+import java.util.List;
+
+import com.christianfries.compute.Expression;
+
+/**
+ * A factory creating random variables on a specific backend / device.
+ *
+ * @author Christian Fries
+ */
+public interface RandomVariableFactory {
+
+	/**
+	 * Create a stochastic random variable.
+	 *
+	 * @param realizations the vector of realizations.
+	 * @return The random variable.
+	 */
+	RandomVariableSimpleInterface createRandomVariable(float[] realizations);
+
+	/**
+	 * Create a stochastic random variable from chunks of realizations, allowing vectors exceeding the maximum size of a Java array
+	 * (if supported by the backend).
+	 *
+	 * @param realizationChunks the vector of realizations, split into consecutive arrays.
+	 * @return The random variable.
+	 */
+	RandomVariableSimpleInterface createRandomVariable(float[][] realizationChunks);
+
+	/**
+	 * Create a deterministic random variable. It does not allocate device memory.
+	 *
+	 * @param value the value.
+	 * @return The random variable.
+	 */
+	RandomVariableSimpleInterface createRandomVariable(float value);
+
+	/**
+	 * Create a batch of stochastic random variables, stored in a single vector (see {@link RandomVariableBatchInterface}).
+	 *
+	 * @param realizations the vectors of realizations of the random variables.
+	 * @return The batch.
+	 */
+	RandomVariableBatchInterface createRandomVariableBatch(List<float[]> realizations);
+
+	/**
+	 * Evaluate an expression of random variables element-wise in a single fused pass (one kernel on a device),
+	 * see {@link com.christianfries.compute.ExpressionCompiler}.
+	 *
+	 * @param expression The expression.
+	 * @param variables The random variables in the order of {@link Expression#getVariableNames()} (created by this factory, stochastic ones of the same size).
+	 * @param parameters The parameters in the order of {@link Expression#getParameterNames()}.
+	 * @return The value of the expression (deterministic if all variables are deterministic).
+	 */
+	RandomVariableSimpleInterface evaluate(Expression expression, RandomVariableSimpleInterface[] variables, float[] parameters);
+
+	/**
+	 * @return The memory (in bytes) currently available for new random variables on this device.
+	 */
+	long getAvailableMemory();
+
+	/**
+	 * @return A name of the device, e.g., <code>java</code> or <code>cuda:0</code>.
+	 */
+	String getName();
+}
@@ -0,0 +1,161 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+import static jcuda.driver.JCudaDriver.cuMemGetInfo;
+
+import java.lang.ref.Reference;
+import java.util.BitSet;
+import java.util.List;
+
+import com.christianfries.compute.Expression;
+import com.christianfries.compute.ExpressionCompiler;
+import com.christianfries.compute.ExpressionCompiler.Dialect;
+import com.christianfries.compute.KernelVariant;
+
+import jcuda.Pointer;
+import jcuda.driver.CUfunction;
+
+/**
+ * Factory creating {@link RandomVariableSimpleCuda} instances on a given Cuda device.
+ *
+ * @author Christian Fries
+ */
+public class RandomVariableFactoryCuda implements RandomVariableFactory {
+
+	private final CudaDeviceContext deviceContext;
+	private final StoragePrecision precision;
+
+	/**
+	 * Create a factory for random variables on the given device, stored in the given precision.
+	 *
+	 * @param deviceContext The device.
+	 * @param precision The storage precision of the random variables created.
+	 */
+	public RandomVariableFactoryCuda(CudaDeviceContext deviceContext, StoragePrecision precision) {
+		super();
+		this.deviceContext = deviceContext;
+		this.precision = precision;
+	}
+
+	public RandomVariableFactoryCuda(CudaDeviceContext deviceContext) {
+		this(deviceContext, StoragePrecision.FLOAT32);
+	}
+
+	public RandomVariableFactoryCuda() {
+		this(CudaDeviceContext.getDefault());
+	}
+
+	@Override
+	public RandomVariableSimpleInterface createRandomVariable(float[] realizations) {
+		return new RandomVariableSimpleCuda(deviceContext, realizations, precision);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface createRandomVariable(float[][] realizationChunks) {
+		return new RandomVariableSimpleCuda(deviceContext, realizationChunks, precision);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface createRandomVariable(float value) {
+		return new RandomVariableSimpleCuda(deviceContext, value, precision);
+	}
+
+	@Override
+	public RandomVariableBatchInterface createRandomVariableBatch(List<float[]> realizations) {
+		return new RandomVariableBatchCuda(deviceContext, realizations);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The expression is compiled to a Cuda kernel (by NVRTC, once per expression and set of deterministic variables).
+	 * The kernel reads the realizations of the stochastic variables on the device directly (variables on another device or
+	 * stored in a precision other than float are converted first), deterministic variables are passed as scalar arguments.
+	 * The result is stored in the precision of this factory. If all variables are deterministic, the expression is evaluated on the host.
+	 */
+	@Override
+	public RandomVariableSimpleInterface evaluate(Expression expression, RandomVariableSimpleInterface[] variables, float[] parameters) {
+		long size = -1;
+		for(final RandomVariableSimpleInterface variable : variables) {
+			if(!variable.isDeterministic()) {
+				size = variable.size();
+				break;
+			}
+		}
+		if(size < 0) {
+			final float[][] values = new float[variables.length][];
+			for(int i=0; i<variables.length; i++) {
+				values[i] = variables[i].getRealizations();
+			}
+			return createRandomVariable(ExpressionCompiler.getJavaKernel(expression).evaluate(values, parameters)[0]);
+		}
+		if(variables.length != expression.getVariableNames().size() || parameters.length != expression.getParameterNames().size()) {
+			throw new IllegalArgumentException("Expected " + expression.getVariableNames().size() + " variables and " + expression.getParameterNames().size() + " parameters.");
+		}
+
+		// The stochastic variables as float vectors on this device (referenced until the kernel has completed)
+		final RandomVariableSimpleCuda[] vectors = new RandomVariableSimpleCuda[variables.length];
+		deviceContext.getResidencyManager().enterScope();
+		try {
+			final BitSet scalarVariables = new BitSet(variables.length);
+			final Pointer[] arguments = new Pointer[1 + variables.length + parameters.length + 1];
+			arguments[0] = Pointer.to(new long[] { size });
+			for(int i=0; i<variables.length; i++) {
+				if(variables[i].isDeterministic()) {
+					scalarVariables.set(i);
+					arguments[1 + i] = Pointer.to(new float[] { variables[i].getRealizations()[0] });
+				}
+				else {
+					if(variables[i].size() != size) {
+						throw new IllegalArgumentException("The stochastic variables have to have the same size.");
+					}
+					vectors[i] = ((RandomVariableSimpleCuda)variables[i]).migrateTo(deviceContext).toPrecision(StoragePrecision.FLOAT32);
+					arguments[1 + i] = Pointer.to(vectors[i].getRealizationsOnDevice());
+				}
+			}
+			for(int i=0; i<parameters.length; i++) {
+				arguments[1 + variables.length + i] = Pointer.to(new float[] { parameters[i] });
+			}
+			final RandomVariableSimpleCuda result = new RandomVariableSimpleCuda(deviceContext, deviceContext.allocate(size), size, StoragePrecision.FLOAT32);
+			arguments[arguments.length-1] = Pointer.to(result.getRealizationsOnDevice());
+
+			final CUfunction function = deviceContext.getFunctionFromSource(
+					ExpressionCompiler.getKernelSource(expression, Dialect.CUDA, KernelVariant.PREDICATED, scalarVariables),
+					ExpressionCompiler.getKernelName(expression, KernelVariant.PREDICATED, scalarVariables));
+			deviceContext.launch(function, size, arguments);
+
+			return result.toPrecision(precision);
+		}
+		finally {
+			deviceContext.getResidencyManager().exitScope();
+			Reference.reachabilityFence(vectors);
+		}
+	}
+
+	@Override
+	public long getAvailableMemory() {
+		final long[] free = new long[1];
+		final long[] total = new long[1];
+		deviceContext.makeCurrent();
+		cuMemGetInfo(free, total);
+		return free[0];
+	}
+
+	@Override
+	public String getName() {
+		return "cuda:" + deviceContext.getDeviceIndex();
+	}
+
+	public CudaDeviceContext getDeviceContext() {
+		return deviceContext;
+	}
+
+	public StoragePrecision getStoragePrecision() {
+		return precision;
+	}
+}
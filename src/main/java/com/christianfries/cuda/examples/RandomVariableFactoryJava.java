@@ -0,0 +1,91 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.christianfries.compute.Expression;
+import com.christianfries.compute.ExpressionCompiler;
+
+/**
+ * Factory creating {@link RandomVariableSimpleJava} instances (the CPU backend).
+ *
+ * @author Christian Fries
+ */
+public class RandomVariableFactoryJava implements RandomVariableFactory {
+
+	@Override
+	public RandomVariableSimpleInterface createRandomVariable(float[] realizations) {
+		return new RandomVariableSimpleJava(realizations);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface createRandomVariable(float[][] realizationChunks) {
+		long size = 0;
+		for(final float[] chunk : realizationChunks) size += chunk.length;
+		if(size > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("The Java backend supports at most " + (Integer.MAX_VALUE - 8) + " realizations, got " + size + ".");
+		}
+		final float[] realizations = new float[(int)size];
+		int offset = 0;
+		for(final float[] chunk : realizationChunks) {
+			System.arraycopy(chunk, 0, realizations, offset, chunk.length);
+			offset += chunk.length;
+		}
+		return new RandomVariableSimpleJava(realizations);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface createRandomVariable(float value) {
+		return new RandomVariableSimpleJava(value);
+	}
+
+	@Override
+	public RandomVariableBatchInterface createRandomVariableBatch(List<float[]> realizations) {
+		return new RandomVariableBatchJava(realizations);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface evaluate(Expression expression, RandomVariableSimpleInterface[] variables, float[] parameters) {
+		int size = -1;
+		for(final RandomVariableSimpleInterface variable : variables) {
+			if(!variable.isDeterministic()) {
+				size = (int)variable.size();
+				break;
+			}
+		}
+
+		final float[][] values = new float[variables.length][];
+		for(int i=0; i<variables.length; i++) {
+			if(!variables[i].isDeterministic()) {
+				values[i] = RandomVariableSimpleJava.getRealizationsOf(variables[i]);
+			}
+			else if(size < 0) {
+				values[i] = variables[i].getRealizations();
+			}
+			else {
+				values[i] = new float[size];
+				Arrays.fill(values[i], variables[i].getRealizations()[0]);
+			}
+		}
+
+		final float[] result = ExpressionCompiler.getJavaKernel(expression).evaluate(values, parameters);
+		return size < 0 ? new RandomVariableSimpleJava(result[0]) : new RandomVariableSimpleJava(result);
+	}
+
+	@Override
+	public long getAvailableMemory() {
+		final Runtime runtime = Runtime.getRuntime();
+		return runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+	}
+
+	@Override
+	public String getName() {
+		return "java";
+	}
+}
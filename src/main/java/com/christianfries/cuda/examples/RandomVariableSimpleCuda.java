@@ -6,29 +6,31 @@
 
 package com.christianfries.cuda.examples;
 
-import static jcuda.driver.JCudaDriver.cuCtxCreate;
-import static jcuda.driver.JCudaDriver.cuCtxSynchronize;
-import static jcuda.driver.JCudaDriver.cuDeviceGet;
-import static jcuda.driver.JCudaDriver.cuInit;
-import static jcuda.driver.JCudaDriver.cuLaunchKernel;
-import static jcuda.driver.JCudaDriver.cuMemcpyDtoH;
-import static jcuda.driver.JCudaDriver.cuModuleGetFunction;
-import static jcuda.driver.JCudaDriver.cuModuleLoad;
-
-import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
-
-import jcuda.LogLevel;
+import static jcuda.driver.JCudaDriver.cuMemAllocHost;
+import static jcuda.driver.JCudaDriver.cuMemFreeHost;
+import static jcuda.driver.JCudaDriver.cuMemcpyDtoD;
+import static jcuda.driver.JCudaDriver.cuMemsetD32;
+import static jcuda.jcublas.JCublas2.cublasSaxpy;
+import static jcuda.jcublas.JCublas2.cublasSdot;
+import static jcuda.jcublas.JCublas2.cublasSetPointerMode;
+import static jcuda.jcublas.JCublas2.cublasSscal;
+import static jcuda.jcublas.cublasPointerMode.CUBLAS_POINTER_MODE_DEVICE;
+import static jcuda.jcublas.cublasPointerMode.CUBLAS_POINTER_MODE_HOST;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.logging.Logger;
+
+import com.christianfries.compute.ResidencyManager;
+import com.christianfries.compute.ResidencyManager.SpillStorage;
+
+import jcuda.CudaException;
 import jcuda.Pointer;
 import jcuda.Sizeof;
-import jcuda.driver.CUcontext;
-import jcuda.driver.CUdevice;
 import jcuda.driver.CUdeviceptr;
-import jcuda.driver.CUfunction;
-import jcuda.driver.CUmodule;
-import jcuda.driver.JCudaDriver;
+import jcuda.jcublas.cublasHandle;
 
 /**
  * The class RandomVariable represents a random variable being the evaluation of a stochastic process
@@ -38,256 +40,962 @@ import jcuda.driver.JCudaDriver;
  *
  * Accesses performed exclusively through the interface
  * <code>RandomVariableSimpleInterface</code>
- * (and does not mutate the class).
+ * (and does not mutate the class, except for the in-place operations and the operations
+ * taking a <code>result</code> argument, which reuse the device vector of the result).
+ *
+ * The realizations may be stored in reduced (or extended) precision, see {@link StoragePrecision}.
+ * Operations are performed in float (double for <code>FLOAT64</code>) and the result is stored in the
+ * precision of this random variable. An operand stored in a different precision is converted on the device first.
+ *
+ * A deterministic random variable is represented by a single value held on the host, hence constants
+ * do not allocate device memory. Operations with a deterministic operand pass the value as kernel argument
+ * (<code>addScalar</code>, <code>multScalar</code>, <code>divScalar</code>, <code>vidScalar</code>).
+ *
+ * Sizes and kernel indices are 64-bit, such that a random variable may have more than 2<sup>31</sup> realizations.
+ * Such a vector is transferred in chunks, see {@link #RandomVariableSimpleCuda(CudaDeviceContext, float[][], StoragePrecision)}
+ * and {@link #getRealizations(long, int)}.
+ *
+ * The linear algebra operations (<code>dot</code>, <code>addProductInPlace</code>, <code>multInPlace</code>) use cuBLAS.
+ * Since cuBLAS takes 32-bit sizes, the vectors are processed in segments of at most {@link #MAX_CUBLAS_SEGMENT_SIZE} elements.
+ * The result of <code>dot</code> is a deterministic random variable whose value stays on the device (cuBLAS device pointer mode)
+ * and is copied to the host only when requested, such that it can feed subsequent cuBLAS calls without a host synchronization.
+ *
+ * The realizations are managed by the {@link ResidencyManager} of the device context: under memory pressure the least recently used
+ * random variables are spilled to the host (pinned memory or a memory mapped file) and restored on their next use.
+ * Each operation enters a scope of the residency manager, such that its operands are not spilled while the kernel uses them.
  *
  * 
  * @author Christian Fries
- * @version 1.8
+ * @version 1.9
  */
-public class RandomVariableSimpleCuda implements RandomVariableSimpleInterface {
+public class RandomVariableSimpleCuda implements RandomVariableSimpleInterface, AutoCloseable {
 
-	// Static device stuff
-	public final static CUdevice device;
-	public final static CUcontext context;
+	static final String cuFileName = "RandomVariableSimpleCudaKernel.cu";
 
-	private final static CUfunction add;
-	private final static CUfunction div;
+	private static final Logger logger = Logger.getLogger("com.christianfries.compute");
 
-	// Initalize cuda
-	static {
-		// Enable exceptions and omit all subsequent error checks
-		JCudaDriver.setExceptionsEnabled(true);
-		JCudaDriver.setLogLevel(LogLevel.LOG_DEBUG);
+	private static final Cleaner cleaner = Cleaner.create();
 
-		// Create the PTX file by calling the NVCC
-		String ptxFileName = null;
-		try {
-			ptxFileName = preparePtxFile("RandomVariableSimpleCudaKernel.cu");
-		} catch (IOException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
+	// The maximum number of elements passed to a single cuBLAS call (which takes int sizes)
+	static final int MAX_CUBLAS_SEGMENT_SIZE = 1 << 30;
 
-		// Initialize the driver and create a context for the first device.
-		cuInit(0);
-		device = new CUdevice();
-		cuDeviceGet(device, 0);
-		context = new CUcontext();
-		cuCtxCreate(context, 0, device);
+	// The maximum size of a Java array
+	private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
 
-		// Load the ptx file.
-		CUmodule module = new CUmodule();
-		cuModuleLoad(module, ptxFileName);
+	// The device owning the realizations
+	private final CudaDeviceContext deviceContext;
 
-		add = new CUfunction();
-		cuModuleGetFunction(add, module, "cuAdd");
-		div = new CUfunction();
-		cuModuleGetFunction(div, module, "cuDiv");
-	}
-
-	// Need to ref to data here
-	private CUdeviceptr realizations;
 	private long size;
+	private final StoragePrecision precision;
+
+	// The realizations on the device or spilled to the host (null if the random variable is deterministic)
+	private final Residency residency;
+
+	// Releases the device memory when the random variable is closed or no longer referenced (null if there is nothing to release)
+	private final Cleaner.Cleanable cleanable;
+
+	// The value if the random variable is deterministic (then residency is null)
+	private float valueIfNonStochastic;
+
+	// The value of a deterministic random variable calculated on the device (e.g. by dot), copied to valueIfNonStochastic on first use
+	private final CUdeviceptr valueOnDevice;
+	private boolean isValueOnHost;
+
+	private volatile boolean isReadOnly;
 
 	/**
-	 * Create a stochastic random variable.
+	 * Create a stochastic random variable on the default device.
 	 *
 	 * @param realisations the vector of realizations.
 	 */
 	public RandomVariableSimpleCuda(float[] realisations) {
+		this(CudaDeviceContext.getDefault(), realisations);
+	}
+
+	/**
+	 * Create a stochastic random variable on the given device.
+	 *
+	 * @param deviceContext the device owning the realizations.
+	 * @param realisations the vector of realizations.
+	 */
+	public RandomVariableSimpleCuda(CudaDeviceContext deviceContext, float[] realisations) {
+		this(deviceContext, realisations, StoragePrecision.FLOAT32);
+	}
+
+	/**
+	 * Create a stochastic random variable on the given device, storing the realizations in the given precision.
+	 *
+	 * @param deviceContext the device owning the realizations.
+	 * @param realisations the vector of realizations.
+	 * @param precision the storage precision.
+	 */
+	public RandomVariableSimpleCuda(CudaDeviceContext deviceContext, float[] realisations, StoragePrecision precision) {
+		this(deviceContext, new float[][] { realisations }, precision);
+	}
+
+	/**
+	 * Create a stochastic random variable on the given device from chunks of realizations, storing the realizations in the given precision.
+	 * The chunks are copied to consecutive parts of a single device vector, which may exceed the maximum size of a Java array.
+	 *
+	 * @param deviceContext the device owning the realizations.
+	 * @param realisationChunks the vector of realizations, split into consecutive arrays.
+	 * @param precision the storage precision.
+	 */
+	public RandomVariableSimpleCuda(CudaDeviceContext deviceContext, float[][] realisationChunks, StoragePrecision precision) {
 		super();
-		this.realizations = createCUdeviceptr(realisations);
-		this.size = realisations.length;
+		this.deviceContext = deviceContext;
+		this.precision = precision;
+		long size = 0;
+		for(final float[] chunk : realisationChunks) size += chunk.length;
+		this.size = size;
+		this.valueIfNonStochastic = Float.NaN;
+		this.valueOnDevice = null;
+		this.isValueOnHost = true;
+		this.residency = new Residency(deviceContext, createCUdeviceptr(realisationChunks, size), getSizeInBytes(size));
+		this.cleanable = register(this, residency, null);
+	}
+
+	/**
+	 * Create a deterministic random variable on the default device.
+	 *
+	 * @param value the value.
+	 */
+	public RandomVariableSimpleCuda(float value) {
+		this(CudaDeviceContext.getDefault(), value, StoragePrecision.FLOAT32);
+	}
+
+	/**
+	 * Create a deterministic random variable on the given device. No device memory is allocated.
+	 *
+	 * @param deviceContext the device on which operations with this random variable are performed.
+	 * @param value the value.
+	 * @param precision the storage precision of the results of operations with stochastic random variables.
+	 */
+	public RandomVariableSimpleCuda(CudaDeviceContext deviceContext, float value, StoragePrecision precision) {
+		super();
+		this.deviceContext = deviceContext;
+		this.precision = precision;
+		this.size = 1;
+		this.valueIfNonStochastic = value;
+		this.valueOnDevice = null;
+		this.isValueOnHost = true;
+		this.residency = null;
+		this.cleanable = null;
+	}
+
+	/**
+	 * Create a deterministic random variable whose value is (or will be) calculated on the device.
+	 *
+	 * @param deviceContext the device holding the value.
+	 * @param precision the storage precision of the results of operations with stochastic random variables.
+	 * @param valueOnDevice device memory holding the value (a single float).
+	 */
+	private RandomVariableSimpleCuda(CudaDeviceContext deviceContext, StoragePrecision precision, CUdeviceptr valueOnDevice) {
+		super();
+		this.deviceContext = deviceContext;
+		this.precision = precision;
+		this.size = 1;
+		this.valueIfNonStochastic = Float.NaN;
+		this.valueOnDevice = valueOnDevice;
+		this.isValueOnHost = false;
+		this.residency = null;
+		this.cleanable = register(this, null, valueOnDevice);
 	}
 
 	public RandomVariableSimpleCuda(CUdeviceptr realizations, long size) {
-		this.realizations = realizations;
-		this.size = size;
+		this(CudaDeviceContext.getDefault(), realizations, size);
 	}
 
-	private CUdeviceptr createCUdeviceptr(long size) {
-		CUdeviceptr cuDevicePtr = getCUdeviceptr(size);
-		return cuDevicePtr;
+	public RandomVariableSimpleCuda(CudaDeviceContext deviceContext, CUdeviceptr realizations, long size) {
+		this(deviceContext, realizations, size, StoragePrecision.FLOAT32);
 	}
 
-	public static CUdeviceptr getCUdeviceptr(long size) {
-		CUdeviceptr cuDevicePtr = new CUdeviceptr();
-		int succ = JCudaDriver.cuMemAlloc(cuDevicePtr, size * Sizeof.FLOAT);
-		if(succ != 0) {
-			cuDevicePtr = null;
-			throw new RuntimeException("Failed creating device vector "+ cuDevicePtr + " with size=" + size);
-		}
+	public RandomVariableSimpleCuda(CudaDeviceContext deviceContext, CUdeviceptr realizations, long size, StoragePrecision precision) {
+		this.deviceContext = deviceContext;
+		this.size = size;
+		this.precision = precision;
+		this.valueIfNonStochastic = Float.NaN;
+		this.valueOnDevice = null;
+		this.isValueOnHost = true;
+		this.residency = new Residency(deviceContext, realizations, getSizeInBytes(size));
+		this.cleanable = register(this, residency, null);
+	}
 
-		return cuDevicePtr;
+	/**
+	 * Allocate a device vector on the default device.
+	 *
+	 * @param size The number of floats.
+	 * @return Pointer to device vector.
+	 */
+	public static CUdeviceptr getCUdeviceptr(long size) {
+		return CudaDeviceContext.getDefault().allocate(size);
 	}
 
 	/**
-	 * Create a vector on device and copy host vector to it.
+	 * Create a vector on device and copy the host vectors (chunks) to it, converting them to the storage precision.
 	 * 
-	 * @param values Host vector.
+	 * @param chunks Host vectors (consecutive parts of the vector).
+	 * @param size The total size.
 	 * @return Pointer to device vector.
 	 */
-	private CUdeviceptr createCUdeviceptr(float[] values) {
-		CUdeviceptr cuDevicePtr = createCUdeviceptr((long)values.length);
-		JCudaDriver.cuMemcpyHtoD(cuDevicePtr, Pointer.to(values),
-				(long)values.length * Sizeof.FLOAT);
+	private CUdeviceptr createCUdeviceptr(float[][] chunks, long size) {
+		final CUdeviceptr cuDevicePtr = deviceContext.allocateBytes(getSizeInBytes(size));
+		long offset = 0;
+		for(final float[] values : chunks) {
+			final Pointer hostValues;
+			switch(precision) {
+			case FLOAT16:
+			case BFLOAT16:
+				hostValues = Pointer.to(StorageConversion.toShortStorage(values, precision));
+				break;
+			case FLOAT64:
+				final double[] valuesAsDouble = new double[values.length];
+				for(int i=0; i<values.length; i++) valuesAsDouble[i] = values[i];
+				hostValues = Pointer.to(valuesAsDouble);
+				break;
+			case FLOAT32:
+			default:
+				hostValues = Pointer.to(values);
+			}
+			deviceContext.copyToDevice(cuDevicePtr.withByteOffset(getSizeInBytes(offset)), hostValues, getSizeInBytes(values.length));
+			offset += values.length;
+		}
 		return cuDevicePtr;
 	}
 
+	private long getSizeInBytes(long numberOfElements) {
+		return numberOfElements * precision.getBytesPerElement();
+	}
+
+	/*
+	 * Register the residency with the residency manager and the release of the device memory with the cleaner.
+	 * The release must not reference the random variable, otherwise it would never become unreachable.
+	 */
+	private static Cleaner.Cleanable register(RandomVariableSimpleCuda randomVariable, Residency residency, CUdeviceptr valueOnDevice) {
+		final CudaDeviceContext deviceContext = randomVariable.deviceContext;
+		if(residency != null) {
+			deviceContext.getResidencyManager().register(residency);
+		}
+		return cleaner.register(randomVariable, () -> {
+			logger.finest(() -> "Releasing " + residency + " on " + deviceContext);
+			if(residency != null) {
+				deviceContext.getResidencyManager().unregister(residency);
+				residency.release();
+			}
+			if(valueOnDevice != null) deviceContext.free(valueOnDevice);
+		});
+	}
+
+	/**
+	 * Free the device memory (or the host memory holding the spilled realizations) of this random variable.
+	 * The random variable must not be used afterwards. If not called, the memory is freed when the random variable is no longer referenced.
+	 * Calling this method more than once has no effect.
+	 *
+	 * @throws UnsupportedOperationException Thrown if the random variable is read-only (it may be used by others).
+	 */
 	@Override
-	protected void finalize() throws Throwable {
-		System.out.println("Finalizing " + realizations);
-		if(realizations != null) JCudaDriver.cuMemFree(realizations);
-		super.finalize();
+	public void close() {
+		if(isReadOnly) {
+			throw new UnsupportedOperationException("The random variable is read-only.");
+		}
+		if(cleanable != null) {
+			cleanable.clean();
+		}
 	}
 
+	/**
+	 * @return The device owning the realizations of this random variable.
+	 */
+	public CudaDeviceContext getDeviceContext() {
+		return deviceContext;
+	}
+
+	/**
+	 * Return this random variable on the given device. If the random variable lives on a different device,
+	 * the realizations are copied (peer-to-peer if supported, otherwise staged through host memory).
+	 *
+	 * @param targetContext The target device.
+	 * @return A random variable with the same realizations owned by the target device.
+	 */
+	public RandomVariableSimpleCuda migrateTo(CudaDeviceContext targetContext) {
+		deviceContext.getResidencyManager().enterScope();
+		try {
+			if(targetContext == deviceContext) {
+				return this;
+			}
+			else if(isDeterministic()) {
+				return new RandomVariableSimpleCuda(targetContext, getValue(), precision);
+			}
+			return new RandomVariableSimpleCuda(targetContext, targetContext.copyFrom(deviceContext, getRealizationsOnDevice(), getSizeInBytes(size)), size, precision);
+		}
+		finally {
+			deviceContext.getResidencyManager().exitScope();
+		}
+	}
+
+	/**
+	 * Get the device vector holding the realizations, restoring them if they have been spilled to the host.
+	 * Within a scope of the residency manager of the device, the realizations stay on the device until the scope is exited.
+	 *
+	 * @return The device vector holding the realizations (null if the random variable is deterministic).
+	 */
+	CUdeviceptr getRealizationsOnDevice() {
+		if(residency == null) {
+			return null;
+		}
+		deviceContext.getResidencyManager().use(residency);
+		return residency.realizations;
+	}
+
+	/**
+	 * @return The precision in which the realizations are stored.
+	 */
+	public StoragePrecision getStoragePrecision() {
+		return precision;
+	}
+
+	/**
+	 * Return this random variable stored in the given precision. The conversion is performed on the device.
+	 *
+	 * @param targetPrecision The target precision.
+	 * @return A random variable with the realizations rounded (to nearest even) to the target precision.
+	 */
+	public RandomVariableSimpleCuda toPrecision(StoragePrecision targetPrecision) {
+		deviceContext.getResidencyManager().enterScope();
+		try {
+			if(targetPrecision == precision) {
+				return this;
+			}
+			else if(isDeterministic()) {
+				return new RandomVariableSimpleCuda(deviceContext, getValue(), targetPrecision);
+			}
+			CUdeviceptr result = callCudaFunction("cuConvert_" + precision.getName() + "_" + targetPrecision.getName(), targetPrecision, new Pointer[] {
+					Pointer.to(new long[] { size() }),
+					Pointer.to(getRealizationsOnDevice()),
+					new Pointer()}
+					);
+
+			return new RandomVariableSimpleCuda(deviceContext, result, size(), targetPrecision);
+		}
+		finally {
+			deviceContext.getResidencyManager().exitScope();
+		}
+	}
+
+	/**
+	 * @return The value of a deterministic random variable (copied from the device on first use if it was calculated on the device).
+	 */
+	private synchronized float getValue() {
+		if(!isValueOnHost) {
+			final float[] value = new float[1];
+			deviceContext.copyToHost(Pointer.to(value), valueOnDevice, Sizeof.FLOAT);
+			valueIfNonStochastic = value[0];
+			isValueOnHost = true;
+		}
+		return valueIfNonStochastic;
+	}
 
 	@Override
 	public long size() {
 		return size;
 	}
 
+	@Override
+	public boolean isDeterministic() {
+		return residency == null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws UnsupportedOperationException If the number of realizations exceeds the maximum size of a Java array
+	 * (use {@link #getRealizations(long, int)} or {@link #getRealizationsInChunks(int)}).
+	 */
 	@Override
 	public float[] getRealizations() {
-		float[] result = new float[(int)size];
-		cuMemcpyDtoH(Pointer.to(result), realizations, size * Sizeof.FLOAT);
-		return result;
+		if(size > MAX_ARRAY_SIZE) {
+			throw new UnsupportedOperationException("The random variable has " + size + " realizations, exceeding the maximum size of an array. Use getRealizationsInChunks.");
+		}
+		return getRealizations(0, (int)size);
+	}
+
+	@Override
+	public float[] getRealizations(long offset, int length) {
+		deviceContext.getResidencyManager().enterScope();
+		try {
+			if(offset < 0 || length < 0 || offset + length > size) {
+				throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length) + ") out of bounds for size " + size + ".");
+			}
+			if(isDeterministic()) {
+				final float[] values = new float[length];
+				Arrays.fill(values, getValue());
+				return values;
+			}
+
+			final CUdeviceptr source = getRealizationsOnDevice().withByteOffset(getSizeInBytes(offset));
+			switch(precision) {
+			case FLOAT16:
+			case BFLOAT16:
+			{
+				short[] values = new short[length];
+				deviceContext.copyToHost(Pointer.to(values), source, getSizeInBytes(length));
+				return StorageConversion.fromShortStorage(values, precision);
+			}
+			case FLOAT64:
+			{
+				double[] values = new double[length];
+				deviceContext.copyToHost(Pointer.to(values), source, getSizeInBytes(length));
+				float[] result = new float[length];
+				for(int i=0; i<values.length; i++) result[i] = (float)values[i];
+				return result;
+			}
+			case FLOAT32:
+			default:
+			{
+				float[] result = new float[length];
+				deviceContext.copyToHost(Pointer.to(result), source, (long)length * Sizeof.FLOAT);
+				return result;
+			}
+			}
+		}
+		finally {
+			deviceContext.getResidencyManager().exitScope();
+		}
 	}
 
 	@Override
 	public RandomVariableSimpleInterface add(RandomVariableSimpleInterface randomVariable) {
-		CUdeviceptr result = callCudaFunction(add, new Pointer[] {
-				Pointer.to(new int[] { (int)size() }),
-				Pointer.to(realizations),
-				Pointer.to(((RandomVariableSimpleCuda)randomVariable).realizations),
-				new Pointer()}
-				);
+		return add(randomVariable, null);
+	}
 
-		return new RandomVariableSimpleCuda(result, size());
+	@Override
+	public RandomVariableSimpleInterface mult(RandomVariableSimpleInterface randomVariable) {
+		return mult(randomVariable, null);
 	}
 
 	@Override
 	public RandomVariableSimpleInterface div(RandomVariableSimpleInterface randomVariable) {
-		CUdeviceptr result = callCudaFunction(div, new Pointer[] {
-				Pointer.to(new int[] { (int)size() }),
-				Pointer.to(realizations),
-				Pointer.to(((RandomVariableSimpleCuda)randomVariable).realizations),
+		return div(randomVariable, null);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface exp() {
+		deviceContext.getResidencyManager().enterScope();
+		try {
+			if(isDeterministic()) {
+				return new RandomVariableSimpleCuda(deviceContext, (float)Math.exp(getValue()), precision);
+			}
+			final CUdeviceptr result = callCudaFunction("cuExp" + precision.getKernelSuffix(), precision, new Pointer[] {
+					Pointer.to(new long[] { size() }),
+					Pointer.to(getRealizationsOnDevice()),
+					new Pointer()}
+					);
+			return new RandomVariableSimpleCuda(deviceContext, result, size(), precision);
+		}
+		finally {
+			deviceContext.getResidencyManager().exitScope();
+		}
+	}
+
+	@Override
+	public RandomVariableSimpleInterface discount(RandomVariableSimpleInterface rate, float periodLength) {
+		return discount(rate, periodLength, null);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface add(RandomVariableSimpleInterface randomVariable, RandomVariableSimpleInterface result) {
+		deviceContext.getResidencyManager().enterScope();
+		try {
+			if(isDeterministic() && randomVariable.isDeterministic()) {
+				return deterministic(getValue() + randomVariable.getRealizations()[0], result);
+			}
+			return applyBinaryOperation("cuAdd", "addScalar", "addScalar", randomVariable, result);
+		}
+		finally {
+			deviceContext.getResidencyManager().exitScope();
+		}
+	}
+
+	@Override
+	public RandomVariableSimpleInterface mult(RandomVariableSimpleInterface randomVariable, RandomVariableSimpleInterface result) {
+		deviceContext.getResidencyManager().enterScope();
+		try {
+			if(isDeterministic() && randomVariable.isDeterministic()) {
+				return deterministic(getValue() * randomVariable.getRealizations()[0], result);
+			}
+			return applyBinaryOperation("cuMult", "multScalar", "multScalar", randomVariable, result);
+		}
+		finally {
+			deviceContext.getResidencyManager().exitScope();
+		}
+	}
+
+	@Override
+	public RandomVariableSimpleInterface div(RandomVariableSimpleInterface randomVariable, RandomVariableSimpleInterface result) {
+		deviceContext.getResidencyManager().enterScope();
+		try {
+			if(isDeterministic() && randomVariable.isDeterministic()) {
+				return deterministic(getValue() / randomVariable.getRealizations()[0], result);
+			}
+			return applyBinaryOperation("cuDiv", "divScalar", "vidScalar", randomVariable, result);
+		}
+		finally {
+			deviceContext.getResidencyManager().exitScope();
+		}
+	}
+
+	@Override
+	public RandomVariableSimpleInterface discount(RandomVariableSimpleInterface rate, float periodLength, RandomVariableSimpleInterface result) {
+		deviceContext.getResidencyManager().enterScope();
+		try {
+			if(rate.isDeterministic()) {
+				// Same rounding as the kernel: the discount factor is a float
+				final float discountFactor = 1.0f + rate.getRealizations()[0] * periodLength;
+				return div(new RandomVariableSimpleCuda(deviceContext, discountFactor, precision), result);
+			}
+
+			final RandomVariableSimpleCuda rateOnDevice = getOperandOnDevice(rate);
+			final RandomVariableSimpleCuda target = getTarget(result, rateOnDevice.size());
+			final CUdeviceptr resultPointer;
+			if(isDeterministic()) {
+				resultPointer = rateOnDevice.callCudaFunction("discountScalar" + precision.getKernelSuffix(), precision, target, new Pointer[] {
+						Pointer.to(new long[] { rateOnDevice.size() }),
+						Pointer.to(rateOnDevice.getRealizationsOnDevice()),
+						Pointer.to(new float[] { getValue() }),
+						Pointer.to(new float[] { periodLength }),
+						new Pointer()}
+						);
+			}
+			else {
+				resultPointer = callCudaFunction("cuDiscount" + precision.getKernelSuffix(), precision, target, new Pointer[] {
+						Pointer.to(new long[] { size() }),
+						Pointer.to(getRealizationsOnDevice()),
+						Pointer.to(rateOnDevice.getRealizationsOnDevice()),
+						Pointer.to(new float[] { periodLength }),
+						new Pointer()}
+						);
+			}
+
+			return target != null ? target : new RandomVariableSimpleCuda(deviceContext, resultPointer, rateOnDevice.size(), precision);
+		}
+		finally {
+			deviceContext.getResidencyManager().exitScope();
+		}
+	}
+
+	@Override
+	public RandomVariableSimpleInterface addInPlace(RandomVariableSimpleInterface randomVariable) {
+		return add(randomVariable, this);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface discountInPlace(RandomVariableSimpleInterface rate, float periodLength) {
+		return discount(rate, periodLength, this);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface dot(RandomVariableSimpleInterface randomVariable) {
+		deviceContext.getResidencyManager().enterScope();
+		try {
+			if(isDeterministic() && randomVariable.isDeterministic()) {
+				return new RandomVariableSimpleCuda(deviceContext, getValue() * randomVariable.getRealizations()[0], precision);
+			}
+
+			final long size = !isDeterministic() ? size() : randomVariable.size();
+			final RandomVariableSimpleCuda x = getFloatVector(this, size);
+			final RandomVariableSimpleCuda y = getFloatVector(randomVariable, size);
+			final CUdeviceptr result = deviceContext.allocate(1);
+
+			// Segmented reduction: one partial dot product per segment, then the sum of the partial results (a dot product with ones)
+			final int numberOfSegments = getNumberOfCublasSegments(size);
+			final CUdeviceptr partialResults = numberOfSegments > 1 ? deviceContext.allocate(2L * numberOfSegments) : result;
+			final cublasHandle handle = deviceContext.getCublasHandle();
+			synchronized (handle) {
+				deviceContext.makeCurrent();
+				cublasSetPointerMode(handle, CUBLAS_POINTER_MODE_DEVICE);
+				for(int segment=0; segment<numberOfSegments; segment++) {
+					final long offsetInBytes = (long)segment * MAX_CUBLAS_SEGMENT_SIZE * Sizeof.FLOAT;
+					cublasSdot(handle, getCublasSegmentSize(size, segment), x.getRealizationsOnDevice().withByteOffset(offsetInBytes), 1, y.getRealizationsOnDevice().withByteOffset(offsetInBytes), 1,
+							partialResults.withByteOffset((long)segment * Sizeof.FLOAT));
+				}
+				if(numberOfSegments > 1) {
+					final CUdeviceptr ones = partialResults.withByteOffset((long)numberOfSegments * Sizeof.FLOAT);
+					cuMemsetD32(ones, Float.floatToRawIntBits(1.0f), numberOfSegments);
+					cublasSdot(handle, numberOfSegments, partialResults, 1, ones, 1, result);
+				}
+			}
+			if(numberOfSegments > 1) {
+				deviceContext.free(partialResults);
+			}
+
+			return new RandomVariableSimpleCuda(deviceContext, precision, result);
+		}
+		finally {
+			deviceContext.getResidencyManager().exitScope();
+		}
+	}
+
+	@Override
+	public RandomVariableSimpleInterface addProductInPlace(RandomVariableSimpleInterface randomVariable, RandomVariableSimpleInterface factor) {
+		deviceContext.getResidencyManager().enterScope();
+		try {
+			if(!factor.isDeterministic() || randomVariable.isDeterministic() || precision != StoragePrecision.FLOAT32) {
+				return addInPlace(randomVariable.mult(factor));
+			}
+
+			final RandomVariableSimpleCuda target = getTarget(this, size());
+			final RandomVariableSimpleCuda x = getFloatVector(randomVariable, size());
+			callCublasWithScalar(factor, (handle, alpha) -> {
+				for(int segment=0; segment<getNumberOfCublasSegments(size()); segment++) {
+					final long offsetInBytes = (long)segment * MAX_CUBLAS_SEGMENT_SIZE * Sizeof.FLOAT;
+					cublasSaxpy(handle, getCublasSegmentSize(size(), segment), alpha, x.getRealizationsOnDevice().withByteOffset(offsetInBytes), 1, target.getRealizationsOnDevice().withByteOffset(offsetInBytes), 1);
+				}
+			});
+			return this;
+		}
+		finally {
+			deviceContext.getResidencyManager().exitScope();
+		}
+	}
+
+	@Override
+	public RandomVariableSimpleInterface multInPlace(RandomVariableSimpleInterface factor) {
+		deviceContext.getResidencyManager().enterScope();
+		try {
+			if(!factor.isDeterministic() || precision != StoragePrecision.FLOAT32) {
+				return mult(factor, this);
+			}
+
+			final RandomVariableSimpleCuda target = getTarget(this, size());
+			callCublasWithScalar(factor, (handle, alpha) -> {
+				for(int segment=0; segment<getNumberOfCublasSegments(size()); segment++) {
+					final long offsetInBytes = (long)segment * MAX_CUBLAS_SEGMENT_SIZE * Sizeof.FLOAT;
+					cublasSscal(handle, getCublasSegmentSize(size(), segment), alpha, target.getRealizationsOnDevice().withByteOffset(offsetInBytes), 1);
+				}
+			});
+			return this;
+		}
+		finally {
+			deviceContext.getResidencyManager().exitScope();
+		}
+	}
+
+	@Override
+	public RandomVariableSimpleInterface setReadOnly() {
+		isReadOnly = true;
+		return this;
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return isReadOnly;
+	}
+
+	private static int getNumberOfCublasSegments(long size) {
+		return (int)((size + MAX_CUBLAS_SEGMENT_SIZE - 1) / MAX_CUBLAS_SEGMENT_SIZE);
+	}
+
+	private static int getCublasSegmentSize(long size, int segment) {
+		return (int)Math.min(MAX_CUBLAS_SEGMENT_SIZE, size - (long)segment * MAX_CUBLAS_SEGMENT_SIZE);
+	}
+
+	/**
+	 * Call a cuBLAS function taking a scalar argument. A scalar calculated on this device is passed in device pointer mode
+	 * (no host synchronization), otherwise the value is passed in host pointer mode.
+	 *
+	 * @param scalar A deterministic random variable.
+	 * @param function The cuBLAS call, receiving the handle and the pointer to the scalar.
+	 */
+	private void callCublasWithScalar(RandomVariableSimpleInterface scalar, BiConsumer<cublasHandle, Pointer> function) {
+		final RandomVariableSimpleCuda scalarOnDevice = scalar instanceof RandomVariableSimpleCuda && ((RandomVariableSimpleCuda)scalar).deviceContext == deviceContext
+				&& ((RandomVariableSimpleCuda)scalar).valueOnDevice != null ? (RandomVariableSimpleCuda)scalar : null;
+		final Pointer alpha = scalarOnDevice != null ? scalarOnDevice.valueOnDevice : Pointer.to(new float[] { scalar.getRealizations()[0] });
+
+		final cublasHandle handle = deviceContext.getCublasHandle();
+		synchronized (handle) {
+			deviceContext.makeCurrent();
+			cublasSetPointerMode(handle, scalarOnDevice != null ? CUBLAS_POINTER_MODE_DEVICE : CUBLAS_POINTER_MODE_HOST);
+			function.accept(handle, alpha);
+		}
+	}
+
+	/**
+	 * Get the given random variable as a (stochastic) float vector of the given size on this device, as required by the cuBLAS functions.
+	 * A deterministic random variable is expanded to a vector.
+	 */
+	private RandomVariableSimpleCuda getFloatVector(RandomVariableSimpleInterface randomVariable, long size) {
+		final RandomVariableSimpleCuda vector = ((RandomVariableSimpleCuda)randomVariable).migrateTo(deviceContext);
+		if(vector.isDeterministic()) {
+			final RandomVariableSimpleCuda expanded = new RandomVariableSimpleCuda(deviceContext, deviceContext.allocate(size), size, StoragePrecision.FLOAT32);
+			deviceContext.makeCurrent();
+			cuMemsetD32(expanded.getRealizationsOnDevice(), Float.floatToRawIntBits(vector.getValue()), size);
+			return expanded;
+		}
+		if(vector.size() != size) {
+			throw new IllegalArgumentException("The random variables have to have the same size.");
+		}
+		return vector.toPrecision(StoragePrecision.FLOAT32);
+	}
+
+	/**
+	 * Copy the given random variables to the columns of a column-major <i>numberOfPaths &times; n</i> float matrix on the given device.
+	 * Deterministic random variables are expanded to constant columns.
+	 *
+	 * @param deviceContext The device holding the matrix.
+	 * @param columns The random variables (Cuda random variables, stochastic ones of size <code>numberOfPaths</code>).
+	 * @param numberOfPaths The number of rows.
+	 * @return Newly allocated device memory holding the matrix.
+	 */
+	static CUdeviceptr getColumnMajorMatrix(CudaDeviceContext deviceContext, RandomVariableSimpleInterface[] columns, long numberOfPaths) {
+		return getColumnMajorMatrix(deviceContext, columns, numberOfPaths, 0, numberOfPaths);
+	}
+
+	/**
+	 * Copy the paths <code>firstPath</code>, ..., <code>firstPath + numberOfRows - 1</code> of the given random variables to the columns
+	 * of a column-major <i>numberOfRows &times; n</i> float matrix on the given device (a segment of the matrix of all paths).
+	 *
+	 * @param deviceContext The device holding the matrix.
+	 * @param columns The random variables (Cuda random variables, stochastic ones of size <code>numberOfPaths</code>).
+	 * @param numberOfPaths The number of paths.
+	 * @param firstPath The first path (row) of the segment.
+	 * @param numberOfRows The number of rows of the segment.
+	 * @return Newly allocated device memory holding the matrix.
+	 */
+	static CUdeviceptr getColumnMajorMatrix(CudaDeviceContext deviceContext, RandomVariableSimpleInterface[] columns, long numberOfPaths, long firstPath, long numberOfRows) {
+		deviceContext.getResidencyManager().enterScope();
+		try {
+			final long columnSizeInBytes = numberOfRows * Sizeof.FLOAT;
+			final CUdeviceptr matrix = deviceContext.allocate(numberOfRows * columns.length);
+			deviceContext.makeCurrent();
+			for(int j=0; j<columns.length; j++) {
+				final CUdeviceptr target = matrix.withByteOffset(j * columnSizeInBytes);
+				if(columns[j].isDeterministic()) {
+					cuMemsetD32(target, Float.floatToRawIntBits(columns[j].getRealizations()[0]), numberOfRows);
+				}
+				else {
+					if(columns[j].size() != numberOfPaths) {
+						deviceContext.free(matrix);
+						throw new IllegalArgumentException("All random variables have to have the same size.");
+					}
+					final RandomVariableSimpleCuda column = ((RandomVariableSimpleCuda)columns[j]).migrateTo(deviceContext).toPrecision(StoragePrecision.FLOAT32);
+					deviceContext.makeCurrent();
+					cuMemcpyDtoD(target, column.getRealizationsOnDevice().withByteOffset(firstPath * Sizeof.FLOAT), columnSizeInBytes);
+				}
+			}
+			return matrix;
+		}
+		finally {
+			deviceContext.getResidencyManager().exitScope();
+		}
+	}
+
+	/**
+	 * Return a deterministic value, either as new deterministic random variable or written to all realizations of the given result.
+	 */
+	private RandomVariableSimpleInterface deterministic(float value, RandomVariableSimpleInterface result) {
+		if(result == null) {
+			return new RandomVariableSimpleCuda(deviceContext, value, precision);
+		}
+
+		final RandomVariableSimpleCuda target = getTarget(result, result.size());
+		target.callCudaFunction("setScalar" + precision.getKernelSuffix(), precision, target, new Pointer[] {
+				Pointer.to(new long[] { target.size() }),
+				Pointer.to(target.getRealizationsOnDevice()),
+				Pointer.to(new float[] { value }),
 				new Pointer()}
 				);
-
-		return new RandomVariableSimpleCuda(result, size());
+		return target;
 	}
 
-	private CUdeviceptr callCudaFunction(CUfunction function, Pointer[] arguments) {
-		// Allocate device output memory
-		CUdeviceptr result = getCUdeviceptr((long)size());
-		arguments[arguments.length-1] = Pointer.to(result);
+	/**
+	 * Apply a binary operation where at least one of the operands is stochastic.
+	 *
+	 * @param functionName The kernel operating on two vectors, <code>result[i] = a[i] op b[i]</code>.
+	 * @param scalarFunctionName The kernel operating on a vector and a scalar, <code>result[i] = a[i] op b</code>.
+	 * @param reverseScalarFunctionName The kernel operating on a scalar and a vector, <code>result[i] = b op a[i]</code>.
+	 * @param randomVariable The second operand.
+	 * @param result The random variable receiving the result or null if a new random variable should be created.
+	 * @return The result.
+	 */
+	private RandomVariableSimpleInterface applyBinaryOperation(String functionName, String scalarFunctionName, String reverseScalarFunctionName, RandomVariableSimpleInterface randomVariable, RandomVariableSimpleInterface result) {
+		final RandomVariableSimpleCuda vector;
+		final Pointer operand;
+		final String kernelName;
+		if(isDeterministic()) {
+			vector = getOperandOnDevice(randomVariable);
+			operand = Pointer.to(new float[] { getValue() });
+			kernelName = reverseScalarFunctionName;
+		}
+		else if(randomVariable.isDeterministic()) {
+			vector = this;
+			operand = Pointer.to(new float[] { randomVariable.getRealizations()[0] });
+			kernelName = scalarFunctionName;
+		}
+		else {
+			vector = this;
+			operand = Pointer.to(getOperandOnDevice(randomVariable).getRealizationsOnDevice());
+			kernelName = functionName;
+		}
 
-		// Set up the kernel parameters: A pointer to an array
-		// of pointers which point to the actual values.
-		Pointer kernelParameters = Pointer.to(arguments);
-
-		// Call the kernel function.
-		int blockSizeX = 256;
-		int gridSizeX = (int)Math.ceil((double)size() / blockSizeX);
-		cuLaunchKernel(function,
-				gridSizeX,  1, 1,      // Grid dimension
-				blockSizeX, 1, 1,      // Block dimension
-				0, null,               // Shared memory size and stream
-				kernelParameters, null // Kernel- and extra parameters
+		final RandomVariableSimpleCuda target = getTarget(result, vector.size());
+		CUdeviceptr resultPointer = vector.callCudaFunction(kernelName + precision.getKernelSuffix(), precision, target, new Pointer[] {
+				Pointer.to(new long[] { vector.size() }),
+				Pointer.to(vector.getRealizationsOnDevice()),
+				operand,
+				new Pointer()}
 				);
-		cuCtxSynchronize();
-		return result;
+
+		return target != null ? target : new RandomVariableSimpleCuda(deviceContext, resultPointer, vector.size(), precision);
+	}
+
+	/**
+	 * Get the operand as random variable on the device and in the storage precision of this random variable,
+	 * migrating and converting it if required.
+	 */
+	private RandomVariableSimpleCuda getOperandOnDevice(RandomVariableSimpleInterface randomVariable) {
+		return ((RandomVariableSimpleCuda)randomVariable).migrateTo(deviceContext).toPrecision(precision);
 	}
 
 	/**
-	 * The extension of the given file name is replaced with "ptx".
-	 * If the file with the resulting name does not exist, it is
-	 * compiled from the given file using NVCC. The name of the
-	 * PTX file is returned.
+	 * Check that the given random variable can receive the result of an operation of this random variable.
 	 *
-	 * @param cuFileName The name of the .CU file
-	 * @return The name of the PTX file
-	 * @throws IOException If an I/O error occurs
+	 * @param result The random variable receiving the result (may be null).
+	 * @param size The size of the result.
+	 * @return The result as <code>RandomVariableSimpleCuda</code> or null if result is null.
 	 */
-	private static String preparePtxFile(String cuFileName) throws IOException
-	{
-		int endIndex = cuFileName.lastIndexOf('.');
-		if (endIndex == -1)
-		{
-			endIndex = cuFileName.length()-1;
-		}
-		String ptxFileName = cuFileName.substring(0, endIndex+1)+"ptx";
-		File ptxFile = new File(ptxFileName);
-		if (ptxFile.exists())
-		{
-			return ptxFileName;
-		}
-
-		File cuFile = new File(cuFileName);
-		if (!cuFile.exists())
-		{
-			throw new IOException("Input file not found: "+cuFileName);
-		}
-		String modelString = "-m"+System.getProperty("sun.arch.data.model");
-		String command =
-				"nvcc " + modelString + " -ptx "+
-						cuFile.getPath()+" -o "+ptxFileName;
-
-		System.out.println("Executing\n"+command);
-		Process process = Runtime.getRuntime().exec(command);
-
-		String errorMessage =
-				new String(toByteArray(process.getErrorStream()));
-		String outputMessage =
-				new String(toByteArray(process.getInputStream()));
-		int exitValue = 0;
-		try
-		{
-			exitValue = process.waitFor();
-		}
-		catch (InterruptedException e)
-		{
-			Thread.currentThread().interrupt();
-			throw new IOException(
-					"Interrupted while waiting for nvcc output", e);
-		}
-
-		if (exitValue != 0)
-		{
-			System.out.println("nvcc process exitValue "+exitValue);
-			System.out.println("errorMessage:\n"+errorMessage);
-			System.out.println("outputMessage:\n"+outputMessage);
-			throw new IOException(
-					"Could not create .ptx file: "+errorMessage);
-		}
-
-		System.out.println("Finished creating PTX file");
-		return ptxFileName;
+	private RandomVariableSimpleCuda getTarget(RandomVariableSimpleInterface result, long size) {
+		if(result == null) {
+			return null;
+		}
+		if(!(result instanceof RandomVariableSimpleCuda) || result.isDeterministic() || result.size() != size
+				|| ((RandomVariableSimpleCuda)result).deviceContext != deviceContext || ((RandomVariableSimpleCuda)result).precision != precision) {
+			throw new IllegalArgumentException("The result has to be a stochastic random variable of size " + size + " on " + deviceContext + " with storage precision " + precision + ".");
+		}
+		if(result.isReadOnly()) {
+			throw new UnsupportedOperationException("The result is read-only.");
+		}
+		return (RandomVariableSimpleCuda)result;
+	}
+
+	private CUdeviceptr callCudaFunction(String functionName, StoragePrecision resultPrecision, Pointer[] arguments) {
+		return callCudaFunction(functionName, resultPrecision, null, arguments);
 	}
 
 	/**
-	 * Fully reads the given InputStream and returns it as a byte array
+	 * Launch a kernel over the realizations of this random variable. The last argument of the kernel is the result vector.
 	 *
-	 * @param inputStream The input stream to read
-	 * @return The byte array containing the data from the input stream
-	 * @throws IOException If an I/O error occurs
+	 * @param functionName The name of the kernel.
+	 * @param resultPrecision The storage precision of the result.
+	 * @param target The random variable receiving the result or null if a new device vector should be allocated.
+	 * @param arguments The kernel arguments (the last one is replaced by the pointer to the result).
+	 * @return The device vector holding the result.
 	 */
-	private static byte[] toByteArray(InputStream inputStream)
-			throws IOException
-			{
-		ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		byte buffer[] = new byte[8192];
-		while (true)
-		{
-			int read = inputStream.read(buffer);
-			if (read == -1)
-			{
-				break;
+	private CUdeviceptr callCudaFunction(String functionName, StoragePrecision resultPrecision, RandomVariableSimpleCuda target, Pointer[] arguments) {
+		// Allocate device output memory (if required)
+		CUdeviceptr result = target != null ? target.getRealizationsOnDevice() : deviceContext.allocateBytes(size() * resultPrecision.getBytesPerElement());
+		arguments[arguments.length-1] = Pointer.to(result);
+
+		deviceContext.launch(cuFileName, functionName, size(), arguments);
+		return result;
+	}
+
+	/**
+	 * The realizations as resident of the {@link ResidencyManager} of the device. If spilled, the realizations are held in pinned
+	 * host memory or, if pinned memory is not available (or not requested), in a memory mapped temporary file.
+	 *
+	 * The residency does not reference its random variable (the residency manager holds the residency until it is released).
+	 */
+	private static class Residency implements ResidencyManager.Resident {
+
+		private final CudaDeviceContext deviceContext;
+		private final long sizeInBytes;
+
+		// The realizations on the device (null if spilled or released)
+		private CUdeviceptr realizations;
+
+		// The realizations spilled to the host (at most one is not null)
+		private Pointer pinnedHostMemory;
+		private ByteBuffer[] mappedHostMemory;
+
+		private Residency(CudaDeviceContext deviceContext, CUdeviceptr realizations, long sizeInBytes) {
+			this.deviceContext = deviceContext;
+			this.realizations = realizations;
+			this.sizeInBytes = sizeInBytes;
+		}
+
+		@Override
+		public long getSizeInBytes() {
+			return sizeInBytes;
+		}
+
+		@Override
+		public void spill(SpillStorage storage) {
+			if(storage == SpillStorage.PINNED_HOST) {
+				final Pointer hostMemory = new Pointer();
+				try {
+					deviceContext.makeCurrent();
+					cuMemAllocHost(hostMemory, sizeInBytes);
+					pinnedHostMemory = hostMemory;
+				}
+				catch(final CudaException e) {
+					logger.fine(() -> "Pinned host memory not available (" + e.getMessage() + "), spilling to a memory mapped file.");
+				}
+			}
+			if(pinnedHostMemory != null) {
+				deviceContext.copyToHost(pinnedHostMemory, realizations, sizeInBytes);
+			}
+			else {
+				mappedHostMemory = ResidencyManager.mapTemporaryFile(sizeInBytes);
+				long offset = 0;
+				for(final ByteBuffer buffer : mappedHostMemory) {
+					deviceContext.copyToHost(Pointer.to(buffer), realizations.withByteOffset(offset), buffer.capacity());
+					offset += buffer.capacity();
+				}
 			}
-			baos.write(buffer, 0, read);
+			deviceContext.free(realizations);
+			realizations = null;
 		}
-		return baos.toByteArray();
+
+		@Override
+		public void restore() {
+			final CUdeviceptr restored = deviceContext.allocateBytes(sizeInBytes);
+			if(pinnedHostMemory != null) {
+				deviceContext.copyToDevice(restored, pinnedHostMemory, sizeInBytes);
+			}
+			else {
+				long offset = 0;
+				for(final ByteBuffer buffer : mappedHostMemory) {
+					deviceContext.copyToDevice(restored.withByteOffset(offset), Pointer.to(buffer), buffer.capacity());
+					offset += buffer.capacity();
+				}
 			}
+			releaseHostMemory();
+			realizations = restored;
+		}
 
+		/*
+		 * Release the device or host memory (after the residency has been unregistered).
+		 */
+		private void release() {
+			if(realizations != null) {
+				deviceContext.free(realizations);
+				realizations = null;
+			}
+			releaseHostMemory();
+		}
+
+		private void releaseHostMemory() {
+			if(pinnedHostMemory != null) {
+				deviceContext.makeCurrent();
+				cuMemFreeHost(pinnedHostMemory);
+				pinnedHostMemory = null;
+			}
+			mappedHostMemory = null;
+		}
+
+		@Override
+		public String toString() {
+			return "Residency [realizations=" + realizations + ", sizeInBytes=" + sizeInBytes + "]";
+		}
+	}
 }
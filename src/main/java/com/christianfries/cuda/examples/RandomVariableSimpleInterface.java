@@ -8,12 +8,169 @@ package com.christianfries.cuda.examples;
 
 public interface RandomVariableSimpleInterface {
 
+	/**
+	 * @return The number of realizations (1 for a deterministic random variable).
+	 */
 	long size();
 
+	/**
+	 * @return True if the random variable is deterministic, i.e., represented by a single scalar value.
+	 */
+	boolean isDeterministic();
+
 	float[] getRealizations();
 
+	/**
+	 * Get a part of the realizations. Allows to transfer a vector exceeding the maximum size of a Java array in chunks.
+	 *
+	 * @param offset The index of the first realization.
+	 * @param length The number of realizations.
+	 * @return The realizations <code>offset</code>, ..., <code>offset + length - 1</code> (an array of length <code>length</code>, for a deterministic random variable filled with its value).
+	 */
+	float[] getRealizations(long offset, int length);
+
+	/**
+	 * Get the realizations in chunks (consecutive arrays), see {@link #getRealizations(long, int)}.
+	 *
+	 * @param chunkSize The maximum number of realizations of a chunk.
+	 * @return The realizations, split into arrays of length <code>chunkSize</code> (the last one may be shorter).
+	 */
+	default float[][] getRealizationsInChunks(int chunkSize) {
+		final int numberOfChunks = (int)((size() + chunkSize - 1) / chunkSize);
+		final float[][] chunks = new float[numberOfChunks][];
+		for(int k=0; k<numberOfChunks; k++) {
+			final long offset = (long)k * chunkSize;
+			chunks[k] = getRealizations(offset, (int)Math.min(chunkSize, size() - offset));
+		}
+		return chunks;
+	}
+
 	RandomVariableSimpleInterface add(RandomVariableSimpleInterface randomVariable);
 
+	RandomVariableSimpleInterface mult(RandomVariableSimpleInterface randomVariable);
+
 	RandomVariableSimpleInterface div(RandomVariableSimpleInterface randomVariable);
 
+	/**
+	 * @return The random variable <code>exp(this)</code>.
+	 */
+	RandomVariableSimpleInterface exp();
+
+	/**
+	 * Calculate <code>this / (1 + rate * periodLength)</code>.
+	 *
+	 * @param rate The rate.
+	 * @param periodLength The period length.
+	 * @return The discounted random variable.
+	 */
+	RandomVariableSimpleInterface discount(RandomVariableSimpleInterface rate, float periodLength);
+
+	/*
+	 * Operations writing to an existing (stochastic) random variable, avoiding the allocation of a new result.
+	 * These operations mutate the target, which must not be referenced elsewhere.
+	 */
+
+	/**
+	 * Calculate <code>this + randomVariable</code> and store the result in <code>result</code>.
+	 *
+	 * @param randomVariable The operand.
+	 * @param result A stochastic random variable of the same size (and device) receiving the result (may be this or the operand).
+	 * @return The random variable <code>result</code>.
+	 */
+	RandomVariableSimpleInterface add(RandomVariableSimpleInterface randomVariable, RandomVariableSimpleInterface result);
+
+	/**
+	 * Calculate <code>this * randomVariable</code> and store the result in <code>result</code>.
+	 *
+	 * @param randomVariable The operand.
+	 * @param result A stochastic random variable of the same size (and device) receiving the result (may be this or the operand).
+	 * @return The random variable <code>result</code>.
+	 */
+	RandomVariableSimpleInterface mult(RandomVariableSimpleInterface randomVariable, RandomVariableSimpleInterface result);
+
+	/**
+	 * Calculate <code>this / randomVariable</code> and store the result in <code>result</code>.
+	 *
+	 * @param randomVariable The operand.
+	 * @param result A stochastic random variable of the same size (and device) receiving the result (may be this or the operand).
+	 * @return The random variable <code>result</code>.
+	 */
+	RandomVariableSimpleInterface div(RandomVariableSimpleInterface randomVariable, RandomVariableSimpleInterface result);
+
+	/**
+	 * Calculate <code>this / (1 + rate * periodLength)</code> and store the result in <code>result</code>.
+	 *
+	 * @param rate The rate.
+	 * @param periodLength The period length.
+	 * @param result A stochastic random variable of the same size (and device) receiving the result (may be this or the rate).
+	 * @return The random variable <code>result</code>.
+	 */
+	RandomVariableSimpleInterface discount(RandomVariableSimpleInterface rate, float periodLength, RandomVariableSimpleInterface result);
+
+	/**
+	 * Add the given random variable to this (stochastic) random variable.
+	 *
+	 * @param randomVariable The operand.
+	 * @return This random variable.
+	 */
+	RandomVariableSimpleInterface addInPlace(RandomVariableSimpleInterface randomVariable);
+
+	/**
+	 * Discount this (stochastic) random variable, i.e., divide it by <code>(1 + rate * periodLength)</code>.
+	 *
+	 * @param rate The rate.
+	 * @param periodLength The period length.
+	 * @return This random variable.
+	 */
+	RandomVariableSimpleInterface discountInPlace(RandomVariableSimpleInterface rate, float periodLength);
+
+	/*
+	 * Linear algebra operations (BLAS level 1) on the vector of realizations.
+	 */
+
+	/**
+	 * Calculate the scalar product <code>sum_i this[i] * randomVariable[i]</code> of the vectors of realizations.
+	 *
+	 * The result is a deterministic random variable. Its value may stay on the device (until it is requested on the host),
+	 * such that it can be passed to subsequent operations without synchronization.
+	 *
+	 * The precision and the order of the accumulation are implementation specific (e.g. float for Cuda, double for Java),
+	 * hence, unlike the element-wise operations, the results of different implementations may differ by rounding.
+	 *
+	 * @param randomVariable The operand.
+	 * @return The scalar product as deterministic random variable.
+	 */
+	RandomVariableSimpleInterface dot(RandomVariableSimpleInterface randomVariable);
+
+	/**
+	 * Add the product <code>randomVariable * factor</code> to this (stochastic) random variable (<code>axpy</code> if the factor is deterministic).
+	 *
+	 * @param randomVariable The operand.
+	 * @param factor The factor.
+	 * @return This random variable.
+	 */
+	RandomVariableSimpleInterface addProductInPlace(RandomVariableSimpleInterface randomVariable, RandomVariableSimpleInterface factor);
+
+	/**
+	 * Multiply this (stochastic) random variable by the given factor (<code>scal</code> if the factor is deterministic).
+	 *
+	 * @param factor The factor.
+	 * @return This random variable.
+	 */
+	RandomVariableSimpleInterface multInPlace(RandomVariableSimpleInterface factor);
+
+	/**
+	 * Mark this random variable as read-only, e.g., because it is shared by a cache. The in-place operations and the operations
+	 * taking it as <code>result</code> argument then throw an {@link UnsupportedOperationException}. A read-only random variable
+	 * cannot be made writable again.
+	 *
+	 * @return This random variable.
+	 */
+	RandomVariableSimpleInterface setReadOnly();
+
+	/**
+	 * @return True if this random variable is read-only, see {@link #setReadOnly()}.
+	 */
+	boolean isReadOnly();
+
 }
@@ -0,0 +1,300 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+import java.util.Arrays;
+
+/**
+ * The class RandomVariableSimpleJava represents a random variable being the evaluation of a stochastic process
+ * at a certain time within a Monte-Carlo simulation.
+ *
+ * This is the Java (CPU) implementation of <code>RandomVariableSimpleInterface</code>, with the
+ * same numerics as <code>RandomVariableSimpleCuda</code> for the element-wise operations (float realizations, float arithmetic).
+ * The reduction <code>dot</code> differs: it accumulates in double precision, while cuBLAS accumulates in float
+ * (in a different order), hence the results may differ in the last bits (more for long vectors).
+ * It does not require a GPU and may be used as fall back and for testing.
+ *
+ * A deterministic random variable is represented by a single value (no array is allocated).
+ * Operations with a deterministic operand use the scalar directly.
+ *
+ * Operations create new random variables, except for the in-place operations and the operations
+ * taking a <code>result</code> argument, which write to the realizations of an existing random variable.
+ *
+ * @author Christian Fries
+ */
+public class RandomVariableSimpleJava implements RandomVariableSimpleInterface {
+
+	// Either the realizations or (if null) the value of a deterministic random variable
+	private final float[] realizations;
+	private final float valueIfNonStochastic;
+
+	private volatile boolean isReadOnly;
+
+	/**
+	 * Create a stochastic random variable.
+	 *
+	 * @param realisations the vector of realizations (the array is not copied, it is modified by the in-place operations only).
+	 */
+	public RandomVariableSimpleJava(float[] realisations) {
+		super();
+		this.realizations = realisations;
+		this.valueIfNonStochastic = Float.NaN;
+	}
+
+	/**
+	 * Create a deterministic random variable.
+	 *
+	 * @param value the value.
+	 */
+	public RandomVariableSimpleJava(float value) {
+		super();
+		this.realizations = null;
+		this.valueIfNonStochastic = value;
+	}
+
+	@Override
+	public long size() {
+		return isDeterministic() ? 1 : realizations.length;
+	}
+
+	@Override
+	public boolean isDeterministic() {
+		return realizations == null;
+	}
+
+	@Override
+	public float[] getRealizations() {
+		return isDeterministic() ? new float[] { valueIfNonStochastic } : realizations.clone();
+	}
+
+	@Override
+	public float[] getRealizations(long offset, int length) {
+		if(offset < 0 || length < 0 || offset + length > size()) {
+			throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length) + ") out of bounds for size " + size() + ".");
+		}
+		if(isDeterministic()) {
+			final float[] values = new float[length];
+			Arrays.fill(values, valueIfNonStochastic);
+			return values;
+		}
+		return Arrays.copyOfRange(realizations, (int)offset, (int)offset + length);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface add(RandomVariableSimpleInterface randomVariable) {
+		return apply((a, b) -> a + b, randomVariable, null);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface mult(RandomVariableSimpleInterface randomVariable) {
+		return apply((a, b) -> a * b, randomVariable, null);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface div(RandomVariableSimpleInterface randomVariable) {
+		return apply((a, b) -> a / b, randomVariable, null);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface exp() {
+		if(isDeterministic()) {
+			return new RandomVariableSimpleJava((float)Math.exp(valueIfNonStochastic));
+		}
+		final float[] result = new float[realizations.length];
+		for(int i=0; i<result.length; i++) {
+			result[i] = (float)Math.exp(realizations[i]);
+		}
+		return new RandomVariableSimpleJava(result);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface discount(RandomVariableSimpleInterface rate, float periodLength) {
+		return apply((a, r) -> a / (1.0f + r * periodLength), rate, null);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface add(RandomVariableSimpleInterface randomVariable, RandomVariableSimpleInterface result) {
+		return apply((a, b) -> a + b, randomVariable, result);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface mult(RandomVariableSimpleInterface randomVariable, RandomVariableSimpleInterface result) {
+		return apply((a, b) -> a * b, randomVariable, result);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface div(RandomVariableSimpleInterface randomVariable, RandomVariableSimpleInterface result) {
+		return apply((a, b) -> a / b, randomVariable, result);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface discount(RandomVariableSimpleInterface rate, float periodLength, RandomVariableSimpleInterface result) {
+		return apply((a, r) -> a / (1.0f + r * periodLength), rate, result);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface addInPlace(RandomVariableSimpleInterface randomVariable) {
+		return add(randomVariable, this);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface discountInPlace(RandomVariableSimpleInterface rate, float periodLength) {
+		return discount(rate, periodLength, this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The products are accumulated in double precision and the sum is rounded to float once, hence the result may differ
+	 * from <code>RandomVariableSimpleCuda</code> (which accumulates in float).
+	 */
+	@Override
+	public RandomVariableSimpleInterface dot(RandomVariableSimpleInterface randomVariable) {
+		if(isDeterministic() && randomVariable.isDeterministic()) {
+			return new RandomVariableSimpleJava(valueIfNonStochastic * getValueOf(randomVariable));
+		}
+
+		double sum = 0.0;
+		if(isDeterministic() || randomVariable.isDeterministic()) {
+			final float[] vector = isDeterministic() ? getRealizationsOf(randomVariable) : realizations;
+			for(final float value : vector) {
+				sum += value;
+			}
+			sum *= isDeterministic() ? valueIfNonStochastic : getValueOf(randomVariable);
+		}
+		else {
+			final float[] other = getRealizationsOf(randomVariable);
+			if(other.length != realizations.length) {
+				throw new IllegalArgumentException("The random variables have to have the same size.");
+			}
+			for(int i=0; i<realizations.length; i++) {
+				sum += (double)realizations[i] * other[i];
+			}
+		}
+		return new RandomVariableSimpleJava((float)sum);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * For a deterministic factor, each realization is updated by a fused multiply-add (as <code>cublasSaxpy</code>).
+	 */
+	@Override
+	public RandomVariableSimpleInterface addProductInPlace(RandomVariableSimpleInterface randomVariable, RandomVariableSimpleInterface factor) {
+		if(!factor.isDeterministic()) {
+			return addInPlace(randomVariable.mult(factor));
+		}
+
+		final float[] target = getTargetRealizationsOf(this, (int)size());
+		final float alpha = getValueOf(factor);
+		if(randomVariable.isDeterministic()) {
+			final float product = alpha * getValueOf(randomVariable);
+			for(int i=0; i<target.length; i++) {
+				target[i] += product;
+			}
+		}
+		else {
+			final float[] other = getRealizationsOf(randomVariable);
+			if(other.length != target.length) {
+				throw new IllegalArgumentException("The random variables have to have the same size.");
+			}
+			for(int i=0; i<target.length; i++) {
+				target[i] = Math.fma(alpha, other[i], target[i]);
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public RandomVariableSimpleInterface multInPlace(RandomVariableSimpleInterface factor) {
+		return mult(factor, this);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface setReadOnly() {
+		isReadOnly = true;
+		return this;
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return isReadOnly;
+	}
+
+	private interface FloatBinaryOperator {
+		float applyAsFloat(float left, float right);
+	}
+
+	/**
+	 * Apply an element-wise operation.
+	 *
+	 * @param operator The operation.
+	 * @param randomVariable The second operand.
+	 * @param result The random variable receiving the result or null if a new random variable should be created.
+	 * @return The result.
+	 */
+	private RandomVariableSimpleInterface apply(FloatBinaryOperator operator, RandomVariableSimpleInterface randomVariable, RandomVariableSimpleInterface result) {
+		if(isDeterministic() && randomVariable.isDeterministic() && result == null) {
+			return new RandomVariableSimpleJava(operator.applyAsFloat(valueIfNonStochastic, getValueOf(randomVariable)));
+		}
+
+		if(!isDeterministic() && !randomVariable.isDeterministic() && size() != randomVariable.size()) {
+			throw new IllegalArgumentException("The random variables have to have the same size.");
+		}
+
+		final int size = (int)(!isDeterministic() ? size() : !randomVariable.isDeterministic() ? randomVariable.size() : result.size());
+		final float[] target = result == null ? new float[size] : getTargetRealizationsOf(result, size);
+		if(isDeterministic() && randomVariable.isDeterministic()) {
+			Arrays.fill(target, operator.applyAsFloat(valueIfNonStochastic, getValueOf(randomVariable)));
+		}
+		else if(isDeterministic()) {
+			final float[] other = getRealizationsOf(randomVariable);
+			for(int i=0; i<target.length; i++) {
+				target[i] = operator.applyAsFloat(valueIfNonStochastic, other[i]);
+			}
+		}
+		else if(randomVariable.isDeterministic()) {
+			final float other = getValueOf(randomVariable);
+			for(int i=0; i<target.length; i++) {
+				target[i] = operator.applyAsFloat(realizations[i], other);
+			}
+		}
+		else {
+			final float[] other = getRealizationsOf(randomVariable);
+			for(int i=0; i<target.length; i++) {
+				target[i] = operator.applyAsFloat(realizations[i], other[i]);
+			}
+		}
+
+		return result == null ? new RandomVariableSimpleJava(target) : result;
+	}
+
+	private static float[] getTargetRealizationsOf(RandomVariableSimpleInterface result, int size) {
+		if(!(result instanceof RandomVariableSimpleJava) || result.isDeterministic() || result.size() != size) {
+			throw new IllegalArgumentException("The result has to be a stochastic " + RandomVariableSimpleJava.class.getSimpleName() + " of size " + size + ".");
+		}
+		if(result.isReadOnly()) {
+			throw new UnsupportedOperationException("The result is read-only.");
+		}
+		return ((RandomVariableSimpleJava)result).realizations;
+	}
+
+	private static float getValueOf(RandomVariableSimpleInterface randomVariable) {
+		if(randomVariable instanceof RandomVariableSimpleJava) {
+			return ((RandomVariableSimpleJava)randomVariable).valueIfNonStochastic;
+		}
+		return randomVariable.getRealizations()[0];
+	}
+
+	static float[] getRealizationsOf(RandomVariableSimpleInterface randomVariable) {
+		// Avoid the defensive copy for our own class
+		if(randomVariable instanceof RandomVariableSimpleJava) {
+			return ((RandomVariableSimpleJava)randomVariable).realizations;
+		}
+		return randomVariable.getRealizations();
+	}
+}
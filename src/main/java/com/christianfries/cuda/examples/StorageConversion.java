@@ -0,0 +1,161 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+/**
+ * Conversions between float and the 16-bit storage formats of {@link StoragePrecision}.
+ *
+ * The conversions from float round to nearest, ties to even, and are bit-identical to the
+ * conversions performed by the kernels (<code>__float2half_rn</code> and the bfloat16 rounding in
+ * <code>RandomVariableSimpleCudaKernel.cu</code>), such that the Java backend can be used to verify device results.
+ * The conversions are implemented here since <code>Float.floatToFloat16</code> requires Java 20.
+ *
+ * @author Christian Fries
+ */
+public class StorageConversion {
+
+	private StorageConversion() { }
+
+	/**
+	 * Convert a float to IEEE 754 half precision (binary16), rounding to nearest even.
+	 *
+	 * @param value The float value.
+	 * @return The bits of the half precision value.
+	 */
+	public static short floatToFloat16(float value) {
+		final int bits = Float.floatToRawIntBits(value);
+		final int sign = (bits >>> 16) & 0x8000;
+		final int exponent = (bits >>> 23) & 0xFF;
+		int mantissa = bits & 0x7FFFFF;
+
+		if(exponent == 0xFF) {
+			// Infinity or NaN (keep NaN a quiet NaN)
+			return (short)(sign | 0x7C00 | (mantissa != 0 ? 0x200 | (mantissa >>> 13) : 0));
+		}
+
+		final int halfExponent = exponent - 127 + 15;
+		if(halfExponent >= 0x1F) {
+			// Overflow
+			return (short)(sign | 0x7C00);
+		}
+
+		if(halfExponent <= 0) {
+			// Subnormal half (or zero)
+			if(halfExponent < -10) {
+				return (short)sign;
+			}
+			mantissa |= 0x800000;
+			final int shift = 14 - halfExponent;
+			int halfMantissa = mantissa >>> shift;
+			final int halfway = 1 << (shift - 1);
+			final int remainder = mantissa & ((1 << shift) - 1);
+			if(remainder > halfway || (remainder == halfway && (halfMantissa & 1) != 0)) {
+				halfMantissa++;
+			}
+			return (short)(sign | halfMantissa);
+		}
+
+		int result = sign | (halfExponent << 10) | (mantissa >>> 13);
+		final int remainder = mantissa & 0x1FFF;
+		if(remainder > 0x1000 || (remainder == 0x1000 && (result & 1) != 0)) {
+			// A carry into the exponent is correct (and may result in infinity)
+			result++;
+		}
+		return (short)result;
+	}
+
+	/**
+	 * Convert an IEEE 754 half precision value to float (exact).
+	 *
+	 * @param value The bits of the half precision value.
+	 * @return The float value.
+	 */
+	public static float float16ToFloat(short value) {
+		final int bits = value & 0xFFFF;
+		final int sign = (bits & 0x8000) << 16;
+		final int exponent = (bits >>> 10) & 0x1F;
+		final int mantissa = bits & 0x3FF;
+
+		if(exponent == 0x1F) {
+			return Float.intBitsToFloat(sign | 0x7F800000 | (mantissa << 13));
+		}
+		if(exponent == 0) {
+			// Zero or subnormal: mantissa * 2^-24
+			final float magnitude = mantissa * 0x1p-24f;
+			return sign != 0 ? -magnitude : magnitude;
+		}
+		return Float.intBitsToFloat(sign | ((exponent - 15 + 127) << 23) | (mantissa << 13));
+	}
+
+	/**
+	 * Convert a float to bfloat16, rounding to nearest even.
+	 *
+	 * @param value The float value.
+	 * @return The bits of the bfloat16 value.
+	 */
+	public static short floatToBFloat16(float value) {
+		final int bits = Float.floatToRawIntBits(value);
+		if(Float.isNaN(value)) {
+			return (short)((bits >>> 16) | 0x40);
+		}
+		return (short)((bits + 0x7FFF + ((bits >>> 16) & 1)) >>> 16);
+	}
+
+	/**
+	 * Convert a bfloat16 value to float (exact).
+	 *
+	 * @param value The bits of the bfloat16 value.
+	 * @return The float value.
+	 */
+	public static float bfloat16ToFloat(short value) {
+		return Float.intBitsToFloat((value & 0xFFFF) << 16);
+	}
+
+	/**
+	 * Convert a vector of floats to a 16-bit storage format.
+	 *
+	 * @param values The float values.
+	 * @param precision Either <code>FLOAT16</code> or <code>BFLOAT16</code>.
+	 * @return The bits of the 16-bit values.
+	 */
+	public static short[] toShortStorage(float[] values, StoragePrecision precision) {
+		final short[] result = new short[values.length];
+		switch(precision) {
+		case FLOAT16:
+			for(int i=0; i<values.length; i++) result[i] = floatToFloat16(values[i]);
+			break;
+		case BFLOAT16:
+			for(int i=0; i<values.length; i++) result[i] = floatToBFloat16(values[i]);
+			break;
+		default:
+			throw new IllegalArgumentException("Not a 16-bit storage precision: " + precision);
+		}
+		return result;
+	}
+
+	/**
+	 * Convert a vector in a 16-bit storage format to floats.
+	 *
+	 * @param values The bits of the 16-bit values.
+	 * @param precision Either <code>FLOAT16</code> or <code>BFLOAT16</code>.
+	 * @return The float values.
+	 */
+	public static float[] fromShortStorage(short[] values, StoragePrecision precision) {
+		final float[] result = new float[values.length];
+		switch(precision) {
+		case FLOAT16:
+			for(int i=0; i<values.length; i++) result[i] = float16ToFloat(values[i]);
+			break;
+		case BFLOAT16:
+			for(int i=0; i<values.length; i++) result[i] = bfloat16ToFloat(values[i]);
+			break;
+		default:
+			throw new IllegalArgumentException("Not a 16-bit storage precision: " + precision);
+		}
+		return result;
+	}
+}
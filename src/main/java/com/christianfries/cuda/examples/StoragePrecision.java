@@ -0,0 +1,51 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+/**
+ * The precision in which the realizations of a random variable are stored.
+ *
+ * The 16-bit formats are storage formats only: kernels load them, compute in 32-bit float and
+ * round the result back to the storage format. This halves memory footprint and memory traffic
+ * (element-wise operations are bandwidth bound) at the cost of accuracy.
+ * <code>FLOAT64</code> stores and computes in double precision, e.g., for accumulations and reductions
+ * which are sensitive to rounding.
+ *
+ * @author Christian Fries
+ */
+public enum StoragePrecision {
+	FLOAT16("f16", 2),		// IEEE 754 half precision: 11 bit mantissa, range ±65504
+	BFLOAT16("bf16", 2),	// bfloat16: 8 bit mantissa, same range as float
+	FLOAT32("f32", 4),		// IEEE 754 single precision (the default)
+	FLOAT64("f64", 8);		// IEEE 754 double precision
+
+	private final String name;
+	private final int bytesPerElement;
+
+	StoragePrecision(String name, int bytesPerElement) {
+		this.name = name;
+		this.bytesPerElement = bytesPerElement;
+	}
+
+	/**
+	 * @return The short name of the precision, used to name the kernels, e.g., <code>f16</code>.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	public int getBytesPerElement() {
+		return bytesPerElement;
+	}
+
+	/**
+	 * @return The suffix of the kernels operating on this storage precision (the float kernels have no suffix).
+	 */
+	String getKernelSuffix() {
+		return this == FLOAT32 ? "" : "_" + name;
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.montecarlo;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The construction of a Brownian motion on a {@link TimeDiscretization} by bisection (Brownian bridge).
+ *
+ * The first step generates the terminal value <i>W(t<sub>n</sub>)</i>, each following step generates the value at the middle
+ * (by index) of an interval of known values, conditional to these values:
+ * <i>W(t<sub>i</sub>) = w<sub>l</sub> W(t<sub>l</sub>) + w<sub>r</sub> W(t<sub>r</sub>) + &sigma; Z</i>. Step <code>j</code> generates the value at the time index
+ * {@link #getIndex()}<code>[j]</code> from the values at the time indices {@link #getLeftIndex()}<code>[j]</code> and {@link #getRightIndex()}<code>[j]</code>,
+ * where <i>W(t<sub>0</sub>) = 0</i>. The coefficients are float such that the Java and the Cuda construction perform the same operations.
+ *
+ * @author Christian Fries
+ */
+public class BrownianBridge {
+
+	private final TimeDiscretization timeDiscretization;
+
+	private final int[] index;
+	private final int[] leftIndex;
+	private final int[] rightIndex;
+	private final float[] leftWeight;
+	private final float[] rightWeight;
+	private final float[] standardDeviation;
+	private final float[] sqrtTimeSteps;
+
+	public BrownianBridge(final TimeDiscretization timeDiscretization) {
+		super();
+		this.timeDiscretization = timeDiscretization;
+
+		final int numberOfTimeSteps = timeDiscretization.getNumberOfTimeSteps();
+		index = new int[numberOfTimeSteps];
+		leftIndex = new int[numberOfTimeSteps];
+		rightIndex = new int[numberOfTimeSteps];
+		leftWeight = new float[numberOfTimeSteps];
+		rightWeight = new float[numberOfTimeSteps];
+		standardDeviation = new float[numberOfTimeSteps];
+		sqrtTimeSteps = new float[numberOfTimeSteps];
+		if(numberOfTimeSteps == 0) {
+			return;
+		}
+
+		// The terminal value (the right index is irrelevant, its weight is zero)
+		index[0] = numberOfTimeSteps;
+		leftWeight[0] = 1.0f;
+		standardDeviation[0] = (float)Math.sqrt(timeDiscretization.getTime(numberOfTimeSteps) - timeDiscretization.getTime(0));
+
+		// Bisection of the intervals in breadth first order
+		final Deque<int[]> intervals = new ArrayDeque<>();
+		intervals.add(new int[] { 0, numberOfTimeSteps });
+		int step = 1;
+		while(!intervals.isEmpty()) {
+			final int[] interval = intervals.poll();
+			final int left = interval[0];
+			final int right = interval[1];
+			if(right - left < 2) {
+				continue;
+			}
+			final int middle = (left + right) / 2;
+			final double timeLeft = timeDiscretization.getTime(left);
+			final double time = timeDiscretization.getTime(middle);
+			final double timeRight = timeDiscretization.getTime(right);
+			index[step] = middle;
+			leftIndex[step] = left;
+			rightIndex[step] = right;
+			leftWeight[step] = (float)((timeRight - time) / (timeRight - timeLeft));
+			rightWeight[step] = (float)((time - timeLeft) / (timeRight - timeLeft));
+			standardDeviation[step] = (float)Math.sqrt((time - timeLeft) * (timeRight - time) / (timeRight - timeLeft));
+			step++;
+
+			intervals.add(new int[] { left, middle });
+			intervals.add(new int[] { middle, right });
+		}
+
+		for(int i=0; i<numberOfTimeSteps; i++) {
+			sqrtTimeSteps[i] = (float)Math.sqrt(timeDiscretization.getTimeStep(i));
+		}
+	}
+
+	/**
+	 * Construct the Brownian motion of a path and convert it to normalized increments.
+	 *
+	 * @param normals The independent standard normal random numbers, one for each step of the construction.
+	 * @param increments Upon return, <code>increments[i]</code> is the increment of time step <code>i</code> divided by the square root of the time step.
+	 */
+	public void getIncrements(final float[] normals, final float[] increments) {
+		// The value at time index i > 0 is stored in increments[i-1]
+		for(int step=0; step<index.length; step++) {
+			final float valueLeft = leftIndex[step] == 0 ? 0.0f : increments[leftIndex[step]-1];
+			final float valueRight = rightIndex[step] == 0 ? 0.0f : increments[rightIndex[step]-1];
+			increments[index[step]-1] = leftWeight[step] * valueLeft + rightWeight[step] * valueRight + standardDeviation[step] * normals[step];
+		}
+		for(int i=index.length-1; i>=0; i--) {
+			final float valuePrevious = i == 0 ? 0.0f : increments[i-1];
+			increments[i] = (increments[i] - valuePrevious) / sqrtTimeSteps[i];
+		}
+	}
+
+	public TimeDiscretization getTimeDiscretization() {
+		return timeDiscretization;
+	}
+
+	/**
+	 * @return The time index generated by each step.
+	 */
+	public int[] getIndex() {
+		return index.clone();
+	}
+
+	public int[] getLeftIndex() {
+		return leftIndex.clone();
+	}
+
+	public int[] getRightIndex() {
+		return rightIndex.clone();
+	}
+
+	public float[] getLeftWeight() {
+		return leftWeight.clone();
+	}
+
+	public float[] getRightWeight() {
+		return rightWeight.clone();
+	}
+
+	public float[] getStandardDeviation() {
+		return standardDeviation.clone();
+	}
+
+	/**
+	 * @return The square root of each time step.
+	 */
+	public float[] getSqrtTimeSteps() {
+		return sqrtTimeSteps.clone();
+	}
+}
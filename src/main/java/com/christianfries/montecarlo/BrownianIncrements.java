@@ -0,0 +1,67 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.montecarlo;
+
+import com.christianfries.cuda.examples.RandomVariableSimpleInterface;
+
+/**
+ * The (independent, standard normal) increments driving a {@link PathSimulation}, generated with a given {@link SamplingMode}.
+ *
+ * The increment of time step <i>i</i> (from <i>t<sub>i</sub></i> to <i>t<sub>i+1</sub></i>) and factor <i>f</i> of a path is
+ * <i>(W<sub>f</sub>(t<sub>i+1</sub>) - W<sub>f</sub>(t<sub>i</sub>)) / &radic;(t<sub>i+1</sub> - t<sub>i</sub>)</i>. All increments are stored in one
+ * block of memory, the increment of time step <code>i</code>, factor <code>f</code> and path <code>p</code> at
+ * <code>(i * numberOfFactors + f) * numberOfPaths + p</code>, such that the increments of a time step have the layout expected by
+ * the time step kernels (see {@link ProcessModel}). The memory requirement is <i>numberOfTimeSteps &times; numberOfFactors &times; numberOfPaths</i> floats.
+ *
+ * The implementations {@link BrownianIncrementsJava} and {@link BrownianIncrementsCuda} generate the same numbers
+ * (up to the last bit of the inverse normal distribution function), such that device results can be verified on the CPU.
+ *
+ * @author Christian Fries
+ */
+public interface BrownianIncrements {
+
+	/**
+	 * The sampling of the Brownian motion.
+	 */
+	enum SamplingMode {
+		/**
+		 * Independent pseudo random numbers (counter based, i.e., the random number of a path and dimension does not depend on the order of the generation).
+		 */
+		PSEUDO_RANDOM,
+		/**
+		 * Pseudo random numbers, where each odd path uses the negated normals of the preceding even path (antithetic variates).
+		 */
+		ANTITHETIC,
+		/**
+		 * The terminal value of the first factor is stratified (one stratum per path), the path is completed by a Brownian bridge
+		 * from pseudo random numbers.
+		 */
+		STRATIFIED,
+		/**
+		 * A (randomly shifted) Sobol sequence, where the dimensions are assigned in the order of the Brownian bridge, such that the first
+		 * (best distributed) dimensions determine the terminal value and the coarse structure of the paths.
+		 */
+		SOBOL
+	}
+
+	TimeDiscretization getTimeDiscretization();
+
+	int getNumberOfFactors();
+
+	int getNumberOfPaths();
+
+	SamplingMode getSamplingMode();
+
+	/**
+	 * Get the increment of a time step and factor, a standard normal random variable.
+	 *
+	 * @param timeIndex The time step, i.e., the increment from <i>t<sub>timeIndex</sub></i> to <i>t<sub>timeIndex+1</sub></i>.
+	 * @param factor The factor.
+	 * @return The increment, a new random variable (on the device of the implementation).
+	 */
+	RandomVariableSimpleInterface getIncrement(int timeIndex, int factor);
+}
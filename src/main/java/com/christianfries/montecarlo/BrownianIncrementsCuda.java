@@ -0,0 +1,190 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.montecarlo;
+
+import static jcuda.driver.JCudaDriver.cuMemcpyDtoD;
+
+import com.christianfries.cuda.examples.CudaDeviceContext;
+import com.christianfries.cuda.examples.RandomVariableSimpleCuda;
+import com.christianfries.cuda.examples.RandomVariableSimpleInterface;
+
+import jcuda.Pointer;
+import jcuda.Sizeof;
+import jcuda.driver.CUdeviceptr;
+
+/**
+ * The Cuda implementation of {@link BrownianIncrements}. The increments are generated on the device (one thread per path,
+ * kernel <code>BrownianIncrementsKernel.cu</code>) into one device allocation, hence they never cross the bus.
+ * The generator is identical to {@link BrownianIncrementsJava}, which may be used for verification.
+ *
+ * The increments of a time step may be passed to a time step kernel directly (see {@link #getIncrements(int)}).
+ * The device memory is released by {@link #close()}.
+ *
+ * @author Christian Fries
+ */
+public class BrownianIncrementsCuda implements BrownianIncrements, AutoCloseable {
+
+	private static final String cuFileName = "BrownianIncrementsKernel.cu";
+
+	private final CudaDeviceContext deviceContext;
+	private final TimeDiscretization timeDiscretization;
+	private final int numberOfFactors;
+	private final int numberOfPaths;
+	private final long seed;
+	private final SamplingMode samplingMode;
+
+	private CUdeviceptr increments;
+
+	/**
+	 * Generate the increments on the device.
+	 *
+	 * @param deviceContext The device.
+	 * @param timeDiscretization The time discretization.
+	 * @param numberOfFactors The number of factors.
+	 * @param numberOfPaths The number of paths.
+	 * @param seed The seed.
+	 * @param samplingMode The sampling mode.
+	 * @param sobolSequence The Sobol sequence of dimension <code>numberOfTimeSteps * numberOfFactors</code> (required for {@link BrownianIncrements.SamplingMode#SOBOL} only).
+	 */
+	public BrownianIncrementsCuda(final CudaDeviceContext deviceContext, final TimeDiscretization timeDiscretization, final int numberOfFactors, final int numberOfPaths, final long seed,
+			final SamplingMode samplingMode, final SobolSequence sobolSequence) {
+		super();
+		this.deviceContext = deviceContext;
+		this.timeDiscretization = timeDiscretization;
+		this.numberOfFactors = numberOfFactors;
+		this.numberOfPaths = numberOfPaths;
+		this.seed = seed;
+		this.samplingMode = samplingMode;
+
+		final int numberOfTimeSteps = timeDiscretization.getNumberOfTimeSteps();
+		final int dimension = numberOfTimeSteps * numberOfFactors;
+		if(samplingMode == SamplingMode.SOBOL && sobolSequence.getDimension() < dimension) {
+			throw new IllegalArgumentException("The Sobol sequence requires dimension " + dimension + ", got " + sobolSequence.getDimension() + ".");
+		}
+
+		final BrownianBridge brownianBridge = new BrownianBridge(timeDiscretization);
+		final int[] directionNumbersOnHost = samplingMode == SamplingMode.SOBOL ? sobolSequence.getDirectionNumbers() : new int[SobolSequence.BITS];
+
+		final CUdeviceptr directionNumbers = copyToDevice(directionNumbersOnHost);
+		final CUdeviceptr index = copyToDevice(brownianBridge.getIndex());
+		final CUdeviceptr leftIndex = copyToDevice(brownianBridge.getLeftIndex());
+		final CUdeviceptr rightIndex = copyToDevice(brownianBridge.getRightIndex());
+		final CUdeviceptr leftWeight = copyToDevice(brownianBridge.getLeftWeight());
+		final CUdeviceptr rightWeight = copyToDevice(brownianBridge.getRightWeight());
+		final CUdeviceptr standardDeviation = copyToDevice(brownianBridge.getStandardDeviation());
+		final CUdeviceptr sqrtTimeSteps = copyToDevice(brownianBridge.getSqrtTimeSteps());
+		try {
+			increments = deviceContext.allocate(Math.max((long)dimension * numberOfPaths, 1));
+			deviceContext.launch(cuFileName, "generateIncrements", numberOfPaths,
+					Pointer.to(new long[] { numberOfPaths }),
+					Pointer.to(new int[] { numberOfTimeSteps }),
+					Pointer.to(new int[] { numberOfFactors }),
+					Pointer.to(new int[] { samplingMode.ordinal() }),
+					Pointer.to(new long[] { seed }),
+					Pointer.to(directionNumbers),
+					Pointer.to(index),
+					Pointer.to(leftIndex),
+					Pointer.to(rightIndex),
+					Pointer.to(leftWeight),
+					Pointer.to(rightWeight),
+					Pointer.to(standardDeviation),
+					Pointer.to(sqrtTimeSteps),
+					Pointer.to(increments));
+			deviceContext.synchronize();
+		}
+		finally {
+			for(final CUdeviceptr pointer : new CUdeviceptr[] { directionNumbers, index, leftIndex, rightIndex, leftWeight, rightWeight, standardDeviation, sqrtTimeSteps }) {
+				deviceContext.free(pointer);
+			}
+		}
+	}
+
+	/**
+	 * Generate the increments on the default device. The mode {@link BrownianIncrements.SamplingMode#SOBOL} uses the built-in direction numbers.
+	 *
+	 * @param timeDiscretization The time discretization.
+	 * @param numberOfFactors The number of factors.
+	 * @param numberOfPaths The number of paths.
+	 * @param seed The seed.
+	 * @param samplingMode The sampling mode.
+	 */
+	public BrownianIncrementsCuda(final TimeDiscretization timeDiscretization, final int numberOfFactors, final int numberOfPaths, final long seed, final SamplingMode samplingMode) {
+		this(CudaDeviceContext.getDefault(), timeDiscretization, numberOfFactors, numberOfPaths, seed, samplingMode,
+				samplingMode == SamplingMode.SOBOL ? new SobolSequence(timeDiscretization.getNumberOfTimeSteps() * numberOfFactors) : null);
+	}
+
+	public CudaDeviceContext getDeviceContext() {
+		return deviceContext;
+	}
+
+	@Override
+	public TimeDiscretization getTimeDiscretization() {
+		return timeDiscretization;
+	}
+
+	@Override
+	public int getNumberOfFactors() {
+		return numberOfFactors;
+	}
+
+	@Override
+	public int getNumberOfPaths() {
+		return numberOfPaths;
+	}
+
+	@Override
+	public SamplingMode getSamplingMode() {
+		return samplingMode;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	@Override
+	public RandomVariableSimpleInterface getIncrement(final int timeIndex, final int factor) {
+		final long sizeInBytes = (long)numberOfPaths * Sizeof.FLOAT;
+		final CUdeviceptr value = deviceContext.allocate(numberOfPaths);
+		deviceContext.makeCurrent();
+		cuMemcpyDtoD(value, getIncrements(timeIndex).withByteOffset(factor * sizeInBytes), sizeInBytes);
+		return new RandomVariableSimpleCuda(deviceContext, value, numberOfPaths);
+	}
+
+	/**
+	 * Get the increments of a time step, all factors, stored factor-wise (factor <code>f</code> of path <code>p</code> at <code>f * numberOfPaths + p</code>).
+	 * The pointer refers to the memory of this object (valid until {@link #close()}).
+	 *
+	 * @param timeIndex The time step.
+	 * @return The device pointer to the increments of the time step.
+	 */
+	public CUdeviceptr getIncrements(final int timeIndex) {
+		if(increments == null) {
+			throw new IllegalStateException("The increments have been released.");
+		}
+		return increments.withByteOffset((long)timeIndex * numberOfFactors * numberOfPaths * Sizeof.FLOAT);
+	}
+
+	@Override
+	public synchronized void close() {
+		if(increments != null) {
+			deviceContext.free(increments);
+			increments = null;
+		}
+	}
+
+	private CUdeviceptr copyToDevice(final int[] values) {
+		final CUdeviceptr pointer = deviceContext.allocate(Math.max(values.length, 1));
+		deviceContext.copyToDevice(pointer, Pointer.to(values), (long)values.length * Sizeof.INT);
+		return pointer;
+	}
+
+	private CUdeviceptr copyToDevice(final float[] values) {
+		final CUdeviceptr pointer = deviceContext.allocate(Math.max(values.length, 1));
+		deviceContext.copyToDevice(pointer, Pointer.to(values), (long)values.length * Sizeof.FLOAT);
+		return pointer;
+	}
+}
@@ -0,0 +1,254 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.montecarlo;
+
+import java.util.Arrays;
+
+import com.christianfries.compute.JavaComputeEngine;
+import com.christianfries.cuda.examples.RandomVariableSimpleInterface;
+import com.christianfries.cuda.examples.RandomVariableSimpleJava;
+
+/**
+ * The Java (CPU) implementation of {@link BrownianIncrements}. The paths are generated in parallel on a {@link JavaComputeEngine}.
+ *
+ * The random numbers are counter based: the uniform of a path and dimension is a function of the seed, the path and the dimension
+ * (SplitMix64 of <code>(path &lt;&lt; 32) | dimension</code>), the Sobol point of a path is the point with the index of the path
+ * (with a random digital shift per dimension). The uniforms are mapped to normals by the inverse of the normal distribution function
+ * (in double precision, algorithm AS241). The kernel <code>BrownianIncrementsKernel.cu</code> implements the same functions.
+ *
+ * For the modes {@link BrownianIncrements.SamplingMode#STRATIFIED} and {@link BrownianIncrements.SamplingMode#SOBOL} the Brownian motion
+ * is constructed by the {@link BrownianBridge}, where step <code>j</code> of the bridge and factor <code>f</code> use the dimension
+ * <code>j * numberOfFactors + f</code>. For the other modes the increment of time step <code>i</code> and factor <code>f</code> uses the
+ * dimension <code>i * numberOfFactors + f</code>.
+ *
+ * @author Christian Fries
+ */
+public class BrownianIncrementsJava implements BrownianIncrements {
+
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private final TimeDiscretization timeDiscretization;
+	private final int numberOfFactors;
+	private final int numberOfPaths;
+	private final long seed;
+	private final SamplingMode samplingMode;
+
+	// [(timeIndex * numberOfFactors + factor) * numberOfPaths + path]
+	private final float[] increments;
+
+	/**
+	 * Generate the increments.
+	 *
+	 * @param timeDiscretization The time discretization.
+	 * @param numberOfFactors The number of factors.
+	 * @param numberOfPaths The number of paths.
+	 * @param seed The seed.
+	 * @param samplingMode The sampling mode.
+	 * @param sobolSequence The Sobol sequence of dimension <code>numberOfTimeSteps * numberOfFactors</code> (required for {@link BrownianIncrements.SamplingMode#SOBOL} only).
+	 * @param engine The engine.
+	 */
+	public BrownianIncrementsJava(final TimeDiscretization timeDiscretization, final int numberOfFactors, final int numberOfPaths, final long seed,
+			final SamplingMode samplingMode, final SobolSequence sobolSequence, final JavaComputeEngine engine) {
+		super();
+		this.timeDiscretization = timeDiscretization;
+		this.numberOfFactors = numberOfFactors;
+		this.numberOfPaths = numberOfPaths;
+		this.seed = seed;
+		this.samplingMode = samplingMode;
+
+		final int numberOfTimeSteps = timeDiscretization.getNumberOfTimeSteps();
+		final int dimension = numberOfTimeSteps * numberOfFactors;
+		if(samplingMode == SamplingMode.SOBOL && sobolSequence.getDimension() < dimension) {
+			throw new IllegalArgumentException("The Sobol sequence requires dimension " + dimension + ", got " + sobolSequence.getDimension() + ".");
+		}
+
+		final BrownianBridge brownianBridge = new BrownianBridge(timeDiscretization);
+		final boolean isBrownianBridge = samplingMode == SamplingMode.STRATIFIED || samplingMode == SamplingMode.SOBOL;
+		final int[] shifts = getSobolShifts(seed, dimension);
+
+		increments = new float[dimension * numberOfPaths];
+		engine.forEachRange(numberOfPaths, (start, end) -> {
+			final float[][] normals = new float[numberOfFactors][numberOfTimeSteps];
+			final float[] incrementsOfPath = new float[numberOfTimeSteps];
+			for(int path=start; path<end; path++) {
+				for(int step=0; step<numberOfTimeSteps; step++) {
+					for(int factor=0; factor<numberOfFactors; factor++) {
+						final int dimensionIndex = step * numberOfFactors + factor;
+						final double uniform;
+						switch(samplingMode) {
+						case ANTITHETIC:
+							uniform = getUniform(seed, path & ~1, dimensionIndex);
+							break;
+						case STRATIFIED:
+							uniform = dimensionIndex == 0 ? getStratifiedUniform(seed, path, numberOfPaths) : getUniform(seed, path, dimensionIndex);
+							break;
+						case SOBOL:
+							uniform = getSobolUniform(sobolSequence.getPoint(path, dimensionIndex), shifts[dimensionIndex]);
+							break;
+						case PSEUDO_RANDOM:
+						default:
+							uniform = getUniform(seed, path, dimensionIndex);
+							break;
+						}
+						final float normal = (float)getInverseNormal(uniform);
+						normals[factor][step] = samplingMode == SamplingMode.ANTITHETIC && (path & 1) != 0 ? -normal : normal;
+					}
+				}
+				for(int factor=0; factor<numberOfFactors; factor++) {
+					if(isBrownianBridge) {
+						brownianBridge.getIncrements(normals[factor], incrementsOfPath);
+					}
+					else {
+						System.arraycopy(normals[factor], 0, incrementsOfPath, 0, numberOfTimeSteps);
+					}
+					for(int step=0; step<numberOfTimeSteps; step++) {
+						increments[(step * numberOfFactors + factor) * numberOfPaths + path] = incrementsOfPath[step];
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Generate the increments on the shared default engine. The mode {@link BrownianIncrements.SamplingMode#SOBOL} uses the built-in direction numbers.
+	 *
+	 * @param timeDiscretization The time discretization.
+	 * @param numberOfFactors The number of factors.
+	 * @param numberOfPaths The number of paths.
+	 * @param seed The seed.
+	 * @param samplingMode The sampling mode.
+	 */
+	public BrownianIncrementsJava(final TimeDiscretization timeDiscretization, final int numberOfFactors, final int numberOfPaths, final long seed, final SamplingMode samplingMode) {
+		this(timeDiscretization, numberOfFactors, numberOfPaths, seed, samplingMode,
+				samplingMode == SamplingMode.SOBOL ? new SobolSequence(timeDiscretization.getNumberOfTimeSteps() * numberOfFactors) : null,
+						JavaComputeEngine.getDefault());
+	}
+
+	@Override
+	public TimeDiscretization getTimeDiscretization() {
+		return timeDiscretization;
+	}
+
+	@Override
+	public int getNumberOfFactors() {
+		return numberOfFactors;
+	}
+
+	@Override
+	public int getNumberOfPaths() {
+		return numberOfPaths;
+	}
+
+	@Override
+	public SamplingMode getSamplingMode() {
+		return samplingMode;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	@Override
+	public RandomVariableSimpleInterface getIncrement(final int timeIndex, final int factor) {
+		return new RandomVariableSimpleJava(getRealizations(timeIndex, factor));
+	}
+
+	/**
+	 * @param timeIndex The time step.
+	 * @param factor The factor.
+	 * @return The realizations of the increment (a copy).
+	 */
+	public float[] getRealizations(final int timeIndex, final int factor) {
+		final int offset = (timeIndex * numberOfFactors + factor) * numberOfPaths;
+		return Arrays.copyOfRange(increments, offset, offset + numberOfPaths);
+	}
+
+	/*
+	 * The random numbers, see BrownianIncrementsKernel.cu.
+	 */
+
+	/**
+	 * The 64 random bits of a counter (SplitMix64).
+	 *
+	 * @param seed The seed.
+	 * @param counter The counter.
+	 * @return The random bits.
+	 */
+	static long getRandomBits(final long seed, final long counter) {
+		long z = seed + (counter + 1) * GOLDEN_GAMMA;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * The uniform of a path and dimension, strictly within (0,1).
+	 */
+	static double getUniform(final long seed, final int path, final int dimension) {
+		return ((getRandomBits(seed, ((long)path << 32) | dimension) >>> 12) + 0.5) * 0x1.0p-52;
+	}
+
+	/**
+	 * The uniform within the stratum <code>[path / numberOfPaths, (path+1) / numberOfPaths)</code>.
+	 */
+	static double getStratifiedUniform(final long seed, final int path, final int numberOfPaths) {
+		return Math.min((path + getUniform(seed, path, 0)) / numberOfPaths, Math.nextDown(1.0));
+	}
+
+	/**
+	 * The random digital shift of each dimension of the Sobol sequence (a shift keeps the stratification of the sequence).
+	 */
+	static int[] getSobolShifts(final long seed, final int dimension) {
+		final int[] shifts = new int[dimension];
+		for(int i=0; i<dimension; i++) {
+			shifts[i] = (int)(getRandomBits(seed, ~(long)i) >>> 32);
+		}
+		return shifts;
+	}
+
+	static double getSobolUniform(final int point, final int shift) {
+		return (Integer.toUnsignedLong(point ^ shift) + 0.5) * 0x1.0p-32;
+	}
+
+	/**
+	 * The inverse of the standard normal distribution function (Wichura, algorithm AS241, relative accuracy about 1E-16).
+	 *
+	 * @param p The probability, within (0,1).
+	 * @return The quantile.
+	 */
+	static double getInverseNormal(final double p) {
+		final double q = p - 0.5;
+		if(Math.abs(q) <= 0.425) {
+			final double r = 0.180625 - q * q;
+			return q * (((((((2509.0809287301226727 * r + 33430.575583588128105) * r + 67265.770927008700853) * r
+					+ 45921.953931549871457) * r + 13731.693765509461125) * r + 1971.5909503065514427) * r + 133.14166789178437745) * r
+					+ 3.387132872796366608)
+					/ (((((((5226.495278852545925 * r + 28729.085735721942674) * r + 39307.89580009271061) * r
+							+ 21213.794301586595867) * r + 5394.1960214247511077) * r + 687.1870074920579083) * r + 42.313330701600911252) * r + 1.0);
+		}
+		double r = q < 0 ? p : 1.0 - p;
+		r = Math.sqrt(-Math.log(r));
+		final double value;
+		if(r <= 5.0) {
+			r -= 1.6;
+			value = (((((((7.7454501427834140764E-4 * r + 0.0227238449892691845833) * r + 0.24178072517745061177) * r
+					+ 1.27045825245236838258) * r + 3.64784832476320460504) * r + 5.7694972214606914055) * r + 4.6303378461565452959) * r
+					+ 1.42343711074968357734)
+					/ (((((((1.05075007164441684324E-9 * r + 5.475938084995344946E-4) * r + 0.0151986665636164571966) * r
+							+ 0.14810397642748007459) * r + 0.68976733498510000455) * r + 1.6763848301838038494) * r + 2.05319162663775882187) * r + 1.0);
+		}
+		else {
+			r -= 5.0;
+			value = (((((((2.01033439929228813265E-7 * r + 2.71155556874348757815E-5) * r + 0.0012426609473880784386) * r
+					+ 0.026532189526576123093) * r + 0.29656057182850489123) * r + 1.7848265399172913358) * r + 5.4637849111641143699) * r
+					+ 6.6579046435011037772)
+					/ (((((((2.04426310338993978564E-15 * r + 1.4215117583164458887E-7) * r + 1.8463183175100546818E-5) * r
+							+ 7.868691311456132591E-4) * r + 0.0148753612908506148525) * r + 0.13692988092273580531) * r + 0.59983220655588793769) * r + 1.0);
+		}
+		return q < 0 ? -value : value;
+	}
+}
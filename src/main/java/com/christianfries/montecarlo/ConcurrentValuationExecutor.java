@@ -0,0 +1,264 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.montecarlo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import com.christianfries.compute.ComputeTracer;
+import com.christianfries.cuda.examples.RandomVariableFactory;
+import com.christianfries.cuda.examples.RandomVariableFactoryJava;
+
+/**
+ * A thread safe facade for running random variable valuations concurrently on a set of devices.
+ *
+ * Any number of request threads may submit valuations. A valuation is a function receiving the
+ * {@link RandomVariableFactory} of the device it runs on, declaring (an upper bound of) the device
+ * memory it requires. The result is returned as a <code>CompletableFuture</code>, hence request
+ * threads do not have to block (blocking on the future is cheap for virtual threads, too).
+ *
+ * Admission control works on three levels:
+ * <ul>
+ * 	<li>Backpressure: at most <code>maxPendingValuations</code> valuations are queued or running.
+ * 		{@link #submit(long, Function)} blocks if this limit is reached, {@link #trySubmit(long, Function)} rejects.</li>
+ * 	<li>Routing: a valuation is routed to the device with the lowest load (relative to its memory budget)
+ * 		among the devices whose budget can hold the valuation.</li>
+ * 	<li>Memory: on each device, a valuation starts only if its required memory fits into the device's remaining budget.
+ * 		Waiting valuations are admitted in FIFO order (fair semaphores), so large valuations do not starve.</li>
+ * </ul>
+ * Each device is driven by a fixed number of worker threads (<code>maxConcurrencyPerDevice</code>).
+ *
+ * @author Christian Fries
+ */
+public class ConcurrentValuationExecutor implements AutoCloseable {
+
+	// Memory permits are counted in units of 1 MB
+	private static final long MEMORY_UNIT = 1L << 20;
+
+	private static final double DEFAULT_MEMORY_FRACTION = 0.8;
+
+	/**
+	 * A device together with its admission state.
+	 */
+	private static class DeviceLane {
+		private final RandomVariableFactory factory;
+		private final int memoryCapacity;
+		private final Semaphore memory;
+		private final AtomicLong load = new AtomicLong();
+		private final ExecutorService workers;
+
+		private DeviceLane(final RandomVariableFactory factory, final long memoryBudget, final int maxConcurrency) {
+			this.factory = factory;
+			this.memoryCapacity = (int)Math.min(memoryBudget / MEMORY_UNIT, Integer.MAX_VALUE);
+			this.memory = new Semaphore(memoryCapacity, true);
+
+			final AtomicInteger threadNumber = new AtomicInteger();
+			this.workers = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+				final Thread thread = new Thread(runnable, "valuation-" + factory.getName() + "-" + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+		private double getRelativeLoad() {
+			return (double)load.get() / memoryCapacity;
+		}
+	}
+
+	private final List<DeviceLane> lanes;
+	private final int maxPendingValuations;
+	private final Semaphore pending;
+
+	/**
+	 * Create an executor running valuations on the given devices.
+	 *
+	 * @param devices The devices (factories of the random variables on each device).
+	 * @param memoryBudget Function providing the memory budget (bytes) of a device.
+	 * @param maxConcurrencyPerDevice The number of valuations running concurrently per device.
+	 * @param maxPendingValuations The maximum number of valuations queued or running (backpressure).
+	 * @throws IllegalArgumentException If there is no device or the memory budget of a device is less than 1 MB (the unit of the admission control).
+	 */
+	public ConcurrentValuationExecutor(final List<? extends RandomVariableFactory> devices, final ToLongFunction<RandomVariableFactory> memoryBudget, final int maxConcurrencyPerDevice, final int maxPendingValuations) {
+		super();
+		if(devices.isEmpty()) {
+			throw new IllegalArgumentException("At least one device is required.");
+		}
+		final long[] memoryBudgets = new long[devices.size()];
+		for(int i=0; i<memoryBudgets.length; i++) {
+			memoryBudgets[i] = memoryBudget.applyAsLong(devices.get(i));
+			if(memoryBudgets[i] < MEMORY_UNIT) {
+				throw new IllegalArgumentException("The memory budget of " + devices.get(i).getName() + " (" + memoryBudgets[i] + " bytes) is less than " + MEMORY_UNIT + " bytes.");
+			}
+		}
+		final List<DeviceLane> lanes = new ArrayList<>();
+		for(int i=0; i<memoryBudgets.length; i++) {
+			lanes.add(new DeviceLane(devices.get(i), memoryBudgets[i], maxConcurrencyPerDevice));
+		}
+		this.lanes = Collections.unmodifiableList(lanes);
+		this.maxPendingValuations = maxPendingValuations;
+		this.pending = new Semaphore(maxPendingValuations, true);
+	}
+
+	/**
+	 * Create an executor running valuations on the given devices, using 80% of the currently available memory of each device as budget.
+	 *
+	 * @param devices The devices (factories of the random variables on each device).
+	 * @param maxConcurrencyPerDevice The number of valuations running concurrently per device.
+	 * @param maxPendingValuations The maximum number of valuations queued or running (backpressure).
+	 */
+	public ConcurrentValuationExecutor(final List<? extends RandomVariableFactory> devices, final int maxConcurrencyPerDevice, final int maxPendingValuations) {
+		this(devices, device -> (long)(device.getAvailableMemory() * DEFAULT_MEMORY_FRACTION), maxConcurrencyPerDevice, maxPendingValuations);
+	}
+
+	/**
+	 * Create an executor running valuations on the Java (CPU) backend.
+	 *
+	 * @param numberOfThreads The number of valuations running concurrently.
+	 * @param maxPendingValuations The maximum number of valuations queued or running (backpressure).
+	 * @return The executor.
+	 */
+	public static ConcurrentValuationExecutor ofJava(final int numberOfThreads, final int maxPendingValuations) {
+		return new ConcurrentValuationExecutor(List.of(new RandomVariableFactoryJava()), numberOfThreads, maxPendingValuations);
+	}
+
+	/**
+	 * Submit a valuation. Blocks while the maximum number of pending valuations is reached (backpressure).
+	 *
+	 * @param requiredMemory The (maximum) memory in bytes the valuation allocates on the device.
+	 * @param valuation The valuation.
+	 * @param <T> The result type.
+	 * @return The future result.
+	 * @throws InterruptedException If the calling thread is interrupted while waiting for admission.
+	 * @throws IllegalArgumentException If no device has a memory budget large enough for the valuation.
+	 */
+	public <T> CompletableFuture<T> submit(final long requiredMemory, final Function<RandomVariableFactory, T> valuation) throws InterruptedException {
+		final DeviceLane lane = getLane(requiredMemory);
+		pending.acquire();
+		return execute(lane, requiredMemory, valuation);
+	}
+
+	/**
+	 * Submit a valuation if the maximum number of pending valuations is not reached. Does not block.
+	 *
+	 * @param requiredMemory The (maximum) memory in bytes the valuation allocates on the device.
+	 * @param valuation The valuation.
+	 * @param <T> The result type.
+	 * @return The future result. Completes exceptionally with a <code>RejectedExecutionException</code> if the executor is saturated.
+	 */
+	public <T> CompletableFuture<T> trySubmit(final long requiredMemory, final Function<RandomVariableFactory, T> valuation) {
+		final DeviceLane lane = getLane(requiredMemory);
+		if(!pending.tryAcquire()) {
+			return CompletableFuture.failedFuture(new RejectedExecutionException("Too many pending valuations."));
+		}
+		return execute(lane, requiredMemory, valuation);
+	}
+
+	/**
+	 * @return The number of valuations queued or running.
+	 */
+	public int getNumberOfPendingValuations() {
+		return maxPendingValuations - pending.availablePermits();
+	}
+
+	private int getPermits(final long requiredMemory) {
+		return (int)Math.min((requiredMemory + MEMORY_UNIT - 1) / MEMORY_UNIT, Integer.MAX_VALUE);
+	}
+
+	private DeviceLane getLane(final long requiredMemory) {
+		final int permits = getPermits(requiredMemory);
+		DeviceLane bestLane = null;
+		for(final DeviceLane lane : lanes) {
+			if(lane.memoryCapacity >= permits && (bestLane == null || lane.getRelativeLoad() < bestLane.getRelativeLoad())) {
+				bestLane = lane;
+			}
+		}
+		if(bestLane == null) {
+			throw new IllegalArgumentException("No device has a memory budget of " + requiredMemory + " bytes.");
+		}
+		return bestLane;
+	}
+
+	private <T> CompletableFuture<T> execute(final DeviceLane lane, final long requiredMemory, final Function<RandomVariableFactory, T> valuation) {
+		final int permits = getPermits(requiredMemory);
+		final CompletableFuture<T> result = new CompletableFuture<>();
+		lane.load.addAndGet(permits);
+		try {
+			lane.workers.execute(() -> {
+				// The admission state is released before the future completes, such that a caller observing the result sees it released
+				T value = null;
+				Throwable exception = null;
+				try {
+					try(ComputeTracer.Scope scope = ComputeTracer.getInstance().scope("Valuation", "Admission")) {
+						scope.setArgument("permits", permits);
+						lane.memory.acquire(permits);
+					}
+					try(ComputeTracer.Scope scope = ComputeTracer.getInstance().scope("Valuation", "Valuation")) {
+						scope.setArgument("requiredMemory", requiredMemory);
+						value = valuation.apply(lane.factory);
+					}
+					finally {
+						lane.memory.release(permits);
+					}
+				}
+				catch(final InterruptedException e) {
+					Thread.currentThread().interrupt();
+					exception = e;
+				}
+				catch(final Throwable e) {
+					exception = e;
+				}
+				finally {
+					lane.load.addAndGet(-permits);
+					pending.release();
+				}
+
+				if(exception == null) {
+					result.complete(value);
+				}
+				else {
+					result.completeExceptionally(exception);
+				}
+			});
+		}
+		catch(final RejectedExecutionException e) {
+			lane.load.addAndGet(-permits);
+			pending.release();
+			result.completeExceptionally(e);
+		}
+		return result;
+	}
+
+	/**
+	 * Stop accepting valuations and wait for the running valuations to complete.
+	 */
+	@Override
+	public void close() {
+		for(final DeviceLane lane : lanes) {
+			lane.workers.shutdown();
+		}
+		try {
+			for(final DeviceLane lane : lanes) {
+				lane.workers.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+			}
+		}
+		catch(final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
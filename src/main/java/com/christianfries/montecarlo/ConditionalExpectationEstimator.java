@@ -0,0 +1,190 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.montecarlo;
+
+import java.util.stream.IntStream;
+
+import com.christianfries.cuda.examples.NormalEquationsCuda;
+import com.christianfries.cuda.examples.RandomVariableExpression;
+import com.christianfries.cuda.examples.RandomVariableFactory;
+import com.christianfries.cuda.examples.RandomVariableFactoryCuda;
+import com.christianfries.cuda.examples.RandomVariableSimpleInterface;
+
+/**
+ * Estimation of the conditional expectation <i>E(y | X<sub>0</sub>, ..., X<sub>k-1</sub>)</i> by a least squares
+ * regression across paths on the given basis functions, as used in the exercise step of an American Monte-Carlo
+ * (Longstaff-Schwartz) algorithm.
+ *
+ * The normal equations <i>X<sup>T</sup>X &beta; = X<sup>T</sup>y</i> are built where the random variables live
+ * (a single cuBLAS <code>Sgemm</code> on a Cuda device, a parallel reduction in double precision on the CPU)
+ * and only the small <i>k &times; k</i> system is solved on the host. The conditional expectation
+ * <i>&sum; &beta;<sub>j</sub> X<sub>j</sub></i> is again calculated on the device.
+ *
+ * Linear dependent basis functions are dropped (their coefficient is zero).
+ *
+ * @author Christian Fries
+ */
+public class ConditionalExpectationEstimator {
+
+	private static final int CHUNK_SIZE = 1 << 16;
+
+	// Relative size of a pivot below which the corresponding basis function is considered linear dependent
+	private static final double PIVOT_TOLERANCE = 1E-10;
+
+	private final RandomVariableFactory factory;
+	private final RandomVariableSimpleInterface[] basisFunctions;
+
+	/**
+	 * Create an estimator for the conditional expectation with respect to the given basis functions.
+	 *
+	 * @param factory The factory of the random variables (determines the device performing the calculation).
+	 * @param basisFunctions The basis functions.
+	 */
+	public ConditionalExpectationEstimator(RandomVariableFactory factory, RandomVariableSimpleInterface... basisFunctions) {
+		super();
+		if(basisFunctions.length == 0) {
+			throw new IllegalArgumentException("At least one basis function is required.");
+		}
+		this.factory = factory;
+		this.basisFunctions = basisFunctions.clone();
+	}
+
+	/**
+	 * Calculate the conditional expectation of the given random variable.
+	 *
+	 * @param value The random variable <i>y</i>.
+	 * @return The conditional expectation <i>&sum; &beta;<sub>j</sub> X<sub>j</sub></i>.
+	 */
+	public RandomVariableSimpleInterface getConditionalExpectation(RandomVariableSimpleInterface value) {
+		final double[] coefficients = getRegressionCoefficients(value);
+
+		RandomVariableExpression conditionalExpectation = null;
+		for(int j=0; j<basisFunctions.length; j++) {
+			final RandomVariableExpression summand = RandomVariableExpression.of(basisFunctions[j]).mult(RandomVariableExpression.of(factory.createRandomVariable((float)coefficients[j])));
+			conditionalExpectation = conditionalExpectation == null ? summand : conditionalExpectation.add(summand);
+		}
+		return conditionalExpectation.evaluate();
+	}
+
+	/**
+	 * Calculate the regression coefficients <i>&beta;</i> solving <i>X<sup>T</sup>X &beta; = X<sup>T</sup>y</i>.
+	 *
+	 * @param value The random variable <i>y</i>.
+	 * @return The regression coefficients.
+	 */
+	public double[] getRegressionCoefficients(RandomVariableSimpleInterface value) {
+		final double[][] normalEquations;
+		if(factory instanceof RandomVariableFactoryCuda) {
+			normalEquations = NormalEquationsCuda.getNormalEquations(((RandomVariableFactoryCuda)factory).getDeviceContext(), basisFunctions, value);
+		}
+		else {
+			normalEquations = getNormalEquations(basisFunctions, value);
+		}
+		return solve(normalEquations);
+	}
+
+	/**
+	 * Calculate the normal equations on the CPU, by a parallel reduction over chunks of paths (in double precision).
+	 *
+	 * @param basisFunctions The basis functions <i>X<sub>j</sub></i>, j = 0, ..., k-1.
+	 * @param value The regressand <i>y</i>.
+	 * @return The augmented matrix <i>[X<sup>T</sup>X | X<sup>T</sup>y]</i> (k rows, k+1 columns).
+	 */
+	static double[][] getNormalEquations(RandomVariableSimpleInterface[] basisFunctions, RandomVariableSimpleInterface value) {
+		final int numberOfBasisFunctions = basisFunctions.length;
+		final int numberOfColumns = numberOfBasisFunctions + 1;
+
+		final float[][] columns = new float[numberOfColumns][];
+		final float[] deterministicValues = new float[numberOfColumns];
+		int numberOfPaths = -1;
+		for(int j=0; j<numberOfColumns; j++) {
+			final RandomVariableSimpleInterface column = j < numberOfBasisFunctions ? basisFunctions[j] : value;
+			if(column.isDeterministic()) {
+				deterministicValues[j] = column.getRealizations()[0];
+			}
+			else {
+				columns[j] = column.getRealizations();
+				if(numberOfPaths >= 0 && columns[j].length != numberOfPaths) {
+					throw new IllegalArgumentException("All random variables have to have the same size.");
+				}
+				numberOfPaths = columns[j].length;
+			}
+		}
+		if(numberOfPaths < 0) {
+			throw new IllegalArgumentException("At least one basis function or the value has to be stochastic.");
+		}
+
+		final int size = numberOfPaths;
+		final int numberOfChunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		return IntStream.range(0, numberOfChunks).parallel().mapToObj(chunk -> {
+			final double[][] partial = new double[numberOfBasisFunctions][numberOfColumns];
+			final double[] row = new double[numberOfColumns];
+			final int end = Math.min(size, (chunk+1) * CHUNK_SIZE);
+			for(int path = chunk * CHUNK_SIZE; path < end; path++) {
+				for(int j=0; j<numberOfColumns; j++) {
+					row[j] = columns[j] != null ? columns[j][path] : deterministicValues[j];
+				}
+				for(int i=0; i<numberOfBasisFunctions; i++) {
+					for(int j=0; j<numberOfColumns; j++) {
+						partial[i][j] += row[i] * row[j];
+					}
+				}
+			}
+			return partial;
+		}).reduce(new double[numberOfBasisFunctions][numberOfColumns], (sum, partial) -> {
+			final double[][] result = new double[numberOfBasisFunctions][numberOfColumns];
+			for(int i=0; i<numberOfBasisFunctions; i++) {
+				for(int j=0; j<numberOfColumns; j++) {
+					result[i][j] = sum[i][j] + partial[i][j];
+				}
+			}
+			return result;
+		});
+	}
+
+	/**
+	 * Solve the normal equations by Gaussian elimination. Since <i>X<sup>T</sup>X</i> is symmetric positive semi-definite,
+	 * the diagonal pivots are stable and a (relatively) vanishing pivot implies a vanishing row (a linear dependent basis function).
+	 * The corresponding unknown is set to zero.
+	 *
+	 * @param normalEquations The augmented matrix <i>[X<sup>T</sup>X | X<sup>T</sup>y]</i> (modified).
+	 * @return The solution <i>&beta;</i>.
+	 */
+	static double[] solve(double[][] normalEquations) {
+		final int n = normalEquations.length;
+
+		double maxDiagonal = 0.0;
+		for(int i=0; i<n; i++) maxDiagonal = Math.max(maxDiagonal, Math.abs(normalEquations[i][i]));
+		final double tolerance = PIVOT_TOLERANCE * maxDiagonal;
+
+		final boolean[] isDependent = new boolean[n];
+		for(int column=0; column<n; column++) {
+			if(normalEquations[column][column] <= tolerance) {
+				isDependent[column] = true;
+				continue;
+			}
+
+			for(int row=column+1; row<n; row++) {
+				final double factor = normalEquations[row][column] / normalEquations[column][column];
+				for(int j=column; j<=n; j++) {
+					normalEquations[row][j] -= factor * normalEquations[column][j];
+				}
+			}
+		}
+
+		final double[] solution = new double[n];
+		for(int row=n-1; row>=0; row--) {
+			if(isDependent[row]) continue;
+			double sum = normalEquations[row][n];
+			for(int j=row+1; j<n; j++) {
+				sum -= normalEquations[row][j] * solution[j];
+			}
+			solution[row] = sum / normalEquations[row][row];
+		}
+		return solution;
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.montecarlo;
+
+/**
+ * The Heston model
+ * <i>dS = r S dt + &radic;V S dW<sub>1</sub></i>,
+ * <i>dV = &kappa; (&theta; - V) dt + &xi; &radic;V dW<sub>2</sub></i>,
+ * <i>dW<sub>1</sub> dW<sub>2</sub> = &rho; dt</i>,
+ * simulated with a log-Euler scheme for <i>S</i> and a full truncation Euler scheme for <i>V</i>
+ * (the variance may become negative, but only its positive part enters drift and diffusion).
+ *
+ * @author Christian Fries
+ */
+public class HestonProcessModel implements ProcessModel {
+
+	private final float initialValue;
+	private final float riskFreeRate;
+	private final float initialVariance;
+	private final float kappa;
+	private final float theta;
+	private final float xi;
+	private final float rho;
+
+	/**
+	 * Create a Heston model.
+	 *
+	 * @param initialValue The initial value of the asset.
+	 * @param riskFreeRate The risk free rate <i>r</i>.
+	 * @param initialVariance The initial variance <i>V(0)</i>.
+	 * @param kappa The speed of mean reversion of the variance.
+	 * @param theta The long term variance.
+	 * @param xi The volatility of the variance.
+	 * @param rho The correlation of the Brownian drivers.
+	 */
+	public HestonProcessModel(float initialValue, float riskFreeRate, float initialVariance, float kappa, float theta, float xi, float rho) {
+		super();
+		this.initialValue = initialValue;
+		this.riskFreeRate = riskFreeRate;
+		this.initialVariance = initialVariance;
+		this.kappa = kappa;
+		this.theta = theta;
+		this.xi = xi;
+		this.rho = rho;
+	}
+
+	@Override
+	public int getNumberOfStateVariables() {
+		return 2;
+	}
+
+	@Override
+	public int getNumberOfFactors() {
+		return 2;
+	}
+
+	@Override
+	public float[] getInitialState() {
+		return new float[] { initialValue, initialVariance };
+	}
+
+	@Override
+	public float[] getParameters() {
+		return new float[] { riskFreeRate, kappa, theta, xi, rho };
+	}
+
+	@Override
+	public String getStepKernelName() {
+		return "hestonStep";
+	}
+
+	@Override
+	public void step(float deltaT, float[][] state, float[][] increments, int path) {
+		final float sqrtDeltaT = (float)Math.sqrt(deltaT);
+		final float variance = Math.max(state[1][path], 0.0f);
+		final float volatility = (float)Math.sqrt(variance);
+		final float z1 = increments[0][path];
+		final float z2 = rho * z1 + (float)Math.sqrt(1.0f - rho * rho) * increments[1][path];
+
+		state[0][path] *= (float)Math.exp((riskFreeRate - 0.5f * variance) * deltaT + volatility * sqrtDeltaT * z1);
+		state[1][path] += kappa * (theta - variance) * deltaT + xi * volatility * sqrtDeltaT * z2;
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.montecarlo;
+
+/**
+ * The log-normal (Black-Scholes) model
+ * <i>dS = r S dt + &sigma; S dW</i>,
+ * simulated with the exact log-Euler scheme
+ * <i>S(t+&Delta;t) = S(t) exp((r - &sigma;<sup>2</sup>/2) &Delta;t + &sigma; &radic;&Delta;t Z)</i>.
+ *
+ * @author Christian Fries
+ */
+public class LogNormalProcessModel implements ProcessModel {
+
+	private final float initialValue;
+	private final float riskFreeRate;
+	private final float volatility;
+
+	public LogNormalProcessModel(float initialValue, float riskFreeRate, float volatility) {
+		super();
+		this.initialValue = initialValue;
+		this.riskFreeRate = riskFreeRate;
+		this.volatility = volatility;
+	}
+
+	@Override
+	public int getNumberOfStateVariables() {
+		return 1;
+	}
+
+	@Override
+	public int getNumberOfFactors() {
+		return 1;
+	}
+
+	@Override
+	public float[] getInitialState() {
+		return new float[] { initialValue };
+	}
+
+	@Override
+	public float[] getParameters() {
+		return new float[] { riskFreeRate, volatility };
+	}
+
+	@Override
+	public String getStepKernelName() {
+		return "logNormalStep";
+	}
+
+	@Override
+	public void step(float deltaT, float[][] state, float[][] increments, int path) {
+		final float drift = (riskFreeRate - 0.5f * volatility * volatility) * deltaT;
+		final float diffusion = volatility * (float)Math.sqrt(deltaT);
+		state[0][path] *= (float)Math.exp(drift + diffusion * increments[0][path]);
+	}
+
+	public float getInitialValue() {
+		return initialValue;
+	}
+
+	public float getRiskFreeRate() {
+		return riskFreeRate;
+	}
+
+	public float getVolatility() {
+		return volatility;
+	}
+}
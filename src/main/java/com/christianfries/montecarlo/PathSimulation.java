@@ -0,0 +1,61 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.montecarlo;
+
+import com.christianfries.cuda.examples.RandomVariableSimpleInterface;
+
+/**
+ * A Monte-Carlo simulation of the paths of a {@link ProcessModel} on a {@link TimeDiscretization}.
+ *
+ * The simulation evolves the state of all paths time step by time step, keeping only the current state
+ * (on the device for device implementations). The values of the process are returned only for the
+ * requested time indices, hence intermediate time steps do not allocate memory and do not cross the bus.
+ *
+ * @author Christian Fries
+ */
+public interface PathSimulation {
+
+	ProcessModel getModel();
+
+	TimeDiscretization getTimeDiscretization();
+
+	int getNumberOfPaths();
+
+	/**
+	 * Simulate the paths and return the value of the process at the given time indices.
+	 * The simulation uses the same random numbers for each call.
+	 *
+	 * @param timeIndices The time indices (in increasing order).
+	 * @return The value of the process at each of the given time indices.
+	 */
+	RandomVariableSimpleInterface[] simulate(int... timeIndices);
+
+	/**
+	 * Simulate the paths and return the value of the process at all times of the time discretization.
+	 *
+	 * @return The value of the process at each time of the time discretization.
+	 */
+	default RandomVariableSimpleInterface[] simulate() {
+		final int[] timeIndices = new int[getTimeDiscretization().getNumberOfTimes()];
+		for(int i=0; i<timeIndices.length; i++) timeIndices[i] = i;
+		return simulate(timeIndices);
+	}
+
+	/**
+	 * Check that the time indices are increasing and within the time discretization.
+	 *
+	 * @param timeDiscretization The time discretization.
+	 * @param timeIndices The time indices.
+	 */
+	static void validateTimeIndices(TimeDiscretization timeDiscretization, int[] timeIndices) {
+		for(int i=0; i<timeIndices.length; i++) {
+			if(timeIndices[i] < 0 || timeIndices[i] >= timeDiscretization.getNumberOfTimes() || (i > 0 && timeIndices[i] <= timeIndices[i-1])) {
+				throw new IllegalArgumentException("Time indices have to be increasing and within 0 and " + timeDiscretization.getNumberOfTimeSteps() + ".");
+			}
+		}
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.montecarlo;
+
+import static jcuda.driver.JCudaDriver.cuMemcpyDtoD;
+import static jcuda.driver.JCudaDriver.cuMemsetD32;
+import static jcuda.jcurand.JCurand.curandCreateGenerator;
+import static jcuda.jcurand.JCurand.curandDestroyGenerator;
+import static jcuda.jcurand.JCurand.curandGenerateNormal;
+import static jcuda.jcurand.JCurand.curandSetPseudoRandomGeneratorSeed;
+import static jcuda.jcurand.curandRngType.CURAND_RNG_PSEUDO_PHILOX4_32_10;
+
+import com.christianfries.cuda.examples.CudaDeviceContext;
+import com.christianfries.cuda.examples.RandomVariableSimpleCuda;
+import com.christianfries.cuda.examples.RandomVariableSimpleInterface;
+import com.christianfries.montecarlo.BrownianIncrements.SamplingMode;
+
+import jcuda.Pointer;
+import jcuda.Sizeof;
+import jcuda.driver.CUdeviceptr;
+import jcuda.jcurand.JCurand;
+import jcuda.jcurand.curandGenerator;
+
+/**
+ * The Cuda implementation of a {@link PathSimulation}.
+ *
+ * The state of all paths stays on the device. The Brownian increments are generated on the device
+ * (cuRAND, Philox), such that a time step is a random number generation and a single kernel launch.
+ * Only the values at the requested time indices are copied (device to device) to new random variables.
+ *
+ * If a {@link BrownianIncrements.SamplingMode} is given, all increments are generated up front by {@link BrownianIncrementsCuda}
+ * (requiring <i>numberOfTimeSteps &times; numberOfFactors &times; numberOfPaths</i> floats of device memory) and passed to the time step
+ * kernel without copy. The results are then identical to {@link PathSimulationJava} with the same mode and seed (up to rounding of the step kernel).
+ *
+ * @author Christian Fries
+ */
+public class PathSimulationCuda implements PathSimulation {
+
+	private static final String cuFileName = "PathSimulationKernel.cu";
+
+	static {
+		JCurand.setExceptionsEnabled(true);
+	}
+
+	private final CudaDeviceContext deviceContext;
+	private final ProcessModel model;
+	private final TimeDiscretization timeDiscretization;
+	private final int numberOfPaths;
+	private final long seed;
+	private final SamplingMode samplingMode;
+
+	/**
+	 * Create the simulation using increments generated by {@link BrownianIncrementsCuda}.
+	 *
+	 * @param deviceContext The device.
+	 * @param model The model.
+	 * @param timeDiscretization The time discretization.
+	 * @param numberOfPaths The number of paths.
+	 * @param seed The seed.
+	 * @param samplingMode The sampling mode of the increments (if null, the increments are generated by cuRAND per time step).
+	 */
+	public PathSimulationCuda(CudaDeviceContext deviceContext, ProcessModel model, TimeDiscretization timeDiscretization, int numberOfPaths, long seed, SamplingMode samplingMode) {
+		super();
+		this.deviceContext = deviceContext;
+		this.model = model;
+		this.timeDiscretization = timeDiscretization;
+		this.numberOfPaths = numberOfPaths;
+		this.seed = seed;
+		this.samplingMode = samplingMode;
+	}
+
+	public PathSimulationCuda(CudaDeviceContext deviceContext, ProcessModel model, TimeDiscretization timeDiscretization, int numberOfPaths, long seed) {
+		this(deviceContext, model, timeDiscretization, numberOfPaths, seed, null);
+	}
+
+	public PathSimulationCuda(ProcessModel model, TimeDiscretization timeDiscretization, int numberOfPaths, long seed) {
+		this(CudaDeviceContext.getDefault(), model, timeDiscretization, numberOfPaths, seed);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface[] simulate(int... timeIndices) {
+		PathSimulation.validateTimeIndices(timeDiscretization, timeIndices);
+
+		final long sizeInBytes = (long)numberOfPaths * Sizeof.FLOAT;
+		final int numberOfStateVariables = model.getNumberOfStateVariables();
+		final int numberOfFactors = model.getNumberOfFactors();
+		// The normal generator requires an even number of random numbers
+		final long numberOfIncrements = ((long)numberOfFactors * numberOfPaths + 1) / 2 * 2;
+
+		// Released in the finally block (null if not (yet) allocated)
+		CUdeviceptr state = null;
+		BrownianIncrementsCuda brownianIncrements = null;
+		CUdeviceptr increments = null;
+		CUdeviceptr parameters = null;
+		curandGenerator generator = null;
+		try {
+			state = deviceContext.allocate((long)numberOfStateVariables * numberOfPaths);
+			if(samplingMode != null) {
+				brownianIncrements = new BrownianIncrementsCuda(deviceContext, timeDiscretization, numberOfFactors, numberOfPaths, seed, samplingMode,
+						samplingMode == SamplingMode.SOBOL ? new SobolSequence(timeDiscretization.getNumberOfTimeSteps() * numberOfFactors) : null);
+			}
+			else {
+				increments = deviceContext.allocate(numberOfIncrements);
+			}
+			final float[] parametersOnHost = model.getParameters();
+			parameters = deviceContext.allocate(Math.max(parametersOnHost.length, 1));
+
+			deviceContext.makeCurrent();
+			final float[] initialState = model.getInitialState();
+			for(int k=0; k<numberOfStateVariables; k++) {
+				cuMemsetD32(state.withByteOffset(k * sizeInBytes), Float.floatToRawIntBits(initialState[k]), numberOfPaths);
+			}
+			deviceContext.copyToDevice(parameters, Pointer.to(parametersOnHost), (long)parametersOnHost.length * Sizeof.FLOAT);
+
+			if(brownianIncrements == null) {
+				final curandGenerator newGenerator = new curandGenerator();
+				curandCreateGenerator(newGenerator, CURAND_RNG_PSEUDO_PHILOX4_32_10);
+				generator = newGenerator;
+				curandSetPseudoRandomGeneratorSeed(generator, seed);
+			}
+
+			final RandomVariableSimpleInterface[] values = new RandomVariableSimpleInterface[timeIndices.length];
+			int next = 0;
+			for(int timeIndex = 0; next < timeIndices.length; timeIndex++) {
+				if(timeIndex == timeIndices[next]) {
+					final CUdeviceptr value = deviceContext.allocate(numberOfPaths);
+					cuMemcpyDtoD(value, state, sizeInBytes);
+					values[next++] = new RandomVariableSimpleCuda(deviceContext, value, numberOfPaths);
+					if(next == timeIndices.length) break;
+				}
+
+				final CUdeviceptr incrementsOfTimeStep;
+				if(brownianIncrements != null) {
+					incrementsOfTimeStep = brownianIncrements.getIncrements(timeIndex);
+				}
+				else {
+					curandGenerateNormal(generator, increments, numberOfIncrements, 0.0f, 1.0f);
+					incrementsOfTimeStep = increments;
+				}
+				deviceContext.launch(cuFileName, model.getStepKernelName(), numberOfPaths,
+						Pointer.to(new long[] { numberOfPaths }),
+						Pointer.to(new float[] { (float)timeDiscretization.getTimeStep(timeIndex) }),
+						Pointer.to(parameters),
+						Pointer.to(state),
+						Pointer.to(incrementsOfTimeStep));
+			}
+			return values;
+		}
+		finally {
+			if(generator != null) {
+				curandDestroyGenerator(generator);
+			}
+			if(parameters != null) {
+				deviceContext.free(parameters);
+			}
+			if(brownianIncrements != null) {
+				brownianIncrements.close();
+			}
+			if(increments != null) {
+				deviceContext.free(increments);
+			}
+			if(state != null) {
+				deviceContext.free(state);
+			}
+		}
+	}
+
+	/**
+	 * @return The sampling mode of the increments (null if the increments are generated by cuRAND).
+	 */
+	public SamplingMode getSamplingMode() {
+		return samplingMode;
+	}
+
+	public CudaDeviceContext getDeviceContext() {
+		return deviceContext;
+	}
+
+	@Override
+	public ProcessModel getModel() {
+		return model;
+	}
+
+	@Override
+	public TimeDiscretization getTimeDiscretization() {
+		return timeDiscretization;
+	}
+
+	@Override
+	public int getNumberOfPaths() {
+		return numberOfPaths;
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.montecarlo;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import com.christianfries.cuda.examples.RandomVariableSimpleInterface;
+import com.christianfries.cuda.examples.RandomVariableSimpleJava;
+import com.christianfries.montecarlo.BrownianIncrements.SamplingMode;
+
+/**
+ * The Java (CPU) implementation of a {@link PathSimulation}. The paths of a time step are evolved in parallel.
+ *
+ * The increments are drawn from {@link Random} or, if a {@link BrownianIncrements.SamplingMode} is given, generated by
+ * {@link BrownianIncrementsJava} (identical to the increments of {@link PathSimulationCuda} with the same mode and seed).
+ *
+ * @author Christian Fries
+ */
+public class PathSimulationJava implements PathSimulation {
+
+	private final ProcessModel model;
+	private final TimeDiscretization timeDiscretization;
+	private final int numberOfPaths;
+	private final long seed;
+	private final SamplingMode samplingMode;
+
+	/**
+	 * Create the simulation using increments generated by {@link BrownianIncrementsJava}.
+	 *
+	 * @param model The model.
+	 * @param timeDiscretization The time discretization.
+	 * @param numberOfPaths The number of paths.
+	 * @param seed The seed.
+	 * @param samplingMode The sampling mode of the increments (if null, the increments are drawn from {@link Random}).
+	 */
+	public PathSimulationJava(ProcessModel model, TimeDiscretization timeDiscretization, int numberOfPaths, long seed, SamplingMode samplingMode) {
+		super();
+		this.model = model;
+		this.timeDiscretization = timeDiscretization;
+		this.numberOfPaths = numberOfPaths;
+		this.seed = seed;
+		this.samplingMode = samplingMode;
+	}
+
+	public PathSimulationJava(ProcessModel model, TimeDiscretization timeDiscretization, int numberOfPaths, long seed) {
+		this(model, timeDiscretization, numberOfPaths, seed, null);
+	}
+
+	@Override
+	public RandomVariableSimpleInterface[] simulate(int... timeIndices) {
+		PathSimulation.validateTimeIndices(timeDiscretization, timeIndices);
+
+		final float[][] state = new float[model.getNumberOfStateVariables()][numberOfPaths];
+		final float[] initialState = model.getInitialState();
+		for(int k=0; k<state.length; k++) {
+			Arrays.fill(state[k], initialState[k]);
+		}
+
+		final Random random = new Random(seed);
+		final BrownianIncrementsJava brownianIncrements = samplingMode != null ? new BrownianIncrementsJava(timeDiscretization, model.getNumberOfFactors(), numberOfPaths, seed, samplingMode) : null;
+		final float[][] increments = new float[model.getNumberOfFactors()][numberOfPaths];
+
+		final RandomVariableSimpleInterface[] values = new RandomVariableSimpleInterface[timeIndices.length];
+		int next = 0;
+		for(int timeIndex = 0; next < timeIndices.length; timeIndex++) {
+			if(timeIndex == timeIndices[next]) {
+				values[next++] = new RandomVariableSimpleJava(state[0].clone());
+				if(next == timeIndices.length) break;
+			}
+
+			for(int factor=0; factor<increments.length; factor++) {
+				if(brownianIncrements != null) {
+					increments[factor] = brownianIncrements.getRealizations(timeIndex, factor);
+				}
+				else {
+					for(int path=0; path<numberOfPaths; path++) increments[factor][path] = (float)random.nextGaussian();
+				}
+			}
+			final float deltaT = (float)timeDiscretization.getTimeStep(timeIndex);
+			IntStream.range(0, numberOfPaths).parallel().forEach(path -> model.step(deltaT, state, increments, path));
+		}
+		return values;
+	}
+
+	/**
+	 * @return The sampling mode of the increments (null if the increments are drawn from {@link Random}).
+	 */
+	public SamplingMode getSamplingMode() {
+		return samplingMode;
+	}
+
+	@Override
+	public ProcessModel getModel() {
+		return model;
+	}
+
+	@Override
+	public TimeDiscretization getTimeDiscretization() {
+		return timeDiscretization;
+	}
+
+	@Override
+	public int getNumberOfPaths() {
+		return numberOfPaths;
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.montecarlo;
+
+/**
+ * A model of a stochastic process to be simulated by a {@link PathSimulation}.
+ *
+ * The state of a path consists of {@link #getNumberOfStateVariables()} floats, the first being the
+ * value of the process (the asset). A time step maps the state to the state at the next time,
+ * given {@link #getNumberOfFactors()} independent standard normal increments.
+ *
+ * The time step is implemented twice, in Java ({@link #step(float, float[][], float[][], int)}) and as
+ * Cuda kernel in <code>PathSimulationKernel.cu</code> (named by {@link #getStepKernelName()}),
+ * with signature <code>(int n, float dt, const float *parameters, float *state, const float *increments)</code>,
+ * where state and increments are stored component-wise (component <code>k</code> of path <code>i</code>
+ * at <code>k * n + i</code>).
+ *
+ * @author Christian Fries
+ */
+public interface ProcessModel {
+
+	/**
+	 * @return The number of floats describing the state of a path (the first is the value of the process).
+	 */
+	int getNumberOfStateVariables();
+
+	/**
+	 * @return The number of independent Brownian drivers.
+	 */
+	int getNumberOfFactors();
+
+	/**
+	 * @return The initial state.
+	 */
+	float[] getInitialState();
+
+	/**
+	 * @return The model parameters as passed to the kernel.
+	 */
+	float[] getParameters();
+
+	/**
+	 * @return The name of the Cuda kernel performing a time step.
+	 */
+	String getStepKernelName();
+
+	/**
+	 * Perform a time step of a single path.
+	 *
+	 * @param deltaT The length of the time step.
+	 * @param state The state, <code>state[k][path]</code> (updated).
+	 * @param increments Independent standard normal random numbers, <code>increments[factor][path]</code>.
+	 * @param path The index of the path.
+	 */
+	void step(float deltaT, float[][] state, float[][] increments, int path);
+}
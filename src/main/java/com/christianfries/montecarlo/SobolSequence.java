@@ -0,0 +1,226 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.montecarlo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Sobol low-discrepancy sequence (32 bit), defined by its direction numbers.
+ *
+ * Dimension <i>j</i> of the sequence is defined by a primitive polynomial of degree <i>s</i> over GF(2),
+ * <i>x<sup>s</sup> + a<sub>1</sub> x<sup>s-1</sup> + ... + a<sub>s-1</sub> x + 1</i>, and initial odd integers
+ * <i>m<sub>1</sub>, ..., m<sub>s</sub></i> with <i>m<sub>k</sub> &lt; 2<sup>k</sup></i>. The direction numbers
+ * <i>v<sub>k</sub> = m<sub>k</sub> 2<sup>32-k</sup></i> follow from the recursion of the polynomial. The first dimension is the
+ * van der Corput sequence (<i>m<sub>k</sub> = 1</i>).
+ *
+ * Point <i>n</i> is the XOR of the direction numbers <i>v<sub>k</sub></i> of the bits <i>k</i> set in the Gray code of <i>n</i>,
+ * see {@link #getPoint(long, int)}. Each point can be calculated independently (e.g. by one thread per path on a device).
+ *
+ * The direction numbers may be read from a file in the format of Joe and Kuo (e.g. <code>new-joe-kuo-6.21201</code>, recommended,
+ * see {@link #SobolSequence(Reader, int)}). The built-in direction numbers use the primitive polynomials in order of
+ * their degree and initial numbers <i>m<sub>k</sub></i> chosen by a fixed pseudo random sequence. Both generate a valid Sobol sequence
+ * (each dimension is a (0,1)-sequence in base 2), but the optimized numbers of Joe and Kuo have better two dimensional projections.
+ *
+ * @author Christian Fries
+ */
+public class SobolSequence {
+
+	public static final int BITS = 32;
+
+	// The largest degree of the built-in primitive polynomials (more than 20000 dimensions)
+	private static final int MAX_DEGREE = 18;
+
+	// [dimension][bit]
+	private final int[][] directionNumbers;
+
+	/**
+	 * Create the sequence with the built-in direction numbers.
+	 *
+	 * @param dimension The dimension.
+	 */
+	public SobolSequence(final int dimension) {
+		super();
+		if(dimension < 1) {
+			throw new IllegalArgumentException("The dimension has to be positive, got " + dimension + ".");
+		}
+		directionNumbers = new int[dimension][];
+		directionNumbers[0] = getDirectionNumbers(0, 0, new int[0]);
+
+		// Initial numbers from a fixed sequence (the constants of a 64 bit linear congruential generator)
+		long state = 3141592653589793L;
+		int j = 1;
+		for(int degree = 1; degree <= MAX_DEGREE && j < dimension; degree++) {
+			for(int a = 0; a < 1 << (degree - 1) && j < dimension; a++) {
+				if(isPrimitive(degree, a)) {
+					final int[] m = new int[degree];
+					for(int k = 1; k <= degree; k++) {
+						state = state * 6364136223846793005L + 1442695040888963407L;
+						// An odd number below 2^k
+						m[k-1] = (int)((state >>> 33) & ((1L << k) - 1)) | 1;
+					}
+					directionNumbers[j++] = getDirectionNumbers(degree, a, m);
+				}
+			}
+		}
+		if(j < dimension) {
+			throw new IllegalArgumentException("The built-in direction numbers support at most " + j + " dimensions.");
+		}
+	}
+
+	/**
+	 * Create the sequence with direction numbers read from a file in the format of Joe and Kuo: a header line, followed by a line
+	 * <code>d s a m_1 ... m_s</code> for each dimension <code>d &ge; 2</code> (the first dimension is implicit).
+	 *
+	 * @param reader The reader of the file (not closed).
+	 * @param dimension The dimension.
+	 * @throws IllegalArgumentException If the file provides less than the requested dimensions.
+	 */
+	public SobolSequence(final Reader reader, final int dimension) {
+		super();
+		if(dimension < 1) {
+			throw new IllegalArgumentException("The dimension has to be positive, got " + dimension + ".");
+		}
+		final List<int[]> dimensions = new ArrayList<>();
+		dimensions.add(getDirectionNumbers(0, 0, new int[0]));
+		try {
+			final BufferedReader lines = new BufferedReader(reader);
+			lines.readLine();	// Header
+			String line;
+			while(dimensions.size() < dimension && (line = lines.readLine()) != null) {
+				if(line.isBlank()) continue;
+				final String[] fields = line.trim().split("\\s+");
+				final int degree = Integer.parseInt(fields[1]);
+				final int a = Integer.parseInt(fields[2]);
+				final int[] m = new int[degree];
+				for(int k=0; k<degree; k++) m[k] = Integer.parseInt(fields[3 + k]);
+				dimensions.add(getDirectionNumbers(degree, a, m));
+			}
+		}
+		catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if(dimensions.size() < dimension) {
+			throw new IllegalArgumentException("The direction numbers support at most " + dimensions.size() + " dimensions.");
+		}
+		directionNumbers = dimensions.toArray(new int[0][]);
+	}
+
+	public int getDimension() {
+		return directionNumbers.length;
+	}
+
+	/**
+	 * Get a coordinate of a point of the sequence as 32 bit integer, i.e., the coordinate is <code>Integer.toUnsignedLong(x) / 2<sup>32</sup></code>.
+	 * The point with index 0 is the origin.
+	 *
+	 * @param index The index of the point, <code>0 &le; index &lt; 2<sup>32</sup></code>.
+	 * @param dimension The dimension (coordinate).
+	 * @return The coordinate of the point.
+	 */
+	public int getPoint(final long index, final int dimension) {
+		final int[] v = directionNumbers[dimension];
+		long grayCode = index ^ (index >>> 1);
+		int x = 0;
+		for(int k = 0; grayCode != 0; k++, grayCode >>>= 1) {
+			if((grayCode & 1) != 0) x ^= v[k];
+		}
+		return x;
+	}
+
+	/**
+	 * @return The direction numbers, <code>v[dimension * 32 + k]</code> (e.g. for a device generator).
+	 */
+	public int[] getDirectionNumbers() {
+		final int[] v = new int[directionNumbers.length * BITS];
+		for(int j=0; j<directionNumbers.length; j++) {
+			System.arraycopy(directionNumbers[j], 0, v, j * BITS, BITS);
+		}
+		return v;
+	}
+
+	/*
+	 * The direction numbers of the polynomial of the given degree with the middle coefficients a (bit s-2 is a_1) and the initial numbers m.
+	 * Degree 0 is the van der Corput sequence.
+	 */
+	private static int[] getDirectionNumbers(final int degree, final int a, final int[] initialNumbers) {
+		final long[] m = new long[BITS + 1];
+		for(int k = 1; k <= BITS; k++) {
+			if(degree == 0) {
+				m[k] = 1;
+			}
+			else if(k <= degree) {
+				m[k] = initialNumbers[k-1];
+				if((m[k] & 1) == 0 || m[k] >= 1L << k) {
+					throw new IllegalArgumentException("Initial direction number m_" + k + " = " + m[k] + " has to be odd and less than 2^" + k + ".");
+				}
+			}
+			else {
+				long value = m[k - degree] ^ (m[k - degree] << degree);
+				for(int i = 1; i < degree; i++) {
+					if(((a >>> (degree - 1 - i)) & 1) != 0) value ^= m[k - i] << i;
+				}
+				m[k] = value;
+			}
+		}
+		final int[] v = new int[BITS];
+		for(int k = 1; k <= BITS; k++) {
+			v[k-1] = (int)(m[k] << (BITS - k));
+		}
+		return v;
+	}
+
+	/*
+	 * Check if x^degree + a_1 x^(degree-1) + ... + a_(degree-1) x + 1 is primitive, i.e., the order of x modulo the polynomial is 2^degree - 1.
+	 */
+	private static boolean isPrimitive(final int degree, final int a) {
+		final long polynomial = (1L << degree) | ((long)a << 1) | 1L;
+		final long order = (1L << degree) - 1;
+		if(powerOfX(order, polynomial, degree) != 1) {
+			return false;
+		}
+		long remaining = order;
+		for(long prime = 2; prime * prime <= remaining || remaining > 1; prime++) {
+			if(prime * prime > remaining) {
+				prime = remaining;
+			}
+			if(remaining % prime == 0) {
+				if(powerOfX(order / prime, polynomial, degree) == 1) {
+					return false;
+				}
+				while(remaining % prime == 0) remaining /= prime;
+			}
+		}
+		return true;
+	}
+
+	// x^exponent modulo the polynomial (of the given degree) over GF(2)
+	private static long powerOfX(long exponent, final long polynomial, final int degree) {
+		long result = 1;
+		long base = degree == 1 ? polynomial ^ (1L << degree) : 2;	// x mod p
+		while(exponent > 0) {
+			if((exponent & 1) != 0) result = multiply(result, base, polynomial, degree);
+			base = multiply(base, base, polynomial, degree);
+			exponent >>>= 1;
+		}
+		return result;
+	}
+
+	private static long multiply(long x, final long y, final long polynomial, final int degree) {
+		long result = 0;
+		for(long bits = y; bits != 0; bits >>>= 1) {
+			if((bits & 1) != 0) result ^= x;
+			x <<= 1;
+			if((x & (1L << degree)) != 0) x ^= polynomial;
+		}
+		return result;
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.montecarlo;
+
+import java.util.Arrays;
+
+/**
+ * A time discretization <i>t<sub>0</sub> &lt; t<sub>1</sub> &lt; ... &lt; t<sub>n</sub></i>.
+ * The time index <i>i</i> refers to the time <i>t<sub>i</sub></i>, the time step <i>i</i> to the interval from
+ * <i>t<sub>i</sub></i> to <i>t<sub>i+1</sub></i>.
+ *
+ * @author Christian Fries
+ */
+public class TimeDiscretization {
+
+	private final double[] times;
+
+	/**
+	 * Create a time discretization from the given times.
+	 *
+	 * @param times The times (strictly increasing).
+	 */
+	public TimeDiscretization(double... times) {
+		super();
+		if(times.length == 0) {
+			throw new IllegalArgumentException("A time discretization requires at least one time.");
+		}
+		for(int i=1; i<times.length; i++) {
+			if(!(times[i] > times[i-1])) {
+				throw new IllegalArgumentException("Times have to be strictly increasing: " + times[i-1] + " >= " + times[i] + ".");
+			}
+		}
+		this.times = times.clone();
+	}
+
+	/**
+	 * Create an equidistant time discretization.
+	 *
+	 * @param initial The first time.
+	 * @param numberOfTimeSteps The number of time steps.
+	 * @param deltaT The length of a time step.
+	 * @return The time discretization.
+	 */
+	public static TimeDiscretization ofUniform(double initial, int numberOfTimeSteps, double deltaT) {
+		final double[] times = new double[numberOfTimeSteps+1];
+		for(int i=0; i<times.length; i++) {
+			times[i] = initial + i * deltaT;
+		}
+		return new TimeDiscretization(times);
+	}
+
+	public int getNumberOfTimes() {
+		return times.length;
+	}
+
+	public int getNumberOfTimeSteps() {
+		return times.length-1;
+	}
+
+	public double getTime(int timeIndex) {
+		return times[timeIndex];
+	}
+
+	public double getTimeStep(int timeIndex) {
+		return times[timeIndex+1] - times[timeIndex];
+	}
+
+	/**
+	 * @param time A time.
+	 * @return The index of the time or a negative value if the time is not part of the discretization (see {@link Arrays#binarySearch(double[], double)}).
+	 */
+	public int getTimeIndex(double time) {
+		return Arrays.binarySearch(times, time);
+	}
+
+	@Override
+	public String toString() {
+		return "TimeDiscretization " + Arrays.toString(times);
+	}
+}
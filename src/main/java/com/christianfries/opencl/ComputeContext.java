@@ -0,0 +1,482 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.opencl;
+
+import static org.jocl.CL.CL_CONTEXT_PLATFORM;
+import static org.jocl.CL.CL_DEVICE_MAX_COMPUTE_UNITS;
+import static org.jocl.CL.CL_DEVICE_MAX_WORK_GROUP_SIZE;
+import static org.jocl.CL.CL_DEVICE_PLATFORM;
+import static org.jocl.CL.CL_DEVICE_TYPE;
+import static org.jocl.CL.CL_DEVICE_TYPE_GPU;
+import static org.jocl.CL.CL_MEM_COPY_HOST_PTR;
+import static org.jocl.CL.CL_PROFILING_COMMAND_END;
+import static org.jocl.CL.CL_PROFILING_COMMAND_QUEUED;
+import static org.jocl.CL.CL_PROFILING_COMMAND_START;
+import static org.jocl.CL.CL_QUEUE_PROFILING_ENABLE;
+import static org.jocl.CL.CL_TRUE;
+import static org.jocl.CL.clBuildProgram;
+import static org.jocl.CL.clCreateBuffer;
+import static org.jocl.CL.clCreateCommandQueue;
+import static org.jocl.CL.clCreateContext;
+import static org.jocl.CL.clCreateProgramWithSource;
+import static org.jocl.CL.clEnqueueReadBuffer;
+import static org.jocl.CL.clEnqueueWriteBuffer;
+import static org.jocl.CL.clFinish;
+import static org.jocl.CL.clGetDeviceInfo;
+import static org.jocl.CL.clGetEventProfilingInfo;
+import static org.jocl.CL.clReleaseCommandQueue;
+import static org.jocl.CL.clReleaseContext;
+import static org.jocl.CL.clReleaseEvent;
+import static org.jocl.CL.clReleaseProgram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.christianfries.compute.Backend;
+import com.christianfries.compute.ComputeEvents;
+import com.christianfries.compute.ComputeEvents.DeviceAlloc;
+import com.christianfries.compute.ComputeEvents.DeviceToHostCopy;
+import com.christianfries.compute.ComputeEvents.HostToDeviceCopy;
+import com.christianfries.compute.ComputeEvents.ProgramBuild;
+import com.christianfries.compute.ComputeTracer;
+import com.christianfries.compute.DeviceInfo;
+import com.christianfries.compute.DeviceRegistry;
+import com.christianfries.compute.Expression;
+import com.christianfries.compute.ExpressionCompiler;
+import com.christianfries.compute.ExpressionCompiler.Dialect;
+import com.christianfries.compute.KernelVariant;
+import com.christianfries.compute.LaunchPolicy;
+import com.christianfries.compute.LaunchPolicy.LaunchConfiguration;
+
+import org.jocl.CL;
+import org.jocl.Pointer;
+import org.jocl.Sizeof;
+import org.jocl.cl_command_queue;
+import org.jocl.cl_context;
+import org.jocl.cl_context_properties;
+import org.jocl.cl_device_id;
+import org.jocl.cl_event;
+import org.jocl.cl_mem;
+import org.jocl.cl_platform_id;
+import org.jocl.cl_program;
+
+/**
+ * An OpenCL context together with its device and command queue.
+ *
+ * The class bundles the platform / device / context / queue boilerplate and
+ * caches built programs (by source and build options), such that the same
+ * program is compiled only once per context. Kernels are launched through a
+ * {@link KernelLauncher} obtained from {@link #createKernel(String, String, String)}.
+ *
+ * One dimensional kernels using a grid-stride loop may be launched with the range returned by
+ * {@link #createRange(long)}, sized to the compute units of the device by a {@link LaunchPolicy}.
+ *
+ * Program builds, allocations, transfers and kernel launches are reported as {@link ComputeEvents}. If the {@link ComputeTracer}
+ * is enabled when the context is created, the command queue profiles the kernels and transfers, recorded as device spans.
+ *
+ * @author Christian Fries
+ */
+public class ComputeContext implements AutoCloseable {
+
+	private final cl_platform_id platform;
+	private final cl_device_id device;
+	private final cl_context context;
+	private final cl_command_queue commandQueue;
+	private final LaunchPolicy launchPolicy;
+	private final String deviceId;
+
+	// Commands with profiling events, resolved to device spans of the ComputeTracer once completed
+	private final boolean isProfiling;
+	private final List<ProfiledCommand> profiledCommands = new ArrayList<>();
+
+	private static class ProfiledCommand {
+		private final cl_event event;
+		private final String category;
+		private final String name;
+		private final long enqueueNanos;
+		private final Map<String, Object> arguments;
+
+		ProfiledCommand(final cl_event event, final String category, final String name, final long enqueueNanos, final Map<String, Object> arguments) {
+			this.event = event;
+			this.category = category;
+			this.name = name;
+			this.enqueueNanos = enqueueNanos;
+			this.arguments = arguments;
+		}
+	}
+
+	private final Map<String, cl_program> programs = new HashMap<>();
+
+	/**
+	 * Create a compute context on the device selected by the given policy.
+	 *
+	 * @param deviceSelectionPolicy The policy used to select the device.
+	 * @return A new compute context.
+	 */
+	public static ComputeContext create(final DeviceSelectionPolicy deviceSelectionPolicy) {
+		// Enable exceptions and subsequently omit error checks
+		CL.setExceptionsEnabled(true);
+
+		return new ComputeContext(deviceSelectionPolicy.select(DeviceSelectionPolicy.getPlatforms()));
+	}
+
+	/**
+	 * Create a compute context for the given device.
+	 *
+	 * @param device The OpenCL device.
+	 */
+	public ComputeContext(final cl_device_id device) {
+		super();
+		this.device = device;
+
+		// Obtain the platform of the device
+		final cl_platform_id[] platformOfDevice = new cl_platform_id[1];
+		clGetDeviceInfo(device, CL_DEVICE_PLATFORM, Sizeof.cl_platform_id, Pointer.to(platformOfDevice), null);
+		platform = platformOfDevice[0];
+
+		// Initialize the context properties
+		final cl_context_properties contextProperties = new cl_context_properties();
+		contextProperties.addProperty(CL_CONTEXT_PLATFORM, platform);
+
+		// Create a context for the selected device
+		context = clCreateContext(contextProperties, 1, new cl_device_id[]{ device }, null, null, null);
+
+		// Create a command-queue for the selected device (with profiling if tracing is enabled)
+		isProfiling = ComputeTracer.getInstance().isEnabled();
+		commandQueue = clCreateCommandQueue(context, device, isProfiling ? CL_QUEUE_PROFILING_ENABLE : 0, null);
+
+		launchPolicy = createLaunchPolicy(device);
+		deviceId = DeviceRegistry.getInstance().getDevices(Backend.OPEN_CL).stream()
+				.filter(deviceInfo -> device.equals(deviceInfo.getOpenCLDevice()))
+				.map(DeviceInfo::getId).findFirst().orElse("opencl");
+	}
+
+	/*
+	 * OpenCL does not report the number of resident work items per compute unit: we assume 2048 for a GPU
+	 * and a single work group per core for a CPU. The granularity of small work groups is the warp size (GPU)
+	 * or the SIMD width (CPU).
+	 */
+	private static LaunchPolicy createLaunchPolicy(final cl_device_id device) {
+		final int[] computeUnits = new int[1];
+		final long[] maxWorkGroupSize = new long[1];
+		final long[] deviceType = new long[1];
+		clGetDeviceInfo(device, CL_DEVICE_MAX_COMPUTE_UNITS, Sizeof.cl_uint, Pointer.to(computeUnits), null);
+		clGetDeviceInfo(device, CL_DEVICE_MAX_WORK_GROUP_SIZE, Sizeof.size_t, Pointer.to(maxWorkGroupSize), null);
+		clGetDeviceInfo(device, CL_DEVICE_TYPE, Sizeof.cl_long, Pointer.to(deviceType), null);
+
+		return createLaunchPolicy(computeUnits[0], maxWorkGroupSize[0], (deviceType[0] & CL_DEVICE_TYPE_GPU) != 0);
+	}
+
+	/*
+	 * The launch policy from the device properties (separated from the device queries, such that it can be tested without a device).
+	 */
+	static LaunchPolicy createLaunchPolicy(final int computeUnits, final long maxWorkGroupSize, final boolean isGPU) {
+		final int blockSize = (int)Math.max(1, Math.min(256, maxWorkGroupSize));
+		return new LaunchPolicy(computeUnits, isGPU ? 2048 : blockSize, blockSize, isGPU ? 32 : 8, Integer.MAX_VALUE);
+	}
+
+	public cl_platform_id getPlatform() {
+		return platform;
+	}
+
+	public cl_device_id getDevice() {
+		return device;
+	}
+
+	public cl_context getContext() {
+		return context;
+	}
+
+	public cl_command_queue getCommandQueue() {
+		return commandQueue;
+	}
+
+	/**
+	 * @return True if the command queue was created with profiling, i.e., the {@link ComputeTracer} was enabled when this context was created.
+	 */
+	public boolean isProfiling() {
+		return isProfiling;
+	}
+
+	/**
+	 * Register a command enqueued with a profiling event. Once the command has completed (see {@link #finish()}), its execution on the device
+	 * is recorded as a device span of the {@link ComputeTracer}. The device clock is mapped to the host clock by the time of the enqueue.
+	 * The context releases the event.
+	 *
+	 * @param event The event of the command.
+	 * @param category The category of the span.
+	 * @param name The name of the span.
+	 * @param enqueueNanos The host time (<code>System.nanoTime()</code>) immediately before the command was enqueued.
+	 * @param arguments Additional arguments of the span (may be null).
+	 */
+	public void addProfiledCommand(final cl_event event, final String category, final String name, final long enqueueNanos, final Map<String, Object> arguments) {
+		synchronized(profiledCommands) {
+			profiledCommands.add(new ProfiledCommand(event, category, name, enqueueNanos, arguments));
+		}
+	}
+
+	/*
+	 * Record the device spans of the profiled commands. Requires that all profiled commands have completed (the queue is in-order).
+	 */
+	private void resolveProfiledCommands() {
+		final List<ProfiledCommand> completedCommands;
+		synchronized(profiledCommands) {
+			if(profiledCommands.isEmpty()) {
+				return;
+			}
+			completedCommands = new ArrayList<>(profiledCommands);
+			profiledCommands.clear();
+		}
+		final long[] queued = new long[1];
+		final long[] start = new long[1];
+		final long[] end = new long[1];
+		for(final ProfiledCommand command : completedCommands) {
+			clGetEventProfilingInfo(command.event, CL_PROFILING_COMMAND_QUEUED, Sizeof.cl_ulong, Pointer.to(queued), null);
+			clGetEventProfilingInfo(command.event, CL_PROFILING_COMMAND_START, Sizeof.cl_ulong, Pointer.to(start), null);
+			clGetEventProfilingInfo(command.event, CL_PROFILING_COMMAND_END, Sizeof.cl_ulong, Pointer.to(end), null);
+			clReleaseEvent(command.event);
+			ComputeTracer.getInstance().recordDeviceSpan(deviceId, command.category, command.name,
+					command.enqueueNanos + (start[0] - queued[0]), end[0] - start[0], command.arguments);
+		}
+	}
+
+	/**
+	 * @return The id of the device, <code>opencl:&lt;platform&gt;:&lt;device&gt;</code>, see {@link DeviceInfo#getId()}.
+	 */
+	public String getDeviceId() {
+		return deviceId;
+	}
+
+	/**
+	 * Get the program for the given source, building it if it has not been built before.
+	 *
+	 * @param source The OpenCL C source code.
+	 * @param options The build options (may be null).
+	 * @return The built program.
+	 */
+	public synchronized cl_program getProgram(final String source, final String options) {
+		final String key = options + "\n" + source;
+		cl_program program = programs.get(key);
+		if(program == null) {
+			final ProgramBuild event = ComputeEvents.startProgramBuild(deviceId, getProgramName(source), source.length());
+			program = clCreateProgramWithSource(context, 1, new String[]{ source }, null, null);
+			clBuildProgram(program, 0, null, options, null, null);
+			event.complete();
+			programs.put(key, program);
+		}
+		return program;
+	}
+
+	/*
+	 * The name of the first kernel of the source (used to identify a program in the build events).
+	 */
+	private static String getProgramName(final String source) {
+		final int kernelIndex = source.indexOf("__kernel void ");
+		if(kernelIndex < 0) {
+			return "unnamed";
+		}
+		final int nameStart = kernelIndex + "__kernel void ".length();
+		int nameEnd = nameStart;
+		while(nameEnd < source.length() && Character.isJavaIdentifierPart(source.charAt(nameEnd))) {
+			nameEnd++;
+		}
+		return source.substring(nameStart, nameEnd);
+	}
+
+	/**
+	 * Create a launcher for a kernel of the given program.
+	 *
+	 * @param source The OpenCL C source code of the program.
+	 * @param options The build options (may be null).
+	 * @param kernelName The name of the kernel function.
+	 * @return A new kernel launcher. The caller owns the launcher and should close it.
+	 */
+	public KernelLauncher createKernel(final String source, final String options, final String kernelName) {
+		return new KernelLauncher(this, getProgram(source, options), kernelName);
+	}
+
+	/**
+	 * Create a launcher for the fused kernel evaluating the given expression, see {@link ExpressionCompiler}.
+	 * The kernel arguments are <code>(n, variables..., parameters..., result)</code>, where <code>n</code> is a <code>long</code>.
+	 * The kernel uses a grid-stride loop and may be launched with {@link #createRange(long)}.
+	 *
+	 * @param expression The expression.
+	 * @return A new kernel launcher. The caller owns the launcher and should close it.
+	 */
+	public KernelLauncher createKernel(final Expression expression) {
+		return createKernel(expression, KernelVariant.PREDICATED);
+	}
+
+	/**
+	 * Create a launcher for the fused kernel evaluating the given expression, see {@link ExpressionCompiler}.
+	 * The kernel arguments are <code>(n, variables..., parameters..., result)</code>, where <code>n</code> is a <code>long</code>.
+	 *
+	 * @param expression The expression.
+	 * @param variant The variant of the kernel (branching or predicated), e.g., as selected by {@link com.christianfries.compute.DivergenceDiagnostics}.
+	 * @return A new kernel launcher. The caller owns the launcher and should close it.
+	 */
+	public KernelLauncher createKernel(final Expression expression, final KernelVariant variant) {
+		return createKernel(ExpressionCompiler.getKernelSource(expression, Dialect.OPEN_CL, variant), null, ExpressionCompiler.getKernelName(expression, variant));
+	}
+
+	/**
+	 * @return The policy selecting the range of a one dimensional launch (from the compute units of the device).
+	 */
+	public LaunchPolicy getLaunchPolicy() {
+		return launchPolicy;
+	}
+
+	/**
+	 * Create the range of a one dimensional launch over the given number of elements, selected by the {@link LaunchPolicy} of this device.
+	 * The global work size may be smaller (persistent work items) or larger (padding to full work groups) than the number of elements,
+	 * hence the kernel has to use a grid-stride loop, <code>for(long i = get_global_id(0); i &lt; n; i += get_global_size(0))</code>.
+	 *
+	 * @param numberOfElements The number of elements.
+	 * @return The range (with global and local work size).
+	 */
+	public NDRange createRange(final long numberOfElements) {
+		return createRange(launchPolicy, numberOfElements);
+	}
+
+	static NDRange createRange(final LaunchPolicy launchPolicy, final long numberOfElements) {
+		final LaunchConfiguration configuration = launchPolicy.getConfiguration(numberOfElements);
+		return NDRange.of(configuration.getGlobalSize()).withLocalWorkSize(configuration.getBlockSize());
+	}
+
+	/**
+	 * Create a buffer and copy the given host data to it.
+	 *
+	 * @param flags Memory flags, e.g., <code>CL_MEM_READ_ONLY</code>. <code>CL_MEM_COPY_HOST_PTR</code> is added.
+	 * @param values The host data.
+	 * @return The buffer.
+	 */
+	public cl_mem createBuffer(final long flags, final float[] values) {
+		final long sizeInBytes = (long)Sizeof.cl_float * values.length;
+		final DeviceAlloc event = ComputeEvents.startDeviceAlloc(deviceId, sizeInBytes);
+		final cl_mem buffer = clCreateBuffer(context, flags | CL_MEM_COPY_HOST_PTR, sizeInBytes, Pointer.to(values), null);
+		event.complete();
+		return buffer;
+	}
+
+	/**
+	 * Create an uninitialized buffer.
+	 *
+	 * @param flags Memory flags, e.g., <code>CL_MEM_READ_WRITE</code>.
+	 * @param sizeInBytes The size of the buffer in bytes.
+	 * @return The buffer.
+	 */
+	public cl_mem createBuffer(final long flags, final long sizeInBytes) {
+		final DeviceAlloc event = ComputeEvents.startDeviceAlloc(deviceId, sizeInBytes);
+		final cl_mem buffer = clCreateBuffer(context, flags, sizeInBytes, null, null);
+		event.complete();
+		return buffer;
+	}
+
+	/**
+	 * Blocking read of a buffer into a host array.
+	 *
+	 * @param buffer The device buffer.
+	 * @param values The host array receiving the data.
+	 */
+	public void read(final cl_mem buffer, final float[] values) {
+		final long sizeInBytes = (long)Sizeof.cl_float * values.length;
+		final DeviceToHostCopy event = ComputeEvents.startDeviceToHostCopy(deviceId, sizeInBytes);
+		final cl_event profilingEvent = isProfiling ? new cl_event() : null;
+		final long enqueueNanos = System.nanoTime();
+		clEnqueueReadBuffer(commandQueue, buffer, CL_TRUE, 0, sizeInBytes, Pointer.to(values), 0, null, profilingEvent);
+		event.complete();
+		if(isProfiling) {
+			addProfiledCommand(profilingEvent, "DeviceToHostCopy", "read", enqueueNanos, Collections.singletonMap("bytes", sizeInBytes));
+			resolveProfiledCommands();
+		}
+	}
+
+	/**
+	 * Blocking read of a buffer into a host array.
+	 *
+	 * @param buffer The device buffer.
+	 * @param values The host array receiving the data.
+	 */
+	public void read(final cl_mem buffer, final int[] values) {
+		final long sizeInBytes = (long)Sizeof.cl_int * values.length;
+		final DeviceToHostCopy event = ComputeEvents.startDeviceToHostCopy(deviceId, sizeInBytes);
+		final cl_event profilingEvent = isProfiling ? new cl_event() : null;
+		final long enqueueNanos = System.nanoTime();
+		clEnqueueReadBuffer(commandQueue, buffer, CL_TRUE, 0, sizeInBytes, Pointer.to(values), 0, null, profilingEvent);
+		event.complete();
+		if(isProfiling) {
+			addProfiledCommand(profilingEvent, "DeviceToHostCopy", "read", enqueueNanos, Collections.singletonMap("bytes", sizeInBytes));
+			resolveProfiledCommands();
+		}
+	}
+
+	/**
+	 * Blocking write of a host array into a buffer.
+	 *
+	 * @param buffer The device buffer.
+	 * @param values The host array providing the data.
+	 */
+	public void write(final cl_mem buffer, final int[] values) {
+		final long sizeInBytes = (long)Sizeof.cl_int * values.length;
+		final HostToDeviceCopy event = ComputeEvents.startHostToDeviceCopy(deviceId, sizeInBytes);
+		final cl_event profilingEvent = isProfiling ? new cl_event() : null;
+		final long enqueueNanos = System.nanoTime();
+		clEnqueueWriteBuffer(commandQueue, buffer, CL_TRUE, 0, sizeInBytes, Pointer.to(values), 0, null, profilingEvent);
+		event.complete();
+		if(isProfiling) {
+			addProfiledCommand(profilingEvent, "HostToDeviceCopy", "write", enqueueNanos, Collections.singletonMap("bytes", sizeInBytes));
+			resolveProfiledCommands();
+		}
+	}
+
+	/**
+	 * Blocking write of a host array into a buffer.
+	 *
+	 * @param buffer The device buffer.
+	 * @param values The host array providing the data.
+	 */
+	public void write(final cl_mem buffer, final float[] values) {
+		final long sizeInBytes = (long)Sizeof.cl_float * values.length;
+		final HostToDeviceCopy event = ComputeEvents.startHostToDeviceCopy(deviceId, sizeInBytes);
+		final cl_event profilingEvent = isProfiling ? new cl_event() : null;
+		final long enqueueNanos = System.nanoTime();
+		clEnqueueWriteBuffer(commandQueue, buffer, CL_TRUE, 0, sizeInBytes, Pointer.to(values), 0, null, profilingEvent);
+		event.complete();
+		if(isProfiling) {
+			addProfiledCommand(profilingEvent, "HostToDeviceCopy", "write", enqueueNanos, Collections.singletonMap("bytes", sizeInBytes));
+			resolveProfiledCommands();
+		}
+	}
+
+	/**
+	 * Wait until all commands enqueued to the command queue have completed.
+	 */
+	public void finish() {
+		final long startNanos = System.nanoTime();
+		clFinish(commandQueue);
+		ComputeTracer.getInstance().recordHostSpan("Synchronize", "clFinish", startNanos, System.nanoTime() - startNanos, null);
+		resolveProfiledCommands();
+	}
+
+	/**
+	 * Release all programs, the command queue and the context.
+	 */
+	@Override
+	public synchronized void close() {
+		clFinish(commandQueue);
+		resolveProfiledCommands();
+		for(final cl_program program : programs.values()) {
+			clReleaseProgram(program);
+		}
+		programs.clear();
+		clReleaseCommandQueue(commandQueue);
+		clReleaseContext(context);
+	}
+}
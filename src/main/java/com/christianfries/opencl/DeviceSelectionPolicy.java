@@ -0,0 +1,141 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.opencl;
+
+import static org.jocl.CL.CL_DEVICE_MAX_COMPUTE_UNITS;
+import static org.jocl.CL.clGetDeviceIDs;
+import static org.jocl.CL.clGetDeviceInfo;
+import static org.jocl.CL.clGetPlatformIDs;
+
+import org.jocl.CL;
+import org.jocl.CLException;
+import org.jocl.Pointer;
+import org.jocl.Sizeof;
+import org.jocl.cl_device_id;
+import org.jocl.cl_platform_id;
+
+/**
+ * A policy selecting the OpenCL device on which a {@link ComputeContext} is created.
+ *
+ * @author Christian Fries
+ */
+@FunctionalInterface
+public interface DeviceSelectionPolicy {
+
+	/**
+	 * Select a device.
+	 *
+	 * @param platforms The OpenCL platforms available on this system.
+	 * @return The selected device.
+	 * @throws IllegalStateException If no matching device exists.
+	 */
+	cl_device_id select(cl_platform_id[] platforms);
+
+	/**
+	 * Select a device by its index for a given platform and device type.
+	 *
+	 * @param platformIndex The index of the platform.
+	 * @param deviceType The device type, e.g., <code>CL_DEVICE_TYPE_GPU</code>.
+	 * @param deviceIndex The index of the device. Negative values count from the end, i.e., -1 is the last device.
+	 * @return The policy.
+	 */
+	static DeviceSelectionPolicy byIndex(final int platformIndex, final long deviceType, final int deviceIndex) {
+		return platforms -> {
+			if(platformIndex >= platforms.length) {
+				throw new IllegalStateException("No OpenCL platform with index " + platformIndex + ". Number of platforms: " + platforms.length);
+			}
+			final cl_device_id[] devices = getDevices(platforms[platformIndex], deviceType);
+			final int index = deviceIndex >= 0 ? deviceIndex : (devices.length + deviceIndex);
+			if(index < 0 || index >= devices.length) {
+				throw new IllegalStateException("No OpenCL device with index " + deviceIndex + ". Number of devices: " + devices.length);
+			}
+			return devices[index];
+		};
+	}
+
+	/**
+	 * Select the first device of the given type, searching all platforms.
+	 *
+	 * @param deviceType The device type, e.g., <code>CL_DEVICE_TYPE_GPU</code>.
+	 * @return The policy.
+	 */
+	static DeviceSelectionPolicy firstOfType(final long deviceType) {
+		return platforms -> {
+			for(final cl_platform_id platform : platforms) {
+				final cl_device_id[] devices = getDevices(platform, deviceType);
+				if(devices.length > 0) {
+					return devices[0];
+				}
+			}
+			throw new IllegalStateException("No OpenCL device of type " + CL.stringFor_cl_device_type(deviceType) + ".");
+		};
+	}
+
+	/**
+	 * Select the device of the given type with the largest number of compute units, searching all platforms.
+	 *
+	 * @param deviceType The device type, e.g., <code>CL_DEVICE_TYPE_GPU</code>.
+	 * @return The policy.
+	 */
+	static DeviceSelectionPolicy mostComputeUnits(final long deviceType) {
+		return platforms -> {
+			cl_device_id bestDevice = null;
+			int bestComputeUnits = -1;
+			for(final cl_platform_id platform : platforms) {
+				for(final cl_device_id device : getDevices(platform, deviceType)) {
+					final int[] computeUnits = new int[1];
+					clGetDeviceInfo(device, CL_DEVICE_MAX_COMPUTE_UNITS, Sizeof.cl_uint, Pointer.to(computeUnits), null);
+					if(computeUnits[0] > bestComputeUnits) {
+						bestDevice = device;
+						bestComputeUnits = computeUnits[0];
+					}
+				}
+			}
+			if(bestDevice == null) {
+				throw new IllegalStateException("No OpenCL device of type " + CL.stringFor_cl_device_type(deviceType) + ".");
+			}
+			return bestDevice;
+		};
+	}
+
+	/**
+	 * Get all platforms of this system.
+	 *
+	 * @return The platforms.
+	 */
+	static cl_platform_id[] getPlatforms() {
+		final int numPlatformsArray[] = new int[1];
+		clGetPlatformIDs(0, null, numPlatformsArray);
+		final cl_platform_id platforms[] = new cl_platform_id[numPlatformsArray[0]];
+		clGetPlatformIDs(platforms.length, platforms, null);
+		return platforms;
+	}
+
+	/**
+	 * Get all devices of a given type for a platform.
+	 *
+	 * @param platform The platform.
+	 * @param deviceType The device type, e.g., <code>CL_DEVICE_TYPE_GPU</code>.
+	 * @return The devices (an empty array if there are no devices of this type).
+	 */
+	static cl_device_id[] getDevices(final cl_platform_id platform, final long deviceType) {
+		final int numDevicesArray[] = new int[1];
+		try {
+			clGetDeviceIDs(platform, deviceType, 0, null, numDevicesArray);
+		}
+		catch(final CLException e) {
+			// CL_DEVICE_NOT_FOUND is reported as an exception
+			if(e.getStatus() == CL.CL_DEVICE_NOT_FOUND) {
+				return new cl_device_id[0];
+			}
+			throw e;
+		}
+		final cl_device_id devices[] = new cl_device_id[numDevicesArray[0]];
+		clGetDeviceIDs(platform, deviceType, devices.length, devices, null);
+		return devices;
+	}
+}
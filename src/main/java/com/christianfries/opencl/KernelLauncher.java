@@ -0,0 +1,234 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.opencl;
+
+import static org.jocl.CL.clCreateKernel;
+import static org.jocl.CL.clEnqueueNDRangeKernel;
+import static org.jocl.CL.clReleaseKernel;
+import static org.jocl.CL.clRetainEvent;
+import static org.jocl.CL.clSetKernelArg;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.christianfries.compute.ComputeEvents;
+import com.christianfries.compute.ComputeEvents.KernelLaunch;
+
+import org.jocl.Pointer;
+import org.jocl.Sizeof;
+import org.jocl.cl_event;
+import org.jocl.cl_kernel;
+import org.jocl.cl_mem;
+import org.jocl.cl_program;
+
+/**
+ * Launches an OpenCL kernel with typed, reusable argument slots.
+ *
+ * Each argument index owns a slot holding the last value passed to <code>clSetKernelArg</code>
+ * together with a pre-allocated host array and <code>Pointer</code> wrapping it. Setting an argument
+ * to the value it already has is a no-op, setting it to a new value writes the value into the slot's
+ * array and re-uses the slot's pointer. Hence repeated launches do not allocate.
+ *
+ * The launcher is not thread safe (like the underlying <code>cl_kernel</code>).
+ *
+ * @author Christian Fries
+ */
+public class KernelLauncher implements AutoCloseable {
+
+	private enum ArgumentType { INT, LONG, FLOAT, DOUBLE, MEM, LOCAL }
+
+	/**
+	 * The state of a single kernel argument.
+	 */
+	private static class ArgumentSlot {
+		private ArgumentType type;
+		private long bits;
+		private cl_mem mem;
+
+		private int[]		intValue;
+		private long[]		longValue;
+		private float[]		floatValue;
+		private double[]	doubleValue;
+
+		private Pointer intPointer;
+		private Pointer longPointer;
+		private Pointer floatPointer;
+		private Pointer doublePointer;
+
+		private boolean isSet(final ArgumentType type, final long bits) {
+			return this.type == type && this.bits == bits;
+		}
+	}
+
+	private final ComputeContext computeContext;
+	private final String name;
+	private final cl_kernel kernel;
+	private final List<ArgumentSlot> slots = new ArrayList<>();
+
+	/**
+	 * Create a launcher for a kernel of the given program.
+	 *
+	 * @param computeContext The compute context of the program.
+	 * @param program The (built) program.
+	 * @param name The name of the kernel function.
+	 */
+	public KernelLauncher(final ComputeContext computeContext, final cl_program program, final String name) {
+		super();
+		this.computeContext = computeContext;
+		this.name = name;
+		this.kernel = clCreateKernel(program, name, null);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public cl_kernel getKernel() {
+		return kernel;
+	}
+
+	public ComputeContext getComputeContext() {
+		return computeContext;
+	}
+
+	private ArgumentSlot getSlot(final int index) {
+		while(slots.size() <= index) {
+			slots.add(new ArgumentSlot());
+		}
+		return slots.get(index);
+	}
+
+	public KernelLauncher setArg(final int index, final int value) {
+		final ArgumentSlot slot = getSlot(index);
+		if(!slot.isSet(ArgumentType.INT, value)) {
+			if(slot.intValue == null) {
+				slot.intValue = new int[1];
+				slot.intPointer = Pointer.to(slot.intValue);
+			}
+			slot.intValue[0] = value;
+			clSetKernelArg(kernel, index, Sizeof.cl_int, slot.intPointer);
+			slot.type = ArgumentType.INT;
+			slot.bits = value;
+		}
+		return this;
+	}
+
+	public KernelLauncher setArg(final int index, final long value) {
+		final ArgumentSlot slot = getSlot(index);
+		if(!slot.isSet(ArgumentType.LONG, value)) {
+			if(slot.longValue == null) {
+				slot.longValue = new long[1];
+				slot.longPointer = Pointer.to(slot.longValue);
+			}
+			slot.longValue[0] = value;
+			clSetKernelArg(kernel, index, Sizeof.cl_long, slot.longPointer);
+			slot.type = ArgumentType.LONG;
+			slot.bits = value;
+		}
+		return this;
+	}
+
+	public KernelLauncher setArg(final int index, final float value) {
+		final ArgumentSlot slot = getSlot(index);
+		final long bits = Float.floatToRawIntBits(value);
+		if(!slot.isSet(ArgumentType.FLOAT, bits)) {
+			if(slot.floatValue == null) {
+				slot.floatValue = new float[1];
+				slot.floatPointer = Pointer.to(slot.floatValue);
+			}
+			slot.floatValue[0] = value;
+			clSetKernelArg(kernel, index, Sizeof.cl_float, slot.floatPointer);
+			slot.type = ArgumentType.FLOAT;
+			slot.bits = bits;
+		}
+		return this;
+	}
+
+	public KernelLauncher setArg(final int index, final double value) {
+		final ArgumentSlot slot = getSlot(index);
+		final long bits = Double.doubleToRawLongBits(value);
+		if(!slot.isSet(ArgumentType.DOUBLE, bits)) {
+			if(slot.doubleValue == null) {
+				slot.doubleValue = new double[1];
+				slot.doublePointer = Pointer.to(slot.doubleValue);
+			}
+			slot.doubleValue[0] = value;
+			clSetKernelArg(kernel, index, Sizeof.cl_double, slot.doublePointer);
+			slot.type = ArgumentType.DOUBLE;
+			slot.bits = bits;
+		}
+		return this;
+	}
+
+	public KernelLauncher setArg(final int index, final cl_mem value) {
+		final ArgumentSlot slot = getSlot(index);
+		if(slot.type != ArgumentType.MEM || slot.mem != value) {
+			clSetKernelArg(kernel, index, Sizeof.cl_mem, Pointer.to(value));
+			slot.type = ArgumentType.MEM;
+			slot.mem = value;
+		}
+		return this;
+	}
+
+	/**
+	 * Set a <code>__local</code> memory argument.
+	 *
+	 * @param index The argument index.
+	 * @param sizeInBytes The size of the local memory in bytes.
+	 * @return This launcher.
+	 */
+	public KernelLauncher setLocalArg(final int index, final long sizeInBytes) {
+		final ArgumentSlot slot = getSlot(index);
+		if(!slot.isSet(ArgumentType.LOCAL, sizeInBytes)) {
+			clSetKernelArg(kernel, index, sizeInBytes, null);
+			slot.type = ArgumentType.LOCAL;
+			slot.bits = sizeInBytes;
+		}
+		return this;
+	}
+
+	/**
+	 * Enqueue the kernel on the command queue of the compute context.
+	 *
+	 * @param range The index space.
+	 */
+	public void launch(final NDRange range) {
+		launch(range, null);
+	}
+
+	/**
+	 * Enqueue the kernel on the command queue of the compute context.
+	 *
+	 * @param range The index space.
+	 * @param event An event receiving the status of the launch (may be null).
+	 */
+	public void launch(final NDRange range, final cl_event event) {
+		long workItems = 1;
+		for(final long size : range.getGlobalWorkSize()) {
+			workItems *= size;
+		}
+		final KernelLaunch launchEvent = ComputeEvents.startKernelLaunch(computeContext.getDeviceId(), name, workItems);
+		final boolean isProfiling = computeContext.isProfiling();
+		final cl_event commandEvent = event == null && isProfiling ? new cl_event() : event;
+		final long enqueueNanos = System.nanoTime();
+		clEnqueueNDRangeKernel(computeContext.getCommandQueue(), kernel, range.getDimensions(), null, range.getGlobalWorkSize(), range.getLocalWorkSize(), 0, null, commandEvent);
+		launchEvent.complete();
+		if(isProfiling) {
+			// The context releases the event once the kernel has completed, the caller keeps its own reference
+			if(event != null) {
+				clRetainEvent(event);
+			}
+			computeContext.addProfiledCommand(commandEvent, "Kernel", name, enqueueNanos, Collections.singletonMap("workItems", workItems));
+		}
+	}
+
+	@Override
+	public void close() {
+		clReleaseKernel(kernel);
+	}
+}
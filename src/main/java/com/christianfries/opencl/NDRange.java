@@ -0,0 +1,103 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.opencl;
+
+import java.util.Arrays;
+
+/**
+ * A 1D, 2D or 3D index space for the launch of an OpenCL kernel.
+ *
+ * The global work size is mandatory, the local work size is optional.
+ * If the local work size is not specified, OpenCL will try to choose an optimal value.
+ *
+ * Instances are immutable and may be created once and reused for every launch.
+ *
+ * @author Christian Fries
+ */
+public class NDRange {
+
+	private final long[] globalWorkSize;
+	private final long[] localWorkSize;
+
+	private NDRange(final long[] globalWorkSize, final long[] localWorkSize) {
+		super();
+		if(globalWorkSize.length < 1 || globalWorkSize.length > 3) {
+			throw new IllegalArgumentException("An NDRange must have 1, 2 or 3 dimensions. Given: " + globalWorkSize.length);
+		}
+		if(localWorkSize != null && localWorkSize.length != globalWorkSize.length) {
+			throw new IllegalArgumentException("Local work size must have the same dimension as the global work size.");
+		}
+		this.globalWorkSize = globalWorkSize;
+		this.localWorkSize = localWorkSize;
+	}
+
+	/**
+	 * Create a 1D range.
+	 *
+	 * @param sizeX The global work size.
+	 * @return The range.
+	 */
+	public static NDRange of(final long sizeX) {
+		return new NDRange(new long[] { sizeX }, null);
+	}
+
+	/**
+	 * Create a 2D range.
+	 *
+	 * @param sizeX The global work size in the first dimension.
+	 * @param sizeY The global work size in the second dimension.
+	 * @return The range.
+	 */
+	public static NDRange of(final long sizeX, final long sizeY) {
+		return new NDRange(new long[] { sizeX, sizeY }, null);
+	}
+
+	/**
+	 * Create a 3D range.
+	 *
+	 * @param sizeX The global work size in the first dimension.
+	 * @param sizeY The global work size in the second dimension.
+	 * @param sizeZ The global work size in the third dimension.
+	 * @return The range.
+	 */
+	public static NDRange of(final long sizeX, final long sizeY, final long sizeZ) {
+		return new NDRange(new long[] { sizeX, sizeY, sizeZ }, null);
+	}
+
+	/**
+	 * Create a copy of this range with the given local work size.
+	 *
+	 * @param localWorkSize The local work size, one value per dimension.
+	 * @return A new range with the given local work size.
+	 */
+	public NDRange withLocalWorkSize(final long... localWorkSize) {
+		return new NDRange(globalWorkSize, localWorkSize.clone());
+	}
+
+	public int getDimensions() {
+		return globalWorkSize.length;
+	}
+
+	/**
+	 * @return The global work size. The array is shared, do not modify.
+	 */
+	long[] getGlobalWorkSize() {
+		return globalWorkSize;
+	}
+
+	/**
+	 * @return The local work size or null. The array is shared, do not modify.
+	 */
+	long[] getLocalWorkSize() {
+		return localWorkSize;
+	}
+
+	@Override
+	public String toString() {
+		return "NDRange [globalWorkSize=" + Arrays.toString(globalWorkSize) + ", localWorkSize=" + Arrays.toString(localWorkSize) + "]";
+	}
+}
@@ -0,0 +1,338 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.opencl;
+
+import static org.jocl.CL.CL_DEVICE_LOCAL_MEM_SIZE;
+import static org.jocl.CL.CL_MEM_READ_ONLY;
+import static org.jocl.CL.CL_MEM_READ_WRITE;
+import static org.jocl.CL.clGetDeviceInfo;
+import static org.jocl.CL.clReleaseMemObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+
+import com.christianfries.compute.ParallelPrimitives;
+import com.christianfries.compute.ParallelPrimitivesJava;
+
+import org.jocl.Pointer;
+import org.jocl.Sizeof;
+import org.jocl.cl_mem;
+
+/**
+ * The parallel primitives on an OpenCL device (kernels in <code>ParallelPrimitives.cl</code>).
+ *
+ * <ul>
+ * 	<li>Scan: work-efficient (Blelloch) scan of tiles of two elements per work item in local memory. The sums of the tiles
+ * 	are scanned recursively and added to the tiles.</li>
+ * 	<li>Compaction: scan of the flags (mapped to 0 or 1) giving the position of each selected element, followed by a scatter.</li>
+ * 	<li>Sort: least significant digit radix sort of the (order preserving) unsigned int keys of the floats, 4 bits per pass.
+ * 	Each pass counts the digits per tile, scans the counts (digit major) to the output positions and scatters the tiles, which are
+ * 	sorted by the digit in local memory first, such that the writes are coalesced. The sort is stable and carries the index permutation.</li>
+ * 	<li>Histogram: privatized bins in local memory per work group (local atomics), added to the global bins once per work group.</li>
+ * </ul>
+ *
+ * The results are identical to those of {@link ParallelPrimitivesJava}. The methods on host arrays transfer the data
+ * to and from the device. The scan and the compaction are also available on device buffers.
+ *
+ * The class is not thread safe (like its {@link KernelLauncher}s).
+ *
+ * @author Christian Fries
+ */
+public class ParallelPrimitivesOpenCL implements ParallelPrimitives, AutoCloseable {
+
+	private static final String SOURCE_FILE_NAME = "/ParallelPrimitives.cl";
+
+	private static final int RADIX_BITS = 4;
+	private static final int RADIX = 1 << RADIX_BITS;
+
+	private final ComputeContext computeContext;
+	private final int localSize;
+	private final long localMemorySize;
+
+	private final KernelLauncher scanBlocks;
+	private final KernelLauncher addBlockOffsets;
+	private final KernelLauncher indicators;
+	private final KernelLauncher compactIndices;
+	private final KernelLauncher gather;
+	private final KernelLauncher radixKeys;
+	private final KernelLauncher radixHistogram;
+	private final KernelLauncher radixScatter;
+	private final KernelLauncher histogram;
+
+	/**
+	 * Create the primitives on the device of the given context.
+	 *
+	 * @param computeContext The compute context (not closed by this object).
+	 */
+	public ParallelPrimitivesOpenCL(final ComputeContext computeContext) {
+		super();
+		this.computeContext = computeContext;
+
+		// The tiled kernels require a power of two work group size with at least one work item per digit
+		localSize = Integer.highestOneBit(computeContext.getLaunchPolicy().getBlockSize());
+		if(localSize < RADIX) {
+			throw new IllegalArgumentException("The device has to support work groups of at least " + RADIX + " work items.");
+		}
+		final long[] localMemorySize = new long[1];
+		clGetDeviceInfo(computeContext.getDevice(), CL_DEVICE_LOCAL_MEM_SIZE, Sizeof.cl_ulong, Pointer.to(localMemorySize), null);
+		this.localMemorySize = localMemorySize[0];
+
+		final String source = readSource();
+		scanBlocks = computeContext.createKernel(source, null, "scanBlocks");
+		addBlockOffsets = computeContext.createKernel(source, null, "addBlockOffsets");
+		indicators = computeContext.createKernel(source, null, "indicators");
+		compactIndices = computeContext.createKernel(source, null, "compactIndices");
+		gather = computeContext.createKernel(source, null, "gather");
+		radixKeys = computeContext.createKernel(source, null, "radixKeys");
+		radixHistogram = computeContext.createKernel(source, null, "radixHistogram");
+		radixScatter = computeContext.createKernel(source, null, "radixScatter");
+		histogram = computeContext.createKernel(source, null, "histogram");
+	}
+
+	@Override
+	public int[] exclusiveScan(final int[] values) {
+		final int[] result = new int[values.length];
+		if(values.length == 0) {
+			return result;
+		}
+		final cl_mem buffer = createIntBuffer(values.length);
+		try {
+			computeContext.write(buffer, values);
+			exclusiveScan(buffer, buffer, values.length);
+			computeContext.read(buffer, result);
+		}
+		finally {
+			clReleaseMemObject(buffer);
+		}
+		return result;
+	}
+
+	/**
+	 * Exclusive prefix sum of device buffers (enqueued, not waiting for the completion).
+	 *
+	 * @param values The buffer holding the values.
+	 * @param result The buffer receiving the exclusive prefix sum (may be the buffer of the values).
+	 * @param size The number of elements.
+	 */
+	public void exclusiveScan(final cl_mem values, final cl_mem result, final int size) {
+		final cl_mem total = createIntBuffer(1);
+		try {
+			exclusiveScan(values, result, size, total);
+		}
+		finally {
+			clReleaseMemObject(total);
+		}
+	}
+
+	@Override
+	public int[] compactIndices(final int[] flags) {
+		if(flags.length == 0) {
+			return new int[0];
+		}
+		final cl_mem flagsBuffer = createIntBuffer(flags.length);
+		final cl_mem indicesBuffer = createIntBuffer(flags.length);
+		try {
+			computeContext.write(flagsBuffer, flags);
+			final int[] indices = new int[compactIndices(flagsBuffer, flags.length, indicesBuffer)];
+			if(indices.length > 0) {
+				computeContext.read(indicesBuffer, indices);
+			}
+			return indices;
+		}
+		finally {
+			clReleaseMemObject(flagsBuffer);
+			clReleaseMemObject(indicesBuffer);
+		}
+	}
+
+	/**
+	 * Stream compaction of device buffers.
+	 *
+	 * @param flags The buffer holding the flags.
+	 * @param size The number of flags.
+	 * @param indices A buffer of (at least) <code>size</code> ints, receiving the indices <code>i</code> with <code>flags[i] != 0</code>.
+	 * @return The number of indices.
+	 */
+	public int compactIndices(final cl_mem flags, final int size, final cl_mem indices) {
+		final cl_mem positions = createIntBuffer(size);
+		final cl_mem total = createIntBuffer(1);
+		try {
+			indicators.setArg(0, (long)size).setArg(1, flags).setArg(2, positions).launch(computeContext.createRange(size));
+			exclusiveScan(positions, positions, size, total);
+			compactIndices.setArg(0, (long)size).setArg(1, flags).setArg(2, positions).setArg(3, indices).launch(computeContext.createRange(size));
+
+			final int[] numberOfIndices = new int[1];
+			computeContext.read(total, numberOfIndices);
+			return numberOfIndices[0];
+		}
+		finally {
+			clReleaseMemObject(positions);
+			clReleaseMemObject(total);
+		}
+	}
+
+	@Override
+	public float[] compact(final float[] values, final int[] flags) {
+		if(values.length != flags.length) {
+			throw new IllegalArgumentException("Expected flags of length " + values.length + ", got " + flags.length + ".");
+		}
+		if(values.length == 0) {
+			return new float[0];
+		}
+		final cl_mem valuesBuffer = computeContext.createBuffer(CL_MEM_READ_ONLY, values);
+		final cl_mem flagsBuffer = createIntBuffer(flags.length);
+		final cl_mem indicesBuffer = createIntBuffer(flags.length);
+		final cl_mem resultBuffer = computeContext.createBuffer(CL_MEM_READ_WRITE, (long)Sizeof.cl_float * values.length);
+		try {
+			computeContext.write(flagsBuffer, flags);
+			final float[] result = new float[compactIndices(flagsBuffer, flags.length, indicesBuffer)];
+			if(result.length > 0) {
+				gather.setArg(0, (long)result.length).setArg(1, indicesBuffer).setArg(2, valuesBuffer).setArg(3, resultBuffer).launch(computeContext.createRange(result.length));
+				computeContext.read(resultBuffer, result);
+			}
+			return result;
+		}
+		finally {
+			clReleaseMemObject(valuesBuffer);
+			clReleaseMemObject(flagsBuffer);
+			clReleaseMemObject(indicesBuffer);
+			clReleaseMemObject(resultBuffer);
+		}
+	}
+
+	@Override
+	public int[] sort(final float[] values) {
+		final int size = values.length;
+		final int[] permutation = new int[size];
+		if(size == 0) {
+			return permutation;
+		}
+
+		final int numberOfTiles = (int)(((long)size + localSize - 1) / localSize);
+		final NDRange tiles = NDRange.of((long)numberOfTiles * localSize).withLocalWorkSize(localSize);
+
+		final cl_mem valuesBuffer = computeContext.createBuffer(CL_MEM_READ_ONLY, values);
+		final cl_mem[] keys = { createIntBuffer(size), createIntBuffer(size) };
+		final cl_mem[] indices = { createIntBuffer(size), createIntBuffer(size) };
+		final cl_mem blockOffsets = createIntBuffer(RADIX * numberOfTiles);
+		final cl_mem total = createIntBuffer(1);
+		try {
+			radixKeys.setArg(0, (long)size).setArg(1, valuesBuffer).setArg(2, keys[0]).setArg(3, indices[0]).launch(computeContext.createRange(size));
+
+			radixScatter.setLocalArg(7, (long)Sizeof.cl_uint * localSize).setLocalArg(8, (long)Sizeof.cl_int * localSize).setLocalArg(9, (long)Sizeof.cl_int * localSize);
+			int source = 0;
+			for(int shift = 0; shift < Integer.SIZE; shift += RADIX_BITS) {
+				final int target = 1 - source;
+				radixHistogram.setArg(0, size).setArg(1, shift).setArg(2, keys[source]).setArg(3, blockOffsets).launch(tiles);
+				exclusiveScan(blockOffsets, blockOffsets, RADIX * numberOfTiles, total);
+				radixScatter.setArg(0, size).setArg(1, shift).setArg(2, keys[source]).setArg(3, indices[source]).setArg(4, blockOffsets)
+				.setArg(5, keys[target]).setArg(6, indices[target]).launch(tiles);
+				source = target;
+			}
+
+			// The sorted values (gathered into the unused key buffer)
+			final cl_mem sortedValues = keys[1 - source];
+			gather.setArg(0, (long)size).setArg(1, indices[source]).setArg(2, valuesBuffer).setArg(3, sortedValues).launch(computeContext.createRange(size));
+			computeContext.read(sortedValues, values);
+			computeContext.read(indices[source], permutation);
+		}
+		finally {
+			clReleaseMemObject(valuesBuffer);
+			clReleaseMemObject(keys[0]);
+			clReleaseMemObject(keys[1]);
+			clReleaseMemObject(indices[0]);
+			clReleaseMemObject(indices[1]);
+			clReleaseMemObject(blockOffsets);
+			clReleaseMemObject(total);
+		}
+		return permutation;
+	}
+
+	@Override
+	public int[] histogram(final float[] values, final float minValue, final float maxValue, final int numberOfBins) {
+		final float scale = ParallelPrimitives.getHistogramScale(minValue, maxValue, numberOfBins);
+		if((long)Sizeof.cl_int * numberOfBins > localMemorySize) {
+			throw new IllegalArgumentException("The bins (" + numberOfBins + ") exceed the local memory of the device (" + localMemorySize + " bytes).");
+		}
+
+		final int[] bins = new int[numberOfBins];
+		if(values.length == 0) {
+			return bins;
+		}
+		final cl_mem valuesBuffer = computeContext.createBuffer(CL_MEM_READ_ONLY, values);
+		final cl_mem binsBuffer = createIntBuffer(numberOfBins);
+		try {
+			computeContext.write(binsBuffer, bins);
+			histogram.setArg(0, (long)values.length).setArg(1, valuesBuffer).setArg(2, minValue).setArg(3, scale).setArg(4, numberOfBins)
+			.setArg(5, binsBuffer).setLocalArg(6, (long)Sizeof.cl_int * numberOfBins).launch(computeContext.createRange(values.length));
+			computeContext.read(binsBuffer, bins);
+		}
+		finally {
+			clReleaseMemObject(valuesBuffer);
+			clReleaseMemObject(binsBuffer);
+		}
+		return bins;
+	}
+
+	/*
+	 * Scan of the tiles, the sums of the tiles are scanned recursively (in place) and added to the tiles.
+	 * The sum of all values is written to total.
+	 */
+	private void exclusiveScan(final cl_mem values, final cl_mem result, final int size, final cl_mem total) {
+		final int tileSize = 2 * localSize;
+		final int numberOfTiles = (int)(((long)size + tileSize - 1) / tileSize);
+		final NDRange tiles = NDRange.of((long)numberOfTiles * localSize).withLocalWorkSize(localSize);
+
+		final cl_mem tileSums = numberOfTiles == 1 ? total : createIntBuffer(numberOfTiles);
+		try {
+			scanBlocks.setArg(0, size).setArg(1, values).setArg(2, result).setArg(3, tileSums).setLocalArg(4, (long)Sizeof.cl_int * tileSize).launch(tiles);
+			if(numberOfTiles > 1) {
+				exclusiveScan(tileSums, tileSums, numberOfTiles, total);
+				addBlockOffsets.setArg(0, size).setArg(1, result).setArg(2, tileSums).launch(tiles);
+			}
+		}
+		finally {
+			// Released once the enqueued kernels using it have completed
+			if(tileSums != total) {
+				clReleaseMemObject(tileSums);
+			}
+		}
+	}
+
+	private cl_mem createIntBuffer(final int size) {
+		return computeContext.createBuffer(CL_MEM_READ_WRITE, (long)Sizeof.cl_int * Math.max(size, 1));
+	}
+
+	private static String readSource() {
+		try(BufferedReader reader = new BufferedReader(new InputStreamReader(ParallelPrimitivesOpenCL.class.getResourceAsStream(SOURCE_FILE_NAME), StandardCharsets.UTF_8))) {
+			return reader.lines().collect(Collectors.joining("\n"));
+		}
+		catch(final IOException e) {
+			throw new UncheckedIOException("Failed to read " + SOURCE_FILE_NAME, e);
+		}
+	}
+
+	/**
+	 * Release the kernels. The compute context is not closed.
+	 */
+	@Override
+	public void close() {
+		scanBlocks.close();
+		addBlockOffsets.close();
+		indicators.close();
+		compactIndices.close();
+		gather.close();
+		radixKeys.close();
+		radixHistogram.close();
+		radixScatter.close();
+		histogram.close();
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.opencl;
+
+import static org.jocl.CL.CL_MEM_READ_ONLY;
+import static org.jocl.CL.CL_MEM_READ_WRITE;
+import static org.jocl.CL.clReleaseMemObject;
+
+import com.christianfries.compute.PeakBenchmark;
+import com.christianfries.compute.RooflineAnalyzer;
+import com.christianfries.compute.RooflineAnalyzer.Peak;
+
+import org.jocl.Sizeof;
+import org.jocl.cl_mem;
+
+/**
+ * The peak of an OpenCL device (CPU or GPU), measured by grid-stride kernels: a copy kernel and a kernel running
+ * 8 independent chains of multiply-adds per work item.
+ *
+ * @author Christian Fries
+ */
+public class PeakBenchmarkOpenCL implements PeakBenchmark {
+
+	// The number of independent multiply-add chains per work item
+	private static final int CHAINS = 8;
+
+	private static final String SOURCE =
+			"__kernel void streamCopy(const long n, __global const float *a, __global float *c)\n"
+					+ "{\n"
+					+ "    for (long i = get_global_id(0); i < n; i += get_global_size(0))\n"
+					+ "    {\n"
+					+ "        c[i] = a[i];\n"
+					+ "    }\n"
+					+ "}\n"
+					+ "\n"
+					+ "__kernel void fmaChains(const long n, const int iterations, __global float *result)\n"
+					+ "{\n"
+					+ "    const float a = 0.999999f;\n"
+					+ "    const float b = 1E-7f;\n"
+					+ "    for (long i = get_global_id(0); i < n; i += get_global_size(0))\n"
+					+ "    {\n"
+					+ "        float x0 = i * 1E-9f, x1 = x0 + 1E-3f, x2 = x0 + 2E-3f, x3 = x0 + 3E-3f;\n"
+					+ "        float x4 = x0 + 4E-3f, x5 = x0 + 5E-3f, x6 = x0 + 6E-3f, x7 = x0 + 7E-3f;\n"
+					+ "        for (int j = 0; j < iterations; j++)\n"
+					+ "        {\n"
+					+ "            x0 = fma(x0, a, b); x1 = fma(x1, a, b); x2 = fma(x2, a, b); x3 = fma(x3, a, b);\n"
+					+ "            x4 = fma(x4, a, b); x5 = fma(x5, a, b); x6 = fma(x6, a, b); x7 = fma(x7, a, b);\n"
+					+ "        }\n"
+					+ "        result[i] = x0 + x1 + x2 + x3 + x4 + x5 + x6 + x7;\n"
+					+ "    }\n"
+					+ "}\n";
+
+	private final ComputeContext computeContext;
+
+	/**
+	 * Create the benchmark on the device of the given context (the context is not closed by the benchmark).
+	 *
+	 * @param computeContext The OpenCL context.
+	 */
+	public PeakBenchmarkOpenCL(final ComputeContext computeContext) {
+		super();
+		this.computeContext = computeContext;
+	}
+
+	@Override
+	public Peak measure(final int bandwidthSize, final int flopsSize, final int iterations) {
+		try(KernelLauncher streamCopy = computeContext.createKernel(SOURCE, "-cl-mad-enable", "streamCopy");
+				KernelLauncher fmaChains = computeContext.createKernel(SOURCE, "-cl-mad-enable", "fmaChains")) {
+			final cl_mem a = computeContext.createBuffer(CL_MEM_READ_ONLY, (long)Sizeof.cl_float * bandwidthSize);
+			final cl_mem c = computeContext.createBuffer(CL_MEM_READ_WRITE, (long)Sizeof.cl_float * Math.max(bandwidthSize, flopsSize));
+			try {
+				streamCopy.setArg(0, (long)bandwidthSize).setArg(1, a).setArg(2, c);
+				final double copyTime = RooflineAnalyzer.getBestTime(() -> {
+					final long start = System.nanoTime();
+					streamCopy.launch(computeContext.createRange(bandwidthSize));
+					computeContext.finish();
+					return (System.nanoTime() - start) / 1E9;
+				});
+
+				fmaChains.setArg(0, (long)flopsSize).setArg(1, iterations).setArg(2, c);
+				final double fmaTime = RooflineAnalyzer.getBestTime(() -> {
+					final long start = System.nanoTime();
+					fmaChains.launch(computeContext.createRange(flopsSize));
+					computeContext.finish();
+					return (System.nanoTime() - start) / 1E9;
+				});
+
+				return new Peak(2.0 * Sizeof.cl_float * bandwidthSize / copyTime, 2.0 * CHAINS * iterations * flopsSize / fmaTime);
+			}
+			finally {
+				clReleaseMemObject(a);
+				clReleaseMemObject(c);
+			}
+		}
+	}
+}
@@ -6,45 +6,29 @@
 
 package com.christianfries.opencl.examples;
 
-import static org.jocl.CL.CL_CONTEXT_PLATFORM;
-import static org.jocl.CL.CL_DEVICE_TYPE_CPU;
-import static org.jocl.CL.CL_DEVICE_TYPE_GPU;
-import static org.jocl.CL.CL_MEM_COPY_HOST_PTR;
 import static org.jocl.CL.CL_MEM_READ_ONLY;
 import static org.jocl.CL.CL_MEM_READ_WRITE;
-import static org.jocl.CL.CL_TRUE;
-import static org.jocl.CL.clBuildProgram;
-import static org.jocl.CL.clCreateBuffer;
-import static org.jocl.CL.clCreateCommandQueue;
-import static org.jocl.CL.clCreateContext;
-import static org.jocl.CL.clCreateKernel;
-import static org.jocl.CL.clCreateProgramWithSource;
-import static org.jocl.CL.clEnqueueNDRangeKernel;
-import static org.jocl.CL.clEnqueueReadBuffer;
-import static org.jocl.CL.clGetDeviceIDs;
-import static org.jocl.CL.clGetPlatformIDs;
-import static org.jocl.CL.clReleaseCommandQueue;
-import static org.jocl.CL.clReleaseContext;
-import static org.jocl.CL.clReleaseKernel;
 import static org.jocl.CL.clReleaseMemObject;
-import static org.jocl.CL.clReleaseProgram;
-import static org.jocl.CL.clSetKernelArg;
 
 import java.util.List;
 import java.util.function.Function;
 import java.util.stream.IntStream;
 
-import org.jocl.CL;
-import org.jocl.Pointer;
 import org.jocl.Sizeof;
-import org.jocl.cl_command_queue;
-import org.jocl.cl_context;
-import org.jocl.cl_context_properties;
-import org.jocl.cl_device_id;
-import org.jocl.cl_kernel;
 import org.jocl.cl_mem;
-import org.jocl.cl_platform_id;
-import org.jocl.cl_program;
+
+import com.christianfries.compute.Backend;
+import com.christianfries.compute.DeviceInfo;
+import com.christianfries.compute.DeviceRegistry;
+import com.christianfries.compute.DivergenceDiagnostics;
+import com.christianfries.compute.JavaComputeEngine;
+import com.christianfries.compute.JavaComputeEngine.Partitioning;
+import com.christianfries.compute.KernelVariant;
+import com.christianfries.compute.RooflineAnalyzer;
+import com.christianfries.opencl.ComputeContext;
+import com.christianfries.opencl.KernelLauncher;
+import com.christianfries.opencl.NDRange;
+import com.christianfries.opencl.PeakBenchmarkOpenCL;
 
 /**
  * An example illustrating the behaviour of SIMD versus MIMD on code that contains an if-branch.
@@ -56,22 +40,34 @@ import org.jocl.cl_program;
  * Due to synchronisation (SIMD) in GPUs and due to branch prediction in CPUs the behaviour of the run-time highly depends on the structure of the x(0) vector.
  * The performance characteristics depend on the ordering of the initial value.
  * 
+ * The calculation is implemented in two variants: a branching kernel (skipping the calculation if x(0) = 0) and a predicated kernel
+ * (performing the calculation for all elements and selecting the result). Unless a variant is specified, the variant is selected
+ * for each input by the {@link DivergenceDiagnostics}, which samples the fraction of divergent warps (SIMD blocks) of the input.
+ * 
+ * Each run is annotated by a {@link RooflineAnalyzer} (12 bytes moved and 3 FLOPs per step per element),
+ * which relates the achieved GB/s and FLOP/s to the peak of the device. The roofline table is printed on clean up.
+ * 
  * @author Christian Fries
  */
 public class OpenCLSpeedTest
 {
 	public enum Method {
-		JAVA,				// Use native Java implementation
-		OPEN_CL_CPU,		// Use OpenCL implementation on CPU
-		OPEN_CL_GPU,		// Use OpenCL implementation on GPU (uses the GPU with the highest device index)
-		OPEN_CL_GPU_0,		// Use OpenCL implementation on GPU
-		OPEN_CL_GPU_1		// Use OpenCL implementation on GPU
+		AUTO,				// Use the fastest device found by the DeviceRegistry (OpenCL or Java)
+		JAVA,				// Use native Java implementation (work stealing partitioning)
+		JAVA_STATIC,		// Use native Java implementation (static partitioning)
+		OPEN_CL_CPU,		// Use OpenCL implementation on CPU (uses the fastest CPU device of all platforms)
+		OPEN_CL_GPU,		// Use OpenCL implementation on GPU (uses the fastest GPU device of all platforms)
+		OPEN_CL_GPU_0,		// Use OpenCL implementation on GPU (the first GPU device of all platforms)
+		OPEN_CL_GPU_1		// Use OpenCL implementation on GPU (the second GPU device of all platforms)
 	}
 
 	final Method method;
-	final cl_device_id device;
-	final cl_context context;
-	final cl_command_queue commandQueue;
+	final DeviceInfo deviceInfo;
+	final ComputeContext computeContext;		// null if the Java implementation is used
+	final JavaComputeEngine javaComputeEngine;	// null if the OpenCL implementation is used
+	final KernelVariant kernelVariant;			// null if the variant is selected by the divergence diagnostics
+	final DivergenceDiagnostics divergenceDiagnostics;
+	final RooflineAnalyzer rooflineAnalyzer;
 
 	/**
 	 * The entry point of this sample
@@ -105,7 +101,7 @@ public class OpenCLSpeedTest
 		 */
 		try {
 			System.out.println("Java:");
-			OpenCLSpeedTest testProgramJava = new OpenCLSpeedTest(Method.JAVA);
+			OpenCLSpeedTest testProgramJava = new OpenCLSpeedTest(Method.JAVA, size);
 			for(Function<Integer, Float> initialValue : initialValues) {
 				testProgramJava.runWithInitialValuesAndRates(initialValue, i -> 1.0f, size, steps);
 			}
@@ -116,6 +112,22 @@ public class OpenCLSpeedTest
 		}
 		System.out.println();
 
+		/*
+		 * Java code with static partitioning (one block per thread): the run time depends on the distribution of the branches
+		 */
+		try {
+			System.out.println("Java (static partitioning):");
+			OpenCLSpeedTest testProgramJavaStatic = new OpenCLSpeedTest(Method.JAVA_STATIC, size);
+			for(Function<Integer, Float> initialValue : initialValues) {
+				testProgramJavaStatic.runWithInitialValuesAndRates(initialValue, i -> 1.0f, size, steps);
+			}
+			testProgramJavaStatic.cleanUp();
+		}
+		catch(Exception e) {
+			System.out.println(e.getMessage());
+		}
+		System.out.println();
+
 		steps = 1000;
 
 		/*
@@ -123,7 +135,7 @@ public class OpenCLSpeedTest
 		 */
 		try {
 			System.out.println("OpenCL on CPU:");
-			OpenCLSpeedTest testProgramOnCPU = new OpenCLSpeedTest(Method.OPEN_CL_CPU);
+			OpenCLSpeedTest testProgramOnCPU = new OpenCLSpeedTest(Method.OPEN_CL_CPU, size);
 			for(Function<Integer, Float> initialValue : initialValues) {
 				testProgramOnCPU.runWithInitialValuesAndRates(initialValue, i -> 1.0f, size, steps);
 			}
@@ -154,8 +166,8 @@ public class OpenCLSpeedTest
 		 * OpenCL with GPU
 		 */
 		try {
-			System.out.println("OpenCL on GPU (uses GPU with highest device index):");
-			OpenCLSpeedTest testProgramOnGPU1 = new OpenCLSpeedTest(Method.OPEN_CL_GPU);
+			System.out.println("OpenCL on GPU (uses the fastest GPU):");
+			OpenCLSpeedTest testProgramOnGPU1 = new OpenCLSpeedTest(Method.OPEN_CL_GPU, size);
 			for(Function<Integer, Float> initialValue : initialValues) {
 				testProgramOnGPU1.runWithInitialValuesAndRates(initialValue, i -> 1.0f, size, steps);
 			}
@@ -175,82 +187,91 @@ public class OpenCLSpeedTest
 	 * @param method Specify which platform / device we use (Java, OpenCL CPU, OpenCL GPU)
 	 */
 	public OpenCLSpeedTest(final Method method) {
+		this(method, 1 << 24);
+	}
+
+	/**
+	 * Create the test setup. Initializes OpenCL on the given device.
+	 * 
+	 * @param method Specify which platform / device we use (Java, OpenCL CPU, OpenCL GPU)
+	 * @param workloadSize The expected vector size, used to pick the fastest device (if the method does not specify the device).
+	 */
+	public OpenCLSpeedTest(final Method method, final long workloadSize) {
+		this(method, workloadSize, null);
+	}
+
+	/**
+	 * Create the test setup. Initializes OpenCL on the given device.
+	 * 
+	 * @param method Specify which platform / device we use (Java, OpenCL CPU, OpenCL GPU)
+	 * @param workloadSize The expected vector size, used to pick the fastest device (if the method does not specify the device).
+	 * @param kernelVariant The kernel variant (branching or predicated) or null to select the variant from the input data.
+	 */
+	public OpenCLSpeedTest(final Method method, final long workloadSize, final KernelVariant kernelVariant) {
 		super();
 		this.method = method;
+		this.kernelVariant = kernelVariant;
 
-		final long clDeviceType;
-		final int deviceIndex;
+		final DeviceRegistry deviceRegistry = DeviceRegistry.getInstance();
 
 		switch(method) {
-		case OPEN_CL_CPU:
+		case AUTO:
+			deviceInfo = deviceRegistry.selectFastest(device -> device.getBackend() != Backend.CUDA, workloadSize);
+			break;
+		case JAVA:
+		case JAVA_STATIC:
 		default:
-			clDeviceType = CL_DEVICE_TYPE_CPU;
-			deviceIndex = 0;
+			deviceInfo = deviceRegistry.getDevices(Backend.JAVA).get(0);
+			break;
+		case OPEN_CL_CPU:
+			deviceInfo = deviceRegistry.selectFastest(Backend.OPEN_CL, DeviceInfo.DeviceType.CPU, workloadSize);
 			break;
 		case OPEN_CL_GPU:
-			clDeviceType = CL_DEVICE_TYPE_GPU;
-			deviceIndex = -1;
+			deviceInfo = deviceRegistry.selectFastest(Backend.OPEN_CL, DeviceInfo.DeviceType.GPU, workloadSize);
 			break;
 		case OPEN_CL_GPU_0:
-			clDeviceType = CL_DEVICE_TYPE_GPU;
-			deviceIndex = 0;
+			deviceInfo = deviceRegistry.getDevice(Backend.OPEN_CL, DeviceInfo.DeviceType.GPU, 0);
 			break;
 		case OPEN_CL_GPU_1:
-			clDeviceType = CL_DEVICE_TYPE_GPU;
-			deviceIndex = 1;
+			deviceInfo = deviceRegistry.getDevice(Backend.OPEN_CL, DeviceInfo.DeviceType.GPU, 1);
 			break;
 		}
 
 		/*
-		 * Initialize OpenCL (for method=JAVA this is not needed, we do it anyway).
+		 * Initialize OpenCL (for the Java implementation this is not needed).
 		 */
+		computeContext = deviceInfo.getBackend() == Backend.OPEN_CL ? new ComputeContext(deviceInfo.getOpenCLDevice()) : null;
 
-		// The platform, device type and device number
-		// that will be used
-		final int platformIndex = 0;
-
-		// Enable exceptions and subsequently omit error checks in this sample
-		CL.setExceptionsEnabled(true);
-
-		// Obtain the number of platforms
-		final int numPlatformsArray[] = new int[1];
-		clGetPlatformIDs(0, null, numPlatformsArray);
-		final int numPlatforms = numPlatformsArray[0];
-
-		// Obtain a platform ID
-		final cl_platform_id platforms[] = new cl_platform_id[numPlatforms];
-		clGetPlatformIDs(platforms.length, platforms, null);
-		final cl_platform_id platform = platforms[platformIndex];
-
-		// Initialize the context properties
-		final cl_context_properties contextProperties = new cl_context_properties();
-		contextProperties.addProperty(CL_CONTEXT_PLATFORM, platform);
-
-		// Obtain the number of devices for the platform
-		final int numDevicesArray[] = new int[1];
-		clGetDeviceIDs(platform, clDeviceType, 0, null, numDevicesArray);
-		final int numDevices = numDevicesArray[0];
-
-		// Obtain a device ID
-		final cl_device_id devices[] = new cl_device_id[numDevices];
-		clGetDeviceIDs(platform, clDeviceType, numDevices, devices, null);
-		final int clDeviceIndex = deviceIndex >= 0 ? deviceIndex : (devices.length + deviceIndex);
-		device = devices[clDeviceIndex];
-
-		// Create a context for the selected device
-		context = clCreateContext(contextProperties, 1, new cl_device_id[]{ device }, null, null, null);
+		/*
+		 * Initialize the Java compute engine (persistent thread pool) for the Java implementation.
+		 */
+		if(computeContext != null) {
+			javaComputeEngine = null;
+		}
+		else if(method == Method.JAVA_STATIC) {
+			javaComputeEngine = new JavaComputeEngine(Partitioning.STATIC);
+		}
+		else {
+			javaComputeEngine = JavaComputeEngine.getDefault();
+		}
 
-		// Create a command-queue for the selected device
-		commandQueue = clCreateCommandQueue(context, device, 0, null);
+		divergenceDiagnostics = new DivergenceDiagnostics(deviceInfo);
+		rooflineAnalyzer = computeContext != null ? new RooflineAnalyzer(deviceInfo, new PeakBenchmarkOpenCL(computeContext)) : new RooflineAnalyzer(deviceInfo);
 	}
 
 	private void cleanUp() {
-		clReleaseCommandQueue(commandQueue);
-		clReleaseContext(context);
+		rooflineAnalyzer.printTable(System.out);
+		if(computeContext != null) {
+			computeContext.close();
+		}
+		if(javaComputeEngine != null && javaComputeEngine != JavaComputeEngine.getDefault()) {
+			javaComputeEngine.close();
+		}
 	}
 
 	/**
-	 * The source code of the OpenCL program to execute
+	 * The source code of the OpenCL program to execute: the branching kernel <code>evolve</code>
+	 * and the predicated kernel <code>evolvePredicated</code>.
 	 */
 	private static String programSource =
 			"__kernel void "+
@@ -268,6 +289,21 @@ public class OpenCLSpeedTest
 					+ "    }"
 					+ "  }"
 					+ "  c[gid] = x;"					
+					+ "}"
+					+ "__kernel void "+
+					"evolvePredicated(__global const float *a,"
+					+ "     __global const float *b,"
+					+ "     __global float *c,"
+					+ "     const int steps)"
+					+ "{"
+					+ "  int gid = get_global_id(0);"
+					+ "  float x = a[gid];"
+					+ "  float r = b[gid];"
+					+ "  float y = x;"
+					+ "  for(int j=0; j<steps; j++) {"
+					+ "    y = y + r * y / steps;"
+					+ "  }"
+					+ "  c[gid] = select(x, y, x != 0.0f);"
 					+ "}";
 
 	/**
@@ -289,14 +325,27 @@ public class OpenCLSpeedTest
 			srcArrayB[i] = rate.apply(i);
 		}
 
-		if(method.equals(Method.JAVA)) {
+		// Select the kernel variant from the divergence of the predicate x(0) != 0 (the true branch has steps operations, the false branch none)
+		final DivergenceDiagnostics.Selection selection = divergenceDiagnostics.selectVariant(
+				divergenceDiagnostics.analyze(size, i -> srcArrayA[i] != 0.0f), steps, 0.0);
+		final KernelVariant variant = kernelVariant != null ? kernelVariant : selection.getVariant();
+
+		// The declared work per element: read a and b, write c, and 3 FLOPs per step (for the branching kernel only for x(0) != 0)
+		final double fractionOfNonZeroInitialValues = IntStream.range(0, size).filter(i -> srcArrayA[i] != 0.0f).count() / (double)size;
+		final double bytesPerElement = 3.0 * Sizeof.cl_float;
+		final double flopsPerElement = 3.0 * steps * (variant == KernelVariant.PREDICATED ? 1.0 : fractionOfNonZeroInitialValues);
+		final RooflineAnalyzer.Annotation annotation;
+
+		if(computeContext == null) {
 
 			long timeCalcStart = System.currentTimeMillis();
 
-			dstArray = pureJavaBenchmark(srcArrayA, srcArrayB, steps);
+			dstArray = variant == KernelVariant.PREDICATED ? pureJavaBenchmarkPredicated(srcArrayA, srcArrayB, steps) : pureJavaBenchmark(srcArrayA, srcArrayB, steps);
 
 			long timeCalcEnd = System.currentTimeMillis();
 
+			annotation = rooflineAnalyzer.annotate(variant == KernelVariant.PREDICATED ? "evolvePredicated" : "evolve", size, bytesPerElement, flopsPerElement, (timeCalcEnd-timeCalcStart)/1000.0);
+
 			System.out.print(String.format(" %7d steps ", steps));
 			System.out.print(String.format("\t compile: %5s  ", "---"));
 			System.out.print(String.format("  alloc: %5s  ", "---"));
@@ -305,56 +354,43 @@ public class OpenCLSpeedTest
 		}
 		else {
 			dstArray = new float[size];
-			final Pointer srcA = Pointer.to(srcArrayA);
-			final Pointer srcB = Pointer.to(srcArrayB);
-			final Pointer dst = Pointer.to(dstArray);
-
-			// Create the program from the source code
-			final cl_program program = clCreateProgramWithSource(context, 1, new String[]{ programSource }, null, null);
-
 			long timeCompileStart = System.currentTimeMillis();
 
-			// Build the program
-			clBuildProgram(program, 0, null, null, null, null);
-
-			// Create the kernel
-			final cl_kernel kernel = clCreateKernel(program, "evolve", null);
+			// Build the program (cached by the context) and create the kernel
+			final KernelLauncher kernel = computeContext.createKernel(programSource, null, variant == KernelVariant.PREDICATED ? "evolvePredicated" : "evolve");
 
 			long timeCompileEnd = System.currentTimeMillis();
 
 			// Allocate the memory objects for the input- and output data
 			final cl_mem memObjects[] = new cl_mem[3];
-			memObjects[0] = clCreateBuffer(context, CL_MEM_READ_ONLY | CL_MEM_COPY_HOST_PTR, Sizeof.cl_float * size, srcA, null);
-			memObjects[1] = clCreateBuffer(context, CL_MEM_READ_ONLY | CL_MEM_COPY_HOST_PTR, Sizeof.cl_float * size, srcB, null);
-			memObjects[2] = clCreateBuffer(context, CL_MEM_READ_WRITE, Sizeof.cl_float * size, null, null);
+			memObjects[0] = computeContext.createBuffer(CL_MEM_READ_ONLY, srcArrayA);
+			memObjects[1] = computeContext.createBuffer(CL_MEM_READ_ONLY, srcArrayB);
+			memObjects[2] = computeContext.createBuffer(CL_MEM_READ_WRITE, (long)Sizeof.cl_float * size);
 
 			// Set the arguments for the kernel
-			clSetKernelArg(kernel, 0, Sizeof.cl_mem, Pointer.to(memObjects[0]));
-			clSetKernelArg(kernel, 1, Sizeof.cl_mem, Pointer.to(memObjects[1]));
-			clSetKernelArg(kernel, 2, Sizeof.cl_mem, Pointer.to(memObjects[2]));
-			clSetKernelArg(kernel, 3, Sizeof.cl_int, Pointer.to(new int[] { steps }));
-
-			// Set the work-item dimensions
-			final long global_work_size[] = new long[] { size };
-			final long local_work_size[] = null;	// if you do not specify, OpenCL will try to choose optimal value
+			kernel.setArg(0, memObjects[0]).setArg(1, memObjects[1]).setArg(2, memObjects[2]).setArg(3, steps);
 
 			long timePrepareEnd = System.currentTimeMillis();
 
-			// Execute the kernel
-			clEnqueueNDRangeKernel(commandQueue, kernel, 1, null, global_work_size, local_work_size, 0, null, null);
+			// Execute the kernel (OpenCL will try to choose an optimal local work size)
+			final long timeKernelStart = System.nanoTime();
+			kernel.launch(NDRange.of(size));
+			computeContext.finish();
+			final long timeKernelEnd = System.nanoTime();
+
+			annotation = rooflineAnalyzer.annotate(kernel.getName(), size, bytesPerElement, flopsPerElement, (timeKernelEnd-timeKernelStart)/1E9);
 
 			// Read the output data
-			clEnqueueReadBuffer(commandQueue, memObjects[2], CL_TRUE, 0, size * Sizeof.cl_float, dst, 0, null, null);
+			computeContext.read(memObjects[2], dstArray);
 
 			long timeCalcEnd = System.currentTimeMillis();
 
-			// Release kernel, program, and memory objects
+			// Release kernel and memory objects
 			clReleaseMemObject(memObjects[0]);
 			clReleaseMemObject(memObjects[1]);
 			clReleaseMemObject(memObjects[2]);
 
-			clReleaseKernel(kernel);
-			clReleaseProgram(program);
+			kernel.close();
 
 			System.out.print(String.format(" %7d steps ", steps));
 			System.out.print(String.format("\t compile: %5.2f s", (timeCompileEnd-timeCompileStart)/1000.0));
@@ -388,6 +424,8 @@ public class OpenCLSpeedTest
 
 		double numberOfNonZeroInitialValues = IntStream.range(0, size).mapToDouble(i -> initialValue.apply(i)).filter(u -> u > 0).count();
 		System.out.print("\t" + Math.round(numberOfNonZeroInitialValues/size*100) + "%");
+		System.out.print(String.format("\t%-10s (divergence %3.0f%%)", variant, 100.0 * selection.getDivergence()));
+		System.out.print(String.format("\t%7.2f GB/s %8.2f GFLOP/s (%5.1f%% of peak)", annotation.getBytesPerSecond() / 1E9, annotation.getFlopsPerSecond() / 1E9, 100.0 * annotation.getFractionOfPeak()));
 		System.out.print("\t");
 
 		for(int i=0; i<24; i++) System.out.printf("%1.0f", initialValue.apply(i));
@@ -406,17 +444,45 @@ public class OpenCLSpeedTest
 
 		float[] result = new float[initialValue.length];
 
-		IntStream.range(0, initialValue.length).parallel().forEach(i ->
-		//		for (int i=0; i<initialValue.length; i++)
-		{
-			float x = initialValue[i];
-			float r = rate[i];
-			if(x != 0) {
+		javaComputeEngine.forEachRange(initialValue.length, (start, end) -> {
+			for (int i=start; i<end; i++)
+			{
+				float x = initialValue[i];
+				float r = rate[i];
+				if(x != 0) {
+					for(int j=0; j<steps; j++) {
+						x = x + r * x / steps;
+					}
+				}
+				result[i] = x;
+			}
+		});
+
+		return result;
+	}
+
+	/**
+	 * The predicated (branch free) variant of {@link #pureJavaBenchmark(float[], float[], int)}.
+	 * The steps are the outer loop over a chunk of elements, such that the inner loop can be vectorized.
+	 */
+	private float[] pureJavaBenchmarkPredicated(float[] initialValue, float[] rate, int steps) {
+
+		final int chunkSize = 1024;
+		float[] result = new float[initialValue.length];
+
+		javaComputeEngine.forEachRange(initialValue.length, (start, end) -> {
+			for(int chunkStart = start; chunkStart < end; chunkStart += chunkSize) {
+				final int chunkEnd = Math.min(end, chunkStart + chunkSize);
+				System.arraycopy(initialValue, chunkStart, result, chunkStart, chunkEnd - chunkStart);
 				for(int j=0; j<steps; j++) {
-					x = x + r * x / steps;
+					for (int i=chunkStart; i<chunkEnd; i++) {
+						result[i] = result[i] + rate[i] * result[i] / steps;
+					}
+				}
+				for (int i=chunkStart; i<chunkEnd; i++) {
+					result[i] = initialValue[i] != 0 ? result[i] : initialValue[i];
 				}
 			}
-			result[i] = x;
 		});
 
 		return result;
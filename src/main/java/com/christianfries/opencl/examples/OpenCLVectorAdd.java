@@ -6,47 +6,22 @@
 
 package com.christianfries.opencl.examples;
 
-import static org.jocl.CL.CL_CONTEXT_PLATFORM;
-import static org.jocl.CL.CL_DEVICE_TYPE_CPU;
-import static org.jocl.CL.CL_DEVICE_TYPE_GPU;
-import static org.jocl.CL.CL_MEM_COPY_HOST_PTR;
 import static org.jocl.CL.CL_MEM_READ_ONLY;
 import static org.jocl.CL.CL_MEM_READ_WRITE;
-import static org.jocl.CL.CL_TRUE;
-import static org.jocl.CL.clBuildProgram;
-import static org.jocl.CL.clCreateBuffer;
-import static org.jocl.CL.clCreateCommandQueue;
-import static org.jocl.CL.clCreateContext;
-import static org.jocl.CL.clCreateKernel;
-import static org.jocl.CL.clCreateProgramWithSource;
-import static org.jocl.CL.clEnqueueNDRangeKernel;
-import static org.jocl.CL.clEnqueueReadBuffer;
-import static org.jocl.CL.clGetDeviceIDs;
-import static org.jocl.CL.clGetPlatformIDs;
-import static org.jocl.CL.clReleaseCommandQueue;
-import static org.jocl.CL.clReleaseContext;
-import static org.jocl.CL.clReleaseKernel;
 import static org.jocl.CL.clReleaseMemObject;
-import static org.jocl.CL.clReleaseProgram;
-import static org.jocl.CL.clSetKernelArg;
 
 import java.util.Random;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
 
-import org.jocl.CL;
-import org.jocl.Pointer;
 import org.jocl.Sizeof;
-import org.jocl.cl_command_queue;
-import org.jocl.cl_context;
-import org.jocl.cl_context_properties;
-import org.jocl.cl_device_id;
-import org.jocl.cl_kernel;
 import org.jocl.cl_mem;
-import org.jocl.cl_platform_id;
-import org.jocl.cl_program;
+
+import com.christianfries.compute.Backend;
+import com.christianfries.compute.DeviceInfo;
+import com.christianfries.compute.DeviceRegistry;
+import com.christianfries.compute.JavaComputeEngine;
+import com.christianfries.opencl.ComputeContext;
+import com.christianfries.opencl.KernelLauncher;
+import com.christianfries.opencl.NDRange;
 
 /**
  * An example illustrating adding two vectors using OpenCL
@@ -57,15 +32,16 @@ import org.jocl.cl_program;
 public class OpenCLVectorAdd
 {
 	public enum Method {
-		OPEN_CL_CPU,		// Use OpenCL implementation on CPU
-		OPEN_CL_GPU_0,		// Use OpenCL implementation on CPU
-		OPEN_CL_GPU_1		// Use OpenCL implementation on CPU
+		AUTO,				// Use the fastest device found by the DeviceRegistry (OpenCL or Java)
+		JAVA,				// Use Java implementation (using the JavaComputeEngine)
+		OPEN_CL_CPU,		// Use OpenCL implementation on CPU (uses the fastest CPU device of all platforms)
+		OPEN_CL_GPU_0,		// Use OpenCL implementation on GPU (the first GPU device of all platforms)
+		OPEN_CL_GPU_1		// Use OpenCL implementation on GPU (the second GPU device of all platforms)
 	}
 
 	final Method method;
-	final cl_device_id device;
-	final cl_context context;
-	final cl_command_queue commandQueue;
+	final DeviceInfo deviceInfo;
+	final ComputeContext computeContext;		// null if the Java implementation is used
 
 	/**
 	 * The entry point of this sample
@@ -89,7 +65,8 @@ public class OpenCLVectorAdd
 			b[i] = random.nextFloat();
 		}
 
-		OpenCLVectorAdd openCLVectorAdd = new OpenCLVectorAdd(Method.OPEN_CL_GPU_0);
+		OpenCLVectorAdd openCLVectorAdd = new OpenCLVectorAdd(Method.AUTO, size);
+		System.out.println("Using device " + openCLVectorAdd.deviceInfo);
 
 		float[] c = openCLVectorAdd.add(a, b);
 
@@ -106,75 +83,43 @@ public class OpenCLVectorAdd
 	 * Create the test setup. Initializes OpenCL on the given device.
 	 * 
 	 * @param method Specify which platform / device we use (Java, OpenCL CPU, OpenCL GPU)
+	 * @param workloadSize The expected vector size, used to pick the fastest device (if the method does not specify the device).
 	 */
-	public OpenCLVectorAdd(final Method method) {
+	public OpenCLVectorAdd(final Method method, final long workloadSize) {
 		super();
 		this.method = method;
 
-		final long clDeviceType;
-		final int deviceIndex;
+		final DeviceRegistry deviceRegistry = DeviceRegistry.getInstance();
 
 		switch(method) {
+		case AUTO:
+			deviceInfo = deviceRegistry.selectFastest(device -> device.getBackend() != Backend.CUDA, workloadSize);
+			break;
+		case JAVA:
+			deviceInfo = deviceRegistry.getDevices(Backend.JAVA).get(0);
+			break;
 		case OPEN_CL_CPU:
 		default:
-			clDeviceType = CL_DEVICE_TYPE_CPU;
-			deviceIndex = 0;
+			deviceInfo = deviceRegistry.selectFastest(Backend.OPEN_CL, DeviceInfo.DeviceType.CPU, workloadSize);
 			break;
 		case OPEN_CL_GPU_0:
-			clDeviceType = CL_DEVICE_TYPE_GPU;
-			deviceIndex = 0;
+			deviceInfo = deviceRegistry.getDevice(Backend.OPEN_CL, DeviceInfo.DeviceType.GPU, 0);
 			break;
 		case OPEN_CL_GPU_1:
-			clDeviceType = CL_DEVICE_TYPE_GPU;
-			deviceIndex = 1;
+			deviceInfo = deviceRegistry.getDevice(Backend.OPEN_CL, DeviceInfo.DeviceType.GPU, 1);
 			break;
 		}
 
 		/*
-		 * Initialize OpenCL (for method=JAVA this is not needed, we do it anyway).
+		 * Initialize OpenCL (for the Java implementation this is not needed).
 		 */
-
-		// The platform, device type and device number
-		// that will be used
-		final int platformIndex = 0;
-
-		// Enable exceptions and subsequently omit error checks in this sample
-		CL.setExceptionsEnabled(true);
-
-		// Obtain the number of platforms
-		final int numPlatformsArray[] = new int[1];
-		clGetPlatformIDs(0, null, numPlatformsArray);
-		final int numPlatforms = numPlatformsArray[0];
-
-		// Obtain a platform ID
-		final cl_platform_id platforms[] = new cl_platform_id[numPlatforms];
-		clGetPlatformIDs(platforms.length, platforms, null);
-		final cl_platform_id platform = platforms[platformIndex];
-
-		// Initialize the context properties
-		final cl_context_properties contextProperties = new cl_context_properties();
-		contextProperties.addProperty(CL_CONTEXT_PLATFORM, platform);
-
-		// Obtain the number of devices for the platform
-		final int numDevicesArray[] = new int[1];
-		clGetDeviceIDs(platform, clDeviceType, 0, null, numDevicesArray);
-		final int numDevices = numDevicesArray[0];
-
-		// Obtain a device ID
-		final cl_device_id devices[] = new cl_device_id[numDevices];
-		clGetDeviceIDs(platform, clDeviceType, numDevices, devices, null);
-		device = devices[deviceIndex];
-
-		// Create a context for the selected device
-		context = clCreateContext(contextProperties, 1, new cl_device_id[]{ device }, null, null, null);
-
-		// Create a command-queue for the selected device
-		commandQueue = clCreateCommandQueue(context, device, 0, null);
+		computeContext = deviceInfo.getBackend() == Backend.OPEN_CL ? new ComputeContext(deviceInfo.getOpenCLDevice()) : null;
 	}
 
 	private void cleanUp() {
-		clReleaseCommandQueue(commandQueue);
-		clReleaseContext(context);
+		if(computeContext != null) {
+			computeContext.close();
+		}
 	}
 
 	/**
@@ -197,87 +142,62 @@ public class OpenCLVectorAdd
 	 * @param arrayA The array representing the vector a.
 	 * @param arrayB The array representing the vector b.
 	 * @return The result of a + b.
+	 * @throws InterruptedException Thrown if the Java implementation is interrupted.
 	 */
-	private float[] add(float[] arrayA, float[] arrayB) {
+	private float[] add(float[] arrayA, float[] arrayB) throws InterruptedException {
+		if(computeContext == null) {
+			return addJava(arrayA, arrayB);
+		}
 
 		int size = arrayA.length;
 		float[] result = new float[size];
 
-		final Pointer srcA = Pointer.to(arrayA);
-		final Pointer srcB = Pointer.to(arrayB);
-		final Pointer dst = Pointer.to(result);
-
-		// Create the program from the source code
-		final cl_program program = clCreateProgramWithSource(context, 1, new String[]{ programSource }, null, null);
-
 		long timeCompileStart = System.currentTimeMillis();
 
-		// Build the program
-		clBuildProgram(program, 0, null, null, null, null);
-
-		// Create the kernel
-		final cl_kernel kernelAdd = clCreateKernel(program, "add", null);
+		// Build the program (cached by the context) and create the kernel
+		final KernelLauncher kernelAdd = computeContext.createKernel(programSource, null, "add");
 
 		long timeCompileEnd = System.currentTimeMillis();
 
 		// Allocate the memory objects for the input- and output data
 		final cl_mem memObjects[] = new cl_mem[3];
-		memObjects[0] = clCreateBuffer(context, CL_MEM_READ_ONLY | CL_MEM_COPY_HOST_PTR, Sizeof.cl_float * size, srcA, null);
-		memObjects[1] = clCreateBuffer(context, CL_MEM_READ_ONLY | CL_MEM_COPY_HOST_PTR, Sizeof.cl_float * size, srcB, null);
-		memObjects[2] = clCreateBuffer(context, CL_MEM_READ_WRITE, Sizeof.cl_float * size, null, null);
+		memObjects[0] = computeContext.createBuffer(CL_MEM_READ_ONLY, arrayA);
+		memObjects[1] = computeContext.createBuffer(CL_MEM_READ_ONLY, arrayB);
+		memObjects[2] = computeContext.createBuffer(CL_MEM_READ_WRITE, (long)Sizeof.cl_float * size);
 
 		// Set the arguments for the kernel
-		clSetKernelArg(kernelAdd, 0, Sizeof.cl_mem, Pointer.to(memObjects[0]));
-		clSetKernelArg(kernelAdd, 1, Sizeof.cl_mem, Pointer.to(memObjects[1]));
-		clSetKernelArg(kernelAdd, 2, Sizeof.cl_mem, Pointer.to(memObjects[2]));
-
-		// Set the work-item dimensions
-		final long globalWorkSize[] = new long[] { size };
-		final long localWorkSize[] = null;	// if you do not specify, OpenCL will try to choose optimal value
+		kernelAdd.setArg(0, memObjects[0]).setArg(1, memObjects[1]).setArg(2, memObjects[2]);
 
 		long timePrepareEnd = System.currentTimeMillis();
 
-		// Execute the kernel
-		clEnqueueNDRangeKernel(commandQueue, kernelAdd, 1, null, globalWorkSize, localWorkSize, 0, null, null);
+		// Execute the kernel (OpenCL will try to choose an optimal local work size)
+		kernelAdd.launch(NDRange.of(size));
 
 		// Read the output data
-		clEnqueueReadBuffer(commandQueue, memObjects[2], CL_TRUE, 0, size * Sizeof.cl_float, dst, 0, null, null);
+		computeContext.read(memObjects[2], result);
 
 		long timeCalcEnd = System.currentTimeMillis();
 
-		// Release kernel, program, and memory objects
+		// Release kernel and memory objects
 		clReleaseMemObject(memObjects[0]);
 		clReleaseMemObject(memObjects[1]);
 		clReleaseMemObject(memObjects[2]);
 
-		clReleaseKernel(kernelAdd);
-		clReleaseProgram(program);
-		
+		kernelAdd.close();
+
 		return result;
 	}
 
-	private float[] addJavaUsingExecutor(float[] arrayA, float[] arrayB) throws InterruptedException {
+	private float[] addJava(float[] arrayA, float[] arrayB) {
 		int size = arrayA.length;
 		final float[] result = new float[size];
-		
-		int numberOfTask = 8;
-		
-		Function<Integer, Runnable> addTask = k -> () -> {
-			int startIndex = size * k / numberOfTask;
-			int endIndex = size * (k+1) / numberOfTask;
-			
-			for(int i=startIndex; i<endIndex; i++) {
-				result[i] = arrayA[i] + arrayB[i] ;
-			}
-		};
 
-		ExecutorService executor = Executors.newFixedThreadPool(numberOfTask);
-		for(int k=0; k<numberOfTask; k++) {
-			executor.submit(addTask.apply(k));
-		}
-
-		executor.shutdown();
-		executor.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+		// The thread pool is persistent, each task adds a contiguous (cache line aligned) range
+		JavaComputeEngine.getDefault().forEachRange(size, (start, end) -> {
+			for(int i=start; i<end; i++) {
+				result[i] = arrayA[i] + arrayB[i];
+			}
+		});
 
 		return result;
 	}
@@ -1,6 +1,10 @@
 
 module com.christianfries.teaching.gpu {
 	exports com.christianfries.teaching.gpu;
+	exports com.christianfries.compute;
+	exports com.christianfries.cuda.examples;
+	exports com.christianfries.montecarlo;
+	exports com.christianfries.opencl;
 	exports com.christianfries.opencl.examples;
 	
 	requires javafx.controls;
@@ -10,6 +14,7 @@ module com.christianfries.teaching.gpu {
 
 	requires java.logging;
 	requires java.management;
+	requires jdk.jfr;
 	requires java.sql;
 	requires jcuda;
 	requires jocl;
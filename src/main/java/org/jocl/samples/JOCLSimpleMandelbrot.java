@@ -6,23 +6,9 @@
 
 package org.jocl.samples;
 
-import static org.jocl.CL.CL_CONTEXT_PLATFORM;
 import static org.jocl.CL.CL_DEVICE_TYPE_ALL;
 import static org.jocl.CL.CL_MEM_READ_WRITE;
 import static org.jocl.CL.CL_MEM_WRITE_ONLY;
-import static org.jocl.CL.CL_TRUE;
-import static org.jocl.CL.clBuildProgram;
-import static org.jocl.CL.clCreateBuffer;
-import static org.jocl.CL.clCreateCommandQueue;
-import static org.jocl.CL.clCreateContext;
-import static org.jocl.CL.clCreateKernel;
-import static org.jocl.CL.clCreateProgramWithSource;
-import static org.jocl.CL.clEnqueueNDRangeKernel;
-import static org.jocl.CL.clEnqueueReadBuffer;
-import static org.jocl.CL.clEnqueueWriteBuffer;
-import static org.jocl.CL.clGetDeviceIDs;
-import static org.jocl.CL.clGetPlatformIDs;
-import static org.jocl.CL.clSetKernelArg;
 
 import java.awt.BorderLayout;
 import java.awt.Color;
@@ -44,17 +30,13 @@ import javax.swing.JFrame;
 import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
 
-import org.jocl.CL;
-import org.jocl.Pointer;
 import org.jocl.Sizeof;
-import org.jocl.cl_command_queue;
-import org.jocl.cl_context;
-import org.jocl.cl_context_properties;
-import org.jocl.cl_device_id;
-import org.jocl.cl_kernel;
 import org.jocl.cl_mem;
-import org.jocl.cl_platform_id;
-import org.jocl.cl_program;
+
+import com.christianfries.opencl.ComputeContext;
+import com.christianfries.opencl.DeviceSelectionPolicy;
+import com.christianfries.opencl.KernelLauncher;
+import com.christianfries.opencl.NDRange;
 
 /**
  * A class that uses a simple OpenCL kernel to compute the
@@ -99,20 +81,20 @@ public class JOCLSimpleMandelbrot
 	private final JComponent imageComponent;
 
 	/**
-	 * The OpenCL context
+	 * The OpenCL context, device and command queue
 	 */
-	private cl_context context;
+	private ComputeContext computeContext;
 
 	/**
-	 * The OpenCL command queue
+	 * The OpenCL kernel which will actually compute the Mandelbrot
+	 * set and store the pixel data in a CL memory object
 	 */
-	private cl_command_queue commandQueue;
+	private KernelLauncher kernel;
 
 	/**
-	 * The OpenCL kernel which will actually compute the Mandelbrot
-	 * set and store the pixel data in a CL memory object
+	 * The 2D range (one work item per pixel) on which the kernel is launched
 	 */
-	private cl_kernel kernel;
+	private NDRange range;
 
 	/**
 	 * The OpenCL memory object which stores the pixel data
@@ -208,66 +190,25 @@ public class JOCLSimpleMandelbrot
 		final long deviceType = CL_DEVICE_TYPE_ALL;
 		final int deviceIndex = 2;
 
-		// Enable exceptions and subsequently omit error checks in this sample
-		CL.setExceptionsEnabled(true);
-
-		// Obtain the number of platforms
-		final int numPlatformsArray[] = new int[1];
-		clGetPlatformIDs(0, null, numPlatformsArray);
-		final int numPlatforms = numPlatformsArray[0];
-
-		// Obtain a platform ID
-		final cl_platform_id platforms[] = new cl_platform_id[numPlatforms];
-		clGetPlatformIDs(platforms.length, platforms, null);
-		final cl_platform_id platform = platforms[platformIndex];
-
-		// Initialize the context properties
-		final cl_context_properties contextProperties = new cl_context_properties();
-		contextProperties.addProperty(CL_CONTEXT_PLATFORM, platform);
-
-		// Obtain the number of devices for the platform
-		final int numDevicesArray[] = new int[1];
-		clGetDeviceIDs(platform, deviceType, 0, null, numDevicesArray);
-		final int numDevices = numDevicesArray[0];
-
-		// Obtain a device ID
-		final cl_device_id devices[] = new cl_device_id[numDevices];
-		clGetDeviceIDs(platform, deviceType, numDevices, devices, null);
-		final cl_device_id device = devices[deviceIndex];
-
-		// Create a context for the selected device
-		context = clCreateContext(
-				contextProperties, 1, new cl_device_id[]{device},
-				null, null, null);
-
-		// Create a command-queue for the selected device
-		commandQueue =
-				clCreateCommandQueue(context, device, 0, null);
+		computeContext = ComputeContext.create(DeviceSelectionPolicy.byIndex(platformIndex, deviceType, deviceIndex));
 
 		// Program Setup
 		final String source = readFile("/SimpleMandelbrot.cl");
 
-		// Create the program
-		final cl_program cpProgram = clCreateProgramWithSource(context, 1,
-				new String[]{ source }, null, null);
-
-		// Build the program
-		clBuildProgram(cpProgram, 0, null, "-cl-mad-enable", null, null);
-
-		// Create the kernel
-		kernel = clCreateKernel(cpProgram, "computeMandelbrot", null);
+		// Build the program and create the kernel
+		kernel = computeContext.createKernel(source, "-cl-mad-enable", "computeMandelbrot");
+		range = NDRange.of(sizeX, sizeY);
 
 		// Create the memory object which will be filled with the
 		// pixel data
-		pixelMem = clCreateBuffer(context, CL_MEM_WRITE_ONLY,
-				sizeX * sizeY * Sizeof.cl_uint, null, null);
+		pixelMem = computeContext.createBuffer(CL_MEM_WRITE_ONLY,
+				(long)sizeX * sizeY * Sizeof.cl_uint);
 
 		// Create and fill the memory object containing the color map
 		initColorMap(32, Color.RED, Color.GREEN, Color.BLUE);
-		colorMapMem = clCreateBuffer(context, CL_MEM_READ_WRITE,
-				colorMap.length * Sizeof.cl_uint, null, null);
-		clEnqueueWriteBuffer(commandQueue, colorMapMem, true, 0,
-				colorMap.length * Sizeof.cl_uint, Pointer.to(colorMap), 0, null, null);
+		colorMapMem = computeContext.createBuffer(CL_MEM_READ_WRITE,
+				(long)colorMap.length * Sizeof.cl_uint);
+		computeContext.write(colorMapMem, colorMap);
 	}
 
 	/**
@@ -410,29 +351,25 @@ public class JOCLSimpleMandelbrot
 	 */
 	private void updateImage()
 	{
-		// Set work size and execute the kernel
-		final long globalWorkSize[] = new long[2];
-		globalWorkSize[0] = sizeX;
-		globalWorkSize[1] = sizeY;
-
+		// Set the arguments (only changed values are passed to OpenCL) and execute the kernel
 		final int maxIterations = 2000;
-		clSetKernelArg(kernel, 0, Sizeof.cl_mem, Pointer.to(pixelMem));
-		clSetKernelArg(kernel, 1, Sizeof.cl_uint, Pointer.to(new int[]{ sizeX }));
-		clSetKernelArg(kernel, 2, Sizeof.cl_uint, Pointer.to(new int[]{ sizeY }));
-		clSetKernelArg(kernel, 3, Sizeof.cl_float, Pointer.to(new float[]{ x0 }));
-		clSetKernelArg(kernel, 4, Sizeof.cl_float, Pointer.to(new float[]{ y0 }));
-		clSetKernelArg(kernel, 5, Sizeof.cl_float, Pointer.to(new float[]{ x1 }));
-		clSetKernelArg(kernel, 6, Sizeof.cl_float, Pointer.to(new float[]{ y1 }));
-		clSetKernelArg(kernel, 7, Sizeof.cl_int, Pointer.to(new int[]{ maxIterations }));
-		clSetKernelArg(kernel, 8, Sizeof.cl_mem, Pointer.to(colorMapMem));
-		clSetKernelArg(kernel, 9, Sizeof.cl_int, Pointer.to(new int[]{ colorMap.length }));
-
-		clEnqueueNDRangeKernel(commandQueue, kernel, 2, null, globalWorkSize, null, 0, null, null);
+		kernel
+		.setArg(0, pixelMem)
+		.setArg(1, sizeX)
+		.setArg(2, sizeY)
+		.setArg(3, x0)
+		.setArg(4, y0)
+		.setArg(5, x1)
+		.setArg(6, y1)
+		.setArg(7, maxIterations)
+		.setArg(8, colorMapMem)
+		.setArg(9, colorMap.length)
+		.launch(range);
 
 		// Read the pixel data into the BufferedImage
 		final DataBufferInt dataBuffer = (DataBufferInt)image.getRaster().getDataBuffer();
 		final int data[] = dataBuffer.getData();
-		clEnqueueReadBuffer(commandQueue, pixelMem, CL_TRUE, 0, Sizeof.cl_int * sizeY * sizeX, Pointer.to(data), 0, null, null);
+		computeContext.read(pixelMem, data);
 
 		imageComponent.repaint();
 	}
@@ -0,0 +1,254 @@
+/*
+ * Parallel primitives: exclusive prefix sum (scan), stream compaction, radix sort of floats and histogram.
+ * See com.christianfries.opencl.ParallelPrimitivesOpenCL for the host code.
+ *
+ * The work group size of the tiled kernels (scan, radix sort) has to be a power of two (at least 16).
+ */
+
+/*
+ * Grid-stride loop over the elements 0 <= i < n with a 64-bit index. Each work item processes the elements
+ * i, i + get_global_size(0), ..., hence the global work size may be smaller than n (see ComputeContext.createRange).
+ */
+#define GRID_STRIDE_LOOP(i, n) for (long i = get_global_id(0); i < (n); i += get_global_size(0))
+
+#define RADIX_BITS 4
+#define RADIX 16
+
+/*
+ * Work-efficient (Blelloch) exclusive scan of size elements in local memory (size a power of two, at most twice the work group size):
+ * an up-sweep building partial sums in a balanced tree, followed by a down-sweep distributing them, O(size) additions.
+ * Has to be called by all work items of the group. Returns the sum of all elements.
+ */
+int workGroupExclusiveScan(__local int *data, const int size)
+{
+    const int lid = get_local_id(0);
+
+    int offset = 1;
+    for(int d = size >> 1; d > 0; d >>= 1)
+    {
+        barrier(CLK_LOCAL_MEM_FENCE);
+        if(lid < d)
+        {
+            data[offset * (2 * lid + 2) - 1] += data[offset * (2 * lid + 1) - 1];
+        }
+        offset <<= 1;
+    }
+
+    barrier(CLK_LOCAL_MEM_FENCE);
+    const int total = data[size - 1];
+    barrier(CLK_LOCAL_MEM_FENCE);
+    if(lid == 0)
+    {
+        data[size - 1] = 0;
+    }
+
+    for(int d = 1; d < size; d <<= 1)
+    {
+        offset >>= 1;
+        barrier(CLK_LOCAL_MEM_FENCE);
+        if(lid < d)
+        {
+            const int left = offset * (2 * lid + 1) - 1;
+            const int right = offset * (2 * lid + 2) - 1;
+            const int leftValue = data[left];
+            data[left] = data[right];
+            data[right] += leftValue;
+        }
+    }
+    barrier(CLK_LOCAL_MEM_FENCE);
+
+    return total;
+}
+
+/*
+ * Exclusive scan of the tiles of 2 * get_local_size(0) elements (one tile per work group).
+ * The sum of each tile is written to blockSums, the tiles are combined by scanning blockSums and addBlockOffsets.
+ * The input and the output may be the same buffer.
+ */
+__kernel void scanBlocks(const int n, __global const int *input, __global int *output, __global int *blockSums, __local int *data)
+{
+    const int lid = get_local_id(0);
+    const int localSize = get_local_size(0);
+    const int first = get_group_id(0) * 2 * localSize + lid;
+    const int second = first + localSize;
+
+    data[lid] = first < n ? input[first] : 0;
+    data[lid + localSize] = second < n ? input[second] : 0;
+
+    const int total = workGroupExclusiveScan(data, 2 * localSize);
+
+    if(first < n) output[first] = data[lid];
+    if(second < n) output[second] = data[lid + localSize];
+    if(lid == 0) blockSums[get_group_id(0)] = total;
+}
+
+__kernel void addBlockOffsets(const int n, __global int *data, __global const int *blockOffsets)
+{
+    const int localSize = get_local_size(0);
+    const int blockOffset = blockOffsets[get_group_id(0)];
+    const int first = get_group_id(0) * 2 * localSize + get_local_id(0);
+    const int second = first + localSize;
+
+    if(first < n) data[first] += blockOffset;
+    if(second < n) data[second] += blockOffset;
+}
+
+/*
+ * Maps the flags to 0 or 1 (the input of the scan of a stream compaction).
+ */
+__kernel void indicators(const long n, __global const int *flags, __global int *result)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        result[i] = flags[i] != 0 ? 1 : 0;
+    }
+}
+
+/*
+ * Stream compaction: writes the index of each element with a non-zero flag to its position,
+ * given by the exclusive scan of the flags.
+ */
+__kernel void compactIndices(const long n, __global const int *flags, __global const int *positions, __global int *indices)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        if(flags[i] != 0)
+        {
+            indices[positions[i]] = i;
+        }
+    }
+}
+
+__kernel void gather(const long n, __global const int *indices, __global const float *values, __global float *result)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        result[i] = values[indices[i]];
+    }
+}
+
+/*
+ * Map a float to an unsigned integer with the same order (negative values have their bits flipped,
+ * positive values their sign bit set), such that -0.0 < 0.0 and NaNs are sorted to the ends.
+ */
+uint floatToSortableKey(const float value)
+{
+    const uint bits = as_uint(value);
+    return (bits & 0x80000000u) ? ~bits : (bits | 0x80000000u);
+}
+
+__kernel void radixKeys(const long n, __global const float *values, __global uint *keys, __global int *indices)
+{
+    GRID_STRIDE_LOOP(i, n)
+    {
+        keys[i] = floatToSortableKey(values[i]);
+        indices[i] = i;
+    }
+}
+
+/*
+ * Count the digits (RADIX_BITS bits at shift) of the tile of each work group (one element per work item).
+ * The counts are stored digit major, blockHistograms[digit * numberOfGroups + group], such that their exclusive scan
+ * is the position of the first element of each digit and tile in the sorted output.
+ */
+__kernel void radixHistogram(const int n, const int shift, __global const uint *keys, __global int *blockHistograms)
+{
+    __local int localHistogram[RADIX];
+
+    const int lid = get_local_id(0);
+    const int i = get_group_id(0) * get_local_size(0) + lid;
+
+    if(lid < RADIX) localHistogram[lid] = 0;
+    barrier(CLK_LOCAL_MEM_FENCE);
+
+    if(i < n)
+    {
+        atomic_inc(&localHistogram[(keys[i] >> shift) & (RADIX - 1)]);
+    }
+    barrier(CLK_LOCAL_MEM_FENCE);
+
+    if(lid < RADIX) blockHistograms[lid * get_num_groups(0) + get_group_id(0)] = localHistogram[lid];
+}
+
+/*
+ * Scatter the tile of each work group to its position in the sorted output. The tile is first sorted (stably)
+ * by the digit in local memory, using one split (a scan of the flags) per bit, such that the writes of
+ * each digit are contiguous. Elements beyond n are padded with index -1 and sorted behind the tile.
+ */
+__kernel void radixScatter(const int n, const int shift,
+        __global const uint *keys, __global const int *indices, __global const int *blockOffsets,
+        __global uint *sortedKeys, __global int *sortedIndices,
+        __local uint *localKeys, __local int *localIndices, __local int *flags)
+{
+    __local int digitStart[RADIX];
+
+    const int lid = get_local_id(0);
+    const int localSize = get_local_size(0);
+    const int i = get_group_id(0) * localSize + lid;
+
+    uint key = i < n ? keys[i] : 0xFFFFFFFFu;
+    int index = i < n ? indices[i] : -1;
+
+    for(int bit = 0; bit < RADIX_BITS; bit++)
+    {
+        const int isSet = (key >> (shift + bit)) & 1;
+        flags[lid] = 1 - isSet;
+        const int numberOfUnset = workGroupExclusiveScan(flags, localSize);
+        const int destination = isSet ? numberOfUnset + lid - flags[lid] : flags[lid];
+
+        localKeys[destination] = key;
+        localIndices[destination] = index;
+        barrier(CLK_LOCAL_MEM_FENCE);
+        key = localKeys[lid];
+        index = localIndices[lid];
+        barrier(CLK_LOCAL_MEM_FENCE);
+    }
+
+    const int digit = (key >> shift) & (RADIX - 1);
+    if(lid == 0 || digit != ((localKeys[lid - 1] >> shift) & (RADIX - 1)))
+    {
+        digitStart[digit] = lid;
+    }
+    barrier(CLK_LOCAL_MEM_FENCE);
+
+    if(index >= 0)
+    {
+        const int position = blockOffsets[digit * get_num_groups(0) + get_group_id(0)] + lid - digitStart[digit];
+        sortedKeys[position] = key;
+        sortedIndices[position] = index;
+    }
+}
+
+/*
+ * Histogram with local memory privatization: each work group counts into its own bins in local memory
+ * (local atomics) and adds them to the global bins once. The bin of a value is floor((value - minValue) * scale),
+ * clamped to the first and the last bin. NaNs are not counted.
+ */
+__kernel void histogram(const long n, __global const float *values, const float minValue, const float scale, const int numberOfBins,
+        __global int *bins, __local int *localBins)
+{
+    for(int bin = get_local_id(0); bin < numberOfBins; bin += get_local_size(0))
+    {
+        localBins[bin] = 0;
+    }
+    barrier(CLK_LOCAL_MEM_FENCE);
+
+    GRID_STRIDE_LOOP(i, n)
+    {
+        const float value = values[i];
+        if(!isnan(value))
+        {
+            const int bin = clamp(convert_int_sat_rtn((value - minValue) * scale), 0, numberOfBins - 1);
+            atomic_inc(&localBins[bin]);
+        }
+    }
+    barrier(CLK_LOCAL_MEM_FENCE);
+
+    for(int bin = get_local_id(0); bin < numberOfBins; bin += get_local_size(0))
+    {
+        if(localBins[bin] != 0)
+        {
+            atomic_add(&bins[bin], localBins[bin]);
+        }
+    }
+}
@@ -1,217 +1,200 @@
-__kernel void capByScalar(int n, __global const float *a, float b, __global float *result)
+/*
+ * Grid-stride loop over the elements 0 <= i < n with a 64-bit index. Each work item processes the elements
+ * i, i + get_global_size(0), ..., hence the global work size may be smaller than n (see ComputeContext.createRange).
+ */
+#define GRID_STRIDE_LOOP(i, n) for (long i = get_global_id(0); i < (n); i += get_global_size(0))
+
+__kernel void capByScalar(long n, __global const float *a, float b, __global float *result)
 {
     float cap = b;
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = a[i] < cap ? a[i] : cap;
     }
 }
 
-__kernel void floorByScalar(int n, __global const float *a, float b, __global float *result)
+__kernel void floorByScalar(long n, __global const float *a, float b, __global float *result)
 {
     float floor = b;
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = a[i] > floor ? a[i] : floor;
     }
 }
 
-__kernel void addScalar(int n, __global const float *a, float b, __global float *result)
+__kernel void addScalar(long n, __global const float *a, float b, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = a[i] + b;
     }
 }
 
-__kernel void subScalar(int n, __global const float *a, float b, __global float *result)
+__kernel void subScalar(long n, __global const float *a, float b, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = a[i] - b;
     }
 }
 
-__kernel void busScalar(int n, __global const float *a, float b, __global float *result)
+__kernel void busScalar(long n, __global const float *a, float b, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = -a[i] + b;
     }
 }
 
-__kernel void multScalar(int n, __global const float *a, float b, __global float *result)
+__kernel void multScalar(long n, __global const float *a, float b, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = a[i] * b;
     }
     
 }
 
-__kernel void divScalar(int n, __global const float *a, float b, __global float *result)
+__kernel void divScalar(long n, __global const float *a, float b, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = a[i] / b;
     }
     
 }
 
-__kernel void vidScalar(int n, __global const float *a, float b, __global float *result)
+__kernel void vidScalar(long n, __global const float *a, float b, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = b / a[i];
     }
     
 }
 
-__kernel void squared(int n, __global const float *a, __global float *result)
+__kernel void squared(long n, __global const float *a, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = a[i] * a[i];
     }
     
 }
 
-__kernel void cuPow(int n, __global const float *a, float b, __global float *result)
+__kernel void cuPow(long n, __global const float *a, float b, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = pow(a[i],b);
     }
     
 }
 
-__kernel void cuSqrt(int n, __global const float *a, __global float *result)
+__kernel void cuSqrt(long n, __global const float *a, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = sqrt(a[i]);
     }
 }
 
-__kernel void cuExp(int n, __global const float *a, __global float *result)
+__kernel void cuExp(long n, __global const float *a, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = (float)exp((double)a[i]);
     }
 }
 
-__kernel void cuLog(int n, __global const float *a, __global float *result)
+__kernel void cuLog(long n, __global const float *a, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = (float)log((double)a[i]);
     }
 }
 
-__kernel void invert(int n, __global const float *a, __global float *result)
+__kernel void invert(long n, __global const float *a, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = 1.0f / a[i];
     }
 }
 
-__kernel void cuAbs(int n, __global const float *a, __global float *result)
+__kernel void cuAbs(long n, __global const float *a, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = fabs(a[i]);
     }
 }
 
 
-__kernel void cap(int n, __global const float *a, __global const float *b, __global float *result)
+__kernel void cap(long n, __global const float *a, __global const float *b, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = a[i] < b[i] ? a[i] : b[i];
     }
 }
 
-__kernel void cuFloor(int n, __global const float *a, __global const float *b, __global float *result)
+__kernel void cuFloor(long n, __global const float *a, __global const float *b, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = a[i] > b[i] ? a[i] : b[i];
     }
 }
 
-__kernel void add(int n, __global const float *a, __global const float *b, __global float *result)
+__kernel void add(long n, __global const float *a, __global const float *b, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = a[i] + b[i];
     }
     
 }
 
-__kernel void sub(int n, __global const float *a, __global const float *b, __global float *result)
+__kernel void sub(long n, __global const float *a, __global const float *b, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = a[i] - b[i];
     }
     
 }
 
-__kernel void mult(int n, __global const float *a, __global const float *b, __global float *result)
+__kernel void mult(long n, __global const float *a, __global const float *b, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = a[i] * b[i];
     }
     
 }
 
-__kernel void cuDiv(int n, __global const float *a, __global const float *b, __global float *result)
+__kernel void cuDiv(long n, __global const float *a, __global const float *b, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = a[i] / b[i];
     }
     
 }
 
-__kernel void accrue(int n, __global const float *a, __global const float *b, float p, __global float *result)
+__kernel void accrue(long n, __global const float *a, __global const float *b, float p, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = a[i] * (1.0f + b[i] * p);
     }
 }
 
-__kernel void discount(int n, __global const float *a, __global const float *b, float p, __global float *result)
+__kernel void discount(long n, __global const float *a, __global const float *b, float p, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         // We force to avoid fma
         float prod = b[i] * p;
@@ -220,37 +203,33 @@ __kernel void discount(int n, __global const float *a, __global const float *b,
     }
 }
 
-__kernel void addProduct(int n, __global const float *a, __global const float *b, __global const float *c, __global float *result)
+__kernel void addProduct(long n, __global const float *a, __global const float *b, __global const float *c, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = a[i] + b[i] * c[i];
     }
 }
 
-__kernel void addProduct_vs(int n, __global const float *a, __global const float *b, float c, __global float *result)
+__kernel void addProduct_vs(long n, __global const float *a, __global const float *b, float c, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = a[i] + b[i] * c;
     }
 }
 
-__kernel void addRatio(int n, __global const float *a, __global const float *b, __global const float *c, __global float *result)
+__kernel void addRatio(long n, __global const float *a, __global const float *b, __global const float *c, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = a[i] + b[i] / c[i];
     }
 }
 
-__kernel void subRatio(int n, __global const float *a, __global const float *b, __global const float *c, __global float *result)
+__kernel void subRatio(long n, __global const float *a, __global const float *b, __global const float *c, __global float *result)
 {
-    int i = get_global_id(0);
-    if (i<n)
+    GRID_STRIDE_LOOP(i, n)
     {
         result[i] = a[i] - b[i] / c[i];
     }
@@ -0,0 +1,8 @@
+/*
+ * Host stub of cuda_fp16.h, see cuda_stub.h.
+ */
+
+struct __half { unsigned short x; };
+
+float __half2float(__half x);
+__half __float2half_rn(float x);
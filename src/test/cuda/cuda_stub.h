@@ -0,0 +1,32 @@
+/*
+ * Host stubs of the Cuda built-ins used by the kernels in src/main/cuda, such that the kernels can be checked by a
+ * C++ compiler (g++ -fsyntax-only) where nvcc is not available, see CudaKernelSyntaxTest.
+ * The stubs only declare the signatures, they are never executed.
+ */
+
+#include <math.h>
+
+#define __global__
+#define __device__
+#define __host__
+#define __shared__
+#define __forceinline__ inline
+
+struct uint3 { unsigned int x, y, z; };
+struct dim3 { unsigned int x, y, z; };
+
+extern uint3 threadIdx;
+extern uint3 blockIdx;
+extern dim3 blockDim;
+extern dim3 gridDim;
+
+void __syncthreads();
+
+float __fadd_rn(float x, float y);
+float __fmul_rn(float x, float y);
+float __fdiv_rn(float x, float y);
+double __dadd_rn(double x, double y);
+double __dmul_rn(double x, double y);
+float __uint_as_float(unsigned int x);
+unsigned int __float_as_uint(float x);
+double normcdfinv(double x);
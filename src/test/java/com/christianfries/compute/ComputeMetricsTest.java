@@ -0,0 +1,113 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.compute;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Test cases for the classes com.christianfries.compute.ComputeMetrics, com.christianfries.compute.ComputeEvents
+ * and com.christianfries.compute.Histogram.
+ *
+ * These tests do not require a GPU: the events are created directly.
+ *
+ * @author Christian Fries
+ */
+public class ComputeMetricsTest {
+
+	@Before
+	public void resetMetrics() {
+		ComputeMetrics.getInstance().reset();
+	}
+
+	@Test
+	public void testHistogram() {
+		final Histogram histogram = new Histogram();
+		for(int i=1; i<=1000; i++) {
+			histogram.record(i);
+		}
+
+		final Histogram.Snapshot snapshot = histogram.getSnapshot();
+		Assert.assertEquals(1000, snapshot.getCount());
+		Assert.assertEquals(500.5, snapshot.getMean(), 1E-12);
+		Assert.assertEquals(1, snapshot.getMin());
+		Assert.assertEquals(1000, snapshot.getMax());
+
+		// Percentiles are approximated by the upper bound of their (logarithmic) bucket
+		Assert.assertTrue(snapshot.getMedian() >= 500 && snapshot.getMedian() < 1000);
+		Assert.assertTrue(snapshot.getPercentile99() >= 990 && snapshot.getPercentile99() <= 1000);
+
+		histogram.reset();
+		Assert.assertEquals(0, histogram.getSnapshot().getCount());
+	}
+
+	@Test
+	public void testEventsFeedMetricsAvailableViaJMX() throws Exception {
+		ComputeEvents.startKernelLaunch("java", "test", 1000).complete();
+		ComputeEvents.startKernelLaunch("java", "test", 1000).complete();
+		ComputeEvents.startHostToDeviceCopy("java", 4000).complete();
+		ComputeEvents.startDeviceAlloc("java", 4000).complete();
+		ComputeMetrics.getInstance().recordPoolAccess(true);
+		ComputeMetrics.getInstance().recordPoolAccess(true);
+		ComputeMetrics.getInstance().recordPoolAccess(true);
+		ComputeMetrics.getInstance().recordPoolAccess(false);
+		ComputeMetrics.getInstance().recordCacheAccess(true);
+		ComputeMetrics.getInstance().recordCacheAccess(false);
+
+		final ObjectName name = new ObjectName(ComputeMetrics.OBJECT_NAME);
+		final CompositeData kernelLaunchLatency = (CompositeData)ManagementFactory.getPlatformMBeanServer().getAttribute(name, "KernelLaunchLatency");
+		Assert.assertEquals(2L, kernelLaunchLatency.get("count"));
+		Assert.assertEquals(4000L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "HostToDeviceBytes"));
+		Assert.assertEquals(4000L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "AllocatedBytes"));
+		Assert.assertEquals(0.75, (Double)ManagementFactory.getPlatformMBeanServer().getAttribute(name, "PoolHitRate"), 1E-12);
+		Assert.assertEquals(0.5, (Double)ManagementFactory.getPlatformMBeanServer().getAttribute(name, "CacheHitRate"), 1E-12);
+		Assert.assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "CacheMisses"));
+	}
+
+	@Test
+	public void testFlightRecorderEvents() throws Exception {
+		final Path file = Files.createTempFile("compute", ".jfr");
+		try(Recording recording = new Recording()) {
+			recording.enable("com.christianfries.compute.KernelLaunch");
+			recording.enable("com.christianfries.compute.ProgramBuild");
+			recording.start();
+
+			ComputeEvents.startProgramBuild("java", "payoff", 100).complete();
+			ComputeEvents.startKernelLaunch("java", "payoff", 12345).complete();
+
+			recording.stop();
+			recording.dump(file);
+
+			final List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+					.filter(event -> event.getEventType().getName().startsWith("com.christianfries.compute."))
+					.collect(Collectors.toList());
+			Assert.assertEquals(2, events.size());
+
+			final RecordedEvent launch = events.stream().filter(event -> event.getEventType().getName().endsWith("KernelLaunch")).findFirst().get();
+			Assert.assertEquals("java", launch.getString("device"));
+			Assert.assertEquals("payoff", launch.getString("kernel"));
+			Assert.assertEquals(12345L, launch.getLong("workItems"));
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
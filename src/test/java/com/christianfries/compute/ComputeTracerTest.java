@@ -0,0 +1,79 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.compute;
+
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for the class com.christianfries.compute.ComputeTracer.
+ *
+ * These tests do not require a GPU: the spans are recorded by the events directly.
+ *
+ * @author Christian Fries
+ */
+public class ComputeTracerTest {
+
+	@After
+	public void stopTracer() {
+		ComputeTracer.getInstance().stop();
+		ComputeTracer.getInstance().clear();
+	}
+
+	@Test
+	public void testDisabledTracerRecordsNothing() {
+		final ComputeTracer tracer = ComputeTracer.getInstance();
+		tracer.stop();
+		tracer.clear();
+
+		ComputeEvents.startKernelLaunch("java", "payoff", 100).complete();
+
+		Assert.assertTrue(tracer.getSpans().isEmpty());
+	}
+
+	@Test
+	public void testSpansAndChromeTraceFormat() throws Exception {
+		final ComputeTracer tracer = ComputeTracer.getInstance();
+		tracer.clear();
+		tracer.start();
+
+		try(ComputeTracer.Scope scope = tracer.scope("Valuation", "bermudan \"test\"")) {
+			scope.setArgument("paths", 1024);
+			ComputeEvents.startHostToDeviceCopy("opencl:0:0", 4096).complete();
+			ComputeEvents.startKernelLaunch("opencl:0:0", "payoff", 1024).complete();
+		}
+		tracer.recordDeviceSpan("opencl:0:0", "Kernel", "payoff", System.nanoTime(), 1500, Collections.singletonMap("workItems", 1024L));
+
+		final List<ComputeTracer.Span> spans = tracer.getSpans();
+		Assert.assertEquals(4, spans.size());
+		Assert.assertEquals("HostToDeviceCopy", spans.get(0).getCategory());
+		Assert.assertEquals(4096L, spans.get(0).getArguments().get("bytes"));
+		Assert.assertEquals("payoff", spans.get(1).getName());
+		Assert.assertEquals("host", spans.get(2).getTrack());
+		Assert.assertEquals(1024, spans.get(2).getArguments().get("paths"));
+		Assert.assertEquals("opencl:0:0", spans.get(3).getTrack());
+
+		// The scope encloses the operations
+		Assert.assertTrue(spans.get(2).getStartNanos() <= spans.get(0).getStartNanos());
+		Assert.assertTrue(spans.get(2).getStartNanos() + spans.get(2).getDurationNanos() >= spans.get(1).getStartNanos() + spans.get(1).getDurationNanos());
+
+		final StringWriter writer = new StringWriter();
+		tracer.write(writer);
+		final String json = writer.toString();
+		Assert.assertTrue(json.startsWith("{\"displayTimeUnit\":\"ns\""));
+		Assert.assertTrue(json.contains("\"traceEvents\":["));
+		Assert.assertTrue(json.contains("\"name\":\"process_name\",\"ph\":\"M\",\"pid\":1,\"tid\":0,\"args\":{\"name\":\"opencl:0:0\"}"));
+		Assert.assertTrue(json.contains("\"name\":\"bermudan \\\"test\\\"\",\"cat\":\"Valuation\",\"ph\":\"X\""));
+		Assert.assertTrue(json.contains("\"dur\":1.500,\"pid\":1"));
+		Assert.assertTrue(json.trim().endsWith("]}"));
+	}
+}
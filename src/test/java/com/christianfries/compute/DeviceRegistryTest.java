@@ -0,0 +1,63 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.compute;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for the class com.christianfries.compute.DeviceRegistry.
+ * 
+ * These tests do not require a GPU: the Java backend is always registered.
+ * 
+ * @author Christian Fries
+ */
+public class DeviceRegistryTest {
+
+	@After
+	public void clearOverride() {
+		System.clearProperty(DeviceRegistry.DEVICE_PROPERTY);
+	}
+
+	@Test
+	public void testJavaBackendIsAlwaysAvailable() {
+		DeviceRegistry deviceRegistry = DeviceRegistry.getInstance();
+
+		Assert.assertEquals(1, deviceRegistry.getDevices(Backend.JAVA).size());
+
+		DeviceInfo javaDevice = deviceRegistry.getDevice("java").get();
+		Assert.assertEquals(Runtime.getRuntime().availableProcessors(), javaDevice.getComputeUnits());
+		Assert.assertTrue(javaDevice.isDoublePrecisionSupported());
+
+		// Any selection succeeds
+		Assert.assertNotNull(deviceRegistry.selectFastest(1000000));
+	}
+
+	@Test
+	public void testOverride() {
+		System.setProperty(DeviceRegistry.DEVICE_PROPERTY, "java");
+
+		Assert.assertEquals("java", DeviceRegistry.getInstance().selectFastest(1000000).getId());
+	}
+
+	@Test
+	public void testOverrideOfUnavailableDeviceFallsBack() {
+		System.setProperty(DeviceRegistry.DEVICE_PROPERTY, "cuda:99");
+
+		Assert.assertNotNull(DeviceRegistry.getInstance().selectFastest(1000000));
+	}
+
+	@Test
+	public void testCalibrationModel() {
+		DeviceCalibration calibration = DeviceCalibration.of(1000, 2E-5, 1001000, 1.002E-2);
+
+		Assert.assertEquals(1E-8, calibration.getTimePerElement(), 1E-15);
+		Assert.assertEquals(1E-5, calibration.getLatency(), 1E-12);
+		Assert.assertEquals(1E-5 + 1E-2, calibration.getEstimatedTime(1000000), 1E-10);
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.compute;
+
+import static com.christianfries.compute.Expression.constant;
+import static com.christianfries.compute.Expression.ifThenElse;
+import static com.christianfries.compute.Expression.parameter;
+import static com.christianfries.compute.Expression.variable;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.christianfries.compute.DivergenceDiagnostics.Estimate;
+
+/**
+ * Test cases for the class com.christianfries.compute.DivergenceDiagnostics.
+ *
+ * @author Christian Fries
+ */
+public class DivergenceDiagnosticsTest {
+
+	private static final int SIZE = 1 << 20;
+
+	private final DivergenceDiagnostics diagnostics = new DivergenceDiagnostics(32, 1024, 1.0);
+
+	@Test
+	public void testUniformBlocks() {
+		// 000...000111...111: only the block at the boundary could diverge (it does not, the boundary is aligned)
+		final Estimate sorted = diagnostics.analyze(SIZE, i -> i >= SIZE / 2);
+		Assert.assertEquals(1024, sorted.getNumberOfSampledBlocks());
+		Assert.assertEquals(0.5, sorted.getPredicateDensity(), 0.05);
+		Assert.assertEquals(0.0, sorted.getFractionOfDivergentBlocks(), 0.0);
+
+		// 0 (1024 times) 1 (1024 times)...
+		final Estimate blocked = diagnostics.analyze(SIZE, i -> (i / 1024) % 2 == 1);
+		Assert.assertEquals(0.0, blocked.getFractionOfDivergentBlocks(), 0.0);
+
+		// The branching kernel skips the work of the blocks not taking the true branch
+		Assert.assertEquals(KernelVariant.BRANCHING, diagnostics.selectVariant(sorted, 200, 0).getVariant());
+		Assert.assertEquals(KernelVariant.BRANCHING, diagnostics.selectVariant(blocked, 200, 0).getVariant());
+	}
+
+	@Test
+	public void testInterleavedBlocks() {
+		// 010101...: all blocks diverge, the branching kernel executes the true branch plus the divergence overhead
+		final Estimate interleaved = diagnostics.analyze(SIZE, i -> i % 2 == 1);
+		Assert.assertEquals(0.5, interleaved.getPredicateDensity(), 0.0);
+		Assert.assertEquals(1.0, interleaved.getFractionOfDivergentBlocks(), 0.0);
+		Assert.assertEquals(201.0, diagnostics.getExpectedCost(interleaved, KernelVariant.BRANCHING, 200, 0), 1E-12);
+		Assert.assertEquals(KernelVariant.PREDICATED, diagnostics.selectVariant(interleaved, 200, 0).getVariant());
+
+		// Small data: all blocks are sampled, the last block is partial
+		final Estimate small = diagnostics.analyze(40, i -> i % 2 == 1);
+		Assert.assertEquals(2, small.getNumberOfSampledBlocks());
+		Assert.assertEquals(1.0, small.getFractionOfDivergentBlocks(), 0.0);
+	}
+
+	@Test
+	public void testSelectVariantOfExpression() throws JMException {
+		final Expression expression = ifThenElse(variable("X").greaterThan(parameter("B")), variable("X").exp().mult(variable("Y")), constant(0.0f));
+
+		final float[] x = new float[SIZE];
+		final float[] y = new float[SIZE];
+		for(int i=0; i<SIZE; i++) {
+			x[i] = i % 2;
+			y[i] = 1.0f;
+		}
+		final ComputeMetrics metrics = ComputeMetrics.getInstance();
+		metrics.reset();
+		final DivergenceDiagnostics.Selection interleaved = diagnostics.selectVariant(expression, new float[][] { x, y }, new float[] { 0.5f });
+		Assert.assertEquals(KernelVariant.PREDICATED, interleaved.getVariant());
+		Assert.assertEquals(1, interleaved.getEstimates().size());
+		Assert.assertEquals(1.0, interleaved.getDivergence(), 0.0);
+
+		for(int i=0; i<SIZE; i++) {
+			x[i] = i < SIZE / 4 ? 1.0f : 0.0f;
+		}
+		final DivergenceDiagnostics.Selection sorted = diagnostics.selectVariant(expression, new float[][] { x, y }, new float[] { 0.5f });
+		Assert.assertEquals(KernelVariant.BRANCHING, sorted.getVariant());
+		Assert.assertEquals(0.25, sorted.getEstimates().get(0).getPredicateDensity(), 0.05);
+		Assert.assertEquals(0.0, sorted.getDivergence(), 0.0);
+
+		// The selections are recorded in the metrics (exposed via JMX)
+		final ObjectName objectName = new ObjectName(ComputeMetrics.OBJECT_NAME);
+		Assert.assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "BranchingKernelSelections"));
+		Assert.assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "PredicatedKernelSelections"));
+		Assert.assertEquals(0.5, metrics.getMeanKernelSelectionDivergence(), 0.0);
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.compute;
+
+import static com.christianfries.compute.Expression.constant;
+import static com.christianfries.compute.Expression.ifThenElse;
+import static com.christianfries.compute.Expression.parameter;
+import static com.christianfries.compute.Expression.variable;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.christianfries.compute.ExpressionCompiler.Dialect;
+import com.christianfries.cuda.examples.RandomVariableFactory;
+import com.christianfries.cuda.examples.RandomVariableFactoryJava;
+import com.christianfries.cuda.examples.RandomVariableSimpleInterface;
+
+/**
+ * Test cases for the classes com.christianfries.compute.Expression and com.christianfries.compute.ExpressionCompiler.
+ *
+ * @author Christian Fries
+ */
+public class ExpressionCompilerTest {
+
+	/**
+	 * Payoff of a barrier call on a log-normal underlying: S = S0 exp(X), (S > B) ? 0 : max(S - K, 0).
+	 */
+	private static Expression getPayoff() {
+		final Expression underlying = variable("S0").mult(variable("X").exp());
+		return ifThenElse(underlying.greaterThan(parameter("B")), constant(0.0f), underlying.sub(parameter("K")).max(0.0f));
+	}
+
+	@Test
+	public void testJavaKernel() {
+		final int numberOfPaths = 200000;
+		final Random random = new Random(3141);
+		final float[] x = new float[numberOfPaths];
+		for(int i=0; i<numberOfPaths; i++) x[i] = 0.2f * (float)random.nextGaussian();
+		final float[] s0 = new float[numberOfPaths];
+		Arrays.fill(s0, 100.0f);
+
+		final Expression payoff = getPayoff();
+		Assert.assertEquals(Arrays.asList("S0", "X"), payoff.getVariableNames());
+		Assert.assertEquals(Arrays.asList("B", "K"), payoff.getParameterNames());
+
+		final float[] values = ExpressionCompiler.getJavaKernel(payoff).evaluate(new float[][] { s0, x }, new float[] { 130.0f, 100.0f });
+		Assert.assertEquals(numberOfPaths, values.length);
+		for(int i=0; i<numberOfPaths; i++) {
+			final float underlying = s0[i] * (float)Math.exp(x[i]);
+			final float expected = underlying > 130.0f ? 0.0f : Math.max(underlying - 100.0f, 0.0f);
+			Assert.assertEquals(expected, values[i], 0.0f);
+		}
+	}
+
+	@Test
+	public void testCacheByExpression() {
+		// Structurally equal expressions share the compiled kernel
+		Assert.assertEquals(getPayoff(), getPayoff());
+		Assert.assertEquals(getPayoff().hashCode(), getPayoff().hashCode());
+		Assert.assertSame(ExpressionCompiler.getJavaKernel(getPayoff()), ExpressionCompiler.getJavaKernel(getPayoff()));
+		Assert.assertSame(ExpressionCompiler.getKernelSource(getPayoff(), Dialect.CUDA), ExpressionCompiler.getKernelSource(getPayoff(), Dialect.CUDA));
+		Assert.assertNotEquals(getPayoff(), getPayoff().add(1.0f));
+	}
+
+	@Test
+	public void testKernelSource() {
+		final Expression payoff = getPayoff();
+		final String kernelName = ExpressionCompiler.getKernelName(payoff);
+
+		final String openCL = ExpressionCompiler.getKernelSource(payoff, Dialect.OPEN_CL);
+		Assert.assertTrue(openCL.startsWith("__kernel void " + kernelName + "(const long n, __global const float *x0, __global const float *x1, const float p0, const float p1, __global float *result)"));
+		Assert.assertTrue(openCL.contains("exp(") && openCL.contains("fmax(") && openCL.contains("i += get_global_size(0)"));
+
+		final String cuda = ExpressionCompiler.getKernelSource(payoff, Dialect.CUDA);
+		Assert.assertTrue(cuda.startsWith("extern \"C\"\n__global__ void " + kernelName + "(const long long n, const float *x0, const float *x1, const float p0, const float p1, float *result)"));
+		Assert.assertTrue(cuda.contains("expf(") && cuda.contains("fmaxf("));
+
+		// The common sub-expression S0 exp(X) is evaluated once, constants are exact
+		Assert.assertEquals(1, cuda.split("expf\\(", -1).length - 1);
+		Assert.assertTrue(openCL.contains("(" + Float.toHexString(0.0f) + "f)"));
+		Assert.assertTrue(cuda.contains("(0.00000000f)"));
+	}
+
+	@Test
+	public void testKernelSourceWithScalarVariables() {
+		final Expression payoff = getPayoff();
+		final BitSet scalarVariables = new BitSet();
+		scalarVariables.set(0);
+		final String kernelName = ExpressionCompiler.getKernelName(payoff, KernelVariant.PREDICATED, scalarVariables);
+		Assert.assertNotEquals(ExpressionCompiler.getKernelName(payoff), kernelName);
+		Assert.assertEquals(ExpressionCompiler.getKernelName(payoff), ExpressionCompiler.getKernelName(payoff, KernelVariant.PREDICATED, new BitSet()));
+
+		// S0 is passed by value, X as vector
+		final String cuda = ExpressionCompiler.getKernelSource(payoff, Dialect.CUDA, KernelVariant.PREDICATED, scalarVariables);
+		Assert.assertTrue(cuda.startsWith("extern \"C\"\n__global__ void " + kernelName + "(const long long n, const float x0, const float *x1, const float p0, const float p1, float *result)"));
+		Assert.assertTrue(cuda.contains("= x0;") && cuda.contains("= x1[i];"));
+		Assert.assertFalse(cuda.contains("x0[i]"));
+
+		final String openCL = ExpressionCompiler.getKernelSource(payoff, Dialect.OPEN_CL, KernelVariant.BRANCHING, scalarVariables);
+		Assert.assertTrue(openCL.contains("(const long n, const float x0, __global const float *x1,"));
+
+		// The requested set of scalar variables may be modified afterwards
+		scalarVariables.set(1);
+		Assert.assertSame(cuda, ExpressionCompiler.getKernelSource(payoff, Dialect.CUDA, KernelVariant.PREDICATED, BitSet.valueOf(new long[] { 1 })));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testScalarVariableOutOfRange() {
+		ExpressionCompiler.getKernelSource(getPayoff(), Dialect.CUDA, KernelVariant.PREDICATED, BitSet.valueOf(new long[] { 4 }));
+	}
+
+	@Test
+	public void testCudaLiteralsAreExact() {
+		final Random random = new Random(3141);
+		for(int i=0; i<1000; i++) {
+			final float value = Float.intBitsToFloat(random.nextInt());
+			if(Float.isNaN(value) || Float.isInfinite(value)) {
+				continue;
+			}
+			final String cuda = ExpressionCompiler.getKernelSource(variable("X").add(value), Dialect.CUDA);
+			final Matcher literal = Pattern.compile("= \\(([^()]*)f\\);").matcher(cuda);
+			Assert.assertTrue(cuda, literal.find());
+			Assert.assertEquals(literal.group(1), value, Float.parseFloat(literal.group(1)), 0.0f);
+		}
+	}
+
+	@Test
+	public void testBranchingKernelSource() {
+		final Expression payoff = getPayoff();
+		final String kernelName = ExpressionCompiler.getKernelName(payoff, KernelVariant.BRANCHING);
+		Assert.assertNotEquals(ExpressionCompiler.getKernelName(payoff), kernelName);
+
+		final String openCL = ExpressionCompiler.getKernelSource(payoff, Dialect.OPEN_CL, KernelVariant.BRANCHING);
+		Assert.assertTrue(openCL.startsWith("__kernel void " + kernelName + "(const long n"));
+
+		// The condition (and the underlying it uses) is evaluated before the if, the payoff only in the else block
+		final int ifIndex = openCL.indexOf("if (t");
+		final int elseIndex = openCL.indexOf("} else {");
+		Assert.assertTrue(ifIndex > 0 && elseIndex > ifIndex);
+		Assert.assertTrue(openCL.indexOf("exp(") < ifIndex);
+		Assert.assertTrue(openCL.indexOf("fmax(") > elseIndex);
+		Assert.assertEquals(1, openCL.split("exp\\(", -1).length - 1);
+
+		// Without conditionals both variants evaluate the same statements
+		final Expression expression = variable("X").mult(2.0f).add(parameter("a"));
+		Assert.assertEquals(
+				ExpressionCompiler.getKernelSource(expression, Dialect.CUDA).replace(ExpressionCompiler.getKernelName(expression), "kernel"),
+				ExpressionCompiler.getKernelSource(expression, Dialect.CUDA, KernelVariant.BRANCHING).replace(ExpressionCompiler.getKernelName(expression, KernelVariant.BRANCHING), "kernel"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testConditionAsValue() {
+		variable("X").greaterThan(constant(0.0f)).add(1.0f);
+	}
+
+	@Test
+	public void testEvaluateRandomVariables() {
+		final RandomVariableFactory factory = new RandomVariableFactoryJava();
+		final RandomVariableSimpleInterface x = factory.createRandomVariable(new float[] { -1.0f, 0.0f, 0.5f, 1.0f });
+		final RandomVariableSimpleInterface s0 = factory.createRandomVariable(100.0f);
+
+		final RandomVariableSimpleInterface value = factory.evaluate(getPayoff(), new RandomVariableSimpleInterface[] { s0, x }, new float[] { 200.0f, 100.0f });
+		final float[] realizations = value.getRealizations();
+		Assert.assertEquals(4, realizations.length);
+		Assert.assertEquals(0.0f, realizations[0], 0.0f);
+		Assert.assertEquals(0.0f, realizations[1], 0.0f);
+		Assert.assertEquals(100.0f * (float)Math.exp(0.5f) - 100.0f, realizations[2], 0.0f);
+		Assert.assertEquals(0.0f, realizations[3], 0.0f);
+
+		// Deterministic variables give a deterministic result
+		final RandomVariableSimpleInterface deterministic = factory.evaluate(getPayoff(), new RandomVariableSimpleInterface[] { s0, factory.createRandomVariable(0.1f) }, new float[] { 200.0f, 100.0f });
+		Assert.assertTrue(deterministic.isDeterministic());
+		Assert.assertEquals(100.0f * (float)Math.exp(0.1f) - 100.0f, deterministic.getRealizations()[0], 0.0f);
+	}
+}
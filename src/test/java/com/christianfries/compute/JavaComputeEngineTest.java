@@ -0,0 +1,90 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.compute;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.christianfries.compute.JavaComputeEngine.Partitioning;
+
+/**
+ * Test cases for the class com.christianfries.compute.JavaComputeEngine.
+ *
+ * @author Christian Fries
+ */
+public class JavaComputeEngineTest {
+
+	@Test
+	public void testEachIndexIsProcessedOnce() {
+		for(final Partitioning partitioning : Partitioning.values()) {
+			try(JavaComputeEngine engine = new JavaComputeEngine(4, partitioning, 100)) {
+				for(final int size : new int[] { 1, 15, 16, 17, 1000, 100003 }) {
+					final AtomicIntegerArray counts = new AtomicIntegerArray(size);
+					engine.forEachRange(size, (start, end) -> {
+						Assert.assertEquals("Chunk start is aligned to a cache line", 0, start % 16);
+						for(int i=start; i<end; i++) {
+							counts.incrementAndGet(i);
+						}
+					});
+					for(int i=0; i<size; i++) {
+						Assert.assertEquals(partitioning + ", size " + size + ", index " + i, 1, counts.get(i));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testBlocksAreIndependentOfPartitioning() {
+		for(final Partitioning partitioning : Partitioning.values()) {
+			try(JavaComputeEngine engine = new JavaComputeEngine(4, partitioning, 100)) {
+				final int size = 1003;
+				final AtomicIntegerArray blockOfIndex = new AtomicIntegerArray(size);
+				engine.forEachBlock(size, 100, (block, start, end) -> {
+					Assert.assertEquals(block * 100, start);
+					Assert.assertEquals(Math.min(size, start + 100), end);
+					for(int i=start; i<end; i++) {
+						blockOfIndex.addAndGet(i, block + 1);
+					}
+				});
+				for(int i=0; i<size; i++) {
+					Assert.assertEquals(partitioning + ", index " + i, i / 100 + 1, blockOfIndex.get(i));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testEmptyRange() {
+		JavaComputeEngine.getDefault().forEachRange(0, (start, end) -> Assert.fail("Body called for empty range."));
+	}
+
+	@Test
+	public void testNestedLoops() {
+		final int rows = 64;
+		final int columns = 1000;
+		final float[] result = new float[rows * columns];
+
+		final JavaComputeEngine engine = JavaComputeEngine.getDefault();
+		engine.forEachRange(rows, (rowStart, rowEnd) -> {
+			for(int row=rowStart; row<rowEnd; row++) {
+				final int offset = row * columns;
+				engine.forEachRange(columns, (start, end) -> {
+					for(int i=start; i<end; i++) {
+						result[offset + i] = offset + i;
+					}
+				});
+			}
+		});
+
+		for(int i=0; i<result.length; i++) {
+			Assert.assertEquals(i, result[i], 0.0);
+		}
+	}
+}
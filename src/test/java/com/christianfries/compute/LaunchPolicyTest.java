@@ -0,0 +1,64 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.compute;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.christianfries.compute.LaunchPolicy.LaunchConfiguration;
+import com.christianfries.compute.LaunchPolicy.Strategy;
+
+/**
+ * Test cases for the class com.christianfries.compute.LaunchPolicy.
+ *
+ * @author Christian Fries
+ */
+public class LaunchPolicyTest {
+
+	// A device with 80 multiprocessors and 2048 resident threads per multiprocessor
+	private final LaunchPolicy launchPolicy = new LaunchPolicy(80, 2048, 256, 32, Integer.MAX_VALUE);
+
+	@Test
+	public void testSmallVectorsUseAllComputeUnits() {
+		final LaunchConfiguration configuration = launchPolicy.getConfiguration(80 * 128);
+
+		Assert.assertEquals(Strategy.SMALL_BLOCKS, configuration.getStrategy());
+		Assert.assertEquals(0, configuration.getBlockSize() % 32);
+		Assert.assertTrue(configuration.getBlockSize() < 256);
+		Assert.assertEquals(80, configuration.getGridSize());
+		Assert.assertTrue(configuration.getGlobalSize() >= 80 * 128);
+
+		// A single element
+		Assert.assertEquals(1, launchPolicy.getConfiguration(1).getGridSize());
+		Assert.assertEquals(32, launchPolicy.getConfiguration(1).getBlockSize());
+	}
+
+	@Test
+	public void testMediumVectorsUseOneThreadPerElement() {
+		final LaunchConfiguration configuration = launchPolicy.getConfiguration(1000000);
+
+		Assert.assertEquals(Strategy.ONE_THREAD_PER_ELEMENT, configuration.getStrategy());
+		Assert.assertEquals(256, configuration.getBlockSize());
+		Assert.assertEquals((1000000 + 255) / 256, configuration.getGridSize());
+	}
+
+	@Test
+	public void testHugeVectorsUsePersistentGrid() {
+		final LaunchConfiguration configuration = launchPolicy.getConfiguration(1L << 33);
+
+		Assert.assertEquals(Strategy.PERSISTENT, configuration.getStrategy());
+		Assert.assertEquals(80 * 2048, configuration.getGlobalSize());
+		Assert.assertEquals(launchPolicy.getResidentThreads(), configuration.getGlobalSize());
+	}
+
+	@Test
+	public void testGridIsCapped() {
+		final LaunchPolicy cappedPolicy = new LaunchPolicy(1, 1 << 20, 256, 32, 1000);
+
+		Assert.assertEquals(1000, cappedPolicy.getConfiguration(1L << 30).getGridSize());
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.compute;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for the class com.christianfries.compute.ParallelPrimitivesJava.
+ *
+ * @author Christian Fries
+ */
+public class ParallelPrimitivesJavaTest {
+
+	private static final int[] SIZES = { 0, 1, 17, 1000, 100003 };
+
+	private final ParallelPrimitives primitives = new ParallelPrimitivesJava(new JavaComputeEngine(4, JavaComputeEngine.Partitioning.WORK_STEALING, 100));
+
+	@Test
+	public void testExclusiveScan() {
+		final Random random = new Random(3141);
+		for(final int size : SIZES) {
+			final int[] values = random.ints(size, -10, 10).toArray();
+			final int[] scan = primitives.exclusiveScan(values);
+			int sum = 0;
+			for(int i=0; i<size; i++) {
+				Assert.assertEquals("size " + size + ", index " + i, sum, scan[i]);
+				sum += values[i];
+			}
+		}
+	}
+
+	@Test
+	public void testCompaction() {
+		final Random random = new Random(3141);
+		for(final int size : SIZES) {
+			final float[] values = new float[size];
+			final int[] flags = new int[size];
+			for(int i=0; i<size; i++) {
+				values[i] = random.nextFloat();
+				flags[i] = random.nextInt(3) - 1;
+			}
+
+			final int[] indices = primitives.compactIndices(flags);
+			final float[] compacted = primitives.compact(values, flags);
+			Assert.assertArrayEquals(IntStream.range(0, size).filter(i -> flags[i] != 0).toArray(), indices);
+			Assert.assertEquals(indices.length, compacted.length);
+			for(int k=0; k<indices.length; k++) {
+				Assert.assertEquals(values[indices[k]], compacted[k], 0.0f);
+			}
+		}
+	}
+
+	@Test
+	public void testSortIsStableWithPermutation() {
+		final Random random = new Random(3141);
+		for(final int size : SIZES) {
+			final float[] values = new float[size];
+			for(int i=0; i<size; i++) {
+				// Many ties, signed zeros and infinities
+				values[i] = i % 7 == 0 ? 0.0f : i % 11 == 0 ? -0.0f : i % 13 == 0 ? Float.NEGATIVE_INFINITY : random.nextInt(100) - 50.5f;
+			}
+			final float[] original = values.clone();
+			final float[] expected = values.clone();
+			Arrays.sort(expected);
+
+			final int[] permutation = primitives.sort(values);
+			Assert.assertArrayEquals(expected, values, 0.0f);
+			for(int k=0; k<size; k++) {
+				Assert.assertEquals(Float.floatToRawIntBits(original[permutation[k]]), Float.floatToRawIntBits(values[k]));
+				if(k > 0 && values[k] == values[k-1] && Float.floatToRawIntBits(values[k]) == Float.floatToRawIntBits(values[k-1])) {
+					Assert.assertTrue("Stable order of ties", permutation[k] > permutation[k-1]);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testHistogram() {
+		final float[] values = { -1.0f, 0.0f, 0.1f, 0.25f, 0.5f, 0.99f, 1.0f, 7.0f, Float.NaN };
+		final int[] bins = primitives.histogram(values, 0.0f, 1.0f, 4);
+		Assert.assertArrayEquals(new int[] { 3, 1, 1, 3 }, bins);
+
+		final float[] uniform = new float[100000];
+		final Random random = new Random(3141);
+		for(int i=0; i<uniform.length; i++) uniform[i] = random.nextFloat();
+		Assert.assertEquals(uniform.length, Arrays.stream(primitives.histogram(uniform, 0.0f, 1.0f, 100)).sum());
+	}
+}
@@ -0,0 +1,199 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.compute;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.christianfries.compute.ResidencyManager.Resident;
+import com.christianfries.compute.ResidencyManager.SpillStorage;
+
+/**
+ * Test cases for the class com.christianfries.compute.ResidencyManager, using a simulated device with a small memory.
+ *
+ * @author Christian Fries
+ */
+public class ResidencyManagerTest {
+
+	private static final int SIZE = 100;
+
+	/**
+	 * A device with a given memory, on which an allocation fails if it exceeds the free memory.
+	 */
+	private static class SimulatedDevice {
+		private final long memory;
+		private long allocatedBytes;
+
+		SimulatedDevice(final long memory) {
+			this.memory = memory;
+		}
+
+		float[] allocate(final long sizeInBytes) {
+			if(allocatedBytes + sizeInBytes > memory) {
+				return null;
+			}
+			allocatedBytes += sizeInBytes;
+			return new float[(int)(sizeInBytes / Float.BYTES)];
+		}
+
+		void free(final float[] values) {
+			allocatedBytes -= (long)values.length * Float.BYTES;
+		}
+	}
+
+	/**
+	 * A vector on the simulated device.
+	 */
+	private static class SimulatedVector implements Resident {
+		private final SimulatedDevice device;
+		private final ResidencyManager residencyManager;
+		private float[] valuesOnDevice;
+		private float[] valuesOnHost;
+		private ByteBuffer[] mappedValues;
+
+		SimulatedVector(final SimulatedDevice device, final ResidencyManager residencyManager, final float value) {
+			this.device = device;
+			this.residencyManager = residencyManager;
+			valuesOnDevice = residencyManager.allocate(SIZE * Float.BYTES, device::allocate);
+			if(valuesOnDevice == null) {
+				throw new IllegalStateException("Out of memory.");
+			}
+			Arrays.fill(valuesOnDevice, value);
+			residencyManager.register(this);
+		}
+
+		float get(final int index) {
+			residencyManager.use(this);
+			return valuesOnDevice[index];
+		}
+
+		@Override
+		public long getSizeInBytes() {
+			return SIZE * Float.BYTES;
+		}
+
+		@Override
+		public void spill(final SpillStorage storage) {
+			if(storage == SpillStorage.MEMORY_MAPPED_FILE) {
+				mappedValues = ResidencyManager.mapTemporaryFile(getSizeInBytes());
+				mappedValues[0].asFloatBuffer().put(valuesOnDevice);
+			}
+			else {
+				valuesOnHost = valuesOnDevice.clone();
+			}
+			device.free(valuesOnDevice);
+			valuesOnDevice = null;
+		}
+
+		@Override
+		public void restore() {
+			valuesOnDevice = residencyManager.allocate(getSizeInBytes(), device::allocate);
+			if(mappedValues != null) {
+				mappedValues[0].asFloatBuffer().get(valuesOnDevice);
+				mappedValues = null;
+			}
+			else {
+				System.arraycopy(valuesOnHost, 0, valuesOnDevice, 0, SIZE);
+				valuesOnHost = null;
+			}
+		}
+	}
+
+	@Test
+	public void testLeastRecentlyUsedAreSpilledWhenAllocationFails() {
+		final SimulatedDevice device = new SimulatedDevice(3 * SIZE * Float.BYTES);
+		final ResidencyManager residencyManager = new ResidencyManager();
+
+		final SimulatedVector[] vectors = new SimulatedVector[5];
+		for(int i=0; i<vectors.length; i++) {
+			vectors[i] = new SimulatedVector(device, residencyManager, i);
+			if(i == 2) {
+				// Vector 0 becomes the most recently used
+				vectors[0].get(0);
+			}
+		}
+
+		// Vectors 1 and 2 were the least recently used
+		Assert.assertEquals(2, residencyManager.getSpills());
+		Assert.assertFalse(residencyManager.isResident(vectors[1]));
+		Assert.assertFalse(residencyManager.isResident(vectors[2]));
+		Assert.assertTrue(residencyManager.isResident(vectors[0]));
+		Assert.assertEquals(3 * SIZE * Float.BYTES, residencyManager.getResidentBytes());
+		Assert.assertEquals(2 * SIZE * Float.BYTES, residencyManager.getSpilledBytes());
+
+		// Each vector is restored with its values, the device memory is never exceeded
+		for(int i=0; i<vectors.length; i++) {
+			Assert.assertEquals(i, vectors[i].get(SIZE - 1), 0.0f);
+			Assert.assertTrue(device.allocatedBytes <= device.memory);
+		}
+		Assert.assertEquals(4, residencyManager.getRestores());
+		Assert.assertEquals(5, residencyManager.getNumberOfResidents());
+
+		residencyManager.unregister(vectors[4]);
+		device.free(vectors[4].valuesOnDevice);
+		Assert.assertEquals(4, residencyManager.getNumberOfResidents());
+	}
+
+	@Test
+	public void testPinnedResidentsAreNotSpilled() {
+		final SimulatedDevice device = new SimulatedDevice(2 * SIZE * Float.BYTES);
+		final ResidencyManager residencyManager = new ResidencyManager();
+
+		final SimulatedVector first = new SimulatedVector(device, residencyManager, 1.0f);
+		final SimulatedVector second = new SimulatedVector(device, residencyManager, 2.0f);
+		residencyManager.enterScope();
+		try {
+			first.get(0);
+			residencyManager.enterScope();
+			try {
+				second.get(0);
+			}
+			finally {
+				residencyManager.exitScope();
+			}
+			// Both operands are pinned until the outermost scope is exited
+			Assert.assertNull(residencyManager.allocate(SIZE * Float.BYTES, device::allocate));
+			Assert.assertEquals(0, residencyManager.getSpills());
+		}
+		finally {
+			residencyManager.exitScope();
+		}
+
+		// The least recently used (first) is spilled
+		final SimulatedVector third = new SimulatedVector(device, residencyManager, 3.0f);
+		Assert.assertFalse(residencyManager.isResident(first));
+		Assert.assertEquals(1.0f, first.get(0), 0.0f);
+		Assert.assertFalse(residencyManager.isResident(second));
+		Assert.assertEquals(3.0f, third.get(0), 0.0f);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testExitWithoutScope() {
+		new ResidencyManager().exitScope();
+	}
+
+	@Test
+	public void testCapacityAndMemoryMappedStorage() {
+		final SimulatedDevice device = new SimulatedDevice(Long.MAX_VALUE);
+		final ResidencyManager residencyManager = new ResidencyManager(2 * SIZE * Float.BYTES, SpillStorage.MEMORY_MAPPED_FILE);
+
+		final SimulatedVector[] vectors = new SimulatedVector[4];
+		for(int i=0; i<vectors.length; i++) {
+			vectors[i] = new SimulatedVector(device, residencyManager, i);
+			Assert.assertTrue(residencyManager.getResidentBytes() <= residencyManager.getCapacity());
+		}
+		Assert.assertEquals(2, residencyManager.getSpills());
+		Assert.assertNotNull(vectors[0].mappedValues);
+		for(int i=0; i<vectors.length; i++) {
+			Assert.assertEquals(i, vectors[i].get(SIZE / 2), 0.0f);
+		}
+		Assert.assertEquals(2 * SIZE * Float.BYTES, residencyManager.getResidentBytes());
+	}
+}
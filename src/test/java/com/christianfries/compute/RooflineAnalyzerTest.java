@@ -0,0 +1,70 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.compute;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.christianfries.compute.RooflineAnalyzer.Annotation;
+import com.christianfries.compute.RooflineAnalyzer.Peak;
+
+/**
+ * Test cases for the class com.christianfries.compute.RooflineAnalyzer.
+ *
+ * @author Christian Fries
+ */
+public class RooflineAnalyzerTest {
+
+	@Test
+	public void testRoofline() {
+		// A device with 100 GB/s and 1000 GFLOP/s: the ridge point is at 10 FLOP/byte
+		final Peak peak = new Peak(100E9, 1000E9);
+		Assert.assertEquals(10.0, peak.getRidgePoint(), 1E-12);
+		Assert.assertEquals(100E9, peak.getAttainableFlopsPerSecond(1.0), 1.0);
+		Assert.assertEquals(1000E9, peak.getAttainableFlopsPerSecond(100.0), 1.0);
+
+		// 1E9 elements with 12 bytes and 3 FLOPs in 0.24 s: 50 GB/s, memory bound at 50%
+		final Annotation memoryBound = new Annotation("evolve", 1000000000L, 12.0, 3.0, 0.24, peak);
+		Assert.assertTrue(memoryBound.isMemoryBound());
+		Assert.assertEquals(50E9, memoryBound.getBytesPerSecond(), 1.0);
+		Assert.assertEquals(0.5, memoryBound.getFractionOfPeak(), 1E-12);
+
+		// 1E9 elements with 12 bytes and 3000 FLOPs in 6 s: 500 GFLOP/s, compute bound at 50%
+		final Annotation computeBound = new Annotation("evolve", 1000000000L, 12.0, 3000.0, 6.0, peak);
+		Assert.assertFalse(computeBound.isMemoryBound());
+		Assert.assertEquals(500E9, computeBound.getFlopsPerSecond(), 1.0);
+		Assert.assertEquals(0.5, computeBound.getFractionOfPeak(), 1E-12);
+	}
+
+	@Test
+	public void testJavaBackend() {
+		final DeviceInfo device = DeviceRegistry.getInstance().getDevices(Backend.JAVA).get(0);
+		final RooflineAnalyzer analyzer = new RooflineAnalyzer(device, 1 << 20, 1 << 14, 64);
+		final Peak peak = analyzer.getPeak();
+		Assert.assertTrue(peak.getBytesPerSecond() > 0 && Double.isFinite(peak.getBytesPerSecond()));
+		Assert.assertTrue(peak.getFlopsPerSecond() > 0 && Double.isFinite(peak.getFlopsPerSecond()));
+
+		final float[] a = new float[1 << 16];
+		final float[] c = new float[1 << 16];
+		final Annotation annotation = analyzer.measure("scale", a.length, 8.0, 1.0, () -> {
+			for(int i=0; i<a.length; i++) c[i] = 2.0f * a[i];
+		});
+		Assert.assertEquals(0.125, annotation.getArithmeticIntensity(), 1E-12);
+		Assert.assertTrue(annotation.getFractionOfPeak() > 0);
+		Assert.assertEquals(1, analyzer.getAnnotations().size());
+
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		analyzer.printTable(new PrintStream(output, true, StandardCharsets.UTF_8));
+		final String table = output.toString(StandardCharsets.UTF_8);
+		Assert.assertTrue(table.contains("Roofline of java"));
+		Assert.assertTrue(table.contains("scale"));
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for the class com.christianfries.cuda.examples.AdjointTape on the Java backend.
+ *
+ * @author Christian Fries
+ */
+public class AdjointTapeTest {
+
+	@Test
+	public void testGradientAgainstAnalyticDerivatives() {
+		final float[] x = { -0.5f, 0.0f, 0.5f, 1.0f };
+		final float[] s = { 1.0f, 2.0f, 3.0f, 4.0f };
+		final float[] r = { 0.01f, 0.02f, 0.03f, 0.04f };
+		final float periodLength = 0.5f;
+
+		final AdjointTape tape = new AdjointTape(new RandomVariableFactoryJava());
+		final RandomVariableDifferentiable vx = tape.createVariable(new RandomVariableSimpleJava(x));
+		final RandomVariableDifferentiable vs = tape.createVariable(new RandomVariableSimpleJava(s));
+		final RandomVariableDifferentiable vr = tape.createVariable(new RandomVariableSimpleJava(r));
+		final RandomVariableDifferentiable unused = tape.createVariable(new RandomVariableSimpleJava(s));
+		final RandomVariableDifferentiable two = tape.createConstant(new RandomVariableSimpleJava(2.0f));
+
+		// y = (exp(x) * s / 2) / (1 + r p) + x * x
+		final RandomVariableDifferentiable y = vx.exp().mult(vs).div(two).discount(vr, periodLength).add(vx.mult(vx));
+		final Map<Long, RandomVariableSimpleInterface> gradient = y.getGradient();
+
+		Assert.assertEquals(3, gradient.size());
+		Assert.assertFalse(gradient.containsKey(unused.getID()));
+		Assert.assertFalse(gradient.containsKey(two.getID()));
+
+		final float[] dydx = gradient.get(vx.getID()).getRealizations();
+		final float[] dyds = gradient.get(vs.getID()).getRealizations();
+		final float[] dydr = gradient.get(vr.getID()).getRealizations();
+		final float[] value = y.getValue().getRealizations();
+		for(int i=0; i<x.length; i++) {
+			final double discountFactor = 1.0 / (1.0 + r[i] * periodLength);
+			final double expectedValue = Math.exp(x[i]) * s[i] / 2.0 * discountFactor + x[i] * x[i];
+			Assert.assertEquals(expectedValue, value[i], 1E-5);
+			Assert.assertEquals(Math.exp(x[i]) * s[i] / 2.0 * discountFactor + 2.0 * x[i], dydx[i], 1E-5);
+			Assert.assertEquals(Math.exp(x[i]) / 2.0 * discountFactor, dyds[i], 1E-5);
+			Assert.assertEquals(-Math.exp(x[i]) * s[i] / 2.0 * discountFactor * discountFactor * periodLength, dydr[i], 1E-5);
+		}
+	}
+
+	@Test
+	public void testGradientOfDeterministicCalculation() {
+		final AdjointTape tape = new AdjointTape(new RandomVariableFactoryJava());
+		final RandomVariableDifferentiable a = tape.createVariable(new RandomVariableSimpleJava(3.0f));
+		final RandomVariableDifferentiable b = tape.createVariable(new RandomVariableSimpleJava(4.0f));
+
+		// y = a / b + a * b
+		final RandomVariableDifferentiable y = a.div(b).add(a.mult(b));
+		final Map<Long, RandomVariableSimpleInterface> gradient = y.getGradient();
+
+		Assert.assertTrue(gradient.get(a.getID()).isDeterministic());
+		Assert.assertEquals(1.0 / 4.0 + 4.0, gradient.get(a.getID()).getRealizations()[0], 1E-6);
+		Assert.assertEquals(-3.0 / 16.0 + 3.0, gradient.get(b.getID()).getRealizations()[0], 1E-6);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOperandsOnDifferentTapes() {
+		final RandomVariableFactory factory = new RandomVariableFactoryJava();
+		new AdjointTape(factory).createVariable(factory.createRandomVariable(1.0f)).add(new AdjointTape(factory).createVariable(factory.createRandomVariable(1.0f)));
+	}
+}
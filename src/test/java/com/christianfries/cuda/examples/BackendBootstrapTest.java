@@ -0,0 +1,67 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.christianfries.compute.Backend;
+import com.christianfries.compute.DeviceRegistry;
+
+/**
+ * Test cases for the class com.christianfries.cuda.examples.BackendBootstrap.
+ *
+ * @author Christian Fries
+ */
+public class BackendBootstrapTest {
+
+	@Test
+	public void testBootstrapProvidesWorkingFactory() throws Exception {
+		final BackendBootstrap bootstrap = new BackendBootstrap();
+		Assert.assertEquals(BackendBootstrap.State.NOT_STARTED, bootstrap.getState());
+
+		final CompletableFuture<RandomVariableFactory> future = bootstrap.start();
+		Assert.assertSame(future, bootstrap.start());
+
+		final RandomVariableFactory factory = bootstrap.getFactory(10, TimeUnit.MINUTES);
+		if(bootstrap.isReady()) {
+			Assert.assertTrue(factory instanceof RandomVariableFactoryCuda);
+			Assert.assertFalse(bootstrap.getFailureReason().isPresent());
+		}
+		else {
+			// Without Cuda the CPU backend is used and the reason is reported
+			Assert.assertEquals(BackendBootstrap.State.FALLBACK, bootstrap.getState());
+			Assert.assertTrue(factory instanceof RandomVariableFactoryJava);
+			Assert.assertTrue(bootstrap.getFailureReason().isPresent());
+		}
+
+		final RandomVariableSimpleInterface x = factory.createRandomVariable(new float[] { 1.0f, 2.0f, 3.0f });
+		Assert.assertEquals(14.0, x.dot(x).getRealizations()[0], 1E-5);
+	}
+
+	@Test
+	public void testFallbackWithoutDevice() {
+		if(!DeviceRegistry.getInstance().getDevices(Backend.CUDA).isEmpty()) {
+			return;
+		}
+		final BackendBootstrap bootstrap = new BackendBootstrap();
+		Assert.assertTrue(bootstrap.getFactory() instanceof RandomVariableFactoryJava);
+		Assert.assertEquals("No Cuda device available.", bootstrap.getFailureReason().get());
+
+		// The Cuda context reports the reason instead of failing in a static initializer
+		try {
+			CudaDeviceContext.getDefault();
+			Assert.fail("Expected IllegalStateException");
+		}
+		catch(final IllegalStateException e) {
+			Assert.assertEquals("No Cuda device available.", e.getMessage());
+		}
+	}
+}
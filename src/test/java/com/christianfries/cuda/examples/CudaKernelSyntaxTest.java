@@ -0,0 +1,106 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+import static com.christianfries.compute.Expression.constant;
+import static com.christianfries.compute.Expression.ifThenElse;
+import static com.christianfries.compute.Expression.parameter;
+import static com.christianfries.compute.Expression.variable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.christianfries.compute.Expression;
+import com.christianfries.compute.ExpressionCompiler;
+import com.christianfries.compute.ExpressionCompiler.Dialect;
+import com.christianfries.compute.KernelVariant;
+
+/**
+ * Test cases checking that the Cuda kernels in <code>src/main/cuda</code> and the kernels generated by
+ * {@link ExpressionCompiler} compile.
+ *
+ * The kernels are compiled to PTX with nvcc if available. Otherwise they are checked with
+ * <code>g++ -fsyntax-only</code> (C++14, as nvcc), using host stubs of the Cuda built-ins (<code>src/test/cuda</code>).
+ * The test is skipped if neither compiler is available.
+ *
+ * @author Christian Fries
+ */
+public class CudaKernelSyntaxTest {
+
+	private static final File KERNEL_DIRECTORY = new File("src/main/cuda");
+	private static final File STUB_DIRECTORY = new File("src/test/cuda");
+
+	@Test
+	public void testKernelsCompile() throws IOException, InterruptedException {
+		final boolean isNvccAvailable = isAvailable("nvcc");
+		Assume.assumeTrue("Neither nvcc nor g++ available.", isNvccAvailable || isAvailable("g++"));
+
+		final File[] kernels = KERNEL_DIRECTORY.listFiles((directory, name) -> name.endsWith(".cu"));
+		Assert.assertNotNull(kernels);
+		Assert.assertTrue(kernels.length > 0);
+		for(final File kernel : kernels) {
+			assertCompiles(kernel, isNvccAvailable);
+		}
+	}
+
+	@Test
+	public void testExpressionKernelCompiles() throws IOException, InterruptedException {
+		final boolean isNvccAvailable = isAvailable("nvcc");
+		Assume.assumeTrue("Neither nvcc nor g++ available.", isNvccAvailable || isAvailable("g++"));
+
+		// Barrier call payoff with conditionals, special functions and (non-trivial) constants
+		final Expression underlying = variable("S0").mult(variable("X").exp());
+		final Expression payoff = ifThenElse(underlying.greaterThan(parameter("B")), constant(0.1f),
+				underlying.sub(parameter("K")).max(1.0E-30f).min(constant(Float.MAX_VALUE)).log().neg());
+		// All variables as vectors and S0 as scalar (a deterministic random variable)
+		for(final BitSet scalarVariables : new BitSet[] { new BitSet(), BitSet.valueOf(new long[] { 1 }) }) {
+			for(final KernelVariant variant : KernelVariant.values()) {
+				final File kernel = File.createTempFile(ExpressionCompiler.getKernelName(payoff, variant, scalarVariables), ".cu");
+				kernel.deleteOnExit();
+				Files.write(kernel.toPath(), ExpressionCompiler.getKernelSource(payoff, Dialect.CUDA, variant, scalarVariables).getBytes(StandardCharsets.UTF_8));
+				assertCompiles(kernel, isNvccAvailable);
+			}
+		}
+	}
+
+	private static void assertCompiles(final File kernel, final boolean isNvccAvailable) throws IOException, InterruptedException {
+		final List<String> command = new ArrayList<>();
+		if(isNvccAvailable) {
+			final File ptxFile = File.createTempFile(kernel.getName(), ".ptx");
+			ptxFile.deleteOnExit();
+			command.addAll(Arrays.asList("nvcc", "-ptx", kernel.getPath(), "-o", ptxFile.getPath()));
+		}
+		else {
+			command.addAll(Arrays.asList("g++", "-std=c++14", "-pedantic-errors", "-Werror", "-fsyntax-only", "-x", "c++",
+					"-I" + STUB_DIRECTORY.getPath(), "-include", "cuda_stub.h", kernel.getPath()));
+		}
+		final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+		final String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+		Assert.assertEquals(kernel.getName() + ":\n" + output, 0, process.waitFor());
+	}
+
+	private static boolean isAvailable(final String compiler) {
+		try {
+			final Process process = new ProcessBuilder(compiler, "--version").redirectErrorStream(true).start();
+			process.getInputStream().readAllBytes();
+			return process.waitFor() == 0;
+		}
+		catch(final IOException | InterruptedException e) {
+			return false;
+		}
+	}
+}
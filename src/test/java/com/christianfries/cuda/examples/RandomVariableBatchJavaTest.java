@@ -0,0 +1,61 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for the class com.christianfries.cuda.examples.RandomVariableBatchJava.
+ *
+ * @author Christian Fries
+ */
+public class RandomVariableBatchJavaTest {
+
+	private final List<float[]> realizations = Arrays.asList(
+			new float[] { 1.0f, 2.0f, 3.0f },
+			new float[] { },
+			new float[] { 4.0f },
+			new float[] { 5.0f, 6.0f });
+
+	@Test
+	public void testPacking() {
+		final RandomVariableBatchInterface batch = new RandomVariableFactoryJava().createRandomVariableBatch(realizations);
+
+		Assert.assertEquals(4, batch.getNumberOfRandomVariables());
+		Assert.assertEquals(6, batch.size());
+		for(int i=0; i<realizations.size(); i++) {
+			Assert.assertEquals(realizations.get(i).length, batch.size(i));
+			Assert.assertArrayEquals(realizations.get(i), batch.getRealizations(i), 0.0f);
+			Assert.assertArrayEquals(realizations.get(i), batch.get(i).getRealizations(), 0.0f);
+		}
+	}
+
+	@Test
+	public void testOperationsAgreeWithSingleRandomVariables() {
+		final RandomVariableBatchInterface batch = new RandomVariableBatchJava(realizations);
+		final float[] discountFactors = new float[] { 0.9f, 0.8f, 0.7f, 0.6f };
+
+		final RandomVariableBatchInterface result = batch.add(batch).mult(discountFactors).div(batch).add(discountFactors).div(discountFactors);
+
+		for(int i=0; i<realizations.size(); i++) {
+			final RandomVariableSimpleInterface randomVariable = new RandomVariableSimpleJava(realizations.get(i));
+			final RandomVariableSimpleInterface discountFactor = new RandomVariableSimpleJava(discountFactors[i]);
+			final RandomVariableSimpleInterface expected = randomVariable.add(randomVariable).mult(discountFactor).div(randomVariable).add(discountFactor).div(discountFactor);
+
+			Assert.assertArrayEquals(expected.getRealizations(), result.getRealizations(i), 0.0f);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDifferentSegments() {
+		new RandomVariableBatchJava(realizations).add(new RandomVariableBatchJava(realizations.subList(0, 2)));
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.christianfries.compute.ComputeMetrics;
+
+/**
+ * Test cases for the class com.christianfries.cuda.examples.RandomVariableCache (on the Java backend).
+ *
+ * @author Christian Fries
+ */
+public class RandomVariableCacheTest {
+
+	private static final int SIZE = 1000;
+	private static final long BYTES = SIZE * Float.BYTES;
+
+	private final RandomVariableFactory factory = new RandomVariableFactoryJava();
+
+	@Test
+	public void testHitsByOperationOperandAndParameters() {
+		final RandomVariableCache cache = new RandomVariableCache(factory, 100 * BYTES);
+		final RandomVariableSimpleInterface x = createRandomVariable(1.0f);
+		final RandomVariableSimpleInterface xCopy = createRandomVariable(1.0f);
+		final RandomVariableSimpleInterface rate = factory.createRandomVariable(0.05f);
+		final long cacheHits = ComputeMetrics.getInstance().getCacheHits();
+		final long poolHits = ComputeMetrics.getInstance().getPoolHits();
+
+		final RandomVariableSimpleInterface expOfX = cache.exp(x);
+		Assert.assertSame(expOfX, cache.exp(x));
+		Assert.assertNotSame("Operands are compared by identity", expOfX, cache.exp(xCopy));
+		Assert.assertArrayEquals(expOfX.getRealizations(), cache.exp(xCopy).getRealizations(), 0.0f);
+
+		final RandomVariableSimpleInterface discounted = cache.discount(x, rate, 0.5f);
+		Assert.assertSame(discounted, cache.discount(x, rate, 0.5f));
+		Assert.assertNotSame(discounted, cache.discount(x, rate, 1.0f));
+		Assert.assertNotSame(discounted, cache.discount(rate, x, 0.5f));
+		Assert.assertSame("Results may be operands", cache.mult(expOfX, discounted), cache.mult(cache.exp(x), discounted));
+
+		Assert.assertEquals(5, cache.getHits());
+		Assert.assertEquals(6, cache.getMisses());
+		Assert.assertEquals(5.0 / 11.0, cache.getHitRate(), 1E-15);
+		Assert.assertEquals(6, cache.size());
+		Assert.assertEquals(6 * BYTES, cache.getDeviceBytes());
+
+		// Requests are recorded as cache accesses, not as accesses of the device memory pool
+		Assert.assertEquals(5, ComputeMetrics.getInstance().getCacheHits() - cacheHits);
+		Assert.assertEquals(poolHits, ComputeMetrics.getInstance().getPoolHits());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedResultsAreSpilledAndRestored() {
+		final RandomVariableCache cache = new RandomVariableCache(factory, 2 * BYTES);
+		final RandomVariableSimpleInterface[] x = { createRandomVariable(1.0f), createRandomVariable(2.0f), createRandomVariable(3.0f) };
+
+		final float[] expOfX0 = cache.exp(x[0]).getRealizations().clone();
+		cache.exp(x[1]);
+		cache.exp(x[0]);
+		cache.exp(x[2]);
+
+		// x[1] is the least recently used
+		Assert.assertEquals(1, cache.getSpills());
+		Assert.assertEquals(2 * BYTES, cache.getDeviceBytes());
+		Assert.assertEquals(BYTES, cache.getHostBytes());
+
+		cache.exp(x[1]);
+		Assert.assertEquals(1, cache.getHostHits());
+		Assert.assertEquals(2, cache.getSpills());
+
+		// x[0] has been spilled, it is restored with its realizations
+		Assert.assertArrayEquals(expOfX0, cache.exp(x[0]).getRealizations(), 0.0f);
+		Assert.assertEquals(2, cache.getHostHits());
+		Assert.assertEquals(3, cache.getMisses());
+		Assert.assertEquals(3, cache.size());
+		Assert.assertEquals(2 * BYTES, cache.getDeviceBytes());
+		Assert.assertEquals(BYTES, cache.getHostBytes());
+	}
+
+	@Test
+	public void testResultsExceedingHostMemoryAreDropped() {
+		final RandomVariableCache cache = new RandomVariableCache(factory, BYTES, BYTES);
+		final RandomVariableSimpleInterface[] x = { createRandomVariable(1.0f), createRandomVariable(2.0f), createRandomVariable(3.0f) };
+
+		for(final RandomVariableSimpleInterface randomVariable : x) cache.exp(randomVariable);
+		Assert.assertEquals(2, cache.getSpills());
+		Assert.assertEquals(1, cache.getDrops());
+		Assert.assertEquals(2, cache.size());
+
+		// Deterministic results do not count
+		cache.exp(factory.createRandomVariable(1.0f));
+		Assert.assertEquals(BYTES, cache.getDeviceBytes());
+
+		cache.exp(x[0]);
+		Assert.assertEquals(5, cache.getMisses());
+		cache.clear();
+		Assert.assertEquals(0, cache.size());
+		Assert.assertEquals(0, cache.getDeviceBytes() + cache.getHostBytes());
+	}
+
+	@Test
+	public void testOperandsAndResultsAreReadOnly() {
+		final RandomVariableCache cache = new RandomVariableCache(factory, 100 * BYTES);
+		final RandomVariableSimpleInterface x = createRandomVariable(1.0f);
+		final RandomVariableSimpleInterface y = createRandomVariable(2.0f);
+		Assert.assertFalse(x.isReadOnly());
+
+		final RandomVariableSimpleInterface sum = cache.add(x, y);
+		Assert.assertTrue(x.isReadOnly());
+		Assert.assertTrue(y.isReadOnly());
+		Assert.assertTrue(sum.isReadOnly());
+
+		// Operations creating new random variables are not affected
+		final RandomVariableSimpleInterface copy = sum.add(factory.createRandomVariable(0.0f));
+		Assert.assertFalse(copy.isReadOnly());
+		copy.addInPlace(x);
+		Assert.assertArrayEquals(sum.getRealizations(), cache.add(x, y).getRealizations(), 0.0f);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testInPlaceOperationOnResult() {
+		final RandomVariableCache cache = new RandomVariableCache(factory, 100 * BYTES);
+		cache.exp(createRandomVariable(1.0f)).addInPlace(createRandomVariable(2.0f));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testOperationWritingToOperand() {
+		final RandomVariableCache cache = new RandomVariableCache(factory, 100 * BYTES);
+		final RandomVariableSimpleInterface x = createRandomVariable(1.0f);
+		cache.exp(x);
+		createRandomVariable(2.0f).mult(createRandomVariable(3.0f), x);
+	}
+
+	private RandomVariableSimpleInterface createRandomVariable(final float scale) {
+		final float[] realizations = new float[SIZE];
+		for(int i=0; i<SIZE; i++) realizations[i] = scale * i / SIZE;
+		return factory.createRandomVariable(realizations);
+	}
+}
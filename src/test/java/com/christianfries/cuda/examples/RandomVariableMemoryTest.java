@@ -49,4 +49,32 @@ public class RandomVariableMemoryTest {
 		// The random variable has average value numberOfPath-1
 		Assert.assertEquals(numberOfPath-1.0  /* expected */, average /* actual */, 1E-6 /* tolerance */);
 	}
+
+	@Test
+	public void testRandomVariableStochasticReusingResult() throws InterruptedException {
+		int numberOfPath = 1000000;
+		int numberOfRepetitions = 1000;
+
+		float[] values = new float[numberOfPath];
+		for(int i=0; i<values.length; i++) values[i] = i;
+
+		RandomVariableSimpleInterface randomVariable = new RandomVariableSimpleCuda(values);
+
+		// Perform some calculations, writing to the same device vector (constant memory footprint)
+		RandomVariableSimpleInterface result = new RandomVariableSimpleCuda(new float[numberOfPath]);
+		for(int j=0; j<numberOfRepetitions; j++) {
+			randomVariable.add(randomVariable, result);
+		}
+
+		float[] resultArray = result.getRealizations();
+
+		double sum = 0.0;
+		for(int i=0; i<resultArray.length; i++) {
+			sum += resultArray[i];
+		}
+		double average = sum / resultArray.length;
+
+		// The random variable has average value numberOfPath-1
+		Assert.assertEquals(numberOfPath-1.0  /* expected */, average /* actual */, 1E-6 /* tolerance */);
+	}
 }
@@ -0,0 +1,64 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.christianfries.compute.Backend;
+import com.christianfries.compute.DeviceRegistry;
+import com.christianfries.compute.ResidencyManager;
+
+/**
+ * Test cases for the release of the device memory of the class com.christianfries.cuda.examples.RandomVariableSimpleCuda.
+ *
+ * The tests are skipped if no Cuda device is available.
+ *
+ * @author Christian Fries
+ */
+public class RandomVariableResidencyTest {
+
+	private ResidencyManager residencyManager;
+
+	@Before
+	public void selectDevice() {
+		Assume.assumeFalse("No Cuda device.", DeviceRegistry.getInstance().getDevices(Backend.CUDA).isEmpty());
+		residencyManager = CudaDeviceContext.getDefault().getResidencyManager();
+	}
+
+	@Test
+	public void testUnreferencedRandomVariableIsReleased() throws InterruptedException {
+		final int numberOfResidents = residencyManager.getNumberOfResidents();
+
+		RandomVariableSimpleCuda randomVariable = new RandomVariableSimpleCuda(new float[] { 1.0f, 2.0f, 3.0f });
+		Assert.assertEquals(numberOfResidents + 1, residencyManager.getNumberOfResidents());
+
+		randomVariable = null;
+		for(int i=0; i<100 && residencyManager.getNumberOfResidents() > numberOfResidents; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		Assert.assertEquals(numberOfResidents, residencyManager.getNumberOfResidents());
+	}
+
+	@Test
+	public void testClose() {
+		final int numberOfResidents = residencyManager.getNumberOfResidents();
+
+		final RandomVariableSimpleCuda randomVariable = new RandomVariableSimpleCuda(new float[] { 1.0f, 2.0f, 3.0f });
+		Assert.assertEquals(numberOfResidents + 1, residencyManager.getNumberOfResidents());
+
+		randomVariable.close();
+		Assert.assertEquals(numberOfResidents, residencyManager.getNumberOfResidents());
+
+		// Closing twice has no effect
+		randomVariable.close();
+		Assert.assertEquals(numberOfResidents, residencyManager.getNumberOfResidents());
+	}
+}
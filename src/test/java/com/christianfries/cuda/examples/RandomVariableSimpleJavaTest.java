@@ -0,0 +1,185 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.christianfries.compute.ComputeMetrics;
+
+/**
+ * Test cases for the class com.christianfries.cuda.examples.RandomVariableSimpleJava.
+ *
+ * @author Christian Fries
+ */
+public class RandomVariableSimpleJavaTest {
+
+	@Test
+	public void testDeterministicPropagation() {
+		final RandomVariableSimpleInterface four = new RandomVariableSimpleJava(4.0f);
+		final RandomVariableSimpleInterface two = new RandomVariableSimpleJava(2.0f);
+
+		final RandomVariableSimpleInterface result = four.add(two).mult(two).div(four);
+
+		Assert.assertTrue(result.isDeterministic());
+		Assert.assertEquals(1, result.size());
+		Assert.assertEquals(3.0, result.getRealizations()[0], 0.0);
+
+		// Parts of a deterministic random variable have the requested length
+		Assert.assertArrayEquals(new float[] { 3.0f }, result.getRealizations(0, 1), 0.0f);
+		Assert.assertEquals(0, result.getRealizations(1, 0).length);
+		Assert.assertArrayEquals(new float[][] { { 3.0f } }, result.getRealizationsInChunks(4));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSizeMismatchWithResult() {
+		final RandomVariableSimpleInterface a = new RandomVariableSimpleJava(new float[] { 1.0f, 2.0f, 3.0f });
+		final RandomVariableSimpleInterface b = new RandomVariableSimpleJava(new float[] { 1.0f, 2.0f });
+
+		a.add(b, new RandomVariableSimpleJava(new float[3]));
+	}
+
+	@Test
+	public void testMixedOperations() {
+		final RandomVariableSimpleInterface stochastic = new RandomVariableSimpleJava(new float[] {-4.0f, -2.0f, 1.0f, 2.0f, 4.0f});
+		final RandomVariableSimpleInterface two = new RandomVariableSimpleJava(2.0f);
+
+		final float[] sum = stochastic.add(two).getRealizations();
+		final float[] sumReversed = two.add(stochastic).getRealizations();
+		final float[] product = two.mult(stochastic).getRealizations();
+		final float[] quotient = stochastic.div(two).getRealizations();
+		final float[] quotientReversed = two.div(stochastic).getRealizations();
+
+		Assert.assertFalse(stochastic.add(two).isDeterministic());
+		Assert.assertEquals(5, sum.length);
+		for(int i=0; i<5; i++) {
+			final float value = stochastic.getRealizations()[i];
+			Assert.assertEquals(value + 2.0f, sum[i], 0.0);
+			Assert.assertEquals(value + 2.0f, sumReversed[i], 0.0);
+			Assert.assertEquals(value * 2.0f, product[i], 0.0);
+			Assert.assertEquals(value / 2.0f, quotient[i], 0.0);
+			Assert.assertEquals(2.0f / value, quotientReversed[i], 0.0);
+		}
+	}
+
+	@Test
+	public void testInPlaceOperations() {
+		final float[] values = new float[] { 1.0f, 2.0f, 3.0f };
+		final RandomVariableSimpleInterface accumulator = new RandomVariableSimpleJava(values.clone());
+		final RandomVariableSimpleInterface rate = new RandomVariableSimpleJava(new float[] { 0.1f, 0.2f, 0.3f });
+
+		Assert.assertSame(accumulator, accumulator.addInPlace(new RandomVariableSimpleJava(values)));
+		Assert.assertSame(accumulator, accumulator.discountInPlace(rate, 0.5f));
+
+		final RandomVariableSimpleInterface expected = new RandomVariableSimpleJava(values).add(new RandomVariableSimpleJava(values)).discount(rate, 0.5f);
+		Assert.assertArrayEquals(expected.getRealizations(), accumulator.getRealizations(), 0.0f);
+
+		// Results written to another random variable
+		final RandomVariableSimpleInterface result = new RandomVariableSimpleJava(new float[3]);
+		Assert.assertSame(result, new RandomVariableSimpleJava(2.0f).div(rate, result));
+		Assert.assertArrayEquals(new RandomVariableSimpleJava(2.0f).div(rate).getRealizations(), result.getRealizations(), 0.0f);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInPlaceOperationOnDeterministic() {
+		new RandomVariableSimpleJava(1.0f).addInPlace(new RandomVariableSimpleJava(new float[] { 1.0f, 2.0f }));
+	}
+
+	@Test
+	public void testLinearAlgebraOperations() {
+		final RandomVariableSimpleInterface x = new RandomVariableSimpleJava(new float[] { 1.0f, 2.0f, 3.0f, 4.0f });
+		final RandomVariableSimpleInterface y = new RandomVariableSimpleJava(new float[] { 4.0f, 3.0f, 2.0f, 1.0f });
+		final RandomVariableSimpleInterface two = new RandomVariableSimpleJava(2.0f);
+
+		final RandomVariableSimpleInterface dot = x.dot(y);
+		Assert.assertTrue(dot.isDeterministic());
+		Assert.assertEquals(20.0, dot.getRealizations()[0], 0.0);
+		Assert.assertEquals(20.0, two.dot(x).getRealizations()[0], 0.0);
+
+		// y = y + (x . y) * x, then y = 2 y
+		final RandomVariableSimpleInterface accumulator = new RandomVariableSimpleJava(y.getRealizations());
+		Assert.assertSame(accumulator, accumulator.addProductInPlace(x, dot));
+		Assert.assertSame(accumulator, accumulator.multInPlace(two));
+		Assert.assertArrayEquals(new float[] { 48.0f, 86.0f, 124.0f, 162.0f }, accumulator.getRealizations(), 0.0f);
+
+		// Stochastic factor
+		accumulator.addProductInPlace(x, y);
+		Assert.assertArrayEquals(new float[] { 52.0f, 92.0f, 130.0f, 166.0f }, accumulator.getRealizations(), 0.0f);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDotOfDifferentSizes() {
+		new RandomVariableSimpleJava(new float[] { 1.0f, 2.0f }).dot(new RandomVariableSimpleJava(new float[] { 1.0f, 2.0f, 3.0f }));
+	}
+
+	@Test
+	public void testCovariance() {
+		final RandomVariableSimpleInterface x = new RandomVariableSimpleJava(new float[] { 1.0f, 2.0f, 3.0f, 4.0f });
+		final RandomVariableSimpleInterface y = new RandomVariableSimpleJava(new float[] { 1000.0f, 998.0f, 996.0f, 994.0f });
+		final RandomVariableSimpleInterface constant = new RandomVariableSimpleJava(3.0f);
+
+		final double[][] covariance = RandomVariableCovariance.getCovariance(x, y, constant);
+		Assert.assertEquals(1.25, covariance[0][0], 1E-12);
+		Assert.assertEquals(5.0, covariance[1][1], 1E-12);
+		Assert.assertEquals(-2.5, covariance[0][1], 1E-12);
+		Assert.assertEquals(-2.5, covariance[1][0], 1E-12);
+		for(int i=0; i<3; i++) {
+			Assert.assertEquals(0.0, covariance[i][2], 0.0);
+			Assert.assertEquals(0.0, covariance[2][i], 0.0);
+		}
+	}
+
+	@Test
+	public void testExpressionReusesIntermediateResults() {
+		final RandomVariableSimpleInterface a = new RandomVariableSimpleJava(new float[] { 1.0f, 2.0f, 3.0f, 4.0f });
+		final RandomVariableSimpleInterface b = new RandomVariableSimpleJava(new float[] { 4.0f, 3.0f, 2.0f, 1.0f });
+		final RandomVariableSimpleInterface two = new RandomVariableSimpleJava(2.0f);
+
+		// ((a + b) / 2 * (a + b) + a) / (1 + b * 0.5), where (a + b) is shared
+		final RandomVariableExpression sum = RandomVariableExpression.of(a).add(RandomVariableExpression.of(b));
+		final RandomVariableExpression expression = sum.div(RandomVariableExpression.of(two)).mult(sum).add(RandomVariableExpression.of(a)).discount(RandomVariableExpression.of(b), 0.5f);
+
+		final RandomVariableSimpleInterface expected = a.add(b).div(two).mult(a.add(b)).add(a).discount(b, 0.5f);
+		final float[] aBefore = a.getRealizations();
+		final float[] bBefore = b.getRealizations();
+
+		final long poolHits = ComputeMetrics.getInstance().getPoolHits();
+		final long poolMisses = ComputeMetrics.getInstance().getPoolMisses();
+		Assert.assertArrayEquals(expected.getRealizations(), expression.evaluate().getRealizations(), 0.0f);
+
+		// The sum and the quotient are allocated, mult, add and discount reuse the buffer of the quotient
+		Assert.assertEquals(3, ComputeMetrics.getInstance().getPoolHits() - poolHits);
+		Assert.assertEquals(2, ComputeMetrics.getInstance().getPoolMisses() - poolMisses);
+
+		// Leafs are not modified
+		Assert.assertArrayEquals(aBefore, a.getRealizations(), 0.0f);
+		Assert.assertArrayEquals(bBefore, b.getRealizations(), 0.0f);
+
+		// Evaluation is repeatable
+		Assert.assertArrayEquals(expected.getRealizations(), expression.evaluate().getRealizations(), 0.0f);
+	}
+
+	@Test
+	public void testChunkedTransfers() {
+		final float[][] chunks = new float[][] { { 1.0f, 2.0f, 3.0f }, { 4.0f, 5.0f }, { 6.0f, 7.0f, 8.0f } };
+		final RandomVariableSimpleInterface randomVariable = new RandomVariableFactoryJava().createRandomVariable(chunks);
+		Assert.assertEquals(8, randomVariable.size());
+		Assert.assertArrayEquals(new float[] { 1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f, 7.0f, 8.0f }, randomVariable.getRealizations(), 0.0f);
+
+		Assert.assertArrayEquals(new float[] { 3.0f, 4.0f, 5.0f }, randomVariable.getRealizations(2, 3), 0.0f);
+
+		final float[][] rechunked = randomVariable.getRealizationsInChunks(3);
+		Assert.assertEquals(3, rechunked.length);
+		Assert.assertArrayEquals(new float[] { 4.0f, 5.0f, 6.0f }, rechunked[1], 0.0f);
+		Assert.assertArrayEquals(new float[] { 7.0f, 8.0f }, rechunked[2], 0.0f);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testChunkOutOfBounds() {
+		new RandomVariableSimpleJava(new float[] { 1.0f, 2.0f }).getRealizations(1, 2);
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. All rights reserved. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.cuda.examples;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for the class com.christianfries.cuda.examples.StorageConversion.
+ *
+ * @author Christian Fries
+ */
+public class StorageConversionTest {
+
+	@Test
+	public void testFloat16RoundTrip() {
+		// All finite half precision values are exactly representable as float
+		for(int bits = 0; bits < 0x10000; bits++) {
+			final short half = (short)bits;
+			final float value = StorageConversion.float16ToFloat(half);
+			if(Float.isNaN(value)) {
+				Assert.assertTrue(Float.isNaN(StorageConversion.float16ToFloat(StorageConversion.floatToFloat16(value))));
+			}
+			else {
+				Assert.assertEquals("bits " + Integer.toHexString(bits), half, StorageConversion.floatToFloat16(value));
+			}
+		}
+	}
+
+	@Test
+	public void testFloat16Rounding() {
+		Assert.assertEquals(1.0f, StorageConversion.float16ToFloat(StorageConversion.floatToFloat16(1.0f)), 0.0);
+		Assert.assertEquals(65504.0f, StorageConversion.float16ToFloat(StorageConversion.floatToFloat16(65504.0f)), 0.0);
+
+		// Ties round to even: 1 + 2^-11 lies halfway between 1 and 1 + 2^-10
+		Assert.assertEquals(1.0f, StorageConversion.float16ToFloat(StorageConversion.floatToFloat16(1.0f + 0x1p-11f)), 0.0);
+		Assert.assertEquals(1.0f + 0x1p-9f, StorageConversion.float16ToFloat(StorageConversion.floatToFloat16(1.0f + 3 * 0x1p-11f)), 0.0);
+
+		// Subnormals
+		Assert.assertEquals(0x1p-24f, StorageConversion.float16ToFloat(StorageConversion.floatToFloat16(0x1p-24f)), 0.0);
+		Assert.assertEquals(0.0f, StorageConversion.float16ToFloat(StorageConversion.floatToFloat16(0x1p-26f)), 0.0);
+
+		// Overflow
+		Assert.assertEquals(Float.POSITIVE_INFINITY, StorageConversion.float16ToFloat(StorageConversion.floatToFloat16(65520.0f)), 0.0);
+		Assert.assertEquals(Float.NEGATIVE_INFINITY, StorageConversion.float16ToFloat(StorageConversion.floatToFloat16(-1E10f)), 0.0);
+		Assert.assertTrue(Float.isNaN(StorageConversion.float16ToFloat(StorageConversion.floatToFloat16(Float.NaN))));
+	}
+
+	@Test
+	public void testBFloat16() {
+		Assert.assertEquals(1.0f, StorageConversion.bfloat16ToFloat(StorageConversion.floatToBFloat16(1.0f)), 0.0);
+		Assert.assertEquals(1E30f, StorageConversion.bfloat16ToFloat(StorageConversion.floatToBFloat16(1E30f)), 1E30 * 0x1p-8);
+
+		// Ties round to even: 1 + 2^-8 lies halfway between 1 and 1 + 2^-7
+		Assert.assertEquals(1.0f, StorageConversion.bfloat16ToFloat(StorageConversion.floatToBFloat16(1.0f + 0x1p-8f)), 0.0);
+		Assert.assertEquals(1.0f + 0x1p-6f, StorageConversion.bfloat16ToFloat(StorageConversion.floatToBFloat16(1.0f + 3 * 0x1p-8f)), 0.0);
+
+		Assert.assertTrue(Float.isNaN(StorageConversion.bfloat16ToFloat(StorageConversion.floatToBFloat16(Float.NaN))));
+		Assert.assertEquals(Float.POSITIVE_INFINITY, StorageConversion.bfloat16ToFloat(StorageConversion.floatToBFloat16(Float.POSITIVE_INFINITY)), 0.0);
+	}
+
+	@Test
+	public void testVectorConversion() {
+		final float[] values = { 0.0f, 0.5f, -1.25f, 3.0f, 100.0f };
+		for(final StoragePrecision precision : new StoragePrecision[] { StoragePrecision.FLOAT16, StoragePrecision.BFLOAT16 }) {
+			Assert.assertArrayEquals(values, StorageConversion.fromShortStorage(StorageConversion.toShortStorage(values, precision), precision), 0.0f);
+		}
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.montecarlo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.christianfries.montecarlo.BrownianIncrements.SamplingMode;
+
+/**
+ * Test cases for the class com.christianfries.montecarlo.BrownianIncrementsJava.
+ *
+ * @author Christian Fries
+ */
+public class BrownianIncrementsJavaTest {
+
+	// Non-uniform times, such that the Brownian bridge weights are not all 1/2
+	private final TimeDiscretization timeDiscretization = new TimeDiscretization(0.0, 0.1, 0.25, 0.5, 1.0, 1.5, 2.0);
+
+	@Test
+	public void testInverseNormal() {
+		Assert.assertEquals(0.0, BrownianIncrementsJava.getInverseNormal(0.5), 0.0);
+		Assert.assertEquals(1.959963984540054, BrownianIncrementsJava.getInverseNormal(0.975), 1E-14);
+		Assert.assertEquals(-2.326347874040841, BrownianIncrementsJava.getInverseNormal(0.01), 1E-14);
+		Assert.assertEquals(-6.361340902404056, BrownianIncrementsJava.getInverseNormal(1E-10), 1E-12);
+		Assert.assertEquals(-7.941345326170995, BrownianIncrementsJava.getInverseNormal(1E-15), 1E-12);
+	}
+
+	@Test
+	public void testIncrementsAreIndependentStandardNormal() {
+		final int numberOfPaths = 100000;
+		final int numberOfTimeSteps = timeDiscretization.getNumberOfTimeSteps();
+		for(final SamplingMode samplingMode : SamplingMode.values()) {
+			final BrownianIncrementsJava brownianIncrements = new BrownianIncrementsJava(timeDiscretization, 2, numberOfPaths, 3141, samplingMode);
+			for(int i=0; i<numberOfTimeSteps; i++) {
+				for(int factor=0; factor<2; factor++) {
+					final float[] increment = brownianIncrements.getRealizations(i, factor);
+					final String message = samplingMode + ", time step " + i + ", factor " + factor;
+					// Standard errors are 0.003 (mean) and 0.0045 (variance)
+					Assert.assertEquals(message, 0.0, getCovariance(increment, null), 0.015);
+					Assert.assertEquals(message, 1.0, getCovariance(increment, increment), 0.025);
+					Assert.assertEquals(message, 0.0, getCovariance(increment, brownianIncrements.getRealizations((i + 1) % numberOfTimeSteps, 1 - factor)), 0.015);
+					Assert.assertEquals(message, 0.0, getCovariance(increment, brownianIncrements.getRealizations((i + 1) % numberOfTimeSteps, factor)), 0.015);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testAntitheticPathsAreNegated() {
+		final BrownianIncrementsJava brownianIncrements = new BrownianIncrementsJava(timeDiscretization, 2, 1001, 3141, SamplingMode.ANTITHETIC);
+		for(int i=0; i<timeDiscretization.getNumberOfTimeSteps(); i++) {
+			final float[] increment = brownianIncrements.getRealizations(i, 1);
+			for(int path=0; path+1<increment.length; path+=2) {
+				Assert.assertEquals(-increment[path], increment[path+1], 0.0f);
+			}
+		}
+	}
+
+	@Test
+	public void testTerminalValueIsStratified() {
+		final int numberOfPaths = 1000;
+		final BrownianIncrementsJava brownianIncrements = new BrownianIncrementsJava(timeDiscretization, 1, numberOfPaths, 3141, SamplingMode.STRATIFIED);
+
+		final double[] terminalValue = new double[numberOfPaths];
+		for(int i=0; i<timeDiscretization.getNumberOfTimeSteps(); i++) {
+			final float[] increment = brownianIncrements.getRealizations(i, 0);
+			for(int path=0; path<numberOfPaths; path++) {
+				terminalValue[path] += increment[path] * Math.sqrt(timeDiscretization.getTimeStep(i));
+			}
+		}
+		// Path p is the quantile within [p/n, (p+1)/n), hence the terminal values are increasing with the path (up to rounding)
+		for(int path=1; path<numberOfPaths; path++) {
+			Assert.assertTrue("Path " + path, terminalValue[path] > terminalValue[path-1] - 1E-5);
+		}
+	}
+
+	@Test
+	public void testSobolReducesError() {
+		final float initialValue = 100.0f;
+		final float riskFreeRate = 0.05f;
+		final int numberOfPaths = 1 << 12;
+		final ProcessModel model = new LogNormalProcessModel(initialValue, riskFreeRate, 0.3f);
+		final int timeIndex = timeDiscretization.getNumberOfTimeSteps();
+		final double expected = initialValue * Math.exp(riskFreeRate * timeDiscretization.getTime(timeIndex));
+
+		final float[] value = new PathSimulationJava(model, timeDiscretization, numberOfPaths, 3141, SamplingMode.SOBOL).simulate(timeIndex)[0].getRealizations();
+		// The standard error of pseudo random numbers is 0.7
+		Assert.assertEquals(expected, getCovariance(value, null), 0.1);
+
+		final BrownianIncrementsJava brownianIncrements = new BrownianIncrementsJava(timeDiscretization, 1, numberOfPaths, 3141, SamplingMode.SOBOL);
+		Assert.assertEquals(numberOfPaths, brownianIncrements.getIncrement(0, 0).size());
+		Assert.assertArrayEquals(brownianIncrements.getRealizations(2, 0), brownianIncrements.getIncrement(2, 0).getRealizations(), 0.0f);
+	}
+
+	/*
+	 * The covariance of two samples (the mean if the second is null).
+	 */
+	private static double getCovariance(final float[] x, final float[] y) {
+		double sumX = 0.0;
+		double sumY = 0.0;
+		double sumXY = 0.0;
+		for(int i=0; i<x.length; i++) {
+			sumX += x[i];
+			if(y != null) {
+				sumY += y[i];
+				sumXY += (double)x[i] * y[i];
+			}
+		}
+		return y == null ? sumX / x.length : sumXY / x.length - sumX / x.length * sumY / x.length;
+	}
+}
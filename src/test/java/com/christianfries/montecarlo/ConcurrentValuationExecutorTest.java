@@ -0,0 +1,132 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.montecarlo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.christianfries.cuda.examples.RandomVariableFactoryJava;
+import com.christianfries.cuda.examples.RandomVariableSimpleInterface;
+
+/**
+ * Test cases for the class com.christianfries.montecarlo.ConcurrentValuationExecutor,
+ * running under load on the Java backend.
+ * 
+ * @author Christian Fries
+ */
+public class ConcurrentValuationExecutorTest {
+
+	@Test
+	public void testManyRequestThreads() throws Exception {
+		final int numberOfRequestThreads = 200;
+		final int numberOfPath = 10000;
+		final long memoryBudget = 16L << 20;			// 16 MB
+		final long requiredMemory = 3L << 20;			// 3 MB per valuation, hence at most 5 concurrent valuations
+
+		final AtomicLong memoryInUse = new AtomicLong();
+		final AtomicLong maxMemoryInUse = new AtomicLong();
+
+		try(ConcurrentValuationExecutor executor = new ConcurrentValuationExecutor(List.of(new RandomVariableFactoryJava()), device -> memoryBudget, 8, 50)) {
+			final List<CompletableFuture<Double>> results = new ArrayList<>();
+			final List<Thread> requestThreads = new ArrayList<>();
+			for(int k=0; k<numberOfRequestThreads; k++) {
+				final CompletableFuture<Double> result = new CompletableFuture<>();
+				results.add(result);
+				final float value = k;
+				final Thread requestThread = new Thread(() -> {
+					try {
+						executor.submit(requiredMemory, factory -> {
+							maxMemoryInUse.accumulateAndGet(memoryInUse.addAndGet(requiredMemory), Math::max);
+							try {
+								final float[] values = new float[numberOfPath];
+								Arrays.fill(values, value);
+								RandomVariableSimpleInterface randomVariable = factory.createRandomVariable(values);
+								return average(randomVariable.add(randomVariable).getRealizations());
+							}
+							finally {
+								memoryInUse.addAndGet(-requiredMemory);
+							}
+						}).whenComplete((average, exception) -> {
+							if(exception != null) result.completeExceptionally(exception);
+							else result.complete(average);
+						});
+					} catch (InterruptedException e) {
+						result.completeExceptionally(e);
+					}
+				});
+				requestThreads.add(requestThread);
+				requestThread.start();
+			}
+
+			for(int k=0; k<numberOfRequestThreads; k++) {
+				Assert.assertEquals(2.0 * k, results.get(k).get(), 1E-6);
+			}
+			for(Thread requestThread : requestThreads) {
+				requestThread.join();
+			}
+		}
+
+		Assert.assertTrue("Memory budget exceeded: " + maxMemoryInUse.get(), maxMemoryInUse.get() <= memoryBudget);
+	}
+
+	@Test
+	public void testBackpressure() throws Exception {
+		try(ConcurrentValuationExecutor executor = new ConcurrentValuationExecutor(List.of(new RandomVariableFactoryJava()), device -> 1L << 30, 1, 1)) {
+			final CompletableFuture<Void> block = new CompletableFuture<>();
+			final CompletableFuture<Void> first = executor.submit(0, factory -> block.join());
+
+			final CompletableFuture<Void> second = executor.trySubmit(0, factory -> null);
+			try {
+				second.get();
+				Assert.fail("Expected rejection.");
+			}
+			catch(ExecutionException e) {
+				Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+			}
+
+			block.complete(null);
+			first.get();
+			Assert.assertNull(executor.submit(0, factory -> null).get());
+			Assert.assertEquals(0, executor.getNumberOfPendingValuations());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testValuationExceedingBudget() throws Exception {
+		try(ConcurrentValuationExecutor executor = new ConcurrentValuationExecutor(List.of(new RandomVariableFactoryJava()), device -> 1L << 20, 1, 1)) {
+			executor.submit(2L << 20, factory -> null);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMemoryBudgetBelowOneUnit() throws Exception {
+		try(ConcurrentValuationExecutor executor = new ConcurrentValuationExecutor(List.of(new RandomVariableFactoryJava()), device -> (1L << 20) - 1, 1, 1)) {
+			executor.submit(0, factory -> null);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testZeroMemoryBudget() throws Exception {
+		try(ConcurrentValuationExecutor executor = new ConcurrentValuationExecutor(List.of(new RandomVariableFactoryJava()), device -> 0L, 1, 1)) {
+			executor.submit(0, factory -> null);
+		}
+	}
+
+	private static double average(float[] values) {
+		double sum = 0.0;
+		for(float value : values) sum += value;
+		return sum / values.length;
+	}
+}
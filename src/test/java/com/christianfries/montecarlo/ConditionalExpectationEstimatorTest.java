@@ -0,0 +1,71 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.montecarlo;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.christianfries.cuda.examples.RandomVariableFactory;
+import com.christianfries.cuda.examples.RandomVariableFactoryJava;
+import com.christianfries.cuda.examples.RandomVariableSimpleInterface;
+
+/**
+ * Test cases for the class com.christianfries.montecarlo.ConditionalExpectationEstimator on the Java backend.
+ *
+ * @author Christian Fries
+ */
+public class ConditionalExpectationEstimatorTest {
+
+	private final RandomVariableFactory factory = new RandomVariableFactoryJava();
+
+	@Test
+	public void testPolynomialRegression() {
+		final int numberOfPaths = 100000;
+		final Random random = new Random(3141);
+		final float[] x = new float[numberOfPaths];
+		final float[] y = new float[numberOfPaths];
+		for(int i=0; i<numberOfPaths; i++) {
+			x[i] = (float)random.nextGaussian();
+			y[i] = 1.0f + 2.0f * x[i] + 3.0f * x[i] * x[i] + (float)random.nextGaussian();
+		}
+
+		final RandomVariableSimpleInterface basis1 = factory.createRandomVariable(x);
+		final RandomVariableSimpleInterface basis2 = basis1.mult(basis1);
+		final ConditionalExpectationEstimator estimator = new ConditionalExpectationEstimator(factory, factory.createRandomVariable(1.0f), basis1, basis2);
+
+		final double[] coefficients = estimator.getRegressionCoefficients(factory.createRandomVariable(y));
+		Assert.assertEquals(1.0, coefficients[0], 0.02);
+		Assert.assertEquals(2.0, coefficients[1], 0.02);
+		Assert.assertEquals(3.0, coefficients[2], 0.02);
+
+		final float[] conditionalExpectation = estimator.getConditionalExpectation(factory.createRandomVariable(y)).getRealizations();
+		for(int i=0; i<numberOfPaths; i+=1000) {
+			final double expected = coefficients[0] + coefficients[1] * x[i] + coefficients[2] * x[i] * x[i];
+			Assert.assertEquals(expected, conditionalExpectation[i], 1E-4 * Math.max(1.0, Math.abs(expected)));
+		}
+	}
+
+	@Test
+	public void testLinearDependentBasisFunctions() {
+		final float[] x = new float[] { 1.0f, 2.0f, 3.0f, 4.0f };
+		final float[] y = new float[] { 3.0f, 5.0f, 7.0f, 9.0f };
+
+		final RandomVariableSimpleInterface basis = factory.createRandomVariable(x);
+		final RandomVariableSimpleInterface basisTwice = basis.add(basis);
+		final ConditionalExpectationEstimator estimator = new ConditionalExpectationEstimator(factory, factory.createRandomVariable(1.0f), basis, basisTwice);
+
+		// y = 1 + 2 x, the second (dependent) basis function gets coefficient zero
+		final double[] coefficients = estimator.getRegressionCoefficients(factory.createRandomVariable(y));
+		Assert.assertEquals(1.0, coefficients[0], 1E-8);
+		Assert.assertEquals(2.0, coefficients[1], 1E-8);
+		Assert.assertEquals(0.0, coefficients[2], 0.0);
+
+		Assert.assertArrayEquals(y, estimator.getConditionalExpectation(factory.createRandomVariable(y)).getRealizations(), 1E-5f);
+	}
+}
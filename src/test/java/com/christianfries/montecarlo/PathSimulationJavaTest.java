@@ -0,0 +1,69 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 18.10.2026
+ */
+
+package com.christianfries.montecarlo;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.christianfries.cuda.examples.RandomVariableSimpleInterface;
+
+/**
+ * Test cases for the class com.christianfries.montecarlo.PathSimulationJava.
+ *
+ * @author Christian Fries
+ */
+public class PathSimulationJavaTest {
+
+	private final TimeDiscretization timeDiscretization = TimeDiscretization.ofUniform(0.0, 20, 0.1);
+	private final int numberOfPaths = 200000;
+
+	@Test
+	public void testLogNormalMartingale() {
+		final float initialValue = 100.0f;
+		final float riskFreeRate = 0.05f;
+		final PathSimulation simulation = new PathSimulationJava(new LogNormalProcessModel(initialValue, riskFreeRate, 0.3f), timeDiscretization, numberOfPaths, 3141);
+
+		final RandomVariableSimpleInterface[] values = simulation.simulate(0, 10, 20);
+
+		Assert.assertEquals(3, values.length);
+		Assert.assertArrayEquals(new float[] { initialValue, initialValue }, Arrays.copyOf(values[0].getRealizations(), 2), 0.0f);
+		for(int i=1; i<values.length; i++) {
+			final double time = timeDiscretization.getTime(i == 1 ? 10 : 20);
+			// Standard error is below 0.1 (vol 30%, 200000 paths)
+			Assert.assertEquals(initialValue * Math.exp(riskFreeRate * time), average(values[i]), 0.3);
+		}
+	}
+
+	@Test
+	public void testHestonMartingale() {
+		final float initialValue = 100.0f;
+		final float riskFreeRate = 0.02f;
+		final PathSimulation simulation = new PathSimulationJava(new HestonProcessModel(initialValue, riskFreeRate, 0.04f, 1.5f, 0.04f, 0.3f, -0.7f), timeDiscretization, numberOfPaths, 3141);
+
+		final RandomVariableSimpleInterface[] values = simulation.simulate();
+
+		Assert.assertEquals(timeDiscretization.getNumberOfTimes(), values.length);
+		Assert.assertEquals(initialValue * Math.exp(riskFreeRate * 2.0), average(values[20]), 0.3);
+	}
+
+	@Test
+	public void testSameRandomNumbersForEachCall() {
+		final PathSimulation simulation = new PathSimulationJava(new LogNormalProcessModel(1.0f, 0.0f, 0.2f), timeDiscretization, 1000, 42);
+
+		final float[] all = simulation.simulate()[15].getRealizations();
+		final float[] single = simulation.simulate(15)[0].getRealizations();
+		Assert.assertArrayEquals(all, single, 0.0f);
+	}
+
+	private static double average(RandomVariableSimpleInterface randomVariable) {
+		double sum = 0.0;
+		for(final float value : randomVariable.getRealizations()) sum += value;
+		return sum / randomVariable.size();
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.montecarlo;
+
+import java.io.StringReader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for the class com.christianfries.montecarlo.SobolSequence.
+ *
+ * @author Christian Fries
+ */
+public class SobolSequenceTest {
+
+	private static final String directionNumbers = "d       s       a       m_i\n"
+			+ "2       1       0       1\n"
+			+ "3       2       1       1 3\n";
+
+	@Test
+	public void testFirstDimensionIsVanDerCorput() {
+		final SobolSequence sobolSequence = new SobolSequence(1);
+		final double[] expected = { 0.0, 0.5, 0.75, 0.25, 0.375, 0.875, 0.625, 0.125 };
+		for(int i=0; i<expected.length; i++) {
+			Assert.assertEquals(expected[i], Integer.toUnsignedLong(sobolSequence.getPoint(i, 0)) * 0x1.0p-32, 0.0);
+		}
+	}
+
+	@Test
+	public void testEachDimensionIsStratified() {
+		// The first 2^m points of each dimension of a (t,s)-sequence in base 2 with t = 0 per dimension hit each interval of length 2^-m once
+		final int dimension = 200;
+		final int m = 12;
+		final SobolSequence sobolSequence = new SobolSequence(dimension);
+		for(int j=0; j<dimension; j++) {
+			final boolean[] isHit = new boolean[1 << m];
+			for(int i=0; i<1 << m; i++) {
+				final int interval = sobolSequence.getPoint(i, j) >>> (SobolSequence.BITS - m);
+				Assert.assertFalse("Dimension " + j + ", point " + i, isHit[interval]);
+				isHit[interval] = true;
+			}
+		}
+	}
+
+	@Test
+	public void testDirectionNumbersFromJoeKuo() {
+		final SobolSequence sobolSequence = new SobolSequence(new StringReader(directionNumbers), 3);
+
+		Assert.assertEquals(3, sobolSequence.getDimension());
+		final double[][] expected = {
+				{ 0.0, 0.5, 0.75, 0.25, 0.375 },
+				{ 0.0, 0.5, 0.25, 0.75, 0.375 },
+				{ 0.0, 0.5, 0.25, 0.75, 0.625 }
+		};
+		for(int j=0; j<expected.length; j++) {
+			for(int i=0; i<expected[j].length; i++) {
+				Assert.assertEquals("Dimension " + j + ", point " + i, expected[j][i], Integer.toUnsignedLong(sobolSequence.getPoint(i, j)) * 0x1.0p-32, 0.0);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDimensionExceedsDirectionNumbers() {
+		new SobolSequence(new StringReader(directionNumbers), 4);
+	}
+}
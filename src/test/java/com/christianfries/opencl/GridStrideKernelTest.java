@@ -0,0 +1,98 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.opencl;
+
+import static org.jocl.CL.CL_MEM_READ_ONLY;
+import static org.jocl.CL.CL_MEM_READ_WRITE;
+import static org.jocl.CL.clReleaseMemObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.jocl.Sizeof;
+import org.jocl.cl_mem;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.christianfries.compute.Backend;
+import com.christianfries.compute.DeviceInfo;
+import com.christianfries.compute.DeviceRegistry;
+import com.christianfries.compute.Expression;
+import com.christianfries.compute.LaunchPolicy.Strategy;
+
+/**
+ * Test cases for the grid-stride kernels launched with {@link ComputeContext#createRange(long)}.
+ *
+ * The tests run on a CPU OpenCL device (e.g. PoCL) and are skipped if no such device is available.
+ *
+ * @author Christian Fries
+ */
+public class GridStrideKernelTest {
+
+	private DeviceInfo device;
+
+	@Before
+	public void selectDevice() {
+		final List<DeviceInfo> devices = DeviceRegistry.getInstance().getDevices(Backend.OPEN_CL).stream()
+				.filter(deviceInfo -> deviceInfo.getDeviceType() == DeviceInfo.DeviceType.CPU).collect(Collectors.toList());
+		Assume.assumeFalse("No CPU OpenCL device.", devices.isEmpty());
+		device = devices.get(0);
+	}
+
+	@Test
+	public void testKernelsOfAllStrategies() throws IOException {
+		final String source = readResource("/SimpleMandelbrot.cl");
+
+		try(ComputeContext computeContext = new ComputeContext(device.getOpenCLDevice());
+				KernelLauncher addScalar = computeContext.createKernel(source, null, "addScalar");
+				KernelLauncher payoff = computeContext.createKernel(Expression.variable("S").sub(Expression.parameter("K")).max(0.0f))) {
+			final long residentThreads = computeContext.getLaunchPolicy().getResidentThreads();
+			final Set<Strategy> strategies = EnumSet.noneOf(Strategy.class);
+			for(final long size : new long[] { 1, 77, residentThreads + 3, 20 * residentThreads + 5 }) {
+				strategies.add(computeContext.getLaunchPolicy().getConfiguration(size).getStrategy());
+
+				final float[] values = new float[(int)size];
+				for(int i=0; i<values.length; i++) values[i] = i % 100;
+
+				final cl_mem a = computeContext.createBuffer(CL_MEM_READ_ONLY, values);
+				final cl_mem result = computeContext.createBuffer(CL_MEM_READ_WRITE, (long)Sizeof.cl_float * size);
+				try {
+					final float[] sum = new float[values.length];
+					addScalar.setArg(0, size).setArg(1, a).setArg(2, 0.5f).setArg(3, result).launch(computeContext.createRange(size));
+					computeContext.read(result, sum);
+
+					final float[] call = new float[values.length];
+					payoff.setArg(0, size).setArg(1, a).setArg(2, 50.0f).setArg(3, result).launch(computeContext.createRange(size));
+					computeContext.read(result, call);
+
+					for(int i=0; i<values.length; i++) {
+						Assert.assertEquals("addScalar, size " + size + ", index " + i, values[i] + 0.5f, sum[i], 0.0f);
+						Assert.assertEquals("payoff, size " + size + ", index " + i, Math.max(values[i] - 50.0f, 0.0f), call[i], 0.0f);
+					}
+				}
+				finally {
+					clReleaseMemObject(a);
+					clReleaseMemObject(result);
+				}
+			}
+			Assert.assertEquals(EnumSet.allOf(Strategy.class), strategies);
+		}
+	}
+
+	private String readResource(final String name) throws IOException {
+		try(BufferedReader reader = new BufferedReader(new InputStreamReader(getClass().getResourceAsStream(name)))) {
+			return reader.lines().collect(Collectors.joining("\n", "", "\n"));
+		}
+	}
+}
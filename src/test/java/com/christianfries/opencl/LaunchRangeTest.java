@@ -0,0 +1,75 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.opencl;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.christianfries.compute.LaunchPolicy;
+import com.christianfries.compute.LaunchPolicy.Strategy;
+
+/**
+ * Test cases for the launch ranges of grid-stride kernels created by com.christianfries.opencl.ComputeContext.
+ *
+ * These tests do not require an OpenCL device: the launch policy is created from given device properties and the
+ * grid-stride loop of the kernels is executed by a Java reference implementation (see {@link GridStrideKernelTest} for the device).
+ *
+ * @author Christian Fries
+ */
+public class LaunchRangeTest {
+
+	@Test
+	public void testLaunchPolicyFromDeviceProperties() {
+		// A CPU: one work group per core, the work group size is limited to 256
+		final LaunchPolicy cpuPolicy = ComputeContext.createLaunchPolicy(8, 4096, false);
+		Assert.assertEquals(256, cpuPolicy.getBlockSize());
+		Assert.assertEquals(8 * 256, cpuPolicy.getResidentThreads());
+
+		// A GPU: 2048 resident work items per compute unit
+		final LaunchPolicy gpuPolicy = ComputeContext.createLaunchPolicy(20, 1024, true);
+		Assert.assertEquals(256, gpuPolicy.getBlockSize());
+		Assert.assertEquals(20 * 2048, gpuPolicy.getResidentThreads());
+
+		// A device with small work groups
+		Assert.assertEquals(64, ComputeContext.createLaunchPolicy(4, 64, false).getBlockSize());
+	}
+
+	@Test
+	public void testGridStrideLoopCoversEachElementOnce() {
+		for(final LaunchPolicy launchPolicy : new LaunchPolicy[] { ComputeContext.createLaunchPolicy(8, 4096, false), ComputeContext.createLaunchPolicy(20, 1024, true) }) {
+			final long residentThreads = launchPolicy.getResidentThreads();
+			final Set<Strategy> strategies = EnumSet.noneOf(Strategy.class);
+			for(final long size : new long[] { 1, 77, residentThreads + 3, 20 * residentThreads + 5 }) {
+				strategies.add(launchPolicy.getConfiguration(size).getStrategy());
+
+				final NDRange range = ComputeContext.createRange(launchPolicy, size);
+				final String message = launchPolicy + ", size " + size;
+				Assert.assertEquals(message, 1, range.getDimensions());
+				final long globalWorkSize = range.getGlobalWorkSize()[0];
+				final long localWorkSize = range.getLocalWorkSize()[0];
+				Assert.assertEquals(message, 0, globalWorkSize % localWorkSize);
+				Assert.assertTrue(message, localWorkSize <= launchPolicy.getBlockSize());
+				Assert.assertTrue(message, globalWorkSize <= Math.max(size + localWorkSize - 1, residentThreads));
+
+				// for(long i = get_global_id(0); i < n; i += get_global_size(0))
+				final int[] visits = new int[(int)size];
+				for(long globalId = 0; globalId < globalWorkSize; globalId++) {
+					for(long i = globalId; i < size; i += globalWorkSize) {
+						visits[(int)i]++;
+					}
+				}
+				for(int i=0; i<visits.length; i++) {
+					Assert.assertEquals(message + ", index " + i, 1, visits[i]);
+				}
+			}
+			Assert.assertEquals(EnumSet.allOf(Strategy.class), strategies);
+		}
+	}
+}
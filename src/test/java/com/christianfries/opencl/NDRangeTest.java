@@ -0,0 +1,52 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.opencl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for the class com.christianfries.opencl.NDRange (these tests do not require an OpenCL device).
+ *
+ * @author Christian Fries
+ */
+public class NDRangeTest {
+
+	@Test
+	public void testDimensionsAndWorkSizes() {
+		final NDRange range1D = NDRange.of(1000);
+		Assert.assertEquals(1, range1D.getDimensions());
+		Assert.assertArrayEquals(new long[] { 1000 }, range1D.getGlobalWorkSize());
+		Assert.assertNull(range1D.getLocalWorkSize());
+
+		final NDRange range2D = NDRange.of(640, 480).withLocalWorkSize(16, 16);
+		Assert.assertEquals(2, range2D.getDimensions());
+		Assert.assertArrayEquals(new long[] { 640, 480 }, range2D.getGlobalWorkSize());
+		Assert.assertArrayEquals(new long[] { 16, 16 }, range2D.getLocalWorkSize());
+
+		final NDRange range3D = NDRange.of(8, 4, 2);
+		Assert.assertEquals(3, range3D.getDimensions());
+		Assert.assertArrayEquals(new long[] { 8, 4, 2 }, range3D.getGlobalWorkSize());
+	}
+
+	@Test
+	public void testWithLocalWorkSizeCreatesACopy() {
+		final long[] localWorkSize = { 64 };
+		final NDRange range = NDRange.of(1024);
+		final NDRange rangeWithLocalWorkSize = range.withLocalWorkSize(localWorkSize);
+		localWorkSize[0] = 32;
+
+		Assert.assertNull(range.getLocalWorkSize());
+		Assert.assertArrayEquals(new long[] { 64 }, rangeWithLocalWorkSize.getLocalWorkSize());
+		Assert.assertSame(range.getGlobalWorkSize(), rangeWithLocalWorkSize.getGlobalWorkSize());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testLocalWorkSizeOfDifferentDimension() {
+		NDRange.of(640, 480).withLocalWorkSize(16);
+	}
+}
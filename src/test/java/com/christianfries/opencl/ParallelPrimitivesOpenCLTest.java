@@ -0,0 +1,71 @@
+/*
+ * (c) Copyright Christian P. Fries, Germany. Contact: email@christian-fries.de.
+ *
+ * Created on 19.10.2026
+ */
+
+package com.christianfries.opencl;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.christianfries.compute.Backend;
+import com.christianfries.compute.DeviceInfo;
+import com.christianfries.compute.DeviceRegistry;
+import com.christianfries.compute.ParallelPrimitives;
+import com.christianfries.compute.ParallelPrimitivesJava;
+
+/**
+ * Test cases for the class com.christianfries.opencl.ParallelPrimitivesOpenCL, validated against {@link ParallelPrimitivesJava}.
+ *
+ * The tests run on a CPU OpenCL device (e.g. PoCL) and are skipped if no such device is available.
+ *
+ * @author Christian Fries
+ */
+public class ParallelPrimitivesOpenCLTest {
+
+	private static final int[] SIZES = { 1, 17, 1000, 100003 };
+
+	private final ParallelPrimitives java = new ParallelPrimitivesJava();
+	private DeviceInfo device;
+
+	@Before
+	public void selectDevice() {
+		final List<DeviceInfo> devices = DeviceRegistry.getInstance().getDevices(Backend.OPEN_CL).stream()
+				.filter(deviceInfo -> deviceInfo.getDeviceType() == DeviceInfo.DeviceType.CPU).collect(Collectors.toList());
+		Assume.assumeFalse("No CPU OpenCL device.", devices.isEmpty());
+		device = devices.get(0);
+	}
+
+	@Test
+	public void testAgainstJava() {
+		final Random random = new Random(3141);
+		try(ComputeContext computeContext = new ComputeContext(device.getOpenCLDevice());
+				ParallelPrimitivesOpenCL openCL = new ParallelPrimitivesOpenCL(computeContext)) {
+			for(final int size : SIZES) {
+				final int[] integers = random.ints(size, -10, 10).toArray();
+				Assert.assertArrayEquals("scan, size " + size, java.exclusiveScan(integers), openCL.exclusiveScan(integers));
+
+				final int[] flags = random.ints(size, -1, 2).toArray();
+				final float[] values = new float[size];
+				for(int i=0; i<size; i++) {
+					values[i] = i % 7 == 0 ? -0.0f : i % 13 == 0 ? Float.NaN : (float)random.nextGaussian();
+				}
+				Assert.assertArrayEquals("compactIndices, size " + size, java.compactIndices(flags), openCL.compactIndices(flags));
+				Assert.assertArrayEquals("compact, size " + size, java.compact(values, flags), openCL.compact(values, flags), 0.0f);
+				Assert.assertArrayEquals("histogram, size " + size, java.histogram(values, -3.0f, 3.0f, 64), openCL.histogram(values, -3.0f, 3.0f, 64));
+
+				final float[] sortedByJava = values.clone();
+				final float[] sortedByOpenCL = values.clone();
+				Assert.assertArrayEquals("sort permutation, size " + size, java.sort(sortedByJava), openCL.sort(sortedByOpenCL));
+				Assert.assertArrayEquals("sort, size " + size, sortedByJava, sortedByOpenCL, 0.0f);
+			}
+		}
+	}
+}